@@ -18,6 +18,7 @@ package io.netty.buffer;
 import io.netty.util.AsciiString;
 import io.netty.util.ByteProcessor;
 import io.netty.util.CharsetUtil;
+import io.netty.util.NetUtil;
 import io.netty.util.Recycler;
 import io.netty.util.Recycler.Handle;
 import io.netty.util.concurrent.FastThreadLocal;
@@ -750,6 +751,30 @@ public final class ByteBufUtil {
         return len;
     }
 
+    /**
+     * Write the <a href="http://en.wikipedia.org/wiki/ASCII">ASCII</a> representation of 4-byte or 16-byte data as
+     * IPv4 or IPv6 address to a {@link ByteBuf}, as returned by {@link NetUtil#bytesToIpAddress(byte[], int, int)},
+     * without creating an intermediate {@link String}.
+     *
+     * This method returns the actual number of bytes written.
+     */
+    public static int writeIpAddress(ByteBuf buf, byte[] address, int offset, int length) {
+        // An IPv6 address has at most 39 characters, an IPv4 address at most 15.
+        final int maxLen = length == 16 ? 39 : 15;
+        buf.ensureWritable(maxLen);
+        final int written;
+        if (buf.hasArray()) {
+            written = NetUtil.writeIpAddress(address, offset, length, buf.array(),
+                                             buf.arrayOffset() + buf.writerIndex());
+        } else {
+            final byte[] tmp = threadLocalTempArray(maxLen);
+            written = NetUtil.writeIpAddress(address, offset, length, tmp, 0);
+            buf.setBytes(buf.writerIndex(), tmp, 0, written);
+        }
+        buf.writerIndex(buf.writerIndex() + written);
+        return written;
+    }
+
     // Fast-Path implementation
     static int writeAscii(AbstractByteBuf buffer, int writerIndex, CharSequence seq, int len) {
 
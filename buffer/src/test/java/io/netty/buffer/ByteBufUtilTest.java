@@ -208,6 +208,27 @@ public class ByteBufUtilTest {
         buf2.release();
     }
 
+    @Test
+    public void testWriteIpAddress() {
+        testWriteIpAddress(Unpooled.buffer(4));
+        testWriteIpAddress(Unpooled.directBuffer(4));
+    }
+
+    private static void testWriteIpAddress(ByteBuf buf) {
+        buf.writeByte('[');
+        assertEquals(8, ByteBufUtil.writeIpAddress(buf, new byte[] { 10, 0, 0, 1 }, 0, 4));
+        buf.writeByte(']');
+        byte[] ipv6 = new byte[18];
+        ipv6[2] = 0x20;
+        ipv6[3] = 0x01;
+        ipv6[4] = 0x0d;
+        ipv6[5] = (byte) 0xb8;
+        ipv6[17] = 1;
+        assertEquals(11, ByteBufUtil.writeIpAddress(buf, ipv6, 2, 16));
+        assertEquals("[10.0.0.1]2001:db8::1", buf.toString(CharsetUtil.US_ASCII));
+        buf.release();
+    }
+
     @Test
     public void testWriteUsAsciiSwapped() {
         String usAscii = "NettyRocks";
@@ -468,6 +468,16 @@ abstract class AbstractHttp2StreamChannel extends DefaultAttributeMap implements
         return pipeline().writeAndFlush(msg);
     }
 
+    @Override
+    public void writeVoid(Object msg) {
+        pipeline().writeVoid(msg);
+    }
+
+    @Override
+    public void writeAndFlushVoid(Object msg) {
+        pipeline().writeAndFlushVoid(msg);
+    }
+
     @Override
     public ChannelPromise newPromise() {
         return pipeline().newPromise();
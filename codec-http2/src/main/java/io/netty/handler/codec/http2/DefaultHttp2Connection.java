@@ -18,6 +18,8 @@ package io.netty.handler.codec.http2;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http2.Http2Stream.State;
+import io.netty.util.collection.IntIntHashMap;
+import io.netty.util.collection.IntIntMap;
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.IntObjectMap;
 import io.netty.util.collection.IntObjectMap.PrimitiveEntry;
@@ -33,7 +35,6 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Queue;
 import java.util.Set;
@@ -923,11 +924,18 @@ public class DefaultHttp2Connection implements Http2Connection {
     /**
      * Manages the list of currently active streams.  Queues any {@link Event}s that would modify the list of
      * active streams in order to prevent modification while iterating.
+     * <p>
+     * The active streams are kept in activation order as a doubly linked list of stream IDs, which are all greater
+     * than {@link Http2CodecUtil#CONNECTION_STREAM_ID}. {@code 0} marks the end of the list, so activating and
+     * deactivating a stream does not allocate any entry objects.
      */
     private final class ActiveStreams {
         private final List<Listener> listeners;
         private final Queue<Event> pendingEvents = new ArrayDeque<Event>(4);
-        private final Set<Http2Stream> streams = new LinkedHashSet<Http2Stream>();
+        private final IntIntMap nextIds = new IntIntHashMap();
+        private final IntIntMap prevIds = new IntIntHashMap();
+        private int headId;
+        private int tailId;
         private int pendingIterations;
 
         ActiveStreams(List<Listener> listeners) {
@@ -935,7 +943,7 @@ public class DefaultHttp2Connection implements Http2Connection {
         }
 
         public int size() {
-            return streams.size();
+            return nextIds.size();
         }
 
         public void activate(final DefaultStream stream) {
@@ -967,7 +975,8 @@ public class DefaultHttp2Connection implements Http2Connection {
         public Http2Stream forEachActiveStream(Http2StreamVisitor visitor) throws Http2Exception {
             incrementPendingIterations();
             try {
-                for (Http2Stream stream : streams) {
+                for (int id = headId; id != CONNECTION_STREAM_ID; id = nextIds.get(id)) {
+                    Http2Stream stream = streamMap.get(id);
                     if (!visitor.visit(stream)) {
                         return stream;
                     }
@@ -979,7 +988,7 @@ public class DefaultHttp2Connection implements Http2Connection {
         }
 
         void addToActiveStreams(DefaultStream stream) {
-            if (streams.add(stream)) {
+            if (add(stream.id())) {
                 // Update the number of active streams initiated by the endpoint.
                 stream.createdBy().numActiveStreams++;
 
@@ -994,7 +1003,7 @@ public class DefaultHttp2Connection implements Http2Connection {
         }
 
         void removeFromActiveStreams(DefaultStream stream, Iterator<?> itr) {
-            if (streams.remove(stream)) {
+            if (remove(stream.id())) {
                 // Update the number of active streams initiated by the endpoint.
                 stream.createdBy().numActiveStreams--;
                 notifyClosed(stream);
@@ -1002,6 +1011,40 @@ public class DefaultHttp2Connection implements Http2Connection {
             removeStream(stream, itr);
         }
 
+        private boolean add(int id) {
+            if (nextIds.containsKey(id)) {
+                return false;
+            }
+            nextIds.put(id, CONNECTION_STREAM_ID);
+            prevIds.put(id, tailId);
+            if (tailId == CONNECTION_STREAM_ID) {
+                headId = id;
+            } else {
+                nextIds.put(tailId, id);
+            }
+            tailId = id;
+            return true;
+        }
+
+        private boolean remove(int id) {
+            if (!nextIds.containsKey(id)) {
+                return false;
+            }
+            int nextId = nextIds.remove(id);
+            int prevId = prevIds.remove(id);
+            if (prevId == CONNECTION_STREAM_ID) {
+                headId = nextId;
+            } else {
+                nextIds.put(prevId, nextId);
+            }
+            if (nextId == CONNECTION_STREAM_ID) {
+                tailId = prevId;
+            } else {
+                prevIds.put(nextId, prevId);
+            }
+            return true;
+        }
+
         boolean allowModifications() {
             return pendingIterations == 0;
         }
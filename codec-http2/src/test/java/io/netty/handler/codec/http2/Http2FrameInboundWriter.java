@@ -312,6 +312,16 @@ final class Http2FrameInboundWriter {
             return writeAndFlush(msg, newPromise());
         }
 
+        @Override
+        public void writeVoid(Object msg) {
+            write(msg, voidPromise());
+        }
+
+        @Override
+        public void writeAndFlushVoid(Object msg) {
+            writeAndFlush(msg, voidPromise());
+        }
+
         @Override
         public ChannelPromise newPromise() {
             return channel.newPromise();
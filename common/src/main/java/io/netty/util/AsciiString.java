@@ -47,6 +47,15 @@ public final class AsciiString implements CharSequence, Comparable<CharSequence>
     public static final AsciiString EMPTY_STRING = cached("");
     private static final char MAX_CHAR_VALUE = 255;
 
+    // Word-at-a-time (SWAR) processing needs fast unaligned 8-byte loads from byte arrays.
+    private static final boolean SWAR_ENABLED = PlatformDependent.hasUnsafe() && PlatformDependent.isUnaligned();
+    private static final long SWAR_ONES = 0x0101010101010101L;
+    private static final long SWAR_LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long SWAR_HIGH_BITS = 0x8080808080808080L;
+    // Added to the low 7 bits of each byte to set its high bit if the byte is >= 'A' or > 'Z' respectively.
+    private static final long SWAR_GE_A = 0x3F3F3F3F3F3F3F3FL;
+    private static final long SWAR_GT_Z = 0x2525252525252525L;
+
     public static final int INDEX_NOT_FOUND = -1;
 
     /**
@@ -532,12 +541,7 @@ public final class AsciiString implements CharSequence, Comparable<CharSequence>
 
         if (string instanceof AsciiString) {
             AsciiString rhs = (AsciiString) string;
-            for (int i = arrayOffset(), j = rhs.arrayOffset(), end = i + length(); i < end; ++i, ++j) {
-                if (!equalsIgnoreCase(value[i], rhs.value[j])) {
-                    return false;
-                }
-            }
-            return true;
+            return equalsIgnoreCase(value, arrayOffset(), rhs.value, rhs.arrayOffset(), length());
         }
 
         for (int i = arrayOffset(), j = 0, end = length(); j < end; ++i, ++j) {
@@ -694,14 +698,16 @@ public final class AsciiString implements CharSequence, Comparable<CharSequence>
         final byte firstCharAsByte = c2b0(firstChar);
         final int len = offset + length - subCount;
         for (int i = start + offset; i <= len; ++i) {
-            if (value[i] == firstCharAsByte) {
-                int o1 = i, o2 = 0;
-                while (++o2 < subCount && b2c(value[++o1]) == subString.charAt(o2)) {
-                    // Intentionally empty
-                }
-                if (o2 == subCount) {
-                    return i - offset;
-                }
+            i = indexOf(value, firstCharAsByte, i, len + 1);
+            if (i < 0) {
+                break;
+            }
+            int o1 = i, o2 = 0;
+            while (++o2 < subCount && b2c(value[++o1]) == subString.charAt(o2)) {
+                // Intentionally empty
+            }
+            if (o2 == subCount) {
+                return i - offset;
             }
         }
         return INDEX_NOT_FOUND;
@@ -725,14 +731,34 @@ public final class AsciiString implements CharSequence, Comparable<CharSequence>
             start = 0;
         }
 
-        final byte chAsByte = c2b0(ch);
-        final int len = offset + length;
-        for (int i = start + offset; i < len; ++i) {
-            if (value[i] == chAsByte) {
-                return i - offset;
+        if (start >= length) {
+            return INDEX_NOT_FOUND;
+        }
+        final int index = indexOf(value, c2b0(ch), start + offset, offset + length);
+        return index < 0 ? INDEX_NOT_FOUND : index - offset;
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code b} in {@code bytes} between {@code fromIndex} (inclusive)
+     * and {@code toIndex} (exclusive), or {@code -1} if there is none.
+     */
+    private static int indexOf(byte[] bytes, byte b, int fromIndex, int toIndex) {
+        int i = fromIndex;
+        if (SWAR_ENABLED) {
+            final long pattern = (b & 0xFFL) * SWAR_ONES;
+            for (; i <= toIndex - 8; i += 8) {
+                long mask = zeroBytesSwar(PlatformDependent.getLong(bytes, i) ^ pattern);
+                if (mask != 0) {
+                    return i + firstByteSwar(mask);
+                }
             }
         }
-        return INDEX_NOT_FOUND;
+        for (; i < toIndex; ++i) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -856,6 +882,10 @@ public final class AsciiString implements CharSequence, Comparable<CharSequence>
         }
 
         thisStart += arrayOffset();
+        if (string instanceof AsciiString) {
+            AsciiString rhs = (AsciiString) string;
+            return equalsIgnoreCase(value, thisStart, rhs.value, rhs.arrayOffset() + start, length);
+        }
         final int thisEnd = thisStart + length;
         while (thisStart < thisEnd) {
             if (!equalsIgnoreCase(b2c(value[thisStart++]), string.charAt(start++))) {
@@ -1824,6 +1854,53 @@ public final class AsciiString implements CharSequence, Comparable<CharSequence>
         return a == b || toLowerCase(a) == toLowerCase(b);
     }
 
+    private static boolean equalsIgnoreCase(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        int i = 0;
+        if (SWAR_ENABLED) {
+            for (; i <= length - 8; i += 8) {
+                long aWord = PlatformDependent.getLong(a, aOffset + i);
+                long bWord = PlatformDependent.getLong(b, bOffset + i);
+                if (aWord != bWord && toLowerCaseSwar(aWord) != toLowerCaseSwar(bWord)) {
+                    return false;
+                }
+            }
+        }
+        for (; i < length; ++i) {
+            if (!equalsIgnoreCase(a[aOffset + i], b[bOffset + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts all ASCII upper case bytes of the given word to lower case, without branching per byte.
+     */
+    private static long toLowerCaseSwar(long word) {
+        // Only use the low 7 bits so the additions can not carry into the next byte.
+        final long lowBits = word & SWAR_LOW_BITS;
+        // High bit set for every byte in ['A', 'Z'] that had its high bit cleared before.
+        final long upperCase = (lowBits + SWAR_GE_A) & ~(lowBits + SWAR_GT_Z) & ~word & SWAR_HIGH_BITS;
+        // 0x80 >>> 2 == 0x20 which is the difference between upper and lower case.
+        return word | upperCase >>> 2;
+    }
+
+    /**
+     * Returns a word which has the high bit set for every byte of {@code word} which is zero and all other bits
+     * cleared.
+     */
+    private static long zeroBytesSwar(long word) {
+        return ~((word & SWAR_LOW_BITS) + SWAR_LOW_BITS | word | SWAR_LOW_BITS);
+    }
+
+    /**
+     * Returns the index of the first byte in memory order which has its high bit set in {@code mask}.
+     */
+    private static int firstByteSwar(long mask) {
+        return (PlatformDependent.BIG_ENDIAN_NATIVE_ORDER ?
+                Long.numberOfLeadingZeros(mask) : Long.numberOfTrailingZeros(mask)) >>> 3;
+    }
+
     private static boolean equalsIgnoreCase(char a, char b) {
         return a == b || toLowerCase(a) == toLowerCase(b);
     }
@@ -95,7 +95,8 @@ public class DomainNameMapping<V> implements Mapping<String, V> {
      */
     static boolean matches(String template, String hostName) {
         if (template.startsWith("*.")) {
-            return template.regionMatches(2, hostName, 0, hostName.length())
+            return template.length() - 2 == hostName.length() &&
+                   template.regionMatches(2, hostName, 0, hostName.length())
                 || commonSuffixOfLength(hostName, template, template.length() - 1);
         }
         return template.equals(hostName);
@@ -111,7 +112,7 @@ public class DomainNameMapping<V> implements Mapping<String, V> {
         return hostname.toLowerCase(Locale.US);
     }
 
-    private static boolean needsNormalization(String hostname) {
+    static boolean needsNormalization(String hostname) {
         final int length = hostname.length();
         for (int i = 0; i < length; i++) {
             int c = hostname.charAt(i);
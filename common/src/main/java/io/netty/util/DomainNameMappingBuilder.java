@@ -85,6 +85,7 @@ public final class DomainNameMappingBuilder<V> {
     /**
      * Immutable mapping from domain name pattern to its associated value object.
      * Mapping is represented by two arrays: keys and values. Key domainNamePatterns[i] is associated with values[i].
+     * Lookups are done via a {@link DomainNameTrie} built from these arrays.
      *
      * @param <V> concrete type of value objects
      */
@@ -97,6 +98,7 @@ public final class DomainNameMappingBuilder<V> {
 
         private final String[] domainNamePatterns;
         private final V[] values;
+        private final DomainNameTrie<V> trie = new DomainNameTrie<V>();
         private final Map<String, V> map;
 
         @SuppressWarnings("unchecked")
@@ -115,6 +117,7 @@ public final class DomainNameMappingBuilder<V> {
                 final V value = mapping.getValue();
                 domainNamePatterns[index] = hostname;
                 values[index] = value;
+                trie.add(hostname, value);
                 mapCopy.put(hostname, value);
                 ++index;
             }
@@ -132,13 +135,13 @@ public final class DomainNameMappingBuilder<V> {
         @Override
         public V map(String hostname) {
             if (hostname != null) {
-                hostname = normalizeHostname(hostname);
-
-                int length = domainNamePatterns.length;
-                for (int index = 0; index < length; ++index) {
-                    if (matches(domainNamePatterns[index], hostname)) {
-                        return values[index];
-                    }
+                // The trie compares ASCII case-insensitively, so only IDNs need to be converted.
+                if (needsNormalization(hostname)) {
+                    hostname = normalizeHostname(hostname);
+                }
+                V value = trie.find(hostname);
+                if (value != null) {
+                    return value;
                 }
             }
 
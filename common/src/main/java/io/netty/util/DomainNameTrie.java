@@ -0,0 +1,187 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util;
+
+/**
+ * Trie of domain name patterns keyed by their labels in reverse order, so {@code downloads.netty.io} is stored as
+ * {@code io -> netty -> downloads}. A lookup walks the labels of the hostname from right to left and therefore needs
+ * {@code O(labels)} steps regardless of the number of patterns.
+ * <p>
+ * Patterns follow the rules of {@link DomainNameMapping#matches(String, String)}: a wildcard pattern
+ * {@code *.netty.io} matches {@code netty.io} and every name ending with {@code .netty.io}, while any other
+ * pattern must match exactly. If several patterns match, the one that was added first wins.
+ * <p>
+ * Patterns must be normalized via {@link DomainNameMapping#normalizeHostname(String)} before they are added.
+ * Lookups compare ASCII characters case-insensitively, so an ASCII hostname does not need to be lower-cased first
+ * and no substring is created while walking the labels.
+ */
+final class DomainNameTrie<V> {
+
+    private final Node<V> root = new Node<V>();
+    private int size;
+
+    /**
+     * Adds the given normalized pattern. If the same pattern was added before the old value is kept.
+     */
+    void add(String pattern, V value) {
+        final boolean wildcard = pattern.startsWith("*.");
+        final String name = wildcard ? pattern.substring(2) : pattern;
+        Node<V> node = root;
+        int end = name.length();
+        for (;;) {
+            int start = name.lastIndexOf('.', end - 1) + 1;
+            node = node.getOrAddChild(name.substring(start, end));
+            if (start == 0) {
+                break;
+            }
+            end = start - 1;
+        }
+        final int index = size++;
+        if (wildcard) {
+            if (node.wildcardIndex < 0) {
+                node.wildcardIndex = index;
+                node.wildcardValue = value;
+            }
+        } else if (node.exactIndex < 0) {
+            node.exactIndex = index;
+            node.exactValue = value;
+        }
+    }
+
+    /**
+     * Returns the value of the first added pattern that matches the given ASCII hostname or {@code null} if none
+     * matches.
+     */
+    V find(String hostname) {
+        Node<V> node = root;
+        int bestIndex = Integer.MAX_VALUE;
+        V bestValue = null;
+        int end = hostname.length();
+        for (;;) {
+            int start = hostname.lastIndexOf('.', end - 1) + 1;
+            node = node.child(hostname, start, end);
+            if (node == null) {
+                break;
+            }
+            // The hostname is either equal to the suffix of this node or ends with '.' + suffix.
+            if (node.wildcardIndex >= 0 && node.wildcardIndex < bestIndex) {
+                bestIndex = node.wildcardIndex;
+                bestValue = node.wildcardValue;
+            }
+            if (start == 0) {
+                if (node.exactIndex >= 0 && node.exactIndex < bestIndex) {
+                    bestValue = node.exactValue;
+                }
+                break;
+            }
+            end = start - 1;
+        }
+        return bestValue;
+    }
+
+    private static int labelHashCode(String s, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + toLowerCase(s.charAt(i));
+        }
+        // Spread the bits as the table uses the lower bits only.
+        return hash ^ hash >>> 16;
+    }
+
+    private static boolean labelEquals(String label, String s, int start, int end) {
+        if (label.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < label.length(); i++) {
+            if (label.charAt(i) != toLowerCase(s.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+    }
+
+    private static final class Node<V> {
+        // Open addressing hash table of the child nodes keyed by label, created lazily.
+        private String[] labels;
+        private Node<V>[] children;
+        private int childCount;
+
+        int exactIndex = -1;
+        V exactValue;
+        int wildcardIndex = -1;
+        V wildcardValue;
+
+        Node<V> child(String s, int start, int end) {
+            final String[] labels = this.labels;
+            if (labels == null) {
+                return null;
+            }
+            final int mask = labels.length - 1;
+            for (int i = labelHashCode(s, start, end) & mask;; i = i + 1 & mask) {
+                String label = labels[i];
+                if (label == null) {
+                    return null;
+                }
+                if (labelEquals(label, s, start, end)) {
+                    return children[i];
+                }
+            }
+        }
+
+        Node<V> getOrAddChild(String label) {
+            Node<V> child = child(label, 0, label.length());
+            if (child == null) {
+                if (labels == null) {
+                    init(2);
+                } else if (childCount + 1 > labels.length >>> 1) {
+                    // Keep the load factor at 0.5 at most, so lookups of missing labels terminate quickly.
+                    String[] oldLabels = labels;
+                    Node<V>[] oldChildren = children;
+                    init(oldLabels.length << 1);
+                    for (int i = 0; i < oldLabels.length; i++) {
+                        if (oldLabels[i] != null) {
+                            put(oldLabels[i], oldChildren[i]);
+                        }
+                    }
+                }
+                child = new Node<V>();
+                put(label, child);
+                childCount++;
+            }
+            return child;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void init(int capacity) {
+            labels = new String[capacity];
+            children = new Node[capacity];
+        }
+
+        private void put(String label, Node<V> child) {
+            final int mask = labels.length - 1;
+            int i = labelHashCode(label, 0, label.length()) & mask;
+            while (labels[i] != null) {
+                i = i + 1 & mask;
+            }
+            labels[i] = label;
+            children[i] = child;
+        }
+    }
+}
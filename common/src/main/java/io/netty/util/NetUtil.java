@@ -38,10 +38,12 @@ import java.net.UnknownHostException;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.List;
 
 import static io.netty.util.AsciiString.indexOf;
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
 
 /**
  * A class that holds a number of network-related constants.
@@ -89,6 +91,18 @@ public final class NetUtil {
      */
     private static final int IPV6_MAX_CHAR_COUNT = 39;
 
+    /**
+     * The maximum number of characters for an IPV4 string
+     */
+    private static final int IPV4_MAX_CHAR_COUNT = 15;
+
+    /**
+     * Lower-case hexadecimal digits used to format IPv6 words.
+     */
+    private static final byte[] HEX_DIGITS = {
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
     /**
      * Number of bytes needed to represent and IPV6 value
      */
@@ -370,18 +384,88 @@ public final class NetUtil {
         }
 
         if (isValidIpV6Address(ipAddressString)) {
-            if (ipAddressString.charAt(0) == '[') {
-                ipAddressString = ipAddressString.substring(1, ipAddressString.length() - 1);
+            final byte[] bytes = new byte[IPV6_BYTE_COUNT];
+            return validIpV6ToBytes(ipAddressString, bytes) ? bytes : null;
+        }
+        return null;
+    }
+
+    /**
+     * Parses an IPv4 address in dotted notation without creating any intermediate objects.
+     *
+     * @return the address as unsigned 32-bit value in network byte order or {@code -1} if {@code ip} is not a valid
+     *         IPv4 address.
+     */
+    public static long parseIpV4Address(CharSequence ip) {
+        if (!isValidIpV4Address(ip)) {
+            return -1;
+        }
+        int address = 0;
+        int word = 0;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c == '.') {
+                address = address << 8 | word;
+                word = 0;
+            } else {
+                word = word * 10 + c - '0';
             }
+        }
+        return (address << 8 | word) & 0xFFFFFFFFL;
+    }
 
-            int percentPos = ipAddressString.indexOf('%');
-            if (percentPos >= 0) {
-                ipAddressString = ipAddressString.substring(0, percentPos);
+    /**
+     * Parses an IPv4 or IPv6 address into the given array without creating any intermediate objects, so the same
+     * array can be reused for many calls. The accepted formats are the same as for
+     * {@link #createByteArrayFromIpAddressString(String)}: IPv6 addresses may be enclosed in brackets and carry a
+     * scope id, which is ignored.
+     *
+     * @param ip the address to parse
+     * @param dst the array to store the address in, which must have a length of at least {@code 16}
+     * @return {@code 4} if an IPv4 address was written, {@code 16} if an IPv6 address was written or {@code 0} if
+     *         {@code ip} is not a valid IP address.
+     */
+    public static int parseIpAddress(CharSequence ip, byte[] dst) {
+        checkNotNull(ip, "ip");
+        if (checkNotNull(dst, "dst").length < IPV6_BYTE_COUNT) {
+            throw new IllegalArgumentException("dst.length: " + dst.length + " (expected: >= " +
+                    IPV6_BYTE_COUNT + ')');
+        }
+        long ipV4 = parseIpV4Address(ip);
+        if (ipV4 >= 0) {
+            dst[0] = (byte) (ipV4 >>> 24);
+            dst[1] = (byte) (ipV4 >>> 16);
+            dst[2] = (byte) (ipV4 >>> 8);
+            dst[3] = (byte) ipV4;
+            return 4;
+        }
+        if (isValidIpV6Address(ip)) {
+            Arrays.fill(dst, 0, IPV6_BYTE_COUNT, (byte) 0);
+            if (validIpV6ToBytes(ip, dst)) {
+                return IPV6_BYTE_COUNT;
             }
+        }
+        return 0;
+    }
 
-            return getIPv6ByName(ipAddressString, true);
+    /**
+     * Parses an address accepted by {@link #isValidIpV6Address(CharSequence)} into the zero-filled {@code bytes},
+     * skipping the enclosing brackets and the scope id without creating a substring.
+     */
+    private static boolean validIpV6ToBytes(CharSequence ip, byte[] bytes) {
+        int start = 0;
+        int end = ip.length();
+        if (ip.charAt(0) == '[') {
+            start++;
+            end--;
         }
-        return null;
+        for (int i = start; i < end; i++) {
+            if (ip.charAt(i) == '%') {
+                end = i;
+                break;
+            }
+        }
+        return getIPv6ByName(ip, start, end, true, bytes);
     }
 
     private static int decimalDigit(String str, int pos) {
@@ -417,15 +501,15 @@ public final class NetUtil {
      * Converts a 32-bit integer into an IPv4 address.
      */
     public static String intToIpAddress(int i) {
-        StringBuilder buf = new StringBuilder(15);
-        buf.append(i >> 24 & 0xff);
-        buf.append('.');
-        buf.append(i >> 16 & 0xff);
-        buf.append('.');
-        buf.append(i >> 8 & 0xff);
-        buf.append('.');
-        buf.append(i & 0xff);
-        return buf.toString();
+        final byte[] buf = new byte[IPV4_MAX_CHAR_COUNT];
+        int index = writeDecimal(i >> 24 & 0xff, buf, 0);
+        buf[index++] = '.';
+        index = writeDecimal(i >> 16 & 0xff, buf, index);
+        buf[index++] = '.';
+        index = writeDecimal(i >> 8 & 0xff, buf, index);
+        buf[index++] = '.';
+        index = writeDecimal(i & 0xff, buf, index);
+        return new String(buf, 0, index, CharsetUtil.US_ASCII);
     }
 
     /**
@@ -447,14 +531,8 @@ public final class NetUtil {
     public static String bytesToIpAddress(byte[] bytes, int offset, int length) {
         switch (length) {
             case 4: {
-                return new StringBuilder(15)
-                        .append(bytes[offset] & 0xff)
-                        .append('.')
-                        .append(bytes[offset + 1] & 0xff)
-                        .append('.')
-                        .append(bytes[offset + 2] & 0xff)
-                        .append('.')
-                        .append(bytes[offset + 3] & 0xff).toString();
+                final byte[] buf = new byte[IPV4_MAX_CHAR_COUNT];
+                return new String(buf, 0, writeIpV4Address(bytes, offset, buf, 0), CharsetUtil.US_ASCII);
             }
             case 16:
                 return toAddressString(bytes, offset, false);
@@ -463,6 +541,76 @@ public final class NetUtil {
         }
     }
 
+    /**
+     * Converts 4-byte or 16-byte data into an IPv4 or IPv6 {@link AsciiString} respectively. The result is the same
+     * as for {@link #bytesToIpAddress(byte[], int, int)}, but no intermediate {@link String} is created.
+     *
+     * @throws IllegalArgumentException
+     *         if {@code length} is not {@code 4} nor {@code 16}
+     */
+    public static AsciiString bytesToAsciiIpAddress(byte[] bytes, int offset, int length) {
+        final byte[] buf = new byte[length == 4 ? IPV4_MAX_CHAR_COUNT : IPV6_MAX_CHAR_COUNT];
+        return new AsciiString(buf, 0, writeIpAddress(bytes, offset, length, buf, 0), false);
+    }
+
+    /**
+     * Writes the US-ASCII representation of 4-byte or 16-byte data as IPv4 or IPv6 address into {@code dst}. The
+     * written characters are the same as the ones returned by {@link #bytesToIpAddress(byte[], int, int)}.
+     * {@code dst} must have room for {@code 15} bytes for an IPv4 address and {@code 39} bytes for an IPv6 address.
+     *
+     * @return the number of bytes written
+     * @throws IllegalArgumentException
+     *         if {@code length} is not {@code 4} nor {@code 16}
+     */
+    public static int writeIpAddress(byte[] bytes, int offset, int length, byte[] dst, int dstOffset) {
+        switch (length) {
+            case 4:
+                return writeIpV4Address(bytes, offset, dst, dstOffset) - dstOffset;
+            case 16:
+                return writeIpV6Address(bytes, offset, false, dst, dstOffset) - dstOffset;
+            default:
+                throw new IllegalArgumentException("length: " + length + " (expected: 4 or 16)");
+        }
+    }
+
+    private static int writeIpV4Address(byte[] bytes, int offset, byte[] dst, int index) {
+        index = writeDecimal(bytes[offset] & 0xff, dst, index);
+        dst[index++] = '.';
+        index = writeDecimal(bytes[offset + 1] & 0xff, dst, index);
+        dst[index++] = '.';
+        index = writeDecimal(bytes[offset + 2] & 0xff, dst, index);
+        dst[index++] = '.';
+        return writeDecimal(bytes[offset + 3] & 0xff, dst, index);
+    }
+
+    /**
+     * Writes {@code value}, which must be in the range {@code [0, 255]}, as decimal number and returns the index after
+     * the last written byte.
+     */
+    private static int writeDecimal(int value, byte[] dst, int index) {
+        if (value >= 100) {
+            dst[index++] = (byte) ('0' + value / 100);
+            value %= 100;
+            dst[index++] = (byte) ('0' + value / 10);
+        } else if (value >= 10) {
+            dst[index++] = (byte) ('0' + value / 10);
+        }
+        dst[index++] = (byte) ('0' + value % 10);
+        return index;
+    }
+
+    /**
+     * Writes {@code word} as hexadecimal number without leading zeros and returns the index after the last written
+     * byte.
+     */
+    private static int writeHexWord(int word, byte[] dst, int index) {
+        int shift = word > 0xfff ? 12 : word > 0xff ? 8 : word > 0xf ? 4 : 0;
+        for (; shift >= 0; shift -= 4) {
+            dst[index++] = HEX_DIGITS[word >>> shift & 0xf];
+        }
+        return index;
+    }
+
     public static boolean isValidIpV6Address(String ip) {
         return isValidIpV6Address((CharSequence) ip);
     }
@@ -740,7 +888,17 @@ public final class NetUtil {
      */
     private static byte[] getIPv6ByName(CharSequence ip, boolean ipv4Mapped) {
         final byte[] bytes = new byte[IPV6_BYTE_COUNT];
-        final int ipLength = ip.length();
+        return getIPv6ByName(ip, 0, ip.length(), ipv4Mapped, bytes) ? bytes : null;
+    }
+
+    /**
+     * Parses the IPv6 address in {@code ip} between {@code ipStart} (inclusive) and {@code ipEnd} (exclusive) into
+     * {@code bytes}, which must be zero-filled and have room for at least {@code 16} bytes.
+     *
+     * @return {@code true} if the region holds a valid IP address, {@code false} otherwise.
+     */
+    private static boolean getIPv6ByName(CharSequence ip, int ipStart, int ipEnd, boolean ipv4Mapped, byte[] bytes) {
+        final int ipLength = ipEnd - ipStart;
         int compressBegin = 0;
         int compressLength = 0;
         int currentIndex = 0;
@@ -752,14 +910,14 @@ public final class NetUtil {
         int tmp;
         boolean needsShift = false;
         for (; i < ipLength; ++i) {
-            final char c = ip.charAt(i);
+            final char c = ip.charAt(ipStart + i);
             switch (c) {
             case ':':
                 ++ipv6Separators;
                 if (i - begin > IPV6_MAX_CHAR_BETWEEN_SEPARATOR ||
                         ipv4Separators > 0 || ipv6Separators > IPV6_MAX_SEPARATORS ||
-                        currentIndex + 1 >= bytes.length) {
-                    return null;
+                        currentIndex + 1 >= IPV6_BYTE_COUNT) {
+                    return false;
                 }
                 value <<= (IPV6_MAX_CHAR_BETWEEN_SEPARATOR - (i - begin)) << 2;
 
@@ -773,15 +931,15 @@ public final class NetUtil {
                 bytes[currentIndex++] = (byte) (((value & 0xf) << 4) | ((value >> 4) & 0xf));
                 bytes[currentIndex++] = (byte) ((((value >> 8) & 0xf) << 4) | ((value >> 12) & 0xf));
                 tmp = i + 1;
-                if (tmp < ipLength && ip.charAt(tmp) == ':') {
+                if (tmp < ipLength && ip.charAt(ipStart + tmp) == ':') {
                     ++tmp;
-                    if (compressBegin != 0 || (tmp < ipLength && ip.charAt(tmp) == ':')) {
-                        return null;
+                    if (compressBegin != 0 || (tmp < ipLength && ip.charAt(ipStart + tmp) == ':')) {
+                        return false;
                     }
                     ++ipv6Separators;
                     needsShift = ipv6Separators == 2 && value == 0;
                     compressBegin = currentIndex;
-                    compressLength = bytes.length - compressBegin - 2;
+                    compressLength = IPV6_BYTE_COUNT - compressBegin - 2;
                     ++i;
                 }
                 value = 0;
@@ -795,18 +953,18 @@ public final class NetUtil {
                         || ipv4Separators > IPV4_SEPARATORS
                         || (ipv6Separators > 0 && (currentIndex + compressLength < 12))
                         || i + 1 >= ipLength
-                        || currentIndex >= bytes.length
+                        || currentIndex >= IPV6_BYTE_COUNT
                         || ipv4Separators == 1 &&
                             // We also parse pure IPv4 addresses as IPv4-Mapped for ease of use.
                             ((!ipv4Mapped || currentIndex != 0 && !isValidIPv4Mapped(bytes, currentIndex,
                                                                                      compressBegin, compressLength)) ||
-                                (tmp == 3 && (!isValidNumericChar(ip.charAt(i - 1)) ||
-                                              !isValidNumericChar(ip.charAt(i - 2)) ||
-                                              !isValidNumericChar(ip.charAt(i - 3))) ||
-                                 tmp == 2 && (!isValidNumericChar(ip.charAt(i - 1)) ||
-                                              !isValidNumericChar(ip.charAt(i - 2))) ||
-                                 tmp == 1 && !isValidNumericChar(ip.charAt(i - 1))))) {
-                    return null;
+                                (tmp == 3 && (!isValidNumericChar(ip.charAt(ipStart + i - 1)) ||
+                                              !isValidNumericChar(ip.charAt(ipStart + i - 2)) ||
+                                              !isValidNumericChar(ip.charAt(ipStart + i - 3))) ||
+                                 tmp == 2 && (!isValidNumericChar(ip.charAt(ipStart + i - 1)) ||
+                                              !isValidNumericChar(ip.charAt(ipStart + i - 2))) ||
+                                 tmp == 1 && !isValidNumericChar(ip.charAt(ipStart + i - 1))))) {
+                    return false;
                 }
                 value <<= (IPV4_MAX_CHAR_BETWEEN_SEPARATOR - tmp) << 2;
 
@@ -815,7 +973,7 @@ public final class NetUtil {
                 // right (least significant) while also accounting for each IPv4 digit is base 10.
                 begin = (value & 0xf) * 100 + ((value >> 4) & 0xf) * 10 + ((value >> 8) & 0xf);
                 if (begin < 0 || begin > 255) {
-                    return null;
+                    return false;
                 }
                 bytes[currentIndex++] = (byte) begin;
                 value = 0;
@@ -823,12 +981,12 @@ public final class NetUtil {
                 break;
             default:
                 if (!isValidHexChar(c) || (ipv4Separators > 0 && !isValidNumericChar(c))) {
-                    return null;
+                    return false;
                 }
                 if (begin < 0) {
                     begin = i;
                 } else if (i - begin > IPV6_MAX_CHAR_BETWEEN_SEPARATOR) {
-                    return null;
+                    return false;
                 }
                 // The value is treated as a sort of array of numbers because we are dealing with
                 // at most 4 consecutive bytes we can use bit shifting to accomplish this.
@@ -844,18 +1002,18 @@ public final class NetUtil {
         if (ipv4Separators > 0) {
             if (begin > 0 && i - begin > IPV4_MAX_CHAR_BETWEEN_SEPARATOR ||
                     ipv4Separators != IPV4_SEPARATORS ||
-                    currentIndex >= bytes.length) {
-                return null;
+                    currentIndex >= IPV6_BYTE_COUNT) {
+                return false;
             }
             if (ipv6Separators == 0) {
                 compressLength = 12;
             } else if (ipv6Separators >= IPV6_MIN_SEPARATORS &&
-                           (!isCompressed && (ipv6Separators == 6 && ip.charAt(0) != ':') ||
+                           (!isCompressed && (ipv6Separators == 6 && ip.charAt(ipStart + 0) != ':') ||
                             isCompressed && (ipv6Separators < IPV6_MAX_SEPARATORS &&
-                                             (ip.charAt(0) != ':' || compressBegin <= 2)))) {
+                                             (ip.charAt(ipStart + 0) != ':' || compressBegin <= 2)))) {
                 compressLength -= 2;
             } else {
-                return null;
+                return false;
             }
             value <<= (IPV4_MAX_CHAR_BETWEEN_SEPARATOR - (i - begin)) << 2;
 
@@ -864,7 +1022,7 @@ public final class NetUtil {
             // right (least significant) while also accounting for each IPv4 digit is base 10.
             begin = (value & 0xf) * 100 + ((value >> 4) & 0xf) * 10 + ((value >> 8) & 0xf);
             if (begin < 0 || begin > 255) {
-                return null;
+                return false;
             }
             bytes[currentIndex++] = (byte) begin;
         } else {
@@ -872,15 +1030,15 @@ public final class NetUtil {
             if (begin > 0 && i - begin > IPV6_MAX_CHAR_BETWEEN_SEPARATOR ||
                     ipv6Separators < IPV6_MIN_SEPARATORS ||
                     !isCompressed && (ipv6Separators + 1 != IPV6_MAX_SEPARATORS  ||
-                                      ip.charAt(0) == ':' || ip.charAt(tmp) == ':') ||
+                                      ip.charAt(ipStart + 0) == ':' || ip.charAt(ipStart + tmp) == ':') ||
                     isCompressed && (ipv6Separators > IPV6_MAX_SEPARATORS ||
                         (ipv6Separators == IPV6_MAX_SEPARATORS &&
-                          (compressBegin <= 2 && ip.charAt(0) != ':' ||
-                           compressBegin >= 14 && ip.charAt(tmp) != ':'))) ||
-                    currentIndex + 1 >= bytes.length ||
-                    begin < 0 && ip.charAt(tmp - 1) != ':' ||
-                    compressBegin > 2 && ip.charAt(0) == ':') {
-                return null;
+                          (compressBegin <= 2 && ip.charAt(ipStart + 0) != ':' ||
+                           compressBegin >= 14 && ip.charAt(ipStart + tmp) != ':'))) ||
+                    currentIndex + 1 >= IPV6_BYTE_COUNT ||
+                    begin < 0 && ip.charAt(ipStart + tmp - 1) != ':' ||
+                    compressBegin > 2 && ip.charAt(ipStart + 0) == ':') {
+                return false;
             }
             if (begin >= 0 && i - begin <= IPV6_MAX_CHAR_BETWEEN_SEPARATOR) {
                 value <<= (IPV6_MAX_CHAR_BETWEEN_SEPARATOR - (i - begin)) << 2;
@@ -893,13 +1051,13 @@ public final class NetUtil {
         }
 
         i = currentIndex + compressLength;
-        if (needsShift || i >= bytes.length) {
+        if (needsShift || i >= IPV6_BYTE_COUNT) {
             // Right shift array
-            if (i >= bytes.length) {
+            if (i >= IPV6_BYTE_COUNT) {
                 ++compressBegin;
             }
-            for (i = currentIndex; i < bytes.length; ++i) {
-                for (begin = bytes.length - 1; begin >= compressBegin; --begin) {
+            for (i = currentIndex; i < IPV6_BYTE_COUNT; ++i) {
+                for (begin = IPV6_BYTE_COUNT - 1; begin >= compressBegin; --begin) {
                     bytes[begin] = bytes[begin - 1];
                 }
                 bytes[begin] = 0;
@@ -910,7 +1068,7 @@ public final class NetUtil {
             for (i = 0; i < compressLength; ++i) {
                 begin = i + compressBegin;
                 currentIndex = begin + compressLength;
-                if (currentIndex < bytes.length) {
+                if (currentIndex < IPV6_BYTE_COUNT) {
                     bytes[currentIndex] = bytes[begin];
                     bytes[begin] = 0;
                 } else {
@@ -926,7 +1084,7 @@ public final class NetUtil {
             bytes[10] = bytes[11] = (byte) 0xff;
         }
 
-        return bytes;
+        return true;
     }
 
     /**
@@ -1026,20 +1184,26 @@ public final class NetUtil {
     }
 
     private static String toAddressString(byte[] bytes, int offset, boolean ipv4Mapped) {
-        final int[] words = new int[IPV6_WORD_COUNT];
-        int i;
-        final int end = offset + words.length;
-        for (i = offset; i < end; ++i) {
-            words[i] = ((bytes[i << 1] & 0xff) << 8) | (bytes[(i << 1) + 1] & 0xff);
-        }
+        final byte[] buf = new byte[IPV6_MAX_CHAR_COUNT];
+        return new String(buf, 0, writeIpV6Address(bytes, offset, ipv4Mapped, buf, 0), CharsetUtil.US_ASCII);
+    }
 
+    private static int ipV6Word(byte[] bytes, int offset, int i) {
+        return (bytes[offset + (i << 1)] & 0xff) << 8 | bytes[offset + (i << 1) + 1] & 0xff;
+    }
+
+    /**
+     * Writes the 16-byte address at {@code offset} to {@code dst} and returns the index after the last written byte.
+     */
+    private static int writeIpV6Address(byte[] bytes, int offset, boolean ipv4Mapped, byte[] dst, int index) {
         // Find longest run of 0s, tie goes to first found instance
+        int i;
         int currentStart = -1;
         int currentLength;
         int shortestStart = -1;
         int shortestLength = 0;
-        for (i = 0; i < words.length; ++i) {
-            if (words[i] == 0) {
+        for (i = 0; i < IPV6_WORD_COUNT; ++i) {
+            if (ipV6Word(bytes, offset, i) == 0) {
                 if (currentStart < 0) {
                     currentStart = i;
                 }
@@ -1068,48 +1232,48 @@ public final class NetUtil {
 
         // Translate to string taking into account longest consecutive 0s
         final int shortestEnd = shortestStart + shortestLength;
-        final StringBuilder b = new StringBuilder(IPV6_MAX_CHAR_COUNT);
         if (shortestEnd < 0) { // Optimization when there is no compressing needed
-            b.append(Integer.toHexString(words[0]));
-            for (i = 1; i < words.length; ++i) {
-                b.append(':');
-                b.append(Integer.toHexString(words[i]));
+            index = writeHexWord(ipV6Word(bytes, offset, 0), dst, index);
+            for (i = 1; i < IPV6_WORD_COUNT; ++i) {
+                dst[index++] = ':';
+                index = writeHexWord(ipV6Word(bytes, offset, i), dst, index);
             }
         } else { // General case that can handle compressing (and not compressing)
             // Loop unroll the first index (so we don't constantly check i==0 cases in loop)
             final boolean isIpv4Mapped;
             if (inRangeEndExclusive(0, shortestStart, shortestEnd)) {
-                b.append("::");
-                isIpv4Mapped = ipv4Mapped && (shortestEnd == 5 && words[5] == 0xffff);
+                dst[index++] = ':';
+                dst[index++] = ':';
+                isIpv4Mapped = ipv4Mapped && (shortestEnd == 5 && ipV6Word(bytes, offset, 5) == 0xffff);
             } else {
-                b.append(Integer.toHexString(words[0]));
+                index = writeHexWord(ipV6Word(bytes, offset, 0), dst, index);
                 isIpv4Mapped = false;
             }
-            for (i = 1; i < words.length; ++i) {
+            for (i = 1; i < IPV6_WORD_COUNT; ++i) {
                 if (!inRangeEndExclusive(i, shortestStart, shortestEnd)) {
                     if (!inRangeEndExclusive(i - 1, shortestStart, shortestEnd)) {
                         // If the last index was not part of the shortened sequence
                         if (!isIpv4Mapped || i == 6) {
-                            b.append(':');
+                            dst[index++] = ':';
                         } else {
-                            b.append('.');
+                            dst[index++] = '.';
                         }
                     }
                     if (isIpv4Mapped && i > 5) {
-                        b.append(words[i] >> 8);
-                        b.append('.');
-                        b.append(words[i] & 0xff);
+                        index = writeDecimal(bytes[offset + (i << 1)] & 0xff, dst, index);
+                        dst[index++] = '.';
+                        index = writeDecimal(bytes[offset + (i << 1) + 1] & 0xff, dst, index);
                     } else {
-                        b.append(Integer.toHexString(words[i]));
+                        index = writeHexWord(ipV6Word(bytes, offset, i), dst, index);
                     }
                 } else if (!inRangeEndExclusive(i - 1, shortestStart, shortestEnd)) {
                     // If we are in the shortened sequence and the last index was not
-                    b.append("::");
+                    dst[index++] = ':';
+                    dst[index++] = ':';
                 }
             }
         }
-
-        return b.toString();
+        return index;
     }
 
     /**
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link LatencyHistogram} which uses power-of-two buckets. Recording a value is a couple of uncontended atomic
+ * operations and never allocates.
+ */
+final class DefaultLatencyHistogram implements LatencyHistogram {
+
+    // 2^40 nanoseconds is roughly 18 minutes, everything above ends up in the last bucket.
+    static final int BUCKETS = 41;
+
+    // The last two slots hold the total and the max.
+    private static final int TOTAL_INDEX = BUCKETS;
+    private static final int MAX_INDEX = BUCKETS + 1;
+
+    private final AtomicLongArray values = new AtomicLongArray(BUCKETS + 2);
+
+    static int bucketIndex(long nanos) {
+        if (nanos <= 0) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            // System.nanoTime() is not guaranteed to be monotonic across cores on all platforms.
+            nanos = 0;
+        }
+        values.getAndIncrement(bucketIndex(nanos));
+        values.getAndAdd(TOTAL_INDEX, nanos);
+        for (;;) {
+            long max = values.get(MAX_INDEX);
+            if (nanos <= max || values.compareAndSet(MAX_INDEX, max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public int buckets() {
+        return BUCKETS;
+    }
+
+    @Override
+    public long bucketUpperBoundNanos(int bucket) {
+        checkBucket(bucket);
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    @Override
+    public long bucketCount(int bucket) {
+        checkBucket(bucket);
+        return values.get(bucket);
+    }
+
+    @Override
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += values.get(i);
+        }
+        return count;
+    }
+
+    @Override
+    public long totalNanos() {
+        return values.get(TOTAL_INDEX);
+    }
+
+    @Override
+    public long maxNanos() {
+        return values.get(MAX_INDEX);
+    }
+
+    @Override
+    public long percentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile: " + percentile + " (expected: 0-100)");
+        }
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = values.get(i);
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Never report more than what was actually observed.
+                return Math.min(bucketUpperBoundNanos(i), maxNanos());
+            }
+        }
+        return maxNanos();
+    }
+
+    private static void checkBucket(int bucket) {
+        if (bucket < 0 || bucket >= BUCKETS) {
+            throw new IndexOutOfBoundsException("bucket: " + bucket + " (expected: 0-" + (BUCKETS - 1) + ')');
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram(count: " + count() + ", total: " + totalNanos() + "ns, max: " + maxNanos() + "ns)";
+    }
+}
@@ -53,13 +53,16 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
      * One or more listeners. Can be a {@link GenericFutureListener} or a {@link DefaultFutureListeners}.
      * If {@code null}, it means either 1) no listeners were added yet or 2) all listeners were notified.
      *
-     * Threading - synchronized(this). We must support adding listeners when there is no EventExecutor.
+     * Threading - synchronized(this) for writes. We must support adding listeners when there is no EventExecutor.
+     * The field is volatile so the promise can be completed without acquiring the monitor if nobody listens.
      */
-    private Object listeners;
+    private volatile Object listeners;
     /**
-     * Threading - synchronized(this). We are required to hold the monitor to use Java's underlying wait()/notifyAll().
+     * Threading - synchronized(this) for writes. We are required to hold the monitor to use Java's underlying
+     * wait()/notifyAll(). The field is volatile so the promise can be completed without acquiring the monitor if
+     * nobody waits. Waiters must be registered before checking {@link #isDone()} to not miss a notification.
      */
-    private short waiters;
+    private volatile short waiters;
 
     /**
      * Threading - synchronized(this). We must prevent concurrent notification and FIFO listener notification if the
@@ -246,13 +249,13 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
         checkDeadLock();
 
         synchronized (this) {
-            while (!isDone()) {
-                incWaiters();
-                try {
+            incWaiters();
+            try {
+                while (!isDone()) {
                     wait();
-                } finally {
-                    decWaiters();
                 }
+            } finally {
+                decWaiters();
             }
         }
         return this;
@@ -268,16 +271,18 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
 
         boolean interrupted = false;
         synchronized (this) {
-            while (!isDone()) {
-                incWaiters();
-                try {
-                    wait();
-                } catch (InterruptedException e) {
-                    // Interrupted while waiting.
-                    interrupted = true;
-                } finally {
-                    decWaiters();
+            incWaiters();
+            try {
+                while (!isDone()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // Interrupted while waiting.
+                        interrupted = true;
+                    }
                 }
+            } finally {
+                decWaiters();
             }
         }
 
@@ -583,20 +588,22 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
     }
 
     private void addListener0(GenericFutureListener<? extends Future<? super V>> listener) {
+        Object listeners = this.listeners;
         if (listeners == null) {
-            listeners = listener;
+            this.listeners = listener;
         } else if (listeners instanceof DefaultFutureListeners) {
             ((DefaultFutureListeners) listeners).add(listener);
         } else {
-            listeners = new DefaultFutureListeners((GenericFutureListener<?>) listeners, listener);
+            this.listeners = new DefaultFutureListeners((GenericFutureListener<?>) listeners, listener);
         }
     }
 
     private void removeListener0(GenericFutureListener<? extends Future<? super V>> listener) {
+        Object listeners = this.listeners;
         if (listeners instanceof DefaultFutureListeners) {
             ((DefaultFutureListeners) listeners).remove(listener);
         } else if (listeners == listener) {
-            listeners = null;
+            this.listeners = null;
         }
     }
 
@@ -620,25 +627,31 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
     }
 
     /**
-     * Check if there are any waiters and if so notify these.
+     * Check if there are any waiters and if so notify these. Must be called after the result was set.
+     * <p>
+     * The monitor is only acquired if someone waits, so completing a promise which has neither waiters nor
+     * listeners (for example the promise of a write nobody is interested in) does not need any locking.
      * @return {@code true} if there are any listeners attached to the promise, {@code false} otherwise.
      */
-    private synchronized boolean checkNotifyWaiters() {
+    private boolean checkNotifyWaiters() {
         if (waiters > 0) {
-            notifyAll();
+            synchronized (this) {
+                notifyAll();
+            }
         }
         return listeners != null;
     }
 
     private void incWaiters() {
+        short waiters = this.waiters;
         if (waiters == Short.MAX_VALUE) {
             throw new IllegalStateException("too many waiters: " + this);
         }
-        ++waiters;
+        this.waiters = (short) (waiters + 1);
     }
 
     private void decWaiters() {
-        --waiters;
+        waiters = (short) (waiters - 1);
     }
 
     private void rethrowIfFailed() {
@@ -671,11 +684,11 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
         try {
             for (;;) {
                 synchronized (this) {
-                    if (isDone()) {
-                        return true;
-                    }
                     incWaiters();
                     try {
+                        if (isDone()) {
+                            return true;
+                        }
                         wait(waitTime / 1000000, (int) (waitTime % 1000000));
                     } catch (InterruptedException e) {
                         if (interruptable) {
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.LongCounter;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Default {@link SingleThreadEventExecutorMetric} implementation which is updated by the
+ * {@link SingleThreadEventExecutor} that owns it.
+ */
+final class DefaultSingleThreadEventExecutorMetric implements SingleThreadEventExecutorMetric {
+
+    private final SingleThreadEventExecutor executor;
+    private final DefaultLatencyHistogram taskQueueWaitTime = new DefaultLatencyHistogram();
+    private final DefaultLatencyHistogram taskRunTime = new DefaultLatencyHistogram();
+    private final DefaultLatencyHistogram scheduledTaskLateness = new DefaultLatencyHistogram();
+    private final LongCounter ioWaitTime = PlatformDependent.newLongCounter();
+    private final LongCounter ioProcessingTime = PlatformDependent.newLongCounter();
+    private final LongCounter taskProcessingTime = PlatformDependent.newLongCounter();
+    private final LongCounter wakeups = PlatformDependent.newLongCounter();
+    private final LongCounter taskBatches = PlatformDependent.newLongCounter();
+    private final LongCounter batchedTasks = PlatformDependent.newLongCounter();
+    // Only written by the executor thread.
+    private volatile int peakPendingTasks;
+
+    DefaultSingleThreadEventExecutorMetric(SingleThreadEventExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Wraps the given task so the time it spends in the task queue and the time it takes to run is recorded.
+     */
+    Runnable newTimedTask(Runnable task) {
+        return new TimedTask(task, System.nanoTime());
+    }
+
+    void recordScheduledTaskLateness(long nanos) {
+        scheduledTaskLateness.record(nanos);
+    }
+
+    void recordIoWaitTime(long nanos) {
+        ioWaitTime.add(nanos);
+    }
+
+    void recordIoProcessingTime(long nanos) {
+        ioProcessingTime.add(nanos);
+    }
+
+    void recordTaskProcessingTime(long nanos) {
+        taskProcessingTime.add(nanos);
+    }
+
+    void recordWakeup() {
+        wakeups.increment();
+    }
+
+    void recordTaskBatch(int tasks) {
+        taskBatches.increment();
+        batchedTasks.add(tasks);
+    }
+
+    void recordPendingTasks(int pendingTasks) {
+        if (pendingTasks > peakPendingTasks) {
+            peakPendingTasks = pendingTasks;
+        }
+    }
+
+    @Override
+    public LatencyHistogram taskQueueWaitTime() {
+        return taskQueueWaitTime;
+    }
+
+    @Override
+    public LatencyHistogram taskRunTime() {
+        return taskRunTime;
+    }
+
+    @Override
+    public LatencyHistogram scheduledTaskLateness() {
+        return scheduledTaskLateness;
+    }
+
+    @Override
+    public long ioWaitTimeNanos() {
+        return ioWaitTime.value();
+    }
+
+    @Override
+    public long ioProcessingTimeNanos() {
+        return ioProcessingTime.value();
+    }
+
+    @Override
+    public long taskProcessingTimeNanos() {
+        return taskProcessingTime.value();
+    }
+
+    @Override
+    public long wakeups() {
+        return wakeups.value();
+    }
+
+    @Override
+    public int pendingTasks() {
+        return executor.pendingTasks();
+    }
+
+    @Override
+    public int peakPendingTasks() {
+        return peakPendingTasks;
+    }
+
+    @Override
+    public long taskBatches() {
+        return taskBatches.value();
+    }
+
+    @Override
+    public long batchedTasks() {
+        return batchedTasks.value();
+    }
+
+    @Override
+    public String toString() {
+        return "SingleThreadEventExecutorMetric(taskQueueWaitTime: " + taskQueueWaitTime +
+                ", taskRunTime: " + taskRunTime +
+                ", scheduledTaskLateness: " + scheduledTaskLateness +
+                ", ioWaitTime: " + ioWaitTimeNanos() +
+                "ns, ioProcessingTime: " + ioProcessingTimeNanos() +
+                "ns, taskProcessingTime: " + taskProcessingTimeNanos() +
+                "ns, wakeups: " + wakeups() +
+                ", peakPendingTasks: " + peakPendingTasks() +
+                ", taskBatches: " + taskBatches() +
+                ", batchedTasks: " + batchedTasks() + ')';
+    }
+
+    private final class TimedTask implements Runnable {
+        private final Runnable task;
+        private final long submitTimeNanos;
+
+        TimedTask(Runnable task, long submitTimeNanos) {
+            this.task = task;
+            this.submitTimeNanos = submitTimeNanos;
+        }
+
+        @Override
+        public void run() {
+            long startTimeNanos = System.nanoTime();
+            taskQueueWaitTime.record(startTimeNanos - submitTimeNanos);
+            try {
+                task.run();
+            } finally {
+                taskRunTime.record(System.nanoTime() - startTimeNanos);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Detects {@link SingleThreadEventExecutor}s which did not finish a loop iteration within a threshold, which
+ * usually means that a task or a handler is blocking the executor thread. Every stall is reported once to the
+ * {@link EventExecutorStallListener}, together with the stack trace of the blocked thread.
+ * <p>
+ * The executors only publish the start time of their current loop iteration, so keeping the detector running in
+ * production is cheap. Capturing the stack trace is more expensive and therefore rate-limited per executor.
+ */
+@UnstableApi
+public final class EventExecutorStallDetector {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(EventExecutorStallDetector.class);
+    private static final long MIN_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<Entry> entries = new CopyOnWriteArrayList<Entry>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final long stallThresholdNanos;
+    private final long minReportIntervalNanos;
+    private final EventExecutorStallListener listener;
+    private final ThreadFactory threadFactory;
+    private volatile Thread detectorThread;
+    private volatile boolean stopped;
+
+    /**
+     * Creates a new instance which reports each executor at most once per {@code stallThreshold}.
+     *
+     * @param stallThreshold    the time after which a loop iteration is considered stalled.
+     * @param unit              the {@link TimeUnit} of {@code stallThreshold}.
+     * @param listener          the {@link EventExecutorStallListener} to notify.
+     */
+    public EventExecutorStallDetector(long stallThreshold, TimeUnit unit, EventExecutorStallListener listener) {
+        this(stallThreshold, stallThreshold, unit, listener,
+             new DefaultThreadFactory(EventExecutorStallDetector.class, true));
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param stallThreshold    the time after which a loop iteration is considered stalled.
+     * @param minReportInterval the minimum time between two reports (and so stack trace captures) for the same
+     *                          executor.
+     * @param unit              the {@link TimeUnit} of {@code stallThreshold} and {@code minReportInterval}.
+     * @param listener          the {@link EventExecutorStallListener} to notify.
+     * @param threadFactory     the {@link ThreadFactory} used to create the thread which checks the executors.
+     */
+    public EventExecutorStallDetector(long stallThreshold, long minReportInterval, TimeUnit unit,
+                                      EventExecutorStallListener listener, ThreadFactory threadFactory) {
+        ObjectUtil.checkPositive(stallThreshold, "stallThreshold");
+        ObjectUtil.checkPositiveOrZero(minReportInterval, "minReportInterval");
+        ObjectUtil.checkNotNull(unit, "unit");
+        this.listener = ObjectUtil.checkNotNull(listener, "listener");
+        this.threadFactory = ObjectUtil.checkNotNull(threadFactory, "threadFactory");
+        stallThresholdNanos = unit.toNanos(stallThreshold);
+        minReportIntervalNanos = unit.toNanos(minReportInterval);
+    }
+
+    /**
+     * Monitors all {@link SingleThreadEventExecutor}s of the given {@link EventExecutorGroup}. Executors of other
+     * types are ignored.
+     */
+    public void monitor(EventExecutorGroup group) {
+        ObjectUtil.checkNotNull(group, "group");
+        for (EventExecutor executor: group) {
+            if (executor instanceof SingleThreadEventExecutor) {
+                monitor((SingleThreadEventExecutor) executor);
+            }
+        }
+    }
+
+    /**
+     * Monitors the given {@link SingleThreadEventExecutor} until it terminates or
+     * {@link #unmonitor(SingleThreadEventExecutor)} is called.
+     */
+    public void monitor(SingleThreadEventExecutor executor) {
+        ObjectUtil.checkNotNull(executor, "executor");
+        if (stopped) {
+            throw new IllegalStateException("stall detector stopped");
+        }
+        if (indexOf(executor) < 0) {
+            entries.add(new Entry(executor));
+        }
+        if (started.compareAndSet(false, true)) {
+            Thread thread = threadFactory.newThread(new Detector());
+            thread.start();
+            detectorThread = thread;
+        }
+    }
+
+    /**
+     * Stops monitoring the given {@link SingleThreadEventExecutor}.
+     *
+     * @return {@code true} if the executor was monitored before.
+     */
+    public boolean unmonitor(SingleThreadEventExecutor executor) {
+        int index = indexOf(executor);
+        if (index < 0) {
+            return false;
+        }
+        entries.remove(index);
+        return true;
+    }
+
+    /**
+     * Stops monitoring all executors and terminates the detector thread.
+     */
+    public void stop() {
+        stopped = true;
+        entries.clear();
+        Thread thread = detectorThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private int indexOf(SingleThreadEventExecutor executor) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).executor == executor) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private long checkIntervalNanos() {
+        return Math.max(MIN_CHECK_INTERVAL_NANOS, stallThresholdNanos / 2);
+    }
+
+    private final class Detector implements Runnable {
+        @Override
+        public void run() {
+            final long checkIntervalNanos = checkIntervalNanos();
+            while (!stopped) {
+                for (Entry entry: entries) {
+                    if (entry.executor.isTerminated()) {
+                        entries.remove(entry);
+                    } else {
+                        entry.check();
+                    }
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(checkIntervalNanos);
+                } catch (InterruptedException ignore) {
+                    // Interrupted by stop(), the loop condition will take care of it.
+                }
+            }
+        }
+    }
+
+    private final class Entry {
+        final SingleThreadEventExecutor executor;
+        // Only accessed by the detector thread.
+        private long reportedIterationStartNanos = -1;
+        private long lastReportNanos;
+        private boolean reported;
+
+        Entry(SingleThreadEventExecutor executor) {
+            this.executor = executor;
+        }
+
+        void check() {
+            long iterationStartNanos = executor.loopIterationStartNanos();
+            if (iterationStartNanos < 0 || iterationStartNanos == reportedIterationStartNanos) {
+                // Idle or already reported.
+                return;
+            }
+            long nanoTime = AbstractScheduledEventExecutor.nanoTime();
+            long stallNanos = nanoTime - iterationStartNanos;
+            if (stallNanos < stallThresholdNanos ||
+                    reported && nanoTime - lastReportNanos < minReportIntervalNanos) {
+                return;
+            }
+            Thread thread = executor.thread;
+            if (thread == null) {
+                return;
+            }
+            StackTraceElement[] stackTrace = thread.getStackTrace();
+            if (executor.loopIterationStartNanos() != iterationStartNanos) {
+                // The executor made progress while we captured the stack trace, so it does not belong to the stall.
+                return;
+            }
+            reportedIterationStartNanos = iterationStartNanos;
+            lastReportNanos = nanoTime;
+            reported = true;
+            try {
+                listener.executorStalled(executor, thread, stallNanos, stackTrace);
+            } catch (Throwable t) {
+                logger.warn("An exception was thrown by " + listener.getClass().getName() + ".executorStalled()", t);
+            }
+        }
+    }
+}
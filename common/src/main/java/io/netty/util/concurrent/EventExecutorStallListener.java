@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Listens to stalls detected by an {@link EventExecutorStallDetector}.
+ */
+@UnstableApi
+public interface EventExecutorStallListener {
+
+    /**
+     * Invoked by the thread of the {@link EventExecutorStallDetector} when the given {@code executor} did not
+     * finish its current loop iteration within the configured threshold.
+     *
+     * @param executor      the stalled {@link SingleThreadEventExecutor}.
+     * @param thread        the {@link Thread} that powers the {@code executor}.
+     * @param stallNanos    the time in nanoseconds the current loop iteration has been running so far.
+     * @param stackTrace    the stack trace of {@code thread}, captured when the stall was detected.
+     */
+    void executorStalled(SingleThreadEventExecutor executor, Thread thread, long stallNanos,
+                         StackTraceElement[] stackTrace);
+}
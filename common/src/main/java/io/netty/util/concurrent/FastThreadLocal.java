@@ -30,6 +30,10 @@ import java.util.Set;
  * to look for a variable.  Although seemingly very subtle, it yields slight performance advantage over using a hash
  * table, and it is useful when accessed frequently.
  * </p><p>
+ * The index is handed out to a new {@link FastThreadLocal} again once this one was garbage collected, so creating
+ * {@link FastThreadLocal}s dynamically, for example one per handler instance, does not make the array grow without
+ * bound. To release the index, remove the value from every thread that used it and drop all references.
+ * </p><p>
  * To take advantage of this thread-local variable, your thread must be a {@link FastThreadLocalThread} or its subtype.
  * By default, all threads created by {@link DefaultThreadFactory} are {@link FastThreadLocalThread} due to this reason.
  * </p><p>
@@ -125,7 +129,7 @@ public class FastThreadLocal<V> {
     private final int index;
 
     public FastThreadLocal() {
-        index = InternalThreadLocalMap.nextVariableIndex();
+        index = InternalThreadLocalMap.nextVariableIndex(this);
     }
 
     /**
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * A histogram of durations in nanoseconds. Bucket {@code n} counts the recorded values which are smaller than
+ * {@code 2^n} nanoseconds but not smaller than {@code 2^(n-1)}, so the resolution is always within a factor of two.
+ * <p>
+ * All methods are safe to call from any thread. As values may be recorded concurrently the returned numbers are
+ * not guaranteed to be an atomic snapshot of the histogram.
+ */
+@UnstableApi
+public interface LatencyHistogram {
+
+    /**
+     * Returns the number of buckets of this histogram.
+     */
+    int buckets();
+
+    /**
+     * Returns the exclusive upper bound (in nanoseconds) of the values that are counted in the given bucket.
+     * The last bucket has no upper bound and so returns {@link Long#MAX_VALUE}.
+     */
+    long bucketUpperBoundNanos(int bucket);
+
+    /**
+     * Returns the number of values that were recorded into the given bucket.
+     */
+    long bucketCount(int bucket);
+
+    /**
+     * Returns the number of values that were recorded.
+     */
+    long count();
+
+    /**
+     * Returns the sum of all recorded values in nanoseconds.
+     */
+    long totalNanos();
+
+    /**
+     * Returns the largest recorded value in nanoseconds or {@code 0} if nothing was recorded yet.
+     */
+    long maxNanos();
+
+    /**
+     * Returns an estimation of the given percentile in nanoseconds, which is the upper bound of the bucket that
+     * contains the value at that percentile or {@code 0} if nothing was recorded yet.
+     *
+     * @param percentile the percentile, between {@code 0} and {@code 100}.
+     */
+    long percentileNanos(double percentile);
+}
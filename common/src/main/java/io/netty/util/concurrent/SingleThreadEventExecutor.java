@@ -22,6 +22,7 @@ import io.netty.util.internal.ThreadExecutorMap;
 import io.netty.util.internal.UnstableApi;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
+import org.jctools.queues.MessagePassingQueue;
 
 import java.lang.Thread.State;
 import java.util.ArrayList;
@@ -41,6 +42,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
@@ -52,9 +54,21 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
     static final int DEFAULT_MAX_PENDING_EXECUTOR_TASKS = Math.max(16,
             SystemPropertyUtil.getInt("io.netty.eventexecutor.maxPendingTasks", Integer.MAX_VALUE));
 
+    private static final boolean METRICS_ENABLED =
+            SystemPropertyUtil.getBoolean("io.netty.eventexecutor.metrics", false);
+
     private static final InternalLogger logger =
             InternalLoggerFactory.getInstance(SingleThreadEventExecutor.class);
 
+    static {
+        if (logger.isDebugEnabled()) {
+            logger.debug("-Dio.netty.eventexecutor.metrics: {}", METRICS_ENABLED);
+        }
+    }
+
+    // The number of tasks runAllTasks(long) runs before it checks the deadline, as nanoTime() is relatively expensive.
+    private static final int TASK_BATCH_SIZE = 64;
+
     private static final int ST_NOT_STARTED = 1;
     private static final int ST_STARTED = 2;
     private static final int ST_SHUTTING_DOWN = 3;
@@ -76,13 +90,16 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
 
     private static final AtomicIntegerFieldUpdater<SingleThreadEventExecutor> STATE_UPDATER =
             AtomicIntegerFieldUpdater.newUpdater(SingleThreadEventExecutor.class, "state");
+    private static final AtomicLongFieldUpdater<SingleThreadEventExecutor> LOOP_ITERATION_START_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(SingleThreadEventExecutor.class, "loopIterationStartNanos");
     private static final AtomicReferenceFieldUpdater<SingleThreadEventExecutor, ThreadProperties> PROPERTIES_UPDATER =
             AtomicReferenceFieldUpdater.newUpdater(
                     SingleThreadEventExecutor.class, ThreadProperties.class, "threadProperties");
 
     private final Queue<Runnable> taskQueue;
 
-    private volatile Thread thread;
+    // Package-private so it can be used by EventExecutorStallDetector.
+    volatile Thread thread;
     @SuppressWarnings("unused")
     private volatile ThreadProperties threadProperties;
     private final Executor executor;
@@ -93,9 +110,23 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
     private final boolean addTaskWakesUp;
     private final int maxPendingTasks;
     private final RejectedExecutionHandler rejectedExecutionHandler;
+    private final DefaultSingleThreadEventExecutorMetric metric;
+    private final MessagePassingQueue.Consumer<Runnable> taskRunner = new MessagePassingQueue.Consumer<Runnable>() {
+        @Override
+        public void accept(Runnable task) {
+            if (task != WAKEUP_TASK) {
+                safeExecute(task);
+            }
+        }
+    };
 
     private long lastExecutionTime;
 
+    // -1 while the executor is idle (blocked waiting for work), otherwise the nanoTime() at which the current loop
+    // iteration started. Used by EventExecutorStallDetector.
+    @SuppressWarnings({ "FieldMayBeFinal", "unused" })
+    private volatile long loopIterationStartNanos = -1;
+
     @SuppressWarnings({ "FieldMayBeFinal", "unused" })
     private volatile int state = ST_NOT_STARTED;
 
@@ -165,6 +196,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         this.executor = ThreadExecutorMap.apply(executor, this);
         taskQueue = newTaskQueue(this.maxPendingTasks);
         rejectedExecutionHandler = ObjectUtil.checkNotNull(rejectedHandler, "rejectedHandler");
+        metric = METRICS_ENABLED ? new DefaultSingleThreadEventExecutorMetric(this) : null;
     }
 
     protected SingleThreadEventExecutor(EventExecutorGroup parent, Executor executor,
@@ -176,6 +208,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         this.executor = ThreadExecutorMap.apply(executor, this);
         this.taskQueue = ObjectUtil.checkNotNull(taskQueue, "taskQueue");
         rejectedExecutionHandler = ObjectUtil.checkNotNull(rejectedHandler, "rejectedHandler");
+        metric = METRICS_ENABLED ? new DefaultSingleThreadEventExecutorMetric(this) : null;
     }
 
     /**
@@ -271,25 +304,32 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         for (;;) {
             ScheduledFutureTask<?> scheduledTask = peekScheduledTask();
             if (scheduledTask == null) {
-                Runnable task = null;
-                try {
-                    task = taskQueue.take();
-                    if (task == WAKEUP_TASK) {
-                        task = null;
+                Runnable task = taskQueue.poll();
+                if (task == null) {
+                    markLoopIdle();
+                    try {
+                        task = taskQueue.take();
+                    } catch (InterruptedException e) {
+                        // Ignore
                     }
-                } catch (InterruptedException e) {
-                    // Ignore
                 }
+                if (task == WAKEUP_TASK) {
+                    task = null;
+                }
+                markLoopIterationStart();
                 return task;
             } else {
                 long delayNanos = scheduledTask.delayNanos();
                 Runnable task = null;
                 if (delayNanos > 0) {
+                    markLoopIdle();
                     try {
                         task = taskQueue.poll(delayNanos, TimeUnit.NANOSECONDS);
                     } catch (InterruptedException e) {
                         // Waken up.
                         return null;
+                    } finally {
+                        markLoopIterationStart();
                     }
                 }
                 if (task == null) {
@@ -323,6 +363,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
                 scheduledTaskQueue.add((ScheduledFutureTask<?>) scheduledTask);
                 return false;
             }
+            recordScheduledTaskLateness(scheduledTask, nanoTime);
         }
     }
 
@@ -339,11 +380,18 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
             return false;
         }
         do {
+            recordScheduledTaskLateness(scheduledTask, nanoTime);
             safeExecute(scheduledTask);
         } while ((scheduledTask = pollScheduledTask(nanoTime)) != null);
         return true;
     }
 
+    private void recordScheduledTaskLateness(Runnable scheduledTask, long nanoTime) {
+        if (metric != null) {
+            metric.recordScheduledTaskLateness(nanoTime - ((ScheduledFutureTask<?>) scheduledTask).deadlineNanos());
+        }
+    }
+
     /**
      * @see Queue#peek()
      */
@@ -407,6 +455,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
      */
     protected boolean runAllTasks() {
         assert inEventLoop();
+        final long startTime = metric != null ? System.nanoTime() : 0;
         boolean fetchedAll;
         boolean ranAtLeastOne = false;
 
@@ -421,6 +470,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
             lastExecutionTime = ScheduledFutureTask.nanoTime();
         }
         afterRunningAllTasks();
+        recordTaskProcessingTime(startTime);
         return ranAtLeastOne;
     }
 
@@ -434,6 +484,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
      */
     protected final boolean runScheduledAndExecutorTasks(final int maxDrainAttempts) {
         assert inEventLoop();
+        final long startTime = metric != null ? System.nanoTime() : 0;
         boolean ranAtLeastOneTask;
         int drainAttempt = 0;
         do {
@@ -446,6 +497,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
             lastExecutionTime = ScheduledFutureTask.nanoTime();
         }
         afterRunningAllTasks();
+        recordTaskProcessingTime(startTime);
 
         return drainAttempt > 0;
     }
@@ -462,13 +514,44 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         if (task == null) {
             return false;
         }
-        for (;;) {
-            safeExecute(task);
-            task = pollTaskFrom(taskQueue);
-            if (task == null) {
-                return true;
+        recordPendingTasks(taskQueue);
+        safeExecute(task);
+        while (runTasksFrom(taskQueue, TASK_BATCH_SIZE) > 0) {
+            // Keep on draining until the queue is empty.
+        }
+        return true;
+    }
+
+    /**
+     * Runs at most {@code maxTasks} tasks from {@code taskQueue}. If the queue is a {@link MessagePassingQueue}, which
+     * is the case for the default task queues of the event loops, the tasks are drained in one batch which avoids the
+     * per-element overhead of {@link Queue#poll()}.
+     *
+     * @return the number of tasks that were taken from the queue.
+     */
+    private int runTasksFrom(Queue<Runnable> taskQueue, int maxTasks) {
+        int ran;
+        if (taskQueue instanceof MessagePassingQueue) {
+            @SuppressWarnings("unchecked")
+            MessagePassingQueue<Runnable> queue = (MessagePassingQueue<Runnable>) taskQueue;
+            ran = queue.drain(taskRunner, maxTasks);
+        } else {
+            Runnable task;
+            for (ran = 0; ran < maxTasks && (task = taskQueue.poll()) != null; ran++) {
+                taskRunner.accept(task);
             }
         }
+        if (metric != null && ran > 0) {
+            metric.recordTaskBatch(ran);
+        }
+        return ran;
+    }
+
+    private void recordPendingTasks(Queue<Runnable> taskQueue) {
+        if (metric != null) {
+            // Count the task that was just taken from the queue as well.
+            metric.recordPendingTasks(taskQueue.size() + 1);
+        }
     }
 
     /**
@@ -482,11 +565,12 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
             return false;
         }
         int remaining = Math.min(maxPendingTasks, taskQueue.size());
+        recordPendingTasks(taskQueue);
         safeExecute(task);
-        // Use taskQueue.poll() directly rather than pollTaskFrom() since the latter may
+        // Drain the queue directly rather than via pollTaskFrom() since the latter may
         // silently consume more than one item from the queue (skips over WAKEUP_TASK instances)
-        while (remaining-- > 0 && (task = taskQueue.poll()) != null) {
-            safeExecute(task);
+        if (remaining > 0) {
+            runTasksFrom(taskQueue, remaining);
         }
         return true;
     }
@@ -496,42 +580,118 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
      * the tasks in the task queue and returns if it ran longer than {@code timeoutNanos}.
      */
     protected boolean runAllTasks(long timeoutNanos) {
+        final long startTime = metric != null ? System.nanoTime() : 0;
         fetchFromScheduledTaskQueue();
         Runnable task = pollTask();
         if (task == null) {
             afterRunningAllTasks();
+            recordTaskProcessingTime(startTime);
             return false;
         }
 
         final long deadline = ScheduledFutureTask.nanoTime() + timeoutNanos;
-        long runTasks = 0;
         long lastExecutionTime;
+        recordPendingTasks(taskQueue);
         for (;;) {
             safeExecute(task);
 
-            runTasks ++;
-
-            // Check timeout every 64 tasks because nanoTime() is relatively expensive.
-            // XXX: Hard-coded value - will make it configurable if it is really a problem.
-            if ((runTasks & 0x3F) == 0) {
-                lastExecutionTime = ScheduledFutureTask.nanoTime();
-                if (lastExecutionTime >= deadline) {
-                    break;
-                }
+            // Run the following tasks in batches and only check the timeout after each batch because nanoTime() is
+            // relatively expensive. The next batch is started via pollTask() so sub-classes still get their hook
+            // called regularly.
+            runTasksFrom(taskQueue, TASK_BATCH_SIZE - 1);
+            lastExecutionTime = ScheduledFutureTask.nanoTime();
+            if (lastExecutionTime >= deadline) {
+                break;
             }
 
             task = pollTask();
             if (task == null) {
-                lastExecutionTime = ScheduledFutureTask.nanoTime();
                 break;
             }
         }
 
         afterRunningAllTasks();
+        recordTaskProcessingTime(startTime);
         this.lastExecutionTime = lastExecutionTime;
         return true;
     }
 
+    private void recordTaskProcessingTime(long startTime) {
+        if (metric != null) {
+            metric.recordTaskProcessingTime(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Marks the start of an iteration of the event loop. Sub-classes should call this each time they start to process
+     * work, for example after returning from {@code select}. An executor that does not finish an iteration within
+     * a threshold is reported as stalled by {@link EventExecutorStallDetector}.
+     * <p>
+     * This is a single ordered store and so cheap enough to be called in every iteration.
+     */
+    @UnstableApi
+    protected final void markLoopIterationStart() {
+        LOOP_ITERATION_START_UPDATER.lazySet(this, nanoTime());
+    }
+
+    /**
+     * Marks the executor as idle. Sub-classes should call this before they block waiting for work, for example
+     * before calling {@code select}, so that {@link EventExecutorStallDetector} does not report them as stalled.
+     */
+    @UnstableApi
+    protected final void markLoopIdle() {
+        LOOP_ITERATION_START_UPDATER.lazySet(this, -1);
+    }
+
+    /**
+     * Returns the {@link #nanoTime()} at which the current loop iteration started or {@code -1} if the executor
+     * is idle.
+     */
+    final long loopIterationStartNanos() {
+        return loopIterationStartNanos;
+    }
+
+    /**
+     * Returns the {@link SingleThreadEventExecutorMetric} of this executor or {@code null} if metrics are disabled.
+     * Metrics can be enabled via the {@code io.netty.eventexecutor.metrics} system property.
+     */
+    @UnstableApi
+    public final SingleThreadEventExecutorMetric metric() {
+        return metric;
+    }
+
+    /**
+     * Records the given time (in nanoseconds) as time spent waiting for I/O events if metrics are enabled.
+     * Sub-classes which perform I/O should call this after each {@code select} (or similar) operation.
+     */
+    @UnstableApi
+    protected final void recordIoWaitTime(long nanos) {
+        if (metric != null) {
+            metric.recordIoWaitTime(nanos);
+        }
+    }
+
+    /**
+     * Records the given time (in nanoseconds) as time spent processing I/O events if metrics are enabled.
+     */
+    @UnstableApi
+    protected final void recordIoProcessingTime(long nanos) {
+        if (metric != null) {
+            metric.recordIoProcessingTime(nanos);
+        }
+    }
+
+    /**
+     * Records that the executor thread was woken up by another thread if metrics are enabled. Sub-classes which
+     * override {@link #wakeup(boolean)} should call this whenever they actually wake up the executor thread.
+     */
+    @UnstableApi
+    protected final void recordWakeup() {
+        if (metric != null) {
+            metric.recordWakeup();
+        }
+    }
+
     /**
      * Invoked before returning from {@link #runAllTasks()} and {@link #runAllTasks(long)}.
      */
@@ -590,7 +750,9 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         if (!inEventLoop || state == ST_SHUTTING_DOWN) {
             // Use offer as we actually only need this to unblock the thread and if offer fails we do not care as there
             // is already something in the queue.
-            taskQueue.offer(WAKEUP_TASK);
+            if (taskQueue.offer(WAKEUP_TASK) && !inEventLoop) {
+                recordWakeup();
+            }
         }
     }
 
@@ -841,6 +1003,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
             // Check if any tasks were added to the queue every 100ms.
             // TODO: Change the behavior of takeTask() so that it returns on timeout.
             wakeup(true);
+            markLoopIdle();
             try {
                 Thread.sleep(100);
             } catch (InterruptedException e) {
@@ -877,13 +1040,14 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         }
 
         boolean inEventLoop = inEventLoop();
-        addTask(task);
+        Runnable queuedTask = metric != null ? metric.newTimedTask(task) : task;
+        addTask(queuedTask);
         if (!inEventLoop) {
             startThread();
             if (isShutdown()) {
                 boolean reject = false;
                 try {
-                    if (removeTask(task)) {
+                    if (removeTask(queuedTask)) {
                         reject = true;
                     }
                 } catch (UnsupportedOperationException e) {
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Exposes statistics about what a {@link SingleThreadEventExecutor} spends its time on. All methods can be called
+ * from any thread.
+ *
+ * @see SingleThreadEventExecutor#metric()
+ */
+@UnstableApi
+public interface SingleThreadEventExecutorMetric {
+
+    /**
+     * Returns the time tasks submitted via {@link EventExecutor#execute(Runnable)} spent in the task queue before
+     * they were run.
+     */
+    LatencyHistogram taskQueueWaitTime();
+
+    /**
+     * Returns the time it took to run tasks submitted via {@link EventExecutor#execute(Runnable)}.
+     */
+    LatencyHistogram taskRunTime();
+
+    /**
+     * Returns how late scheduled tasks were picked up for execution, compared to their deadline.
+     */
+    LatencyHistogram scheduledTaskLateness();
+
+    /**
+     * Returns the total time in nanoseconds spent waiting for I/O events (for example in {@code select} or
+     * {@code epoll_wait}), or {@code 0} if the executor does not perform I/O.
+     */
+    long ioWaitTimeNanos();
+
+    /**
+     * Returns the total time in nanoseconds spent processing I/O events (for example the selected keys), or
+     * {@code 0} if the executor does not perform I/O.
+     */
+    long ioProcessingTimeNanos();
+
+    /**
+     * Returns the total time in nanoseconds spent running tasks.
+     */
+    long taskProcessingTimeNanos();
+
+    /**
+     * Returns the number of times the executor thread was woken up by another thread.
+     */
+    long wakeups();
+
+    /**
+     * Returns the number of tasks that are pending for processing.
+     *
+     * @see SingleThreadEventExecutor#pendingTasks()
+     */
+    int pendingTasks();
+
+    /**
+     * Returns the largest number of tasks that were found in the task queue when the executor started to run them.
+     */
+    int peakPendingTasks();
+
+    /**
+     * Returns the number of batches in which tasks were drained from the task queue. Together with
+     * {@link #batchedTasks()} this shows how many tasks are typically waiting in the queue.
+     */
+    long taskBatches();
+
+    /**
+     * Returns the total number of tasks that were drained from the task queue in batches.
+     */
+    long batchedTasks();
+}
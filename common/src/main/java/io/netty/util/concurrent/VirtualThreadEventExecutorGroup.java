@@ -0,0 +1,386 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link EventExecutorGroup} which runs the tasks of its {@link EventExecutor}s on virtual threads when running on
+ * Java 21 or later. This allows handlers that need to call blocking APIs to be offloaded via
+ * {@code ChannelPipeline.addLast(group, handler)} without the need of one platform thread per blocked call.
+ * <p>
+ * Each call to {@link #next()} returns a new {@link OrderedEventExecutor}, so the tasks of one {@code Channel} are
+ * executed in order and never concurrently. Whenever such an executor has pending tasks they are drained by a
+ * newly started virtual thread.
+ * <p>
+ * If virtual threads are not supported by the current JVM a cached pool of platform threads is used instead, see
+ * {@link #isVirtualThreadSupported()}.
+ * <p>
+ * Scheduling is not supported by the returned executors. Use the {@code EventLoop} of the {@code Channel} to schedule
+ * tasks instead.
+ */
+@UnstableApi
+public final class VirtualThreadEventExecutorGroup extends AbstractEventExecutorGroup {
+
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(VirtualThreadEventExecutorGroup.class);
+
+    private static final int ST_STARTED = 1;
+    private static final int ST_SHUTTING_DOWN = 2;
+    private static final int ST_TERMINATED = 3;
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Throwable UNAVAILABILITY_CAUSE;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Throwable cause = null;
+        if (PlatformDependent.javaVersion() >= 21) {
+            try {
+                // Use reflection as we need to compile against older Java versions.
+                ofVirtual = Thread.class.getMethod("ofVirtual");
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                builderName = builderClass.getMethod("name", String.class, long.class);
+                builderFactory = builderClass.getMethod("factory");
+                // Create a factory once to ensure everything works as expected.
+                newVirtualThreadFactory(ofVirtual, builderName, builderFactory, "probe");
+            } catch (Throwable t) {
+                cause = t;
+                ofVirtual = null;
+                builderName = null;
+                builderFactory = null;
+            }
+        } else {
+            cause = new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        UNAVAILABILITY_CAUSE = cause;
+
+        logger.debug("Virtual threads available: {}", cause == null);
+    }
+
+    /**
+     * Returns {@code true} if virtual threads are supported by the current JVM and so will be used by new instances.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return UNAVAILABILITY_CAUSE == null;
+    }
+
+    /**
+     * Returns the cause why virtual threads can not be used or {@code null} if they are supported.
+     */
+    public static Throwable unavailabilityCause() {
+        return UNAVAILABILITY_CAUSE;
+    }
+
+    private static ThreadFactory newVirtualThreadFactory(Method ofVirtual, Method builderName, Method builderFactory,
+                                                         String prefix) throws Exception {
+        Object builder = ofVirtual.invoke(null);
+        builder = builderName.invoke(builder, prefix + '-', 0L);
+        return (ThreadFactory) builderFactory.invoke(builder);
+    }
+
+    private final Executor executor;
+    private final boolean virtualThreads;
+    private final int maxTaskExecutePerRun;
+    // Number of SerialEventExecutors that are either submitted or running.
+    private final AtomicInteger activeExecutors = new AtomicInteger();
+    private final AtomicInteger state = new AtomicInteger(ST_STARTED);
+    private final Promise<?> terminationFuture = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
+
+    /**
+     * Creates a new instance.
+     */
+    public VirtualThreadEventExecutorGroup() {
+        this(1024);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxTaskExecutePerRun  the maximum number of tasks of one {@link EventExecutor} that are run by the same
+     *                              thread before a new one is used for the remaining tasks.
+     */
+    public VirtualThreadEventExecutorGroup(int maxTaskExecutePerRun) {
+        this.maxTaskExecutePerRun = ObjectUtil.checkPositive(maxTaskExecutePerRun, "maxTaskExecutePerRun");
+        String prefix = DefaultThreadFactory.toPoolName(VirtualThreadEventExecutorGroup.class);
+        Executor executor = null;
+        if (isVirtualThreadSupported()) {
+            try {
+                executor = new ThreadPerTaskExecutor(
+                        newVirtualThreadFactory(OF_VIRTUAL, BUILDER_NAME, BUILDER_FACTORY, prefix));
+            } catch (Throwable t) {
+                logger.debug("Unable to create virtual thread factory, falling back to platform threads", t);
+            }
+        }
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>(), new DefaultThreadFactory(prefix));
+            virtualThreads = false;
+        } else {
+            virtualThreads = true;
+        }
+        this.executor = executor;
+    }
+
+    // Only used by tests.
+    VirtualThreadEventExecutorGroup(Executor executor, int maxTaskExecutePerRun) {
+        this.maxTaskExecutePerRun = ObjectUtil.checkPositive(maxTaskExecutePerRun, "maxTaskExecutePerRun");
+        this.executor = ObjectUtil.checkNotNull(executor, "executor");
+        virtualThreads = false;
+    }
+
+    /**
+     * Returns {@code true} if this group runs its tasks on virtual threads.
+     */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Returns a new {@link OrderedEventExecutor} which runs its tasks on the threads of this group.
+     */
+    @Override
+    public EventExecutor next() {
+        return new SerialEventExecutor();
+    }
+
+    /**
+     * The {@link EventExecutor}s of this group are created on demand by {@link #next()} and not tracked, so the
+     * returned {@link Iterator} is always empty.
+     */
+    @Override
+    public Iterator<EventExecutor> iterator() {
+        return Collections.<EventExecutor>emptyList().iterator();
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        return state.get() >= ST_SHUTTING_DOWN;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return isShuttingDown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return state.get() == ST_TERMINATED;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminationFuture.await(timeout, unit);
+    }
+
+    @Override
+    public Future<?> terminationFuture() {
+        return terminationFuture;
+    }
+
+    /**
+     * Rejects all new tasks and terminates once all previously submitted tasks were executed. As there are no
+     * long-lived threads the {@code quietPeriod} and {@code timeout} are ignored.
+     */
+    @Override
+    public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        ObjectUtil.checkPositiveOrZero(quietPeriod, "quietPeriod");
+        if (timeout < quietPeriod) {
+            throw new IllegalArgumentException(
+                    "timeout: " + timeout + " (expected >= quietPeriod (" + quietPeriod + "))");
+        }
+        ObjectUtil.checkNotNull(unit, "unit");
+        if (state.compareAndSet(ST_STARTED, ST_SHUTTING_DOWN)) {
+            tryTerminate();
+        }
+        return terminationFuture;
+    }
+
+    @Override
+    @Deprecated
+    public void shutdown() {
+        shutdownGracefully(0, 0, TimeUnit.SECONDS);
+    }
+
+    private void tryTerminate() {
+        if (activeExecutors.get() == 0 && state.compareAndSet(ST_SHUTTING_DOWN, ST_TERMINATED)) {
+            if (executor instanceof ThreadPoolExecutor) {
+                ((ThreadPoolExecutor) executor).shutdown();
+            }
+            terminationFuture.setSuccess(null);
+        }
+    }
+
+    private final class SerialEventExecutor extends AbstractEventExecutor implements Runnable, OrderedEventExecutor {
+        private static final int NONE = 0;
+        private static final int SUBMITTED = 1;
+        private static final int RUNNING = 2;
+
+        // Supports remove(Object), which is needed to take back a task that was rejected.
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+        private final AtomicInteger state = new AtomicInteger();
+        private volatile Thread thread;
+
+        SerialEventExecutor() {
+            super(VirtualThreadEventExecutorGroup.this);
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(SUBMITTED, RUNNING)) {
+                return;
+            }
+            thread = Thread.currentThread();
+            try {
+                for (;;) {
+                    int i = 0;
+                    for (; i < maxTaskExecutePerRun; i++) {
+                        Runnable task = tasks.poll();
+                        if (task == null) {
+                            break;
+                        }
+                        safeExecute(task);
+                    }
+                    if (i == maxTaskExecutePerRun) {
+                        // Hand over to a new thread so the one we run on can be reclaimed.
+                        state.set(SUBMITTED);
+                        thread = null;
+                        try {
+                            executor.execute(this);
+                            return;
+                        } catch (Throwable t) {
+                            // The executor did not accept us, so nobody else runs this executor. Keep running the
+                            // remaining tasks on the current thread instead of stranding them.
+                            logger.debug("Unable to hand over the remaining tasks of {} to a new thread", this, t);
+                            state.set(RUNNING);
+                            thread = Thread.currentThread();
+                            continue;
+                        }
+                    }
+                    state.set(NONE);
+                    // See NonStickyEventExecutorGroup for why we need to check the queue again.
+                    if (tasks.peek() == null || !state.compareAndSet(NONE, RUNNING)) {
+                        thread = null;
+                        executorInactive();
+                        return;
+                    }
+                }
+            } catch (Throwable t) {
+                // Should never happen as safeExecute(...) catches everything, but make sure this executor can be
+                // scheduled again and the group can terminate.
+                thread = null;
+                state.set(NONE);
+                executorInactive();
+                logger.warn("Unexpected exception while running the tasks of {}", this, t);
+            }
+        }
+
+        private void executorInactive() {
+            if (activeExecutors.decrementAndGet() == 0 && isShuttingDown()) {
+                tryTerminate();
+            }
+        }
+
+        @Override
+        public boolean inEventLoop(Thread thread) {
+            return thread == this.thread;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            ObjectUtil.checkNotNull(command, "command");
+            if (isShutdown()) {
+                throw new RejectedExecutionException("event executor terminated");
+            }
+            if (!tasks.offer(command)) {
+                throw new RejectedExecutionException();
+            }
+            if (state.compareAndSet(NONE, SUBMITTED)) {
+                activeExecutors.incrementAndGet();
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // The caller is told that the task was rejected, so it must never run. Other tasks that were
+                    // accepted in the meantime stay queued and run once the executor is scheduled again.
+                    tasks.remove(command);
+                    state.set(NONE);
+                    executorInactive();
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public boolean isShuttingDown() {
+            return VirtualThreadEventExecutorGroup.this.isShuttingDown();
+        }
+
+        @Override
+        public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+            return VirtualThreadEventExecutorGroup.this.shutdownGracefully(quietPeriod, timeout, unit);
+        }
+
+        @Override
+        public Future<?> terminationFuture() {
+            return terminationFuture;
+        }
+
+        @Override
+        @Deprecated
+        public void shutdown() {
+            VirtualThreadEventExecutorGroup.this.shutdown();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return VirtualThreadEventExecutorGroup.this.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return VirtualThreadEventExecutorGroup.this.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return VirtualThreadEventExecutorGroup.this.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.NettyRuntime;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link EventExecutorGroup} which runs the tasks of all its {@link EventExecutor}s on a shared pool of worker
+ * threads that steal work from each other.
+ * <p>
+ * Each call to {@link #next()} returns a new lightweight {@link OrderedEventExecutor} with its own task queue, so
+ * the tasks submitted to it are executed in order and never concurrently. When used via
+ * {@code ChannelPipeline.addLast(group, handler)} every {@code Channel} gets its own serial queue, and a slow
+ * {@code Channel} only delays its own tasks while idle workers steal the queues of other {@code Channel}s.
+ * <p>
+ * Scheduling is not supported by the returned executors. Use the {@code EventLoop} of the {@code Channel} to schedule
+ * tasks instead.
+ */
+@UnstableApi
+public final class WorkStealingEventExecutorGroup extends AbstractEventExecutorGroup {
+
+    private static final int ST_STARTED = 1;
+    private static final int ST_SHUTTING_DOWN = 2;
+    private static final int ST_SHUTDOWN = 3;
+    private static final int ST_TERMINATED = 4;
+
+    private static final long SHUTDOWN_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Worker[] workers;
+    private final int maxTaskExecutePerRun;
+    private final FastThreadLocal<Worker> currentWorker = new FastThreadLocal<Worker>();
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+    private final AtomicInteger activeWorkers;
+    private final AtomicInteger state = new AtomicInteger(ST_STARTED);
+    private final Promise<?> terminationFuture = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
+
+    private volatile long lastExecutionTime = System.nanoTime();
+    private volatile long gracefulShutdownQuietPeriod;
+    private volatile long gracefulShutdownTimeout;
+    private volatile long gracefulShutdownStartTime;
+
+    /**
+     * Creates a new instance which uses as many worker threads as there are available processors.
+     */
+    public WorkStealingEventExecutorGroup() {
+        this(0);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param nThreads the number of worker threads, or {@code 0} to use the number of available processors.
+     */
+    public WorkStealingEventExecutorGroup(int nThreads) {
+        this(nThreads, null);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param nThreads      the number of worker threads, or {@code 0} to use the number of available processors.
+     * @param threadFactory the {@link ThreadFactory} used to create the worker threads or {@code null} to use the
+     *                      default one.
+     */
+    public WorkStealingEventExecutorGroup(int nThreads, ThreadFactory threadFactory) {
+        this(nThreads, threadFactory, 1024);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param nThreads              the number of worker threads, or {@code 0} to use the number of available
+     *                              processors.
+     * @param threadFactory         the {@link ThreadFactory} used to create the worker threads or {@code null} to
+     *                              use the default one.
+     * @param maxTaskExecutePerRun  the maximum number of tasks of one {@link EventExecutor} that are run before the
+     *                              worker moves on to the next one.
+     */
+    public WorkStealingEventExecutorGroup(int nThreads, ThreadFactory threadFactory, int maxTaskExecutePerRun) {
+        ObjectUtil.checkPositiveOrZero(nThreads, "nThreads");
+        this.maxTaskExecutePerRun = ObjectUtil.checkPositive(maxTaskExecutePerRun, "maxTaskExecutePerRun");
+        if (nThreads == 0) {
+            nThreads = NettyRuntime.availableProcessors();
+        }
+        if (threadFactory == null) {
+            threadFactory = new DefaultThreadFactory(WorkStealingEventExecutorGroup.class);
+        }
+        workers = new Worker[nThreads];
+        for (int i = 0; i < nThreads; i++) {
+            workers[i] = new Worker(i);
+        }
+        activeWorkers = new AtomicInteger(nThreads);
+        for (Worker worker: workers) {
+            Thread thread = threadFactory.newThread(worker);
+            worker.thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Returns a new {@link OrderedEventExecutor} which runs its tasks on the workers of this group.
+     */
+    @Override
+    public EventExecutor next() {
+        return new SerialEventExecutor();
+    }
+
+    /**
+     * The {@link EventExecutor}s of this group are created on demand by {@link #next()} and not tracked, so the
+     * returned {@link Iterator} is always empty.
+     */
+    @Override
+    public Iterator<EventExecutor> iterator() {
+        return Collections.<EventExecutor>emptyList().iterator();
+    }
+
+    /**
+     * Returns the number of worker threads of this group.
+     */
+    public int executorCount() {
+        return workers.length;
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        return state.get() >= ST_SHUTTING_DOWN;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return state.get() >= ST_SHUTDOWN;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return state.get() == ST_TERMINATED;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminationFuture.await(timeout, unit);
+    }
+
+    @Override
+    public Future<?> terminationFuture() {
+        return terminationFuture;
+    }
+
+    @Override
+    public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        ObjectUtil.checkPositiveOrZero(quietPeriod, "quietPeriod");
+        if (timeout < quietPeriod) {
+            throw new IllegalArgumentException(
+                    "timeout: " + timeout + " (expected >= quietPeriod (" + quietPeriod + "))");
+        }
+        ObjectUtil.checkNotNull(unit, "unit");
+        if (isShuttingDown()) {
+            return terminationFuture;
+        }
+        // Set the fields before changing the state so the workers see them once they notice the shutdown.
+        gracefulShutdownQuietPeriod = unit.toNanos(quietPeriod);
+        gracefulShutdownTimeout = unit.toNanos(timeout);
+        gracefulShutdownStartTime = System.nanoTime();
+        if (state.compareAndSet(ST_STARTED, ST_SHUTTING_DOWN)) {
+            unparkAll();
+        }
+        return terminationFuture;
+    }
+
+    @Override
+    @Deprecated
+    public void shutdown() {
+        for (;;) {
+            int oldState = state.get();
+            if (oldState >= ST_SHUTDOWN || state.compareAndSet(oldState, ST_SHUTDOWN)) {
+                break;
+            }
+        }
+        unparkAll();
+    }
+
+    private void unparkAll() {
+        for (Worker worker: workers) {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    /**
+     * Submits the given {@link SerialEventExecutor} to a worker. If called from a worker thread the executor is
+     * added to the queue of this worker to keep the data it touches in the same CPU cache.
+     */
+    private void enqueue(SerialEventExecutor executor) {
+        Worker worker = currentWorker.get();
+        if (worker == null) {
+            worker = workers[(nextWorker.getAndIncrement() & Integer.MAX_VALUE) % workers.length];
+        }
+        worker.queue.offer(executor);
+        if (worker.parked) {
+            LockSupport.unpark(worker.thread);
+        } else if (idleWorkers.get() > 0) {
+            // The worker is busy, wake up an idle one so it can steal the executor.
+            unparkIdleWorker(worker.index);
+        }
+    }
+
+    private void unparkIdleWorker(int exclude) {
+        int start = PlatformDependent.threadLocalRandom().nextInt(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            Worker worker = workers[(start + i) % workers.length];
+            if (worker.index != exclude && worker.parked) {
+                LockSupport.unpark(worker.thread);
+                return;
+            }
+        }
+    }
+
+    private SerialEventExecutor steal(int thief) {
+        if (workers.length == 1) {
+            return null;
+        }
+        int start = PlatformDependent.threadLocalRandom().nextInt(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            Worker victim = workers[(start + i) % workers.length];
+            if (victim.index != thief) {
+                SerialEventExecutor executor = victim.queue.poll();
+                if (executor != null) {
+                    return executor;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean hasQueuedExecutors() {
+        for (Worker worker: workers) {
+            if (!worker.queue.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called by idle workers once the group is shutting down.
+     *
+     * @return {@code true} if the worker should terminate.
+     */
+    private boolean confirmShutdown() {
+        if (isShutdown()) {
+            return true;
+        }
+        long nanoTime = System.nanoTime();
+        if (nanoTime - gracefulShutdownStartTime > gracefulShutdownTimeout ||
+                nanoTime - lastExecutionTime > gracefulShutdownQuietPeriod) {
+            state.compareAndSet(ST_SHUTTING_DOWN, ST_SHUTDOWN);
+            unparkAll();
+            return true;
+        }
+        return false;
+    }
+
+    private final class Worker implements Runnable {
+        final Queue<SerialEventExecutor> queue = new ConcurrentLinkedQueue<SerialEventExecutor>();
+        final int index;
+        volatile Thread thread;
+        volatile boolean parked;
+
+        Worker(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            currentWorker.set(this);
+            try {
+                for (;;) {
+                    SerialEventExecutor executor = queue.poll();
+                    if (executor == null) {
+                        executor = steal(index);
+                    }
+                    if (executor != null) {
+                        if (idleWorkers.get() > 0 && hasQueuedExecutors()) {
+                            // There is more work than we can handle, propagate the wakeup so it is not lost if
+                            // several executors were enqueued while we were still marked as parked.
+                            unparkIdleWorker(index);
+                        }
+                        executor.run();
+                        continue;
+                    }
+                    if (isShuttingDown()) {
+                        if (confirmShutdown()) {
+                            break;
+                        }
+                        LockSupport.parkNanos(this, SHUTDOWN_CHECK_INTERVAL_NANOS);
+                        continue;
+                    }
+
+                    parked = true;
+                    idleWorkers.incrementAndGet();
+                    // Check again after we marked us as parked as otherwise we may miss an executor that was
+                    // submitted concurrently.
+                    if (!hasQueuedExecutors() && !isShuttingDown()) {
+                        LockSupport.park(this);
+                    }
+                    idleWorkers.decrementAndGet();
+                    parked = false;
+                }
+            } finally {
+                currentWorker.remove();
+                if (activeWorkers.decrementAndGet() == 0) {
+                    state.set(ST_TERMINATED);
+                    terminationFuture.setSuccess(null);
+                }
+            }
+        }
+    }
+
+    private final class SerialEventExecutor extends AbstractEventExecutor implements Runnable, OrderedEventExecutor {
+        private static final int NONE = 0;
+        private static final int SUBMITTED = 1;
+        private static final int RUNNING = 2;
+
+        private final Queue<Runnable> tasks = PlatformDependent.newMpscQueue();
+        private final AtomicInteger state = new AtomicInteger();
+        private volatile Thread thread;
+
+        SerialEventExecutor() {
+            super(WorkStealingEventExecutorGroup.this);
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(SUBMITTED, RUNNING)) {
+                return;
+            }
+            thread = Thread.currentThread();
+            try {
+                for (;;) {
+                    int i = 0;
+                    for (; i < maxTaskExecutePerRun; i++) {
+                        Runnable task = tasks.poll();
+                        if (task == null) {
+                            break;
+                        }
+                        safeExecute(task);
+                    }
+                    if (i == maxTaskExecutePerRun) {
+                        // Give the executors of other Channels a chance to run.
+                        state.set(SUBMITTED);
+                        enqueue(this);
+                        return;
+                    }
+                    state.set(NONE);
+                    // See NonStickyEventExecutorGroup for why we need to check the queue again.
+                    if (tasks.peek() == null || !state.compareAndSet(NONE, RUNNING)) {
+                        return;
+                    }
+                }
+            } finally {
+                thread = null;
+                lastExecutionTime = System.nanoTime();
+            }
+        }
+
+        @Override
+        public boolean inEventLoop(Thread thread) {
+            return thread == this.thread;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            ObjectUtil.checkNotNull(command, "command");
+            if (isShutdown()) {
+                throw new RejectedExecutionException("event executor terminated");
+            }
+            if (!tasks.offer(command)) {
+                throw new RejectedExecutionException();
+            }
+            if (state.compareAndSet(NONE, SUBMITTED)) {
+                enqueue(this);
+            }
+        }
+
+        @Override
+        public boolean isShuttingDown() {
+            return WorkStealingEventExecutorGroup.this.isShuttingDown();
+        }
+
+        @Override
+        public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+            return WorkStealingEventExecutorGroup.this.shutdownGracefully(quietPeriod, timeout, unit);
+        }
+
+        @Override
+        public Future<?> terminationFuture() {
+            return terminationFuture;
+        }
+
+        @Override
+        @Deprecated
+        public void shutdown() {
+            WorkStealingEventExecutorGroup.this.shutdown();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return WorkStealingEventExecutorGroup.this.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return WorkStealingEventExecutorGroup.this.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return WorkStealingEventExecutorGroup.this.awaitTermination(timeout, unit);
+        }
+    }
+}
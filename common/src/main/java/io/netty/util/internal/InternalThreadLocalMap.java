@@ -21,14 +21,18 @@ import io.netty.util.concurrent.FastThreadLocalThread;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.WeakHashMap;
 
 /**
@@ -46,6 +50,15 @@ public final class InternalThreadLocalMap extends UnpaddedInternalThreadLocalMap
 
     public static final Object UNSET = new Object();
 
+    /**
+     * Indexes whose owner was garbage collected and that can be handed out again, guarded by itself. The lowest
+     * index is reused first, which keeps the indexed variable tables of all threads as small as possible.
+     */
+    private static final BitSet freeIndexes = new BitSet();
+    /** Keeps the {@link IndexReference}s reachable until their owner was collected, guarded by {@link #freeIndexes}. */
+    private static final Set<IndexReference> indexReferences = new HashSet<IndexReference>();
+    private static final ReferenceQueue<Object> collectedOwners = new ReferenceQueue<Object>();
+
     private BitSet cleanerFlags;
 
     static {
@@ -114,6 +127,67 @@ public final class InternalThreadLocalMap extends UnpaddedInternalThreadLocalMap
         return index;
     }
 
+    /**
+     * Returns a new index like {@link #nextVariableIndex()}, which is handed out again once the given owner was
+     * garbage collected. No thread may have a value at the index at that point. This holds for {@link FastThreadLocal}
+     * as every thread keeps the {@link FastThreadLocal}s it has a value for reachable until the value is removed.
+     */
+    public static int nextVariableIndex(Object owner) {
+        ObjectUtil.checkNotNull(owner, "owner");
+        synchronized (freeIndexes) {
+            reclaimVariableIndexes();
+
+            int index = freeIndexes.nextSetBit(0);
+            if (index >= 0) {
+                freeIndexes.clear(index);
+            } else {
+                index = nextVariableIndex();
+            }
+            indexReferences.add(new IndexReference(owner, index));
+            return index;
+        }
+    }
+
+    /**
+     * Marks the indexes of all collected owners as free. Must be called while holding the lock of
+     * {@link #freeIndexes}.
+     */
+    private static void reclaimVariableIndexes() {
+        for (;;) {
+            IndexReference reference = (IndexReference) collectedOwners.poll();
+            if (reference == null) {
+                break;
+            }
+            indexReferences.remove(reference);
+            freeIndexes.set(reference.index);
+        }
+    }
+
+    /**
+     * Enqueues the reference to the given owner as if it was garbage collected and reclaims its index. Returns the
+     * index or {@code -1} if the owner has no index. The owner must not use the index anymore.
+     */
+    // Package-private for testing
+    static int reclaimVariableIndex(Object owner) {
+        synchronized (freeIndexes) {
+            for (IndexReference reference : indexReferences) {
+                if (reference.get() == owner) {
+                    reference.enqueue();
+                    reclaimVariableIndexes();
+                    return reference.index;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // Package-private for testing
+    static boolean isFreeVariableIndex(int index) {
+        synchronized (freeIndexes) {
+            return freeIndexes.get(index);
+        }
+    }
+
     public static int lastVariableIndex() {
         return nextIndex.get() - 1;
     }
@@ -347,4 +421,13 @@ public final class InternalThreadLocalMap extends UnpaddedInternalThreadLocalMap
         }
         cleanerFlags.set(index);
     }
+
+    private static final class IndexReference extends WeakReference<Object> {
+        final int index;
+
+        IndexReference(Object owner, int index) {
+            super(owner, collectedOwners);
+            this.index = index;
+        }
+    }
 }
@@ -23,20 +23,44 @@ void convertTemplates(String templateDir,
                       String keyObject,
                       String keyNumberMethod) {
     def keyName = keyPrimitive.capitalize()
-    def replaceFrom = "(^.*)K([^.]+)\\.template\$"
-    def replaceTo = "\\1" + keyName + "\\2.java"
     def hashCodeFn = keyPrimitive.equals("long") ? "(int) (key ^ (key >>> 32))" : "(int) key"
+    def tokens = ["K": keyName,
+                  "k": keyPrimitive,
+                  "O": keyObject,
+                  "KEY_NUMBER_METHOD": keyNumberMethod,
+                  "HASH_CODE": hashCodeFn]
+    // The primitive-valued maps and the sets are only generated for the key types that have callers.
+    boolean primitiveValued = keyPrimitive.equals("int") || keyPrimitive.equals("long")
+    if (primitiveValued) {
+        // Templates starting with KK use the key type for the values as well, e.g. KKHashMap -> IntIntHashMap.
+        copyTemplates templateDir, outputDir, "**/KK*.template", [],
+                "(^.*)KK([^.]+)\\.template\$", "\\1" + keyName + keyName + "\\2.java", tokens
+    }
+    List<String> excludes = ["**/KK*.template"]
+    if (!primitiveValued) {
+        excludes << "**/K*Set*.template"
+    }
+    copyTemplates templateDir, outputDir, "**/*.template", excludes,
+            "(^.*)K([^.]+)\\.template\$", "\\1" + keyName + "\\2.java", tokens
+}
+
+void copyTemplates(String templateDir,
+                   String outputDir,
+                   String includes,
+                   List<String> excludes,
+                   String replaceFrom,
+                   String replaceTo,
+                   Map<String, String> tokens) {
     ant.copy(todir: outputDir) {
         fileset(dir: templateDir) {
-            include(name: "**/*.template")
+            include(name: includes)
+            excludes.each { exclude(name: it) }
         }
         filterset() {
-            filter(token: "K", value: keyName)
-            filter(token: "k", value: keyPrimitive)
-            filter(token: "O", value: keyObject)
-            filter(token: "KEY_NUMBER_METHOD", value: keyNumberMethod)
-            filter(token: "HASH_CODE", value: hashCodeFn)
+            tokens.each { token, value ->
+                filter(token: token, value: value)
+            }
         }
         regexpmapper(from: replaceFrom, to: replaceTo)
     }
-}
\ No newline at end of file
+}
@@ -19,6 +19,7 @@ import org.junit.Test;
 
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Random;
 
 import static io.netty.util.AsciiString.contains;
@@ -424,4 +425,62 @@ public class AsciiStringCharacterTest {
         int i4 = foo.indexOf(' ', i3 + 1);
         assertEquals(i4, -1);
     }
+
+    @Test
+    public void testContentEqualsIgnoreCaseAllBytes() {
+        // Covers the word-at-a-time comparison as well as the remaining bytes.
+        for (int length = 1; length <= 19; length++) {
+            for (int i = 0; i < length; i++) {
+                for (int b = 0; b < 256; b++) {
+                    byte[] a = new byte[length + 1];
+                    byte[] c = new byte[length + 1];
+                    Arrays.fill(a, (byte) 'x');
+                    Arrays.fill(c, (byte) 'x');
+                    a[1 + i] = (byte) b;
+                    int expected = b >= 'A' && b <= 'Z' ? b + 32 : b;
+                    for (int d = 0; d < 256; d += 17) {
+                        c[1 + i] = (byte) d;
+                        int lowerD = d >= 'A' && d <= 'Z' ? d + 32 : d;
+                        AsciiString s1 = new AsciiString(a, 1, length, false);
+                        AsciiString s2 = new AsciiString(c, 1, length, false);
+                        assertEquals(expected == lowerD, s1.contentEqualsIgnoreCase(s2));
+                        assertEquals(expected == lowerD, s1.regionMatches(true, 0, s2, 0, length));
+                    }
+                    c[1 + i] = (byte) expected;
+                    assertTrue(new AsciiString(a, 1, length, false).contentEqualsIgnoreCase(
+                            new AsciiString(c, 1, length, false)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOfCharAllPositions() {
+        for (int length = 0; length <= 20; length++) {
+            byte[] bytes = new byte[length + 2];
+            Arrays.fill(bytes, (byte) 0xff);
+            AsciiString string = new AsciiString(bytes, 1, length, false);
+            assertEquals(-1, string.indexOf('a', 0));
+            for (int i = 0; i < length; i++) {
+                bytes[1 + i] = 'a';
+                string.arrayChanged();
+                for (int start = 0; start <= length; start++) {
+                    assertEquals(start <= i ? i : -1, string.indexOf('a', start));
+                }
+                assertEquals(-1, string.indexOf((char) 0xfe, 0));
+                assertEquals(i != 0 ? 0 : length > 1 ? 1 : -1, string.indexOf((char) 0xff, 0));
+                bytes[1 + i] = (byte) 0xff;
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOfCharSequenceLong() {
+        AsciiString string = new AsciiString("content-type: text/plain; charset=utf-8; boundary=xyz");
+        assertEquals(14, string.indexOf("text/plain"));
+        assertEquals(41, string.indexOf("boundary"));
+        assertEquals(-1, string.indexOf("boundary", 42));
+        assertEquals(-1, string.indexOf("Boundary"));
+        assertEquals(50, string.indexOf("xyz"));
+    }
 }
@@ -96,4 +96,47 @@ public class DefaultAttributeMapTest {
         assertSame(2, attr2.get());
         assertSame(attr, attr2);
     }
+
+    @Test
+    public void testManyAttributes() {
+        AttributeKey<Integer>[] keys = newKeys("testManyAttributes", 32);
+        // Add in reverse order so every insert needs to shift the existing attributes.
+        for (int i = keys.length - 1; i >= 0; i--) {
+            map.attr(keys[i]).set(i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertTrue(map.hasAttr(keys[i]));
+            assertEquals(Integer.valueOf(i), map.attr(keys[i]).get());
+        }
+        for (int i = 0; i < keys.length; i += 2) {
+            map.attr(keys[i]).remove();
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i % 2 != 0, map.hasAttr(keys[i]));
+        }
+    }
+
+    @Test
+    public void testHasAttrAfterRemove() {
+        AttributeKey<String> key = AttributeKey.valueOf("testHasAttrAfterRemove");
+        assertFalse(map.hasAttr(key));
+        Attribute<String> attr = map.attr(key);
+        assertTrue(map.hasAttr(key));
+        attr.remove();
+        assertFalse(map.hasAttr(key));
+        // Removing again must not remove a new attribute for the same key.
+        Attribute<String> attr2 = map.attr(key);
+        attr.remove();
+        assertTrue(map.hasAttr(key));
+        assertSame(attr2, map.attr(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AttributeKey<Integer>[] newKeys(String prefix, int count) {
+        AttributeKey<Integer>[] keys = new AttributeKey[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = AttributeKey.valueOf(prefix + i);
+        }
+        return keys;
+    }
 }
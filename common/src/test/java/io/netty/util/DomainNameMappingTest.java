@@ -19,6 +19,7 @@ package io.netty.util;
 import org.junit.Test;
 
 import java.util.Map;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 
@@ -210,4 +211,72 @@ public class DomainNameMappingTest {
         assertEquals("Netty", entries.get("netty.io"));
         assertEquals("Netty-Downloads", entries.get("downloads.netty.io"));
     }
+
+    @Test
+    public void testCaseInsensitiveAndIdn() {
+        DomainNameMapping<String> mapping = new DomainNameMappingBuilder<String>("NotFound")
+            .add("*.Netty.IO", "Netty")
+            .add("b\u00fccher.example", "Buecher")
+            .build();
+
+        assertEquals("Netty", mapping.map("DOWNLOADS.netty.io"));
+        assertEquals("Netty", mapping.map("NETTY.IO"));
+        assertEquals("Buecher", mapping.map("B\u00dcCHER.example"));
+        assertEquals("Buecher", mapping.map("xn--bcher-kva.EXAMPLE"));
+        assertEquals("NotFound", mapping.map("netty.iox"));
+        assertEquals("NotFound", mapping.map("netty"));
+    }
+
+    @Test
+    public void testNestedWildcards() {
+        DomainNameMapping<String> mapping = new DomainNameMappingBuilder<String>("NotFound")
+            .add("*.downloads.netty.io", "Netty-Downloads")
+            .add("*.netty.io", "Netty")
+            .add("netty.io.", "Netty-Dot")
+            .build();
+
+        assertEquals("Netty-Downloads", mapping.map("x.downloads.netty.io"));
+        assertEquals("Netty-Downloads", mapping.map("downloads.netty.io"));
+        assertEquals("Netty", mapping.map("uploads.netty.io"));
+        assertEquals("Netty-Dot", mapping.map("netty.io."));
+        assertEquals("NotFound", mapping.map("io"));
+        assertEquals("NotFound", mapping.map(""));
+        assertEquals("NotFound", mapping.map("."));
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        String[] labels = { "", "a", "b", "io", "netty" };
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            DomainNameMappingBuilder<String> builder = new DomainNameMappingBuilder<String>("NotFound");
+            String[] patterns = new String[random.nextInt(8) + 1];
+            for (int i = 0; i < patterns.length; i++) {
+                String name = randomName(random, labels);
+                patterns[i] = random.nextBoolean() ? "*." + name : name;
+                builder.add(patterns[i], patterns[i]);
+            }
+            DomainNameMapping<String> mapping = builder.build();
+            for (int i = 0; i < 50; i++) {
+                String hostname = randomName(random, labels);
+                String expected = "NotFound";
+                for (String pattern: patterns) {
+                    if (DomainNameMapping.matches(pattern, hostname)) {
+                        expected = pattern;
+                        break;
+                    }
+                }
+                assertEquals(hostname, expected, mapping.map(hostname));
+            }
+        }
+    }
+
+    private static String randomName(Random random, String[] labels) {
+        StringBuilder sb = new StringBuilder(labels[random.nextInt(labels.length)]);
+        int count = random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            sb.append('.').append(labels[random.nextInt(labels.length)]);
+        }
+        return sb.toString();
+    }
 }
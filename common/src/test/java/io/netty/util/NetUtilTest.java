@@ -22,6 +22,7 @@ import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -710,6 +711,66 @@ public class NetUtilTest {
         }
     }
 
+    @Test
+    public void testParseIpAddress() {
+        byte[] dst = new byte[16];
+        for (Map<String, String> hosts : Arrays.asList(validIpV4Hosts, invalidIpV4Hosts, validIpV6Hosts,
+                                                       invalidIpV6Hosts)) {
+            for (Entry<String, String> e : hosts.entrySet()) {
+                String ip = e.getKey();
+                // Make sure previous results do not leak into the next address.
+                Arrays.fill(dst, (byte) 0x5a);
+                int len = parseIpAddress(ip, dst);
+                assertHexDumpEquals(e.getValue(), len == 0 ? null : Arrays.copyOf(dst, len), ip);
+                assertEquals(ip, len, parseIpAddress(new StringBuilder(ip), dst));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseIpAddressTooSmallArray() {
+        parseIpAddress("127.0.0.1", new byte[4]);
+    }
+
+    @Test
+    public void testParseIpV4Address() {
+        for (Entry<String, String> e : validIpV4Hosts.entrySet()) {
+            long expected = Long.parseLong(e.getValue(), 16);
+            assertEquals(e.getKey(), expected, parseIpV4Address(e.getKey()));
+            assertEquals(e.getKey(), expected, parseIpV4Address(new AsciiString(e.getKey())));
+        }
+        for (String host : invalidIpV4Hosts.keySet()) {
+            assertEquals(host, -1, parseIpV4Address(host));
+        }
+        assertEquals(0xFFFFFFFFL, parseIpV4Address("255.255.255.255"));
+    }
+
+    @Test
+    public void testWriteIpAddress() {
+        byte[] dst = new byte[64];
+        for (String ip : validIpV4Hosts.keySet()) {
+            byte[] bytes = validIpV4ToBytes(ip);
+            int len = writeIpAddress(bytes, 0, bytes.length, dst, 3);
+            assertEquals(ip, new String(dst, 3, len, CharsetUtil.US_ASCII));
+            assertEquals(new AsciiString(ip), bytesToAsciiIpAddress(bytes, 0, bytes.length));
+            assertEquals(ip, intToIpAddress(ipv4AddressToInt(bytes)));
+        }
+        for (Entry<byte[], String> e : ipv6ToAddressStrings.entrySet()) {
+            // Place the address at an offset to make sure it is honored.
+            byte[] bytes = new byte[21];
+            System.arraycopy(e.getKey(), 0, bytes, 5, 16);
+            int len = writeIpAddress(bytes, 5, 16, dst, 7);
+            assertEquals(e.getValue(), new String(dst, 7, len, CharsetUtil.US_ASCII));
+            assertEquals(new AsciiString(e.getValue()), bytesToAsciiIpAddress(bytes, 5, 16));
+            assertEquals(e.getValue(), bytesToIpAddress(bytes, 5, 16));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteIpAddressInvalidLength() {
+        writeIpAddress(new byte[8], 0, 8, new byte[64], 0);
+    }
+
     @Test
     public void testIp6AddressToString() throws UnknownHostException {
         for (Entry<byte[], String> testEntry : ipv6ToAddressStrings.entrySet()) {
@@ -762,6 +823,10 @@ public class NetUtilTest {
         }
     }
 
+    private static int ipv4AddressToInt(byte[] bytes) {
+        return (bytes[0] & 0xff) << 24 | (bytes[1] & 0xff) << 16 | (bytes[2] & 0xff) << 8 | bytes[3] & 0xff;
+    }
+
     private static void assertHexDumpEquals(String expected, byte[] actual, String message) {
         assertEquals(message, expected, hex(actual));
     }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DefaultLatencyHistogramTest {
+
+    @Test
+    public void testBucketIndex() {
+        assertEquals(0, DefaultLatencyHistogram.bucketIndex(-1));
+        assertEquals(0, DefaultLatencyHistogram.bucketIndex(0));
+        assertEquals(1, DefaultLatencyHistogram.bucketIndex(1));
+        assertEquals(2, DefaultLatencyHistogram.bucketIndex(2));
+        assertEquals(2, DefaultLatencyHistogram.bucketIndex(3));
+        assertEquals(11, DefaultLatencyHistogram.bucketIndex(1024));
+        assertEquals(DefaultLatencyHistogram.BUCKETS - 1, DefaultLatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testRecord() {
+        DefaultLatencyHistogram histogram = new DefaultLatencyHistogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentileNanos(99));
+
+        histogram.record(100);
+        histogram.record(100);
+        histogram.record(1000);
+        histogram.record(-5);
+
+        assertEquals(4, histogram.count());
+        assertEquals(1200, histogram.totalNanos());
+        assertEquals(1000, histogram.maxNanos());
+        assertEquals(1, histogram.bucketCount(0));
+        assertEquals(2, histogram.bucketCount(DefaultLatencyHistogram.bucketIndex(100)));
+        assertEquals(1, histogram.bucketCount(DefaultLatencyHistogram.bucketIndex(1000)));
+    }
+
+    @Test
+    public void testPercentile() {
+        DefaultLatencyHistogram histogram = new DefaultLatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(100000);
+
+        assertEquals(128, histogram.percentileNanos(50));
+        assertEquals(128, histogram.percentileNanos(99));
+        assertEquals(100000, histogram.percentileNanos(100));
+    }
+
+    @Test
+    public void testBucketUpperBound() {
+        DefaultLatencyHistogram histogram = new DefaultLatencyHistogram();
+        assertEquals(1, histogram.bucketUpperBoundNanos(0));
+        assertEquals(1024, histogram.bucketUpperBoundNanos(10));
+        assertEquals(Long.MAX_VALUE, histogram.bucketUpperBoundNanos(histogram.buckets() - 1));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidBucket() {
+        new DefaultLatencyHistogram().bucketCount(DefaultLatencyHistogram.BUCKETS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new DefaultLatencyHistogram().percentileNanos(101);
+    }
+}
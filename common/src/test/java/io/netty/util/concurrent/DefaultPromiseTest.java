@@ -284,6 +284,25 @@ public class DefaultPromiseTest {
         }
     }
 
+    @Test(timeout = 10000)
+    public void testSignalRaceUntimedAwait() throws Exception {
+        final int numberOfAttempts = 4096;
+        for (int i = 0; i < numberOfAttempts; i++) {
+            final DefaultPromise<Void> promise = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    promise.setSuccess(null);
+                }
+            });
+            thread.start();
+            // Must not miss the notification even though no monitor is acquired if there are no waiters.
+            promise.awaitUninterruptibly();
+            assertTrue(promise.isSuccess());
+            thread.join();
+        }
+    }
+
     @Test
     public void signalUncancellableCompletionValue() {
         final Promise<Signal> promise = new DefaultPromise<Signal>(ImmediateEventExecutor.INSTANCE);
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DefaultSingleThreadEventExecutorMetricTest {
+
+    @Test
+    public void testTimedTask() throws Exception {
+        DefaultSingleThreadEventExecutorMetric metric = new DefaultSingleThreadEventExecutorMetric(null);
+        final AtomicBoolean ran = new AtomicBoolean();
+        Runnable task = metric.newTimedTask(new Runnable() {
+            @Override
+            public void run() {
+                ran.set(true);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        Thread.sleep(10);
+        task.run();
+
+        assertTrue(ran.get());
+        assertEquals(1, metric.taskQueueWaitTime().count());
+        assertEquals(1, metric.taskRunTime().count());
+        assertTrue(metric.taskQueueWaitTime().totalNanos() >= 5000000);
+        assertTrue(metric.taskRunTime().totalNanos() >= 5000000);
+    }
+
+    @Test
+    public void testTimedTaskRecordsOnException() {
+        DefaultSingleThreadEventExecutorMetric metric = new DefaultSingleThreadEventExecutorMetric(null);
+        Runnable task = metric.newTimedTask(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException();
+            }
+        });
+        try {
+            task.run();
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        assertEquals(1, metric.taskRunTime().count());
+    }
+
+    @Test
+    public void testCounters() {
+        DefaultSingleThreadEventExecutorMetric metric = new DefaultSingleThreadEventExecutorMetric(null);
+        metric.recordIoWaitTime(10);
+        metric.recordIoWaitTime(5);
+        metric.recordIoProcessingTime(7);
+        metric.recordTaskProcessingTime(3);
+        metric.recordWakeup();
+        metric.recordWakeup();
+        metric.recordScheduledTaskLateness(100);
+        metric.recordTaskBatch(3);
+        metric.recordTaskBatch(5);
+        metric.recordPendingTasks(8);
+        metric.recordPendingTasks(4);
+
+        assertEquals(15, metric.ioWaitTimeNanos());
+        assertEquals(7, metric.ioProcessingTimeNanos());
+        assertEquals(3, metric.taskProcessingTimeNanos());
+        assertEquals(2, metric.wakeups());
+        assertEquals(1, metric.scheduledTaskLateness().count());
+        assertEquals(2, metric.taskBatches());
+        assertEquals(8, metric.batchedTasks());
+        assertEquals(8, metric.peakPendingTasks());
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        SingleThreadEventExecutor executor = new DefaultEventExecutor();
+        try {
+            assertNull(executor.metric());
+        } finally {
+            executor.shutdownGracefully();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EventExecutorStallDetectorTest {
+
+    @Test(timeout = 10000)
+    public void testStallIsReported() throws Exception {
+        final DefaultEventExecutor executor = new DefaultEventExecutor();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<StackTraceElement[]> stackTraceRef = new AtomicReference<StackTraceElement[]>();
+        final AtomicReference<SingleThreadEventExecutor> executorRef = new AtomicReference<SingleThreadEventExecutor>();
+        EventExecutorStallDetector detector = new EventExecutorStallDetector(50, TimeUnit.MILLISECONDS,
+                new EventExecutorStallListener() {
+                    @Override
+                    public void executorStalled(SingleThreadEventExecutor executor, Thread thread, long stallNanos,
+                                                StackTraceElement[] stackTrace) {
+                        executorRef.set(executor);
+                        stackTraceRef.set(stackTrace);
+                        latch.countDown();
+                    }
+                });
+        try {
+            detector.monitor(executor);
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    blockingCall();
+                }
+            });
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertSame(executor, executorRef.get());
+
+            boolean found = false;
+            for (StackTraceElement element: stackTraceRef.get()) {
+                if ("blockingCall".equals(element.getMethodName())) {
+                    found = true;
+                    break;
+                }
+            }
+            assertTrue(found);
+        } finally {
+            detector.stop();
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testStallIsReportedOnce() throws Exception {
+        final DefaultEventExecutor executor = new DefaultEventExecutor();
+        final AtomicInteger reports = new AtomicInteger();
+        EventExecutorStallDetector detector = new EventExecutorStallDetector(20, 0, TimeUnit.MILLISECONDS,
+                new EventExecutorStallListener() {
+                    @Override
+                    public void executorStalled(SingleThreadEventExecutor executor, Thread thread, long stallNanos,
+                                                StackTraceElement[] stackTrace) {
+                        reports.incrementAndGet();
+                    }
+                }, new DefaultThreadFactory("stallDetector", true));
+        try {
+            detector.monitor(executor);
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    blockingCall();
+                }
+            }).sync();
+            // Give the detector a chance to run a couple more checks.
+            Thread.sleep(100);
+            assertEquals(1, reports.get());
+        } finally {
+            detector.stop();
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testIdleExecutorIsNotReported() throws Exception {
+        final DefaultEventExecutor executor = new DefaultEventExecutor();
+        final AtomicInteger reports = new AtomicInteger();
+        EventExecutorStallDetector detector = new EventExecutorStallDetector(20, TimeUnit.MILLISECONDS,
+                new EventExecutorStallListener() {
+                    @Override
+                    public void executorStalled(SingleThreadEventExecutor executor, Thread thread, long stallNanos,
+                                                StackTraceElement[] stackTrace) {
+                        reports.incrementAndGet();
+                    }
+                });
+        try {
+            detector.monitor(executor);
+            // Start the executor thread so it blocks waiting for work.
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    // NOOP
+                }
+            }).sync();
+            Thread.sleep(200);
+            assertEquals(0, reports.get());
+            assertTrue(detector.unmonitor(executor));
+            assertFalse(detector.unmonitor(executor));
+        } finally {
+            detector.stop();
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    private static void blockingCall() {
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -15,10 +15,14 @@
  */
 package io.netty.util.concurrent;
 
+import io.netty.util.internal.PlatformDependent;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
@@ -28,6 +32,8 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.Assert.assertEquals;
+
 public class SingleThreadEventExecutorTest {
 
     @Test
@@ -170,4 +176,58 @@ public class SingleThreadEventExecutorTest {
             executor.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
         }
     }
+
+    @Test(timeout = 10000)
+    public void testBatchedTasksRunInOrder() throws Exception {
+        testBatchedTasksRunInOrder(true);
+        testBatchedTasksRunInOrder(false);
+    }
+
+    private static void testBatchedTasksRunInOrder(final boolean timeout) throws Exception {
+        final SingleThreadEventExecutor executor = new SingleThreadEventExecutor(null,
+                Executors.defaultThreadFactory(), true) {
+            @Override
+            protected Queue<Runnable> newTaskQueue(int maxPendingTasks) {
+                // Non-blocking queue as used by the event loops, which supports draining in batches.
+                return PlatformDependent.newMpscQueue();
+            }
+
+            @Override
+            protected void run() {
+                while (!confirmShutdown()) {
+                    if (timeout) {
+                        runAllTasks(TimeUnit.SECONDS.toNanos(1));
+                    } else {
+                        runAllTasks();
+                    }
+                    Thread.yield();
+                }
+            }
+        };
+        try {
+            final int tasks = 1000;
+            final List<Integer> ran = new ArrayList<Integer>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                final int index = i;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        ran.add(index);
+                    }
+                });
+            }
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    // NOOP
+                }
+            }).sync();
+            assertEquals(tasks, ran.size());
+            for (int i = 0; i < tasks; i++) {
+                assertEquals(i, (int) ran.get(i));
+            }
+        } finally {
+            executor.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS).syncUninterruptibly();
+        }
+    }
 }
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.PlatformDependent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class VirtualThreadEventExecutorGroupTest {
+
+    @Test
+    public void testVirtualThreadSupport() {
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup();
+        try {
+            if (PlatformDependent.javaVersion() < 21) {
+                assertFalse(VirtualThreadEventExecutorGroup.isVirtualThreadSupported());
+                assertNotNull(VirtualThreadEventExecutorGroup.unavailabilityCause());
+            }
+            assertEquals(VirtualThreadEventExecutorGroup.isVirtualThreadSupported(), group.isUsingVirtualThreads());
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testOrderingPerExecutor() throws Exception {
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup(16);
+        try {
+            final int executors = 16;
+            final int tasks = 1000;
+            final CountDownLatch latch = new CountDownLatch(executors * tasks);
+            final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+            List<EventExecutor> list = new ArrayList<EventExecutor>();
+            final List<AtomicInteger> counters = new ArrayList<AtomicInteger>();
+            final List<AtomicBoolean> running = new ArrayList<AtomicBoolean>();
+            for (int i = 0; i < executors; i++) {
+                EventExecutor executor = group.next();
+                assertTrue(executor instanceof OrderedEventExecutor);
+                list.add(executor);
+                counters.add(new AtomicInteger());
+                running.add(new AtomicBoolean());
+            }
+            for (int i = 0; i < tasks; i++) {
+                for (int j = 0; j < executors; j++) {
+                    final int expected = i;
+                    final AtomicInteger counter = counters.get(j);
+                    final AtomicBoolean active = running.get(j);
+                    list.get(j).execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                if (!active.compareAndSet(false, true)) {
+                                    throw new AssertionError("ran concurrently");
+                                }
+                                assertEquals(expected, counter.getAndIncrement());
+                                active.set(false);
+                            } catch (Throwable cause) {
+                                error.compareAndSet(null, cause);
+                            } finally {
+                                latch.countDown();
+                            }
+                        }
+                    });
+                }
+            }
+            latch.await();
+            assertNull(error.get());
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testBlockingTasksRunConcurrently() throws Exception {
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup();
+        final int executors = 64;
+        final CountDownLatch started = new CountDownLatch(executors);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < executors; i++) {
+                group.next().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        started.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+            }
+            // Every executor blocks, so this only completes if none of them waits for another one.
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testInEventLoop() throws Exception {
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup();
+        try {
+            final EventExecutor executor = group.next();
+            assertFalse(executor.inEventLoop());
+            assertTrue(executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return executor.inEventLoop();
+                }
+            }).sync().getNow());
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testShutdownRunsPendingTasks() throws Exception {
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup();
+        EventExecutor executor = group.next();
+        final CountDownLatch block = new CountDownLatch(1);
+        final AtomicBoolean executed = new AtomicBoolean();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                executed.set(true);
+            }
+        });
+        Future<?> terminationFuture = group.shutdownGracefully();
+        assertTrue(group.isShuttingDown());
+        assertFalse(terminationFuture.isDone());
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // NOOP
+                }
+            });
+            fail();
+        } catch (RejectedExecutionException expected) {
+            // expected
+        }
+        block.countDown();
+        terminationFuture.syncUninterruptibly();
+        assertTrue(executed.get());
+        assertTrue(group.isTerminated());
+    }
+
+    @Test(timeout = 10000)
+    public void testRejectedByBackingExecutor() throws Exception {
+        final AtomicBoolean reject = new AtomicBoolean(true);
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                if (reject.get()) {
+                    throw new RejectedExecutionException();
+                }
+                new Thread(command).start();
+            }
+        }, 16);
+        EventExecutor executor = group.next();
+        final AtomicBoolean rejectedRun = new AtomicBoolean();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    rejectedRun.set(true);
+                }
+            });
+            fail();
+        } catch (RejectedExecutionException expected) {
+            // expected
+        }
+
+        // The executor can be scheduled again, but the rejected task is never run.
+        reject.set(false);
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                // NOOP
+            }
+        }).sync();
+        assertFalse(rejectedRun.get());
+
+        group.shutdownGracefully().syncUninterruptibly();
+        assertTrue(group.isTerminated());
+    }
+
+    @Test(timeout = 10000)
+    public void testHandoverFailureRunsRemainingTasks() throws Exception {
+        final AtomicReference<Runnable> accepted = new AtomicReference<Runnable>();
+        final AtomicInteger submissions = new AtomicInteger();
+        // Accepts the first submission only, every handover to a new thread fails.
+        VirtualThreadEventExecutorGroup group = new VirtualThreadEventExecutorGroup(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                if (submissions.getAndIncrement() > 0) {
+                    throw new RejectedExecutionException();
+                }
+                accepted.set(command);
+            }
+        }, 1);
+        EventExecutor executor = group.next();
+        final AtomicInteger executed = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    executed.incrementAndGet();
+                }
+            });
+        }
+        assertEquals(1, submissions.get());
+        accepted.get().run();
+        assertEquals(3, executed.get());
+
+        Future<?> terminationFuture = group.shutdownGracefully();
+        assertTrue(terminationFuture.isDone());
+        assertTrue(group.isTerminated());
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WorkStealingEventExecutorGroupTest {
+
+    @Test(timeout = 10000)
+    public void testOrderingPerExecutor() throws Exception {
+        WorkStealingEventExecutorGroup group = new WorkStealingEventExecutorGroup(4, null, 16);
+        try {
+            final int executors = 16;
+            final int tasks = 1000;
+            final CountDownLatch latch = new CountDownLatch(executors * tasks);
+            final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+            List<EventExecutor> list = new ArrayList<EventExecutor>();
+            final List<AtomicInteger> counters = new ArrayList<AtomicInteger>();
+            final List<AtomicBoolean> running = new ArrayList<AtomicBoolean>();
+            for (int i = 0; i < executors; i++) {
+                EventExecutor executor = group.next();
+                assertTrue(executor instanceof OrderedEventExecutor);
+                list.add(executor);
+                counters.add(new AtomicInteger());
+                running.add(new AtomicBoolean());
+            }
+            for (int i = 0; i < tasks; i++) {
+                for (int j = 0; j < executors; j++) {
+                    final int expected = i;
+                    final AtomicInteger counter = counters.get(j);
+                    final AtomicBoolean active = running.get(j);
+                    list.get(j).execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                if (!active.compareAndSet(false, true)) {
+                                    throw new AssertionError("ran concurrently");
+                                }
+                                assertEquals(expected, counter.getAndIncrement());
+                                active.set(false);
+                            } catch (Throwable cause) {
+                                error.compareAndSet(null, cause);
+                            } finally {
+                                latch.countDown();
+                            }
+                        }
+                    });
+                }
+            }
+            latch.await();
+            assertNull(error.get());
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testBlockedExecutorDoesNotBlockOthers() throws Exception {
+        WorkStealingEventExecutorGroup group = new WorkStealingEventExecutorGroup(2);
+        try {
+            final CountDownLatch blockLatch = new CountDownLatch(1);
+            EventExecutor blocked = group.next();
+            EventExecutor other = group.next();
+            blocked.execute(new Runnable() {
+                @Override
+                public void run() {
+                    awaitUninterruptibly(blockLatch);
+                }
+            });
+            // Tasks of other executors still make progress.
+            for (int i = 0; i < 10; i++) {
+                other.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        // NOOP
+                    }
+                }).sync();
+            }
+            blockLatch.countDown();
+            blocked.submit(new Runnable() {
+                @Override
+                public void run() {
+                    // NOOP
+                }
+            }).sync();
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testIdleWorkersStealWork() throws Exception {
+        final WorkStealingEventExecutorGroup group = new WorkStealingEventExecutorGroup(4);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            final int executors = 4;
+            final CountDownLatch started = new CountDownLatch(executors);
+            final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+            final EventExecutor parent = group.next();
+            // Submit from a worker thread, so all executors are queued on the same worker first.
+            parent.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < executors; i++) {
+                        group.next().execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                threads.add(Thread.currentThread());
+                                started.countDown();
+                                awaitUninterruptibly(release);
+                            }
+                        });
+                    }
+                }
+            }).sync();
+            // This can only complete if the executors were stolen by other workers.
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertEquals(executors, threads.size());
+        } finally {
+            release.countDown();
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testInEventLoop() throws Exception {
+        WorkStealingEventExecutorGroup group = new WorkStealingEventExecutorGroup(1);
+        try {
+            final EventExecutor executor = group.next();
+            assertFalse(executor.inEventLoop());
+            assertTrue(executor.submit(new java.util.concurrent.Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return executor.inEventLoop();
+                }
+            }).sync().getNow());
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testShutdown() throws Exception {
+        WorkStealingEventExecutorGroup group = new WorkStealingEventExecutorGroup(2);
+        EventExecutor executor = group.next();
+        final CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        });
+        latch.await();
+        assertFalse(group.isShuttingDown());
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        assertTrue(group.isTerminated());
+        assertTrue(executor.isTerminated());
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // NOOP
+                }
+            });
+            fail();
+        } catch (RejectedExecutionException expected) {
+            // expected
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InternalThreadLocalMapTest {
+
+    @Test
+    public void testVariableIndexReusedAfterCollection() {
+        FastThreadLocal<String> threadLocal = new FastThreadLocal<String>();
+        threadLocal.set("value");
+        threadLocal.remove();
+
+        // Enqueue the reference directly instead of waiting for the garbage collector to do it.
+        int index = InternalThreadLocalMap.reclaimVariableIndex(threadLocal);
+        assertTrue(index > 0);
+        assertTrue(InternalThreadLocalMap.isFreeVariableIndex(index));
+        assertEquals(-1, InternalThreadLocalMap.reclaimVariableIndex(threadLocal));
+
+        // Indexes of other collected instances may be lower and are handed out first, but no new index is needed
+        // until the reclaimed one was reused.
+        int lastIndex = InternalThreadLocalMap.lastVariableIndex();
+        while (InternalThreadLocalMap.isFreeVariableIndex(index)) {
+            new FastThreadLocal<String>();
+            assertEquals(lastIndex, InternalThreadLocalMap.lastVariableIndex());
+        }
+        assertFalse(InternalThreadLocalMap.isFreeVariableIndex(index));
+    }
+}
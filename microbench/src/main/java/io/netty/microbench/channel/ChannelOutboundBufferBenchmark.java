@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link ChannelOutboundBuffer} operations a gathering transport performs for every flush: adding the
+ * messages, flushing them, building the {@link java.nio.ByteBuffer} array and removing the written bytes, once in a
+ * single write and once over two partial writes.
+ * <p>
+ * Use it together with {@code EpollSocketChannelBenchmark} to compare the cost of the buffer bookkeeping with the
+ * cost of a full round-trip.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ChannelOutboundBufferBenchmark extends AbstractMicrobenchmark {
+
+    @Param({ "1", "16", "256" })
+    public int messages;
+
+    private EmbeddedChannel channel;
+    private ChannelOutboundBuffer buffer;
+    private ByteBuf content;
+    private long bytesPerFlush;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        channel = new EmbeddedChannel();
+        // Never mark the channel as unwritable so only the bookkeeping is measured.
+        channel.config().setWriteBufferHighWaterMark(Integer.MAX_VALUE);
+        buffer = channel.unsafe().outboundBuffer();
+        content = Unpooled.directBuffer(128).writeZero(128);
+        bytesPerFlush = (long) messages * content.readableBytes();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+        content.release();
+    }
+
+    @Benchmark
+    public long writeAll() {
+        addAndFlush();
+        buffer.nioBuffers();
+        long size = buffer.nioBufferSize();
+        buffer.removeBytes(size);
+        return size;
+    }
+
+    @Benchmark
+    public long writePartially() {
+        addAndFlush();
+        buffer.nioBuffers();
+        buffer.removeBytes(bytesPerFlush / 2 + 1);
+        buffer.nioBuffers();
+        long size = buffer.nioBufferSize();
+        buffer.removeBytes(size);
+        return size;
+    }
+
+    private void addAndFlush() {
+        for (int i = 0; i < messages; i++) {
+            buffer.addMessage(content.retainedDuplicate(), content.readableBytes(), channel.voidPromise());
+        }
+        buffer.addFlush();
+    }
+}
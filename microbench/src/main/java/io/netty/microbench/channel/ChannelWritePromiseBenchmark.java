@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.channel;
+
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of {@code write(msg)}, which creates a new promise, with {@code writeVoid(msg)} and
+ * {@code write(msg, voidPromise())}, which do not, and with writes that attach a listener to the returned future.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ChannelWritePromiseBenchmark extends AbstractMicrobenchmark {
+
+    private static final Object MESSAGE = new Object();
+
+    private static final ChannelHandler COMPLETING_HANDLER = new ChannelOutboundHandlerAdapter() {
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            // Drop the message and complete the promise as the transport would do once it was written.
+            promise.trySuccess();
+        }
+
+        @Override
+        public boolean isSharable() {
+            return true;
+        }
+    };
+
+    private static final ChannelFutureListener NOOP_LISTENER = new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) {
+            // NOOP
+        }
+    };
+
+    private EmbeddedChannel channel;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        channel = new EmbeddedChannel(COMPLETING_HANDLER);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        channel.close();
+    }
+
+    @Benchmark
+    public ChannelFuture writeNewPromise() {
+        return channel.write(MESSAGE);
+    }
+
+    @Benchmark
+    public ChannelFuture writeVoidPromise() {
+        return channel.write(MESSAGE, channel.voidPromise());
+    }
+
+    @Benchmark
+    public void writeVoid() {
+        channel.writeVoid(MESSAGE);
+    }
+
+    @Benchmark
+    public ChannelFuture writeNewPromiseWithListener() {
+        return channel.write(MESSAGE, channel.newPromise().addListener(NOOP_LISTENER));
+    }
+}
@@ -18,7 +18,9 @@ package io.netty.microbench.channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.microbench.util.AbstractMicrobenchmark;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -44,7 +46,19 @@ public class DefaultChannelPipelineBenchmark extends AbstractMicrobenchmark {
         }
     };
 
+    private static final ChannelHandler NOOP_OUTBOUND_HANDLER = new ChannelOutboundHandlerAdapter() {
+        @Override
+        public boolean isSharable() {
+            return true;
+        }
+    };
+
     private static final ChannelHandler CONSUMING_HANDLER = new ChannelInboundHandlerAdapter() {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            // NOOP
+        }
+
         @Override
         public void channelReadComplete(ChannelHandlerContext ctx) {
             // NOOP
@@ -56,18 +70,36 @@ public class DefaultChannelPipelineBenchmark extends AbstractMicrobenchmark {
         }
     };
 
-    @Param({ "4" })
+    private static final ChannelHandler CONSUMING_OUTBOUND_HANDLER = new ChannelOutboundHandlerAdapter() {
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            // NOOP
+        }
+
+        @Override
+        public boolean isSharable() {
+            return true;
+        }
+    };
+
+    private static final Object MESSAGE = new Object();
+
+    @Param({ "4", "16" })
     public int extraHandlers;
 
     private ChannelPipeline pipeline;
+    private ChannelPromise promise;
 
     @Setup(Level.Iteration)
     public void setup() {
         pipeline = new EmbeddedChannel().pipeline();
+        pipeline.addLast(CONSUMING_OUTBOUND_HANDLER);
+        // Mix inbound-only and outbound-only handlers so every event has to skip half of them.
         for (int i = 0; i < extraHandlers; i++) {
-            pipeline.addLast(NOOP_HANDLER);
+            pipeline.addLast(i % 2 == 0 ? NOOP_HANDLER : NOOP_OUTBOUND_HANDLER);
         }
         pipeline.addLast(CONSUMING_HANDLER);
+        promise = pipeline.voidPromise();
     }
 
     @TearDown
@@ -81,4 +113,18 @@ public class DefaultChannelPipelineBenchmark extends AbstractMicrobenchmark {
             hole.consume(pipeline.fireChannelReadComplete());
         }
     }
+
+    @Benchmark
+    public void propagateRead(Blackhole hole) {
+        for (int i = 0; i < 100; i++) {
+            hole.consume(pipeline.fireChannelRead(MESSAGE));
+        }
+    }
+
+    @Benchmark
+    public void propagateWrite(Blackhole hole) {
+        for (int i = 0; i < 100; i++) {
+            hole.consume(pipeline.write(MESSAGE, promise));
+        }
+    }
 }
@@ -271,6 +271,16 @@ public abstract class EmbeddedChannelHandlerContext implements ChannelHandlerCon
         return writeAndFlush(msg, newPromise());
     }
 
+    @Override
+    public void writeVoid(Object msg) {
+        write(msg, voidPromise());
+    }
+
+    @Override
+    public void writeAndFlushVoid(Object msg) {
+        writeAndFlush(msg, voidPromise());
+    }
+
     @Override
     public final ChannelPipeline pipeline() {
         return channel().pipeline();
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.concurrent.Promise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures round-trips over the local transport. Every invocation writes {@link #messages} messages with a single
+ * flush and waits until the peer echoed all of them back, once with both channels on the same {@link EventLoop} and
+ * once on different ones.
+ * <p>
+ * Run it against an older revision to compare the local transport implementations.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class LocalChannelBenchmark extends AbstractMicrobenchmark {
+
+    private static final LocalAddress ADDRESS = new LocalAddress(LocalChannelBenchmark.class.getSimpleName());
+    private static final Object MESSAGE = new Object();
+
+    @Param({ "true", "false" })
+    public boolean sameLoop;
+
+    @Param({ "1", "64" })
+    public int messages;
+
+    private EventLoopGroup group;
+    private Channel serverChannel;
+    private Channel channel;
+    private EchoReceiver receiver;
+    private final Runnable writeTask = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = 0; i < messages; i++) {
+                channel.write(MESSAGE, channel.voidPromise());
+            }
+            channel.flush();
+        }
+    };
+
+    @Setup
+    public void setup() throws Exception {
+        group = new DefaultEventLoopGroup(2);
+        EventLoop clientLoop = group.next();
+        EventLoop serverLoop = sameLoop ? clientLoop : group.next();
+
+        serverChannel = new ServerBootstrap()
+                .group(serverLoop)
+                .channel(LocalServerChannel.class)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ctx.write(msg, ctx.voidPromise());
+                    }
+
+                    @Override
+                    public void channelReadComplete(ChannelHandlerContext ctx) {
+                        ctx.flush();
+                    }
+                })
+                .bind(ADDRESS)
+                .sync()
+                .channel();
+        receiver = new EchoReceiver();
+        channel = new Bootstrap()
+                .group(clientLoop)
+                .channel(LocalChannel.class)
+                .handler(receiver)
+                .connect(ADDRESS)
+                .sync()
+                .channel();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        channel.close().sync();
+        serverChannel.close().sync();
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    }
+
+    @Benchmark
+    public Object roundTrip() throws Exception {
+        Promise<Void> done = channel.eventLoop().newPromise();
+        receiver.expect(messages, done);
+        // Write from the EventLoop so only the transport is measured and not a task submission per message.
+        channel.eventLoop().execute(writeTask);
+        return done.sync();
+    }
+
+    private static final class EchoReceiver extends ChannelInboundHandlerAdapter {
+        private int remaining;
+        private Promise<Void> done;
+
+        // Called before the writeTask is submitted to the EventLoop, which makes the state visible to it.
+        void expect(int messages, Promise<Void> done) {
+            remaining = messages;
+            this.done = done;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            if (--remaining == 0) {
+                done.setSuccess(null);
+            }
+        }
+    }
+}
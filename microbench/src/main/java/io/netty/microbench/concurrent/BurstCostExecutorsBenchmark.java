@@ -14,6 +14,8 @@
  */
 package io.netty.microbench.concurrent;
 
+import io.netty.channel.DefaultSelectStrategyFactory;
+import io.netty.channel.EventLoopTaskQueueFactory;
 import io.netty.channel.epoll.Epoll;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.kqueue.KQueue;
@@ -21,6 +23,8 @@ import io.netty.channel.kqueue.KQueueEventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.microbench.util.AbstractMicrobenchmark;
 import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.DefaultEventExecutorChooserFactory;
+import io.netty.util.concurrent.RejectedExecutionHandlers;
 import io.netty.util.internal.PlatformDependent;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -37,8 +41,11 @@ import org.openjdk.jmh.infra.Blackhole;
 import java.util.Collection;
 import java.util.List;
 import java.util.Queue;
+import java.nio.channels.spi.SelectorProvider;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -170,13 +177,27 @@ public class BurstCostExecutorsBenchmark extends AbstractMicrobenchmark {
         defaultEventExecutor,
         juc,
         nioEventLoop,
+        nioEventLoopLinkedQueue,
         epollEventLoop,
+        epollEventLoopLinkedQueue,
         kqueueEventLoop
     }
 
+    /**
+     * Task queue that allocates a node per task, to compare with the default chunked array queue of the event loops
+     * that is drained in batches.
+     */
+    private static final EventLoopTaskQueueFactory LINKED_TASK_QUEUE_FACTORY = new EventLoopTaskQueueFactory() {
+        @Override
+        public Queue<Runnable> newTaskQueue(int maxCapacity) {
+            return new ConcurrentLinkedQueue<Runnable>();
+        }
+    };
+
     @Param({ "1", "10" })
     private int burstLength;
-    @Param({ "spinning", "epollEventLoop", "nioEventLoop", "defaultEventExecutor", "juc", "kqueueEventLoop" })
+    @Param({ "spinning", "epollEventLoop", "epollEventLoopLinkedQueue", "nioEventLoop", "nioEventLoopLinkedQueue",
+             "defaultEventExecutor", "juc", "kqueueEventLoop" })
     private String executorType;
     @Param({ "0", "10" })
     private int work;
@@ -189,11 +210,11 @@ public class BurstCostExecutorsBenchmark extends AbstractMicrobenchmark {
         ExecutorType type = ExecutorType.valueOf(executorType);
         switch (type) {
         case spinning:
-            //The case with 3 producers can have a peak of 3*burstLength offers:
-            //4 is to leave some room between the offers and 1024 is to leave some room
+            //The case with 8 producers can have a peak of 8*burstLength offers:
+            //9 is to leave some room between the offers and 1024 is to leave some room
             //between producer/consumer when work is > 0 and 1 producer.
             //If work = 0 then the task queue is supposed to be near empty most of the time.
-            executor = new SpinExecutorService(Math.min(1024, burstLength * 4));
+            executor = new SpinExecutorService(Math.min(1024, burstLength * 9));
             executorToShutdown = executor;
             break;
         case defaultEventExecutor:
@@ -210,6 +231,15 @@ public class BurstCostExecutorsBenchmark extends AbstractMicrobenchmark {
             executor = nioEventLoopGroup.next();
             executorToShutdown = nioEventLoopGroup;
             break;
+        case nioEventLoopLinkedQueue:
+            NioEventLoopGroup nioLinkedEventLoopGroup = new NioEventLoopGroup(1, (Executor) null,
+                    DefaultEventExecutorChooserFactory.INSTANCE, SelectorProvider.provider(),
+                    DefaultSelectStrategyFactory.INSTANCE, RejectedExecutionHandlers.reject(),
+                    LINKED_TASK_QUEUE_FACTORY);
+            nioLinkedEventLoopGroup.setIoRatio(1);
+            executor = nioLinkedEventLoopGroup.next();
+            executorToShutdown = nioLinkedEventLoopGroup;
+            break;
         case epollEventLoop:
             Epoll.ensureAvailability();
             EpollEventLoopGroup epollEventLoopGroup = new EpollEventLoopGroup(1);
@@ -217,6 +247,15 @@ public class BurstCostExecutorsBenchmark extends AbstractMicrobenchmark {
             executor = epollEventLoopGroup.next();
             executorToShutdown = epollEventLoopGroup;
             break;
+        case epollEventLoopLinkedQueue:
+            Epoll.ensureAvailability();
+            EpollEventLoopGroup epollLinkedEventLoopGroup = new EpollEventLoopGroup(1, (Executor) null,
+                    DefaultEventExecutorChooserFactory.INSTANCE, DefaultSelectStrategyFactory.INSTANCE,
+                    RejectedExecutionHandlers.reject(), LINKED_TASK_QUEUE_FACTORY);
+            epollLinkedEventLoopGroup.setIoRatio(1);
+            executor = epollLinkedEventLoopGroup.next();
+            executorToShutdown = epollLinkedEventLoopGroup;
+            break;
         case kqueueEventLoop:
             KQueue.ensureAvailability();
             KQueueEventLoopGroup kQueueEventLoopGroup = new KQueueEventLoopGroup(1);
@@ -317,6 +356,16 @@ public class BurstCostExecutorsBenchmark extends AbstractMicrobenchmark {
         return executeBurst(state);
     }
 
+    /**
+     * Fan-in from many producer threads, which stresses the contended offer side of the task queue.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @Threads(8)
+    public int test8Producers(final PerThreadState state) {
+        return executeBurst(state);
+    }
+
     private int executeBurst(final PerThreadState state) {
         final ExecutorService executor = this.executor;
         final int burstLength = this.burstLength;
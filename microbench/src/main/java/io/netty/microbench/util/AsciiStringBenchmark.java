@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.util;
+
+import io.netty.util.AsciiString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the case-insensitive comparison and search operations of {@link AsciiString} which are used by the
+ * {@code Headers} implementations.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class AsciiStringBenchmark extends AbstractMicrobenchmark {
+
+    @Param({ "7", "16", "64" })
+    public int size;
+
+    private AsciiString lowerCase;
+    private AsciiString mixedCase;
+
+    @Setup
+    public void setup() {
+        byte[] lower = new byte[size];
+        byte[] mixed = new byte[size];
+        for (int i = 0; i < size; i++) {
+            lower[i] = (byte) ('a' + i % 26);
+            mixed[i] = i % 2 == 0 ? (byte) ('A' + i % 26) : lower[i];
+        }
+        // Unique last character so indexOf(char) has to scan the whole string.
+        lower[size - 1] = mixed[size - 1] = '#';
+        lowerCase = new AsciiString(lower, false);
+        mixedCase = new AsciiString(mixed, false);
+    }
+
+    @Benchmark
+    public boolean contentEqualsIgnoreCase() {
+        return lowerCase.contentEqualsIgnoreCase(mixedCase);
+    }
+
+    @Benchmark
+    public boolean caseInsensitiveHasherEquals() {
+        return AsciiString.CASE_INSENSITIVE_HASHER.equals(lowerCase, mixedCase);
+    }
+
+    @Benchmark
+    public int indexOfChar() {
+        return lowerCase.indexOf('#', 0);
+    }
+
+    @Benchmark
+    public int hashCodeUncached() {
+        lowerCase.arrayChanged();
+        return lowerCase.hashCode();
+    }
+}
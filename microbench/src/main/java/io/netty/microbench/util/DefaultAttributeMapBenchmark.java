@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.util;
+
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import io.netty.util.DefaultAttributeMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class DefaultAttributeMapBenchmark extends AbstractMicrobenchmark {
+
+    @Param({ "8", "32" })
+    public int keyCount;
+
+    private AttributeKey<Integer>[] keys;
+    private DefaultAttributeMap map;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Iteration)
+    public void setup() {
+        keys = new AttributeKey[keyCount];
+        map = new DefaultAttributeMap();
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = AttributeKey.valueOf(DefaultAttributeMapBenchmark.class, "key" + i);
+            map.attr(keys[i]).set(i);
+        }
+    }
+
+    @Benchmark
+    public void attrExisting(Blackhole hole) {
+        for (AttributeKey<Integer> key: keys) {
+            hole.consume(map.attr(key));
+        }
+    }
+
+    @Benchmark
+    public void hasAttr(Blackhole hole) {
+        for (AttributeKey<Integer> key: keys) {
+            hole.consume(map.hasAttr(key));
+        }
+    }
+
+    @Benchmark
+    public DefaultAttributeMap newMapAndFill() {
+        DefaultAttributeMap map = new DefaultAttributeMap();
+        for (AttributeKey<Integer> key: keys) {
+            map.attr(key).set(1);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public void addAndRemove(Blackhole hole) {
+        for (AttributeKey<Integer> key: keys) {
+            Attribute<Integer> attr = map.attr(key);
+            hole.consume(attr.getAndRemove());
+            map.attr(key).set(1);
+        }
+    }
+}
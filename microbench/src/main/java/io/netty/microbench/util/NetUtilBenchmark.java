@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.util.AsciiString;
+import io.netty.util.NetUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the allocating IP address parsing and formatting methods of {@link NetUtil} with the ones writing into
+ * caller-provided storage.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class NetUtilBenchmark extends AbstractMicrobenchmark {
+
+    @Param({ "192.168.100.200", "2001:db8:85a3::8a2e:370:7334", "[fe80::1%eth0]" })
+    public String address;
+
+    private AsciiString asciiAddress;
+    private byte[] bytes;
+    private final byte[] parsed = new byte[16];
+    private final byte[] formatted = new byte[39];
+    private ByteBuf buf;
+
+    @Setup
+    public void setup() {
+        asciiAddress = new AsciiString(address);
+        bytes = NetUtil.createByteArrayFromIpAddressString(address);
+        buf = Unpooled.directBuffer(64);
+    }
+
+    @TearDown
+    public void tearDown() {
+        buf.release();
+    }
+
+    @Benchmark
+    public byte[] createByteArrayFromIpAddressString() {
+        return NetUtil.createByteArrayFromIpAddressString(address);
+    }
+
+    @Benchmark
+    public int parseIpAddress() {
+        return NetUtil.parseIpAddress(address, parsed);
+    }
+
+    @Benchmark
+    public int parseIpAddressAscii() {
+        return NetUtil.parseIpAddress(asciiAddress, parsed);
+    }
+
+    @Benchmark
+    public String bytesToIpAddress() {
+        return NetUtil.bytesToIpAddress(bytes);
+    }
+
+    @Benchmark
+    public AsciiString bytesToAsciiIpAddress() {
+        return NetUtil.bytesToAsciiIpAddress(bytes, 0, bytes.length);
+    }
+
+    @Benchmark
+    public int writeIpAddress() {
+        return NetUtil.writeIpAddress(bytes, 0, bytes.length, formatted, 0);
+    }
+
+    @Benchmark
+    public int writeIpAddressToByteBuf() {
+        buf.clear();
+        return ByteBufUtil.writeIpAddress(buf, bytes, 0, bytes.length);
+    }
+}
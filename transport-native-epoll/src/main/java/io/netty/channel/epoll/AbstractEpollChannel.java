@@ -268,7 +268,9 @@ abstract class AbstractEpollChannel extends AbstractChannel implements UnixChann
     }
 
     private void modifyEvents() throws IOException {
-        if (isOpen() && isRegistered()) {
+        // An EPOLLEXCLUSIVE registration can not be modified, the flags are only tracked and checked when an event is
+        // processed.
+        if (isOpen() && isRegistered() && !isFlagSet(Native.EPOLLEXCLUSIVE)) {
             ((EpollEventLoop) eventLoop()).modify(this);
         }
     }
@@ -502,7 +504,7 @@ abstract class AbstractEpollChannel extends AbstractChannel implements UnixChann
          * @param handle The handle to wrap with EPOLL specific logic.
          */
         EpollRecvByteAllocatorHandle newEpollHandle(RecvByteBufAllocator.ExtendedHandle handle) {
-            return new EpollRecvByteAllocatorHandle(handle);
+            return new EpollRecvByteAllocatorHandle(handle, socket);
         }
 
         @Override
@@ -515,6 +517,20 @@ abstract class AbstractEpollChannel extends AbstractChannel implements UnixChann
             }
         }
 
+        /**
+         * Called once EPOLLERR was received, before {@link #epollOutReady()} and {@link #epollInReady()}.
+         */
+        void epollErrReady() {
+            // NOOP
+        }
+
+        /**
+         * Called once a EPOLLOUT event is ready to be processed, before the pending writes are flushed.
+         */
+        void epollOutBefore() {
+            // NOOP
+        }
+
         /**
          * Called once a EPOLLOUT event is ready to be processed
          */
@@ -523,6 +539,7 @@ abstract class AbstractEpollChannel extends AbstractChannel implements UnixChann
                 // pending connect which is now complete so handle it.
                 finishConnect();
             } else if (!socket.isOutputShutdown()) {
+                epollOutBefore();
                 // directly call super.flush0() to force a flush now
                 super.flush0();
             }
@@ -23,6 +23,7 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoop;
 import io.netty.channel.ServerChannel;
+import io.netty.util.internal.UnstableApi;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
@@ -30,6 +31,9 @@ import java.net.SocketAddress;
 public abstract class AbstractEpollServerChannel extends AbstractEpollChannel implements ServerChannel {
     private static final ChannelMetadata METADATA = new ChannelMetadata(false, 16);
 
+    // Only written by the EventLoop.
+    private volatile long acceptCount;
+
     protected AbstractEpollServerChannel(int fd) {
         this(new LinuxSocket(fd), false);
     }
@@ -47,6 +51,16 @@ public abstract class AbstractEpollServerChannel extends AbstractEpollChannel im
         return METADATA;
     }
 
+    /**
+     * Returns the number of connections this channel accepted so far. If several channels share one listening socket,
+     * like the ones created by {@link EpollExclusiveAcceptorFactory}, this shows how the accepts are spread over their
+     * {@link EventLoop}s.
+     */
+    @UnstableApi
+    public long acceptCount() {
+        return acceptCount;
+    }
+
     @Override
     protected boolean isCompatible(EventLoop loop) {
         return loop instanceof EpollEventLoop;
@@ -94,6 +108,12 @@ public abstract class AbstractEpollServerChannel extends AbstractEpollChannel im
                 clearEpollIn0();
                 return;
             }
+            if (isFlagSet(Native.EPOLLEXCLUSIVE) && !isFlagSet(Native.EPOLLIN)) {
+                // An EPOLLEXCLUSIVE registration still reports EPOLLIN when reading was suspended. Pick up the pending
+                // connections once reading is resumed.
+                maybeMoreDataToRead = true;
+                return;
+            }
             final EpollRecvByteAllocatorHandle allocHandle = recvBufAllocHandle();
             allocHandle.edgeTriggered(isFlagSet(Native.EPOLLET));
 
@@ -115,6 +135,7 @@ public abstract class AbstractEpollServerChannel extends AbstractEpollChannel im
                             break;
                         }
                         allocHandle.incMessagesRead(1);
+                        acceptCount++;
 
                         readPending = false;
                         pipeline.fireChannelRead(newChildChannel(allocHandle.lastBytesRead(), acceptedAddress, 1,
@@ -37,6 +37,7 @@ import io.netty.channel.unix.SocketWritableByteChannel;
 import io.netty.channel.unix.UnixChannelUtil;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
+import io.netty.util.internal.SystemPropertyUtil;
 import io.netty.util.internal.UnstableApi;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
@@ -61,6 +62,8 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
             " (expected: " + StringUtil.simpleClassName(ByteBuf.class) + ", " +
                     StringUtil.simpleClassName(DefaultFileRegion.class) + ')';
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(AbstractEpollStreamChannel.class);
+    private static final long ZERO_COPY_CLOSE_TIMEOUT_MILLIS =
+            SystemPropertyUtil.getLong("io.netty.epoll.zeroCopyCloseTimeoutMillis", 10000);
 
     private final Runnable flushTask = new Runnable() {
         @Override
@@ -78,6 +81,9 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
 
     private WritableByteChannel byteChannel;
 
+    // Lazy init if we need to send with MSG_ZEROCOPY.
+    private ZeroCopyBuffers zeroCopyBuffers;
+
     protected AbstractEpollStreamChannel(Channel parent, int fd) {
         this(parent, new LinuxSocket(fd));
     }
@@ -256,6 +262,9 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
             return 0;
         }
 
+        if (isZeroCopyCandidate(buf)) {
+            return writeBytesZeroCopy(in, buf);
+        }
         if (buf.hasMemoryAddress() || buf.nioBufferCount() == 1) {
             return doWriteBytes(in, buf);
         } else {
@@ -265,6 +274,60 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
         }
     }
 
+    /**
+     * Returns the minimum number of readable bytes of a direct {@link ByteBuf} to send it with {@code MSG_ZEROCOPY}
+     * or {@code 0} if zero copy sends are disabled.
+     */
+    int zeroCopyThreshold() {
+        return 0;
+    }
+
+    private boolean isZeroCopyCandidate(ByteBuf buf) {
+        int threshold = zeroCopyThreshold();
+        return threshold > 0 && buf.readableBytes() >= threshold && buf.hasMemoryAddress();
+    }
+
+    /**
+     * Write bytes form the given {@link ByteBuf} with {@code MSG_ZEROCOPY}. The {@link ByteBuf} is retained until the
+     * kernel reports that the send completed.
+     * @param in the collection which contains objects to write.
+     * @param buf the {@link ByteBuf} from which the bytes should be written
+     * @return The value that should be decremented from the write quantum which starts at
+     * {@link ChannelConfig#getWriteSpinCount()}. The typical use cases are as follows:
+     * <ul>
+     *     <li>1 - if a single call to write data was made to the OS</li>
+     *     <li>{@link ChannelUtils#WRITE_STATUS_SNDBUF_FULL} - if an attempt to write data was made to the OS, but
+     *     no data was accepted</li>
+     * </ul>
+     */
+    private int writeBytesZeroCopy(ChannelOutboundBuffer in, ByteBuf buf) throws Exception {
+        int localFlushedAmount = socket.sendAddressZeroCopy(buf.memoryAddress(), buf.readerIndex(), buf.writerIndex());
+        if (localFlushedAmount > 0) {
+            if (zeroCopyBuffers == null) {
+                zeroCopyBuffers = new ZeroCopyBuffers();
+            }
+            zeroCopyBuffers.add(buf.retain());
+            in.removeBytes(localFlushedAmount);
+            return 1;
+        }
+        if (localFlushedAmount < 0) {
+            // The kernel can not track more zero copy sends until some complete, copy the bytes instead.
+            return doWriteBytes(in, buf);
+        }
+        return WRITE_STATUS_SNDBUF_FULL;
+    }
+
+    private void readZeroCopyCompletions() {
+        ZeroCopyBuffers zeroCopyBuffers = this.zeroCopyBuffers;
+        if (zeroCopyBuffers != null && !zeroCopyBuffers.isEmpty()) {
+            try {
+                zeroCopyBuffers.readCompletions(socket);
+            } catch (IOException e) {
+                pipeline().fireExceptionCaught(e);
+            }
+        }
+    }
+
     private void adjustMaxBytesPerGatheringWrite(long attempted, long written, long oldMaxBytesPerGatheringWrite) {
         // By default we track the SO_SNDBUF when ever it is explicitly set. However some OSes may dynamically change
         // SO_SNDBUF (and other characteristics that determine how much data can be written at once) so we should try
@@ -417,12 +480,16 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
         int writeSpinCount = config().getWriteSpinCount();
         do {
             final int msgCount = in.size();
-            // Do gathering write if the outbound buffer entries start with more than one ByteBuf.
-            if (msgCount > 1 && in.current() instanceof ByteBuf) {
+            // Do gathering write if the outbound buffer entries start with more than one ByteBuf, unless the first one
+            // is sent without copying.
+            final Object current = in.current();
+            if (msgCount > 1 && current instanceof ByteBuf && !isZeroCopyCandidate((ByteBuf) current)) {
                 writeSpinCount -= doWriteMultiple(in);
             } else if (msgCount == 0) {
                 // Wrote all messages.
-                clearFlag(Native.EPOLLOUT);
+                if (!updateNotSentWritability(in)) {
+                    clearFlag(Native.EPOLLOUT);
+                }
                 // Return here so we not set the EPOLLOUT flag.
                 return;
             } else {  // msgCount == 1
@@ -447,9 +514,48 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
             // Underlying descriptor can not accept all data currently, so set the EPOLLOUT flag to be woken up
             // when it can accept more data.
             setFlag(Native.EPOLLOUT);
+            int index = notSentLowAtWritabilityIndex();
+            if (index != 0) {
+                in.setUserDefinedWritability(index, false);
+            }
         }
     }
 
+    /**
+     * Returns the index of the user-defined writability flag that follows the {@code TCP_NOTSENT_LOWAT} threshold of
+     * the kernel or {@code 0} if it is not tracked.
+     */
+    int notSentLowAtWritabilityIndex() {
+        return 0;
+    }
+
+    /**
+     * Returns the {@code TCP_NOTSENT_LOWAT} threshold if {@link #notSentLowAtWritabilityIndex()} is not {@code 0}.
+     */
+    long notSentLowAt() {
+        return 0;
+    }
+
+    /**
+     * Called once the outbound buffer was flushed completely. If the kernel still holds at least
+     * {@code TCP_NOTSENT_LOWAT} unsent bytes the channel becomes unwritable and {@code EPOLLOUT} is set, so we are
+     * notified once the kernel wants more data.
+     * @return {@code true} if {@code EPOLLOUT} was set.
+     */
+    private boolean updateNotSentWritability(ChannelOutboundBuffer in) throws IOException {
+        int index = notSentLowAtWritabilityIndex();
+        if (index == 0) {
+            return false;
+        }
+        if (socket.getUnsentBytes() >= notSentLowAt()) {
+            in.setUserDefinedWritability(index, false);
+            setFlag(Native.EPOLLOUT);
+            return true;
+        }
+        in.setUserDefinedWritability(index, true);
+        return false;
+    }
+
     /**
      * Attempt to write a single object.
      * @param in the collection which contains objects to write.
@@ -667,6 +773,15 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
 
     @Override
     protected void doClose() throws Exception {
+        final ZeroCopyBuffers zeroCopyBuffers = this.zeroCopyBuffers;
+        LinuxSocket zeroCopySocket = null;
+        if (zeroCopyBuffers != null) {
+            // Release what completed already.
+            readZeroCopyCompletions();
+            if (!zeroCopyBuffers.isEmpty()) {
+                zeroCopySocket = keepOpenForZeroCopyCompletions();
+            }
+        }
         try {
             // Calling super.doClose() first so spliceTo(...) will fail on next call.
             super.doClose();
@@ -674,6 +789,30 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
             safeClosePipe(pipeIn);
             safeClosePipe(pipeOut);
             clearSpliceQueue();
+            if (zeroCopySocket != null) {
+                zeroCopyBuffers.closeWhenCompleted(zeroCopySocket, eventLoop(), ZERO_COPY_CLOSE_TIMEOUT_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * The kernel keeps transmitting from the memory of the outstanding {@code MSG_ZEROCOPY} sends after the socket is
+     * closed, so their buffers must not be released before the completions arrived. Shut down the output, which still
+     * sends the queued data, and return a duplicate of the socket that keeps the connection and its error queue after
+     * the channel closed its file descriptor. If that fails the buffers are never released.
+     */
+    private LinuxSocket keepOpenForZeroCopyCompletions() {
+        try {
+            socket.shutdown(false, true);
+        } catch (IOException e) {
+            logger.debug("Failed to shut down the output of {}", this, e);
+        }
+        try {
+            return socket.duplicate();
+        } catch (IOException e) {
+            logger.warn("Failed to wait for the MSG_ZEROCOPY completions of {}, their buffers are not released.",
+                    this, e);
+            return null;
         }
     }
 
@@ -733,7 +872,31 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
 
         @Override
         EpollRecvByteAllocatorHandle newEpollHandle(RecvByteBufAllocator.ExtendedHandle handle) {
-            return new EpollRecvByteAllocatorStreamingHandle(handle);
+            return new EpollRecvByteAllocatorStreamingHandle(handle, socket);
+        }
+
+        @Override
+        void epollErrReady() {
+            readZeroCopyCompletions();
+        }
+
+        @Override
+        void epollOutBefore() {
+            int index = notSentLowAtWritabilityIndex();
+            ChannelOutboundBuffer in = outboundBuffer();
+            if (index != 0 && in != null) {
+                // The kernel reports EPOLLOUT once less than TCP_NOTSENT_LOWAT bytes are unsent.
+                in.setUserDefinedWritability(index, true);
+                if (in.isEmpty()) {
+                    // Nothing to flush, which would otherwise clear EPOLLOUT.
+                    try {
+                        clearFlag(Native.EPOLLOUT);
+                    } catch (IOException e) {
+                        pipeline().fireExceptionCaught(e);
+                        close(voidPromise());
+                    }
+                }
+            }
         }
 
         @Override
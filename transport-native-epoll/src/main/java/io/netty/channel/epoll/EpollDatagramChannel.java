@@ -26,7 +26,6 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.DefaultAddressedEnvelope;
 import io.netty.channel.socket.DatagramChannel;
-import io.netty.channel.socket.DatagramChannelConfig;
 import io.netty.channel.socket.DatagramPacket;
 import io.netty.channel.socket.InternetProtocolFamily;
 import io.netty.channel.unix.DatagramSocketAddress;
@@ -309,8 +308,9 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
             }
 
             try {
-                // Check if sendmmsg(...) is supported which is only the case for GLIBC 2.14+
-                if (Native.IS_SUPPORTING_SENDMMSG && in.size() > 1) {
+                // Check if sendmmsg(...) is supported which is only the case for GLIBC 2.14+. It is also used for a
+                // single SegmentedDatagramPacket as the segment size is passed as control message.
+                if (Native.IS_SUPPORTING_SENDMMSG && (in.size() > 1 || msg instanceof SegmentedDatagramPacket)) {
                     NativeDatagramPacketArray array = cleanDatagramPacketArray();
                     array.add(in, isConnected());
                     int cnt = array.count();
@@ -415,6 +415,18 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
 
     @Override
     protected Object filterOutboundMessage(Object msg) {
+        if (msg instanceof SegmentedDatagramPacket) {
+            if (!SegmentedDatagramPacket.isSupported()) {
+                throw new UnsupportedOperationException(
+                        "unsupported message type: " + StringUtil.simpleClassName(msg) + EXPECTED_TYPES);
+            }
+            SegmentedDatagramPacket packet = (SegmentedDatagramPacket) msg;
+            ByteBuf content = packet.content();
+            return UnixChannelUtil.isBufferCopyNeededForWrite(content) ?
+                    new SegmentedDatagramPacket(newDirectBuffer(packet, content), packet.segmentSize(),
+                            packet.recipient()) : msg;
+        }
+
         if (msg instanceof DatagramPacket) {
             DatagramPacket packet = (DatagramPacket) msg;
             ByteBuf content = packet.content();
@@ -475,7 +487,7 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
         @Override
         void epollInReady() {
             assert eventLoop().inEventLoop();
-            DatagramChannelConfig config = config();
+            EpollDatagramChannelConfig config = config();
             if (shouldBreakEpollInReady(config)) {
                 clearEpollIn0();
                 return;
@@ -495,11 +507,14 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
                     do {
                         ByteBuf byteBuf = allocHandle.allocate(allocator);
                         final boolean read;
-                        int datagramSize = config().getMaxDatagramPayloadSize();
+                        int datagramSize = config.getMaxDatagramPayloadSize();
                         int numDatagram = datagramSize == 0 ? 1 : byteBuf.writableBytes() / datagramSize;
 
                         try {
-                            if (numDatagram <= 1) {
+                            if (config.isUdpGro()) {
+                                // Coalesced datagrams must be read into the whole buffer.
+                                read = segmentedRead(allocHandle, byteBuf);
+                            } else if (numDatagram <= 1) {
                                 if (connected) {
                                     read = connectedRead(allocHandle, byteBuf, datagramSize);
                                 } else {
@@ -654,6 +669,33 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
         }
     }
 
+    private boolean segmentedRead(EpollRecvByteAllocatorHandle allocHandle, ByteBuf byteBuf) throws IOException {
+        try {
+            NativeDatagramPacketArray array = cleanDatagramPacketArray();
+            array.addWritable(byteBuf, byteBuf.writerIndex(), byteBuf.writableBytes());
+            allocHandle.attemptedBytesRead(byteBuf.writableBytes());
+
+            NativeDatagramPacketArray.NativeDatagramPacket[] packets = array.packets();
+            int received = socket.recvmmsg(packets, 0, array.count());
+            if (received == 0) {
+                allocHandle.lastBytesRead(-1);
+                return false;
+            }
+            // Either a DatagramPacket or, if the kernel coalesced datagrams, a SegmentedDatagramPacket.
+            DatagramPacket packet = packets[0].newDatagramPacket(byteBuf, localAddress());
+            allocHandle.lastBytesRead(packet.content().readableBytes());
+            allocHandle.incMessagesRead(1);
+
+            pipeline().fireChannelRead(packet);
+            byteBuf = null;
+            return true;
+        } finally {
+            if (byteBuf != null) {
+                byteBuf.release();
+            }
+        }
+    }
+
     private boolean read(EpollRecvByteAllocatorHandle allocHandle, ByteBuf byteBuf, int maxDatagramPacketSize)
             throws IOException {
         try {
@@ -35,6 +35,7 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
     private static final RecvByteBufAllocator DEFAULT_RCVBUF_ALLOCATOR = new FixedRecvByteBufAllocator(2048);
     private boolean activeOnOpen;
     private volatile int maxDatagramSize;
+    private volatile boolean udpGro;
 
     EpollDatagramChannelConfig(EpollDatagramChannel channel) {
         super(channel);
@@ -51,7 +52,8 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
                 ChannelOption.IP_MULTICAST_ADDR, ChannelOption.IP_MULTICAST_IF, ChannelOption.IP_MULTICAST_TTL,
                 ChannelOption.IP_TOS, ChannelOption.DATAGRAM_CHANNEL_ACTIVE_ON_REGISTRATION,
                 EpollChannelOption.SO_REUSEPORT, EpollChannelOption.IP_FREEBIND, EpollChannelOption.IP_TRANSPARENT,
-                EpollChannelOption.IP_RECVORIGDSTADDR, EpollChannelOption.MAX_DATAGRAM_PAYLOAD_SIZE);
+                EpollChannelOption.IP_RECVORIGDSTADDR, EpollChannelOption.MAX_DATAGRAM_PAYLOAD_SIZE,
+                EpollChannelOption.UDP_SEGMENT, EpollChannelOption.UDP_GRO);
     }
 
     @SuppressWarnings({ "unchecked", "deprecation" })
@@ -102,6 +104,12 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
         if (option == EpollChannelOption.MAX_DATAGRAM_PAYLOAD_SIZE) {
             return (T) Integer.valueOf(getMaxDatagramPayloadSize());
         }
+        if (option == EpollChannelOption.UDP_SEGMENT) {
+            return (T) Integer.valueOf(getUdpSegmentSize());
+        }
+        if (option == EpollChannelOption.UDP_GRO) {
+            return (T) Boolean.valueOf(isUdpGro());
+        }
         return super.getOption(option);
     }
 
@@ -140,6 +148,10 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
             setIpRecvOrigDestAddr((Boolean) value);
         } else if (option == EpollChannelOption.MAX_DATAGRAM_PAYLOAD_SIZE) {
             setMaxDatagramPayloadSize((Integer) value);
+        } else if (option == EpollChannelOption.UDP_SEGMENT) {
+            setUdpSegmentSize((Integer) value);
+        } else if (option == EpollChannelOption.UDP_GRO) {
+            setUdpGro((Boolean) value);
         } else {
             return super.setOption(option, value);
         }
@@ -526,4 +538,54 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
     public int getMaxDatagramPayloadSize() {
         return maxDatagramSize;
     }
+
+    /**
+     * Set the <a href="https://lwn.net/Articles/752184/">UDP_SEGMENT</a> size of the socket. Every written datagram
+     * that is bigger is split into datagrams of this size by the kernel or the NIC. Use {@code 0} to disable it,
+     * which is the default. Use {@link SegmentedDatagramPacket} to set the size per write instead.
+     */
+    public EpollDatagramChannelConfig setUdpSegmentSize(int segmentSize) {
+        try {
+            ((EpollDatagramChannel) channel).socket.setUdpSegment(
+                    ObjectUtil.checkPositiveOrZero(segmentSize, "segmentSize"));
+            return this;
+        } catch (IOException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    /**
+     * Returns the <a href="https://lwn.net/Articles/752184/">UDP_SEGMENT</a> size of the socket.
+     */
+    public int getUdpSegmentSize() {
+        try {
+            return ((EpollDatagramChannel) channel).socket.getUdpSegment();
+        } catch (IOException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    /**
+     * If {@code true} is used <a href="https://lwn.net/Articles/768995/">UDP_GRO</a> is enabled, {@code false} for
+     * disable it. Default is disabled. When enabled, datagrams of the same flow may be coalesced by the kernel and
+     * are read as one {@link SegmentedDatagramPacket}. The {@link RecvByteBufAllocator} must hand out buffers which
+     * can hold up to 64KB, as datagrams that do not fit are truncated.
+     */
+    public EpollDatagramChannelConfig setUdpGro(boolean udpGro) {
+        try {
+            ((EpollDatagramChannel) channel).socket.setUdpGro(udpGro);
+            this.udpGro = udpGro;
+            return this;
+        } catch (IOException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    /**
+     * Returns {@code true} if <a href="https://lwn.net/Articles/768995/">UDP_GRO</a> is enabled, {@code false}
+     * otherwise.
+     */
+    public boolean isUdpGro() {
+        return udpGro;
+    }
 }
@@ -29,12 +29,14 @@ import io.netty.util.collection.IntObjectMap;
 import io.netty.util.concurrent.RejectedExecutionHandler;
 import io.netty.util.internal.ObjectUtil;
 import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
 import java.io.IOException;
 import java.util.Queue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import static java.lang.Math.min;
@@ -76,6 +78,8 @@ class EpollEventLoop extends SingleThreadEventLoop {
     @SuppressWarnings("unused") // AtomicIntegerFieldUpdater
     private volatile int wakenUp;
     private volatile int ioRatio = 50;
+    private final int cpu;
+    private volatile int boundCpu = -1;
 
     // See http://man7.org/linux/man-pages/man2/timerfd_create.2.html.
     private static final long MAX_SCHEDULED_TIMERFD_NS = 999999999;
@@ -83,8 +87,15 @@ class EpollEventLoop extends SingleThreadEventLoop {
     EpollEventLoop(EventLoopGroup parent, Executor executor, int maxEvents,
                    SelectStrategy strategy, RejectedExecutionHandler rejectedExecutionHandler,
                    EventLoopTaskQueueFactory queueFactory) {
+        this(parent, executor, maxEvents, strategy, rejectedExecutionHandler, queueFactory, -1);
+    }
+
+    EpollEventLoop(EventLoopGroup parent, Executor executor, int maxEvents,
+                   SelectStrategy strategy, RejectedExecutionHandler rejectedExecutionHandler,
+                   EventLoopTaskQueueFactory queueFactory, int cpu) {
         super(parent, executor, false, newTaskQueue(queueFactory), newTaskQueue(queueFactory),
                 rejectedExecutionHandler);
+        this.cpu = cpu;
         selectStrategy = ObjectUtil.checkNotNull(strategy, "strategy");
         if (maxEvents == 0) {
             allowGrowing = true;
@@ -180,6 +191,7 @@ class EpollEventLoop extends SingleThreadEventLoop {
         if (!inEventLoop && WAKEN_UP_UPDATER.getAndSet(this, 1) == 0) {
             // write to the evfd which will then wake-up epoll_wait(...)
             Native.eventFdWrite(eventFd.intValue(), 1L);
+            recordWakeup();
         }
     }
 
@@ -189,7 +201,12 @@ class EpollEventLoop extends SingleThreadEventLoop {
     void add(AbstractEpollChannel ch) throws IOException {
         assert inEventLoop();
         int fd = ch.socket.intValue();
-        Native.epollCtlAdd(epollFd.intValue(), fd, ch.flags);
+        int flags = ch.flags;
+        if ((flags & Native.EPOLLEXCLUSIVE) != 0) {
+            // The registration can not be modified later, so always ask for EPOLLIN.
+            flags |= Native.EPOLLIN;
+        }
+        Native.epollCtlAdd(epollFd.intValue(), fd, flags);
         AbstractEpollChannel old = channels.put(fd, ch);
 
         // We either expect to have no Channel in the map with the same FD or that the FD of the old Channel is already
@@ -255,6 +272,18 @@ class EpollEventLoop extends SingleThreadEventLoop {
         this.ioRatio = ioRatio;
     }
 
+    /**
+     * Sets the maximum amount of time a flush may be deferred. If greater than {@code 0} a flush only marks the
+     * {@link io.netty.channel.Channel} and the write is done once per channel at the end of the current event loop
+     * iteration, so the responses to pipelined requests that are handled in the same iteration are written together.
+     * {@code 0} disables this, which is the default.
+     */
+    @UnstableApi
+    @Override
+    public void setMaxFlushDelay(long maxDelay, TimeUnit unit) {
+        super.setMaxFlushDelay(maxDelay, unit);
+    }
+
     @Override
     public int registeredChannels() {
         return channels.size();
@@ -284,8 +313,28 @@ class EpollEventLoop extends SingleThreadEventLoop {
         return Native.epollBusyWait(epollFd, events);
     }
 
+    /**
+     * Returns the CPU the thread of this loop is bound to or {@code -1} if it is not bound (yet).
+     */
+    int boundCpu() {
+        return boundCpu;
+    }
+
+    private void bindToCpu() {
+        if (cpu < 0) {
+            return;
+        }
+        try {
+            Native.setCurrentThreadAffinity(cpu);
+            boundCpu = cpu;
+        } catch (IOException e) {
+            logger.warn("Failed to bind {} to CPU {}.", Thread.currentThread(), cpu, e);
+        }
+    }
+
     @Override
     protected void run() {
+        bindToCpu();
         for (;;) {
             try {
                 int strategy = selectStrategy.calculateStrategy(selectNowSupplier, hasTasks());
@@ -294,7 +343,14 @@ class EpollEventLoop extends SingleThreadEventLoop {
                         continue;
 
                     case SelectStrategy.BUSY_WAIT:
-                        strategy = epollBusyWait();
+                        markLoopIdle();
+                        if (metric() != null) {
+                            final long waitStartTime = System.nanoTime();
+                            strategy = epollBusyWait();
+                            recordIoWaitTime(System.nanoTime() - waitStartTime);
+                        } else {
+                            strategy = epollBusyWait();
+                        }
                         break;
 
                     case SelectStrategy.SELECT:
@@ -302,19 +358,31 @@ class EpollEventLoop extends SingleThreadEventLoop {
                             wakenUp = 0;
                         }
                         if (!hasTasks()) {
-                            strategy = epollWait();
+                            markLoopIdle();
+                            if (metric() != null) {
+                                final long waitStartTime = System.nanoTime();
+                                strategy = epollWait();
+                                recordIoWaitTime(System.nanoTime() - waitStartTime);
+                            } else {
+                                strategy = epollWait();
+                            }
                         }
                         // fallthrough
                     default:
                 }
 
+                markLoopIterationStart();
                 final int ioRatio = this.ioRatio;
                 if (ioRatio == 100) {
+                    final long ioStartTime = metric() != null ? System.nanoTime() : 0;
                     try {
                         if (strategy > 0) {
                             processReady(events, strategy);
                         }
                     } finally {
+                        if (ioStartTime != 0) {
+                            recordIoProcessingTime(System.nanoTime() - ioStartTime);
+                        }
                         // Ensure we always run tasks.
                         runAllTasks();
                     }
@@ -328,6 +396,7 @@ class EpollEventLoop extends SingleThreadEventLoop {
                     } finally {
                         // Ensure we always run tasks.
                         final long ioTime = System.nanoTime() - ioStartTime;
+                        recordIoProcessingTime(ioTime);
                         runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
                     }
                 }
@@ -401,6 +470,12 @@ class EpollEventLoop extends SingleThreadEventLoop {
                     // past.
                     AbstractEpollUnsafe unsafe = (AbstractEpollUnsafe) ch.unsafe();
 
+                    // EPOLLERR is also used to signal that the error queue of the socket is not empty, which must be
+                    // drained before the error is handled by epollOutReady() or epollInReady().
+                    if ((ev & Native.EPOLLERR) != 0) {
+                        unsafe.epollErrReady();
+                    }
+
                     // First check for EPOLLOUT as we may need to fail the connect ChannelPromise before try
                     // to read from the file descriptor.
                     // See https://github.com/netty/netty/issues/3785
@@ -21,12 +21,16 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.EventLoopTaskQueueFactory;
 import io.netty.channel.MultithreadEventLoopGroup;
 import io.netty.channel.SelectStrategyFactory;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.EventExecutorChooserFactory;
 import io.netty.util.concurrent.RejectedExecutionHandler;
 import io.netty.util.concurrent.RejectedExecutionHandlers;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * {@link EventLoopGroup} which uses epoll under the covers. Because of this
@@ -126,6 +130,54 @@ public final class EpollEventLoopGroup extends MultithreadEventLoopGroup {
         super(nThreads, executor, chooserFactory, 0, selectStrategyFactory, rejectedExecutionHandler, queueFactory);
     }
 
+    /**
+     * Create a new instance using the specified number of threads and the given {@link ThreadFactory}. The thread of
+     * each loop is bound to a CPU as described by {@code affinity}.
+     */
+    @UnstableApi
+    public EpollEventLoopGroup(int nThreads, ThreadFactory threadFactory, EpollThreadAffinity affinity) {
+        super(nThreads, threadFactory, 0, DefaultSelectStrategyFactory.INSTANCE, RejectedExecutionHandlers.reject(),
+              null, ObjectUtil.checkNotNull(affinity, "affinity"));
+    }
+
+    /**
+     * Create a new instance whose loops bind their threads to a CPU as described by {@code affinity}.
+     */
+    @UnstableApi
+    public EpollEventLoopGroup(int nThreads, Executor executor, EventExecutorChooserFactory chooserFactory,
+                               SelectStrategyFactory selectStrategyFactory,
+                               RejectedExecutionHandler rejectedExecutionHandler,
+                               EventLoopTaskQueueFactory queueFactory, EpollThreadAffinity affinity) {
+        super(nThreads, executor, chooserFactory, 0, selectStrategyFactory, rejectedExecutionHandler, queueFactory,
+              ObjectUtil.checkNotNull(affinity, "affinity"));
+    }
+
+    /**
+     * Returns the CPU the thread of each loop is bound to, in the order of the loops. An entry is {@code -1} if the
+     * loop was not started yet, no {@link EpollThreadAffinity} was given or binding the thread failed.
+     */
+    @UnstableApi
+    public int[] boundCpus() {
+        int[] cpus = new int[executorCount()];
+        int i = 0;
+        for (EventExecutor loop : this) {
+            cpus[i++] = ((EpollEventLoop) loop).boundCpu();
+        }
+        return cpus;
+    }
+
+    /**
+     * Sets the maximum amount of time a flush may be deferred in the child event loops.
+     *
+     * @see EpollEventLoop#setMaxFlushDelay(long, TimeUnit)
+     */
+    @UnstableApi
+    public void setMaxFlushDelay(long maxDelay, TimeUnit unit) {
+        for (EventExecutor e: this) {
+            ((EpollEventLoop) e).setMaxFlushDelay(maxDelay, unit);
+        }
+    }
+
     /**
      * @deprecated This method will be removed in future releases, and is not guaranteed to have any impacts.
      */
@@ -138,9 +190,10 @@ public final class EpollEventLoopGroup extends MultithreadEventLoopGroup {
 
     @Override
     protected EventLoop newChild(Executor executor, Object... args) throws Exception {
-        EventLoopTaskQueueFactory queueFactory = args.length == 4 ? (EventLoopTaskQueueFactory) args[3] : null;
+        EventLoopTaskQueueFactory queueFactory = args.length > 3 ? (EventLoopTaskQueueFactory) args[3] : null;
+        EpollThreadAffinity affinity = args.length > 4 ? (EpollThreadAffinity) args[4] : null;
         return new EpollEventLoop(this, executor, (Integer) args[0],
                 ((SelectStrategyFactory) args[1]).newSelectStrategy(),
-                (RejectedExecutionHandler) args[2], queueFactory);
+                (RejectedExecutionHandler) args[2], queueFactory, affinity == null ? -1 : affinity.nextCpu());
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelException;
+import io.netty.channel.ChannelFactory;
+import io.netty.channel.EventLoop;
+import io.netty.util.internal.UnstableApi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static io.netty.channel.epoll.LinuxSocket.newSocketStream;
+
+/**
+ * {@link ChannelFactory} which creates {@link EpollServerSocketChannel}s that share one listening socket. Each
+ * channel registers the socket with {@code EPOLLEXCLUSIVE} in its own {@link EventLoop}, so an incoming connection
+ * only wakes up one of the loops instead of all of them. Unlike {@code SO_REUSEPORT} there is only one accept queue,
+ * which is not lost if one of the loops is restarted.
+ * <p>
+ * The first channel creates and binds the socket, every following channel duplicates the socket of the first one,
+ * which must be bound at this point. This is what {@link ServerBootstrap#sharded(boolean)} does:
+ * <pre>
+ * EpollExclusiveAcceptorFactory factory = new EpollExclusiveAcceptorFactory();
+ * ServerBootstrap b = new ServerBootstrap()
+ *         .group(group)
+ *         .channelFactory(factory)
+ *         .sharded(true)
+ *         .childHandler(handler);
+ * b.bind(port).sync();
+ * </pre>
+ * {@link #acceptCounts()} can be used to check how the connections are spread over the loops.
+ * <p>
+ * {@code EPOLLEXCLUSIVE} needs Linux 4.5 or newer, older kernels ignore the flag and wake up all loops. An exclusive
+ * registration can not be modified, so if reading is suspended, for example by disabling auto read, the loop is still
+ * woken up but leaves the connection in the accept queue until reading is resumed. For the same reason the channels
+ * only support {@link EpollMode#EDGE_TRIGGERED}.
+ */
+@UnstableApi
+public final class EpollExclusiveAcceptorFactory implements ChannelFactory<EpollServerSocketChannel> {
+
+    // Written by the thread that binds, which may be an EventLoop.
+    private volatile List<EpollServerSocketChannel> acceptors = Collections.emptyList();
+
+    @Override
+    public EpollServerSocketChannel newChannel() {
+        List<EpollServerSocketChannel> acceptors = this.acceptors;
+        final EpollServerSocketChannel channel;
+        if (acceptors.isEmpty() || !acceptors.get(0).isOpen()) {
+            // Start a new listening socket.
+            channel = new EpollServerSocketChannel(newSocketStream(), false, true);
+            acceptors = new ArrayList<EpollServerSocketChannel>(1);
+        } else {
+            EpollServerSocketChannel first = acceptors.get(0);
+            if (!first.isActive()) {
+                throw new ChannelException("The first acceptor is not bound yet: " + first);
+            }
+            try {
+                channel = new EpollServerSocketChannel(first.socket.duplicate(), true, true);
+            } catch (IOException e) {
+                throw new ChannelException(e);
+            }
+            acceptors = new ArrayList<EpollServerSocketChannel>(acceptors);
+        }
+        acceptors.add(channel);
+        this.acceptors = Collections.unmodifiableList(acceptors);
+        return channel;
+    }
+
+    /**
+     * Returns the channels that share the current listening socket, in the order in which they were created.
+     */
+    public List<EpollServerSocketChannel> acceptors() {
+        return acceptors;
+    }
+
+    /**
+     * Returns the {@link EpollServerSocketChannel#acceptCount()} of each channel that shares the current listening
+     * socket, in the order in which they were created.
+     */
+    public long[] acceptCounts() {
+        List<EpollServerSocketChannel> acceptors = this.acceptors;
+        long[] counts = new long[acceptors.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = acceptors.get(i).acceptCount();
+        }
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        return "EpollExclusiveAcceptorFactory(acceptors: " + acceptors.size() + ')';
+    }
+}
@@ -17,11 +17,16 @@ package io.netty.channel.epoll;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelConfig;
 import io.netty.channel.RecvByteBufAllocator.DelegatingHandle;
 import io.netty.channel.RecvByteBufAllocator.ExtendedHandle;
+import io.netty.channel.unix.AvailableBytesRecvByteBufAllocator.AvailableBytesHandle;
 import io.netty.channel.unix.PreferredDirectByteBufAllocator;
+import io.netty.channel.unix.Socket;
 import io.netty.util.UncheckedBooleanSupplier;
 
+import java.io.IOException;
+
 class EpollRecvByteAllocatorHandle extends DelegatingHandle implements ExtendedHandle {
     private final PreferredDirectByteBufAllocator preferredDirectByteBufAllocator =
             new PreferredDirectByteBufAllocator();
@@ -31,11 +36,32 @@ class EpollRecvByteAllocatorHandle extends DelegatingHandle implements ExtendedH
             return maybeMoreDataToRead();
         }
     };
+    private final Socket socket;
     private boolean isEdgeTriggered;
     private boolean receivedRdHup;
 
-    EpollRecvByteAllocatorHandle(ExtendedHandle handle) {
+    EpollRecvByteAllocatorHandle(ExtendedHandle handle, Socket socket) {
         super(handle);
+        this.socket = socket;
+    }
+
+    @Override
+    public final void reset(ChannelConfig config) {
+        super.reset(config);
+        ExtendedHandle delegate = (ExtendedHandle) delegate();
+        if (delegate instanceof AvailableBytesHandle) {
+            // One ioctl per read loop, the handle keeps track of the bytes that were read since.
+            ((AvailableBytesHandle) delegate).availableBytes(availableBytes());
+        }
+    }
+
+    private int availableBytes() {
+        try {
+            return socket.getAvailableBytes();
+        } catch (IOException e) {
+            // Let the handle fall back to its initial guess, the read itself will surface the error if any.
+            return -1;
+        }
     }
 
     final void receivedRdHup() {
@@ -16,10 +16,11 @@
 package io.netty.channel.epoll;
 
 import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.unix.Socket;
 
 final class EpollRecvByteAllocatorStreamingHandle extends EpollRecvByteAllocatorHandle {
-    EpollRecvByteAllocatorStreamingHandle(RecvByteBufAllocator.ExtendedHandle handle) {
-        super(handle);
+    EpollRecvByteAllocatorStreamingHandle(RecvByteBufAllocator.ExtendedHandle handle, Socket socket) {
+        super(handle, socket);
     }
 
     @Override
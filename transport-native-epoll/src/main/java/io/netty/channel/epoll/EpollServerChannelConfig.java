@@ -224,8 +224,18 @@ public class EpollServerChannelConfig extends EpollChannelConfig implements Serv
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Channels created by {@link EpollExclusiveAcceptorFactory} only support {@link EpollMode#EDGE_TRIGGERED}. Their
+     * {@code EPOLLEXCLUSIVE} registration can not be modified while reading is suspended, so a level-triggered
+     * registration would wake up the loop again and again as long as a connection is waiting.
+     */
     @Override
     public EpollServerChannelConfig setEpollMode(EpollMode mode) {
+        if (mode == EpollMode.LEVEL_TRIGGERED && ((AbstractEpollChannel) channel).isFlagSet(Native.EPOLLEXCLUSIVE)) {
+            throw new IllegalArgumentException("EPOLLEXCLUSIVE channels only support " + EpollMode.EDGE_TRIGGERED);
+        }
         super.setEpollMode(mode);
         return this;
     }
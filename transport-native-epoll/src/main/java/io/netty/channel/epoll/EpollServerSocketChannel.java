@@ -60,6 +60,13 @@ public final class EpollServerSocketChannel extends AbstractEpollServerChannel i
         config = new EpollServerSocketChannelConfig(this);
     }
 
+    EpollServerSocketChannel(LinuxSocket fd, boolean active, boolean exclusive) {
+        this(fd, active);
+        if (exclusive) {
+            flags |= Native.EPOLLEXCLUSIVE;
+        }
+    }
+
     @Override
     protected boolean isCompatible(EventLoop loop) {
         return loop instanceof EpollEventLoop;
@@ -72,6 +79,9 @@ public final class EpollServerSocketChannel extends AbstractEpollServerChannel i
             socket.setTcpFastOpen(config.getTcpFastopen());
         }
         socket.listen(config.getBacklog());
+        if (config.getReusePortCpuSteering() > 0) {
+            socket.attachReusePortCpuSteering(config.getReusePortCpuSteering());
+        }
         active = true;
     }
 
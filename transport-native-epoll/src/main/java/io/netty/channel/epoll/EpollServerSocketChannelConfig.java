@@ -22,6 +22,7 @@ import io.netty.channel.MessageSizeEstimator;
 import io.netty.channel.RecvByteBufAllocator;
 import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.socket.ServerSocketChannelConfig;
+import io.netty.util.internal.ObjectUtil;
 
 import java.io.IOException;
 import java.net.InetAddress;
@@ -30,6 +31,8 @@ import java.util.Map;
 public final class EpollServerSocketChannelConfig extends EpollServerChannelConfig
         implements ServerSocketChannelConfig {
 
+    private volatile int reusePortCpuSteering;
+
     EpollServerSocketChannelConfig(EpollServerSocketChannel channel) {
         super(channel);
 
@@ -42,7 +45,8 @@ public final class EpollServerSocketChannelConfig extends EpollServerChannelConf
     @Override
     public Map<ChannelOption<?>, Object> getOptions() {
         return getOptions(super.getOptions(), EpollChannelOption.SO_REUSEPORT, EpollChannelOption.IP_FREEBIND,
-            EpollChannelOption.IP_TRANSPARENT, EpollChannelOption.TCP_DEFER_ACCEPT);
+            EpollChannelOption.IP_TRANSPARENT, EpollChannelOption.TCP_DEFER_ACCEPT,
+            EpollChannelOption.SO_REUSEPORT_CPU_STEERING);
     }
 
     @SuppressWarnings("unchecked")
@@ -60,6 +64,9 @@ public final class EpollServerSocketChannelConfig extends EpollServerChannelConf
         if (option == EpollChannelOption.TCP_DEFER_ACCEPT) {
             return (T) Integer.valueOf(getTcpDeferAccept());
         }
+        if (option == EpollChannelOption.SO_REUSEPORT_CPU_STEERING) {
+            return (T) Integer.valueOf(getReusePortCpuSteering());
+        }
         return super.getOption(option);
     }
 
@@ -79,6 +86,8 @@ public final class EpollServerSocketChannelConfig extends EpollServerChannelConf
             setTcpMd5Sig(m);
         } else if (option == EpollChannelOption.TCP_DEFER_ACCEPT) {
             setTcpDeferAccept((Integer) value);
+        } else if (option == EpollChannelOption.SO_REUSEPORT_CPU_STEERING) {
+            setReusePortCpuSteering((Integer) value);
         } else {
             return super.setOption(option, value);
         }
@@ -213,6 +222,29 @@ public final class EpollServerSocketChannelConfig extends EpollServerChannelConf
         }
     }
 
+    /**
+     * Returns the number of sockets in the SO_REUSEPORT group among which new connections are distributed by the CPU
+     * that received them, or {@code 0} if the kernel distributes them by hash.
+     */
+    public int getReusePortCpuSteering() {
+        return reusePortCpuSteering;
+    }
+
+    /**
+     * Distribute the connections of the SO_REUSEPORT group this channel joins on bind among {@code groupSize}
+     * sockets by the CPU that received them: a connection handled by CPU {@code n} is accepted by the socket at
+     * position {@code n % groupSize} in the order in which the sockets were bound. Combined with
+     * {@link EpollThreadAffinity} this keeps each connection on the CPU that processes its packets. Use {@code 0} to
+     * let the kernel distribute the connections by hash, which is the default.
+     *
+     * Be aware this method needs be called before {@link EpollServerSocketChannel#bind(java.net.SocketAddress)} to
+     * have any effect. Requires Linux 4.5 or newer.
+     */
+    public EpollServerSocketChannelConfig setReusePortCpuSteering(int groupSize) {
+        this.reusePortCpuSteering = ObjectUtil.checkPositiveOrZero(groupSize, "groupSize");
+        return this;
+    }
+
     /**
      * Returns {@code true} if <a href="http://man7.org/linux/man-pages/man7/ip.7.html">IP_FREEBIND</a> is enabled,
      * {@code false} otherwise.
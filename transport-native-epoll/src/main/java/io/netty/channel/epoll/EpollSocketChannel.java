@@ -100,6 +100,21 @@ public final class EpollSocketChannel extends AbstractEpollStreamChannel impleme
         return config;
     }
 
+    @Override
+    int zeroCopyThreshold() {
+        return config.getMsgZeroCopyThreshold();
+    }
+
+    @Override
+    int notSentLowAtWritabilityIndex() {
+        return config.getTcpNotSentLowAtWritabilityIndex();
+    }
+
+    @Override
+    long notSentLowAt() {
+        return config.notSentLowAtForWritability();
+    }
+
     @Override
     public ServerSocketChannel parent() {
         return (ServerSocketChannel) super.parent();
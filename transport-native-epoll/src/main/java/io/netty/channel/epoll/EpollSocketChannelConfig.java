@@ -15,13 +15,16 @@
  */
 package io.netty.channel.epoll;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelException;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.MessageSizeEstimator;
 import io.netty.channel.RecvByteBufAllocator;
 import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.socket.SocketChannelConfig;
+import io.netty.util.internal.ObjectUtil;
 import io.netty.util.internal.PlatformDependent;
 
 import java.io.IOException;
@@ -39,6 +42,9 @@ import static io.netty.channel.ChannelOption.TCP_NODELAY;
 
 public final class EpollSocketChannelConfig extends EpollChannelConfig implements SocketChannelConfig {
     private volatile boolean allowHalfClosure;
+    private volatile int msgZeroCopyThreshold;
+    private volatile int notSentLowAtWritabilityIndex;
+    private volatile long tcpNotSentLowAt;
 
     /**
      * Creates a new instance.
@@ -60,7 +66,8 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
                 ALLOW_HALF_CLOSURE, EpollChannelOption.TCP_CORK, EpollChannelOption.TCP_NOTSENT_LOWAT,
                 EpollChannelOption.TCP_KEEPCNT, EpollChannelOption.TCP_KEEPIDLE, EpollChannelOption.TCP_KEEPINTVL,
                 EpollChannelOption.TCP_MD5SIG, EpollChannelOption.TCP_QUICKACK, EpollChannelOption.IP_TRANSPARENT,
-                EpollChannelOption.TCP_FASTOPEN_CONNECT, EpollChannelOption.SO_BUSY_POLL);
+                EpollChannelOption.TCP_FASTOPEN_CONNECT, EpollChannelOption.SO_BUSY_POLL,
+                EpollChannelOption.MSG_ZEROCOPY_THRESHOLD, EpollChannelOption.TCP_NOTSENT_LOWAT_WRITABILITY_INDEX);
     }
 
     @SuppressWarnings("unchecked")
@@ -120,6 +127,12 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
         if (option == EpollChannelOption.SO_BUSY_POLL) {
             return (T) Integer.valueOf(getSoBusyPoll());
         }
+        if (option == EpollChannelOption.MSG_ZEROCOPY_THRESHOLD) {
+            return (T) Integer.valueOf(getMsgZeroCopyThreshold());
+        }
+        if (option == EpollChannelOption.TCP_NOTSENT_LOWAT_WRITABILITY_INDEX) {
+            return (T) Integer.valueOf(getTcpNotSentLowAtWritabilityIndex());
+        }
         return super.getOption(option);
     }
 
@@ -167,6 +180,10 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
             setTcpFastOpenConnect((Boolean) value);
         } else if (option == EpollChannelOption.SO_BUSY_POLL) {
             setSoBusyPoll((Integer) value);
+        } else if (option == EpollChannelOption.MSG_ZEROCOPY_THRESHOLD) {
+            setMsgZeroCopyThreshold((Integer) value);
+        } else if (option == EpollChannelOption.TCP_NOTSENT_LOWAT_WRITABILITY_INDEX) {
+            setTcpNotSentLowAtWritabilityIndex((Integer) value);
         } else {
             return super.setOption(option, value);
         }
@@ -406,6 +423,85 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
         }
     }
 
+    /**
+     * Returns the minimum number of readable bytes of a direct {@link ByteBuf} to send it with
+     * {@code MSG_ZEROCOPY}. {@code 0} means zero copy sends are disabled.
+     */
+    public int getMsgZeroCopyThreshold() {
+        return msgZeroCopyThreshold;
+    }
+
+    /**
+     * Send direct {@link ByteBuf}s with at least {@code threshold} readable bytes with {@code MSG_ZEROCOPY}, so the
+     * kernel transmits them from their memory instead of copying them into the socket buffer. Such a
+     * {@link ByteBuf} is retained until the completion of the send is read from the error queue of the socket, which
+     * happens when the channel receives {@code EPOLLERR}. Smaller buffers and gathering writes of several buffers are
+     * copied as usual. Use {@code 0} to disable zero copy sends, which is the default.
+     * <p>
+     * A positive {@code threshold} sets {@code SO_ZEROCOPY} on the socket, which needs Linux 4.14 or newer. As pinning
+     * the memory and reading the completions has a cost of its own, this only pays off for large buffers, typically
+     * of more than 10 KiB. The kernel still copies if the data is sent via the loopback device. If the channel is
+     * closed before all completions were read, the output is shut down and the connection is kept open until the
+     * remaining completions arrived, at most for {@code io.netty.epoll.zeroCopyCloseTimeoutMillis} (10 seconds by
+     * default). Buffers whose sends did not complete by then are never released.
+     * See {@code https://www.kernel.org/doc/html/latest/networking/msg_zerocopy.html} for more details.
+     */
+    public EpollSocketChannelConfig setMsgZeroCopyThreshold(int threshold) {
+        ObjectUtil.checkPositiveOrZero(threshold, "threshold");
+        if (threshold > 0) {
+            try {
+                ((EpollSocketChannel) channel).socket.setSoZeroCopy(true);
+            } catch (IOException e) {
+                throw new ChannelException(e);
+            }
+        }
+        msgZeroCopyThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Returns the index of the {@linkplain ChannelOutboundBuffer#setUserDefinedWritability(int, boolean)
+     * user-defined writability flag} that follows the unsent bytes in the kernel, or {@code 0} if disabled.
+     */
+    public int getTcpNotSentLowAtWritabilityIndex() {
+        return notSentLowAtWritabilityIndex;
+    }
+
+    /**
+     * Let the writability of the channel follow the {@code TCP_NOTSENT_LOWAT} threshold of the kernel. Once the
+     * kernel holds at least {@link #getTcpNotSentLowAt()} bytes that were not sent yet, the
+     * {@linkplain ChannelOutboundBuffer#setUserDefinedWritability(int, boolean) user-defined writability flag} at
+     * {@code index} is cleared and the channel becomes unwritable. The flag is set again as soon as the kernel
+     * reports {@code EPOLLOUT}, which happens once the unsent bytes dropped below the threshold.
+     * <p>
+     * Together with a small {@code TCP_NOTSENT_LOWAT} this keeps the kernel queue shallow, so data waits in the
+     * application where it can still be prioritized. The check costs one {@code ioctl} each time the outbound buffer
+     * was flushed completely. Use {@code 0} to disable it, which is the default. The index must not be used for other
+     * user-defined writability flags.
+     */
+    public EpollSocketChannelConfig setTcpNotSentLowAtWritabilityIndex(int index) {
+        if (index < 0 || index > 31) {
+            throw new IllegalArgumentException("index: " + index + " (expected: 0~31)");
+        }
+        if (index != 0) {
+            tcpNotSentLowAt = getTcpNotSentLowAt();
+        }
+        int oldIndex = notSentLowAtWritabilityIndex;
+        notSentLowAtWritabilityIndex = index;
+        if (oldIndex != 0 && oldIndex != index) {
+            ChannelOutboundBuffer in = channel.unsafe().outboundBuffer();
+            if (in != null) {
+                // Do not leave the channel unwritable because of a flag that is not tracked anymore.
+                in.setUserDefinedWritability(oldIndex, true);
+            }
+        }
+        return this;
+    }
+
+    long notSentLowAtForWritability() {
+        return tcpNotSentLowAt;
+    }
+
     /**
      * Set the {@code TCP_NOTSENT_LOWAT} option on the socket. See {@code man 7 tcp} for more details.
      * @param tcpNotSentLowAt is a uint32_t
@@ -413,6 +509,7 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
     public EpollSocketChannelConfig setTcpNotSentLowAt(long tcpNotSentLowAt) {
         try {
             ((EpollSocketChannel) channel).socket.setTcpNotSentLowAt(tcpNotSentLowAt);
+            this.tcpNotSentLowAt = tcpNotSentLowAt;
             return this;
         } catch (IOException e) {
             throw new ChannelException(e);
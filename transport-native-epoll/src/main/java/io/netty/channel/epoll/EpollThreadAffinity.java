@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Describes to which CPU the thread of each {@link EpollEventLoop} is bound via {@code sched_setaffinity}. Binding
+ * keeps the caches of a loop warm and allows to place loops next to the receive queues of a NIC.
+ * <p>
+ * CPUs are handed out round-robin in the order in which the loops are created. An instance can be shared between
+ * several {@link EpollEventLoopGroup}s, in which case the loops of all groups are spread over the CPUs together.
+ * <p>
+ * The thread is bound once the loop starts. If binding fails, for example because the CPU is not part of the
+ * affinity mask of the process, a warning is logged and the thread keeps running unbound.
+ */
+@UnstableApi
+public final class EpollThreadAffinity {
+
+    private final int[] cpus;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    private EpollThreadAffinity(int[] cpus) {
+        this.cpus = cpus;
+    }
+
+    /**
+     * Binds the loops to the given CPUs. If there are more loops than CPUs the list is repeated. This can be used to
+     * keep loops away from CPUs that are reserved for other work, like GC threads.
+     */
+    public static EpollThreadAffinity cpus(int... cpus) {
+        ObjectUtil.checkNotNull(cpus, "cpus");
+        if (cpus.length == 0) {
+            throw new IllegalArgumentException("cpus must not be empty");
+        }
+        int[] copy = cpus.clone();
+        for (int cpu : copy) {
+            ObjectUtil.checkPositiveOrZero(cpu, "cpu");
+        }
+        return new EpollThreadAffinity(copy);
+    }
+
+    /**
+     * Spreads the loops over all CPUs the calling thread is allowed to run on, one loop per CPU in ascending order.
+     */
+    public static EpollThreadAffinity spread() {
+        Epoll.ensureAvailability();
+        final int[] cpus;
+        try {
+            cpus = Native.currentThreadAffinity();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to retrieve the CPU affinity of the current thread", e);
+        }
+        if (cpus.length == 0) {
+            throw new IllegalStateException("The current thread is not allowed to run on any CPU");
+        }
+        return new EpollThreadAffinity(cpus);
+    }
+
+    /**
+     * Returns the CPU the next loop should be bound to.
+     */
+    int nextCpu() {
+        return cpus[(nextIndex.getAndIncrement() & Integer.MAX_VALUE) % cpus.length];
+    }
+
+    @Override
+    public String toString() {
+        return "EpollThreadAffinity(cpus: " + Arrays.toString(cpus) + ')';
+    }
+}
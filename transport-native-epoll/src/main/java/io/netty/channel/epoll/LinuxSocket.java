@@ -32,6 +32,7 @@ import java.net.UnknownHostException;
 import java.util.Enumeration;
 
 import static io.netty.channel.unix.Errors.ioResult;
+import static io.netty.channel.unix.Errors.newIOException;
 
 /**
  * A socket which provides access Linux native methods.
@@ -168,6 +169,54 @@ final class LinuxSocket extends Socket {
         setSoBusyPoll(intValue(), loopMicros);
     }
 
+    void setSoZeroCopy(boolean zeroCopy) throws IOException {
+        setSoZeroCopy(intValue(), zeroCopy ? 1 : 0);
+    }
+
+    /**
+     * Sends the bytes between {@code pos} and {@code limit} with {@code MSG_ZEROCOPY}. Returns the number of bytes
+     * sent, which may be {@code 0} if the socket is not writable, or {@code -1} if the kernel can not track more
+     * zero copy sends right now and the bytes must be copied instead.
+     */
+    int sendAddressZeroCopy(long address, int pos, int limit) throws IOException {
+        int res = sendAddressZeroCopy(intValue(), address, pos, limit);
+        if (res >= 0) {
+            return res;
+        }
+        if (res == Native.ERRNO_ENOBUFS_NEGATIVE) {
+            return -1;
+        }
+        return ioResult("sendAddressZeroCopy", res);
+    }
+
+    /**
+     * Reads the {@code MSG_ZEROCOPY} completions from the error queue of the socket. Each completion is stored as the
+     * range of send ids {@code [lo, hi]} in two consecutive elements of {@code ranges}. Returns the number of
+     * completions that were read.
+     */
+    int readZeroCopyCompletions(int[] ranges) throws IOException {
+        int res = readZeroCopyCompletions(intValue(), ranges);
+        if (res >= 0) {
+            return res;
+        }
+        return ioResult("readZeroCopyCompletions", res);
+    }
+
+    void attachReusePortCpuSteering(int groupSize) throws IOException {
+        attachReusePortCpuSteering(intValue(), groupSize);
+    }
+
+    /**
+     * Returns a new {@link LinuxSocket} which refers to the same open socket via {@code dup}.
+     */
+    LinuxSocket duplicate() throws IOException {
+        int res = duplicate(intValue());
+        if (res < 0) {
+            throw newIOException("dup", res);
+        }
+        return new LinuxSocket(res);
+    }
+
     void setTcpNotSentLowAt(long tcpNotSentLowAt) throws IOException {
         if (tcpNotSentLowAt < 0 || tcpNotSentLowAt > MAX_UINT32_T) {
             throw new IllegalArgumentException("tcpNotSentLowAt must be a uint32_t");
@@ -215,6 +264,14 @@ final class LinuxSocket extends Socket {
         setIpRecvOrigDestAddr(intValue(), enabled ? 1 : 0);
     }
 
+    void setUdpSegment(int segmentSize) throws IOException {
+        setUdpSegment(intValue(), segmentSize);
+    }
+
+    void setUdpGro(boolean gro) throws IOException {
+        setUdpGro(intValue(), gro ? 1 : 0);
+    }
+
     int getTimeToLive() throws IOException {
         return getTimeToLive(intValue());
     }
@@ -276,6 +333,17 @@ final class LinuxSocket extends Socket {
         return isIpRecvOrigDestAddr(intValue()) != 0;
     }
 
+    int getUdpSegment() throws IOException {
+        return getUdpSegment(intValue());
+    }
+
+    /**
+     * Returns the number of bytes in the send queue that were not sent yet.
+     */
+    int getUnsentBytes() throws IOException {
+        return getUnsentBytes(intValue());
+    }
+
     PeerCredentials getPeerCredentials() throws IOException {
         return getPeerCredentials(intValue());
     }
@@ -359,6 +427,7 @@ final class LinuxSocket extends Socket {
     private static native int isTcpCork(int fd) throws IOException;
     private static native int getSoBusyPoll(int fd) throws IOException;
     private static native int getTcpNotSentLowAt(int fd) throws IOException;
+    private static native int getUnsentBytes(int fd) throws IOException;
     private static native int getTcpKeepIdle(int fd) throws IOException;
     private static native int getTcpKeepIntvl(int fd) throws IOException;
     private static native int getTcpKeepCnt(int fd) throws IOException;
@@ -375,6 +444,11 @@ final class LinuxSocket extends Socket {
     private static native void setTcpQuickAck(int fd, int quickAck) throws IOException;
     private static native void setTcpCork(int fd, int tcpCork) throws IOException;
     private static native void setSoBusyPoll(int fd, int loopMicros) throws IOException;
+    private static native void attachReusePortCpuSteering(int fd, int groupSize) throws IOException;
+    private static native int duplicate(int fd);
+    private static native void setSoZeroCopy(int fd, int zeroCopy) throws IOException;
+    private static native int sendAddressZeroCopy(int fd, long address, int pos, int limit);
+    private static native int readZeroCopyCompletions(int fd, int[] ranges);
     private static native void setTcpNotSentLowAt(int fd, int tcpNotSentLowAt) throws IOException;
     private static native void setTcpFastOpen(int fd, int tcpFastopenBacklog) throws IOException;
     private static native void setTcpFastOpenConnect(int fd, int tcpFastOpenConnect) throws IOException;
@@ -385,6 +459,9 @@ final class LinuxSocket extends Socket {
     private static native void setIpFreeBind(int fd, int freeBind) throws IOException;
     private static native void setIpTransparent(int fd, int transparent) throws IOException;
     private static native void setIpRecvOrigDestAddr(int fd, int transparent) throws IOException;
+    private static native void setUdpSegment(int fd, int segmentSize) throws IOException;
+    private static native void setUdpGro(int fd, int gro) throws IOException;
+    private static native int getUdpSegment(int fd) throws IOException;
     private static native void setTcpMd5Sig(
             int fd, boolean ipv6, byte[] address, int scopeId, byte[] key) throws IOException;
     private static native void setInterface(
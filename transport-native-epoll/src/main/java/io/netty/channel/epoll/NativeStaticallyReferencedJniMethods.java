@@ -34,12 +34,15 @@ final class NativeStaticallyReferencedJniMethods {
     static native int epollout();
     static native int epollrdhup();
     static native int epollet();
+    static native int epollexclusive();
     static native int epollerr();
+    static native int errnoENOBUFS();
     static native long ssizeMax();
     static native int tcpMd5SigMaxKeyLen();
     static native int iovMax();
     static native int uioMaxIov();
     static native boolean isSupportingSendmmsg();
     static native boolean isSupportingTcpFastopen();
+    static native boolean isSupportingUdpSegment();
     static native String kernelVersion();
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the {@link ByteBuf}s of {@code MSG_ZEROCOPY} sends until the kernel reports via the error queue of the socket
+ * that it no longer references their memory.
+ * <p>
+ * The kernel numbers the successful zero copy sends of a socket consecutively starting at {@code 0}, so the buffers
+ * are kept in a ring in the order in which they were sent and the id of a send is its distance to the oldest one.
+ * Completions usually arrive in order, but are also handled if they don't.
+ */
+final class ZeroCopyBuffers {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(ZeroCopyBuffers.class);
+
+    private final int[] ranges = new int[32];
+    private ByteBuf[] buffers = new ByteBuf[16];
+    private int head;
+    private int headId;
+    private int size;
+
+    /**
+     * Adds the buffer of the next zero copy send. The caller must have retained it.
+     */
+    void add(ByteBuf buf) {
+        if (size == buffers.length) {
+            ByteBuf[] newBuffers = new ByteBuf[buffers.length << 1];
+            for (int i = 0; i < size; i++) {
+                newBuffers[i] = buffers[head + i & buffers.length - 1];
+            }
+            buffers = newBuffers;
+            head = 0;
+        }
+        buffers[head + size & buffers.length - 1] = buf;
+        size++;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Reads all completions from the error queue of the given socket and releases the buffers of the sends that
+     * completed.
+     */
+    void readCompletions(LinuxSocket socket) throws IOException {
+        for (;;) {
+            int count = socket.readZeroCopyCompletions(ranges);
+            for (int i = 0; i < count; i++) {
+                complete(ranges[i << 1], ranges[(i << 1) + 1]);
+            }
+            if (count < ranges.length >>> 1) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Releases the buffers of the sends with the ids {@code lo} to {@code hi}.
+     */
+    void complete(int lo, int hi) {
+        final int mask = buffers.length - 1;
+        // The ids are unsigned 32 bit values that may wrap around, so only compare distances.
+        for (int offset = lo - headId, end = hi - headId; offset - end <= 0; offset++) {
+            if (offset >= 0 && offset < size) {
+                int index = head + offset & mask;
+                ByteBuf buf = buffers[index];
+                if (buf != null) {
+                    buffers[index] = null;
+                    buf.release();
+                }
+            }
+        }
+        while (size > 0 && buffers[head] == null) {
+            head = head + 1 & mask;
+            headId++;
+            size--;
+        }
+    }
+
+    /**
+     * Reads the completions of the remaining sends from {@code socket}, which must still refer to the connection after
+     * the channel closed its own file descriptor, and closes it once all buffers were released. This is done on the
+     * given {@link EventExecutor}, polling the error queue with an increasing delay. If the sends did not complete
+     * within {@code timeoutMillis} the socket is closed anyway, but the remaining buffers are never released as the
+     * kernel may still transmit from their memory.
+     */
+    void closeWhenCompleted(LinuxSocket socket, EventExecutor executor, long timeoutMillis) {
+        new CloseTask(this, socket, executor, timeoutMillis).run();
+    }
+
+    private static final class CloseTask implements Runnable {
+        private static final long MAX_DELAY_MILLIS = 100;
+
+        private final ZeroCopyBuffers buffers;
+        private final LinuxSocket socket;
+        private final EventExecutor executor;
+        private final long timeoutMillis;
+        private final long deadlineNanos;
+        private long delayMillis = 1;
+
+        CloseTask(ZeroCopyBuffers buffers, LinuxSocket socket, EventExecutor executor, long timeoutMillis) {
+            this.buffers = buffers;
+            this.socket = socket;
+            this.executor = executor;
+            this.timeoutMillis = timeoutMillis;
+            deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        }
+
+        @Override
+        public void run() {
+            try {
+                buffers.readCompletions(socket);
+            } catch (IOException e) {
+                logger.debug("Failed to read the MSG_ZEROCOPY completions of a closed channel", e);
+                close();
+                return;
+            }
+            if (buffers.isEmpty()) {
+                close();
+            } else if (System.nanoTime() - deadlineNanos >= 0) {
+                logger.warn("{} MSG_ZEROCOPY sends did not complete within {} ms after the channel was closed, " +
+                        "their buffers are not released.", buffers.size, timeoutMillis);
+                close();
+            } else {
+                try {
+                    executor.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+                    delayMillis = Math.min(delayMillis << 1, MAX_DELAY_MILLIS);
+                } catch (RejectedExecutionException e) {
+                    logger.warn("{} MSG_ZEROCOPY sends did not complete before the event loop was shut down, " +
+                            "their buffers are not released.", buffers.size);
+                    close();
+                }
+            }
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close a socket", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.unix.AvailableBytesRecvByteBufAllocator;
+import io.netty.util.NetUtil;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+
+public class EpollAvailableBytesRecvByteBufAllocatorTest {
+
+    @Test(timeout = 10000)
+    public void testBufferSizedByAvailableBytes() throws Exception {
+        testBufferSizedByAvailableBytes(EpollMode.EDGE_TRIGGERED);
+    }
+
+    @Test(timeout = 10000)
+    public void testBufferSizedByAvailableBytesLevelTriggered() throws Exception {
+        testBufferSizedByAvailableBytes(EpollMode.LEVEL_TRIGGERED);
+    }
+
+    private static void testBufferSizedByAvailableBytes(EpollMode mode) throws Exception {
+        final int size = 3000;
+        EpollEventLoopGroup group = new EpollEventLoopGroup(1);
+        final AtomicReference<Channel> accepted = new AtomicReference<Channel>();
+        final CountDownLatch acceptedLatch = new CountDownLatch(1);
+        final BlockingQueue<Integer> capacities = new LinkedBlockingQueue<Integer>();
+        Channel sc = null;
+        Channel cc = null;
+        try {
+            ServerBootstrap sb = new ServerBootstrap()
+                    .group(group)
+                    .channel(EpollServerSocketChannel.class)
+                    .childOption(ChannelOption.AUTO_READ, false)
+                    .childOption(EpollChannelOption.EPOLL_MODE, mode)
+                    .childOption(ChannelOption.RCVBUF_ALLOCATOR,
+                            new AvailableBytesRecvByteBufAllocator(64, 1024, 65536, false))
+                    .childHandler(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelActive(ChannelHandlerContext ctx) {
+                            accepted.set(ctx.channel());
+                            acceptedLatch.countDown();
+                        }
+
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            ByteBuf buf = (ByteBuf) msg;
+                            capacities.add(buf.capacity());
+                            buf.release();
+                        }
+                    });
+            sc = sb.bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+
+            Bootstrap cb = new Bootstrap()
+                    .group(group)
+                    .channel(EpollSocketChannel.class)
+                    .handler(new ChannelInboundHandlerAdapter());
+            cc = cb.connect(sc.localAddress()).sync().channel();
+            acceptedLatch.await();
+
+            // Over loopback the data is queued on the peer once the write completes.
+            cc.writeAndFlush(Unpooled.directBuffer(size).writeZero(size)).sync();
+            accepted.get().read();
+
+            assertEquals(size, (int) capacities.take());
+        } finally {
+            if (cc != null) {
+                cc.close().syncUninterruptibly();
+            }
+            if (sc != null) {
+                sc.close().syncUninterruptibly();
+            }
+            group.shutdownGracefully();
+        }
+    }
+}
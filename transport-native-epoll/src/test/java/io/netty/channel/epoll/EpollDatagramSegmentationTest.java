@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.testsuite.transport.TestsuitePermutation;
+import io.netty.testsuite.transport.socket.AbstractDatagramTest;
+import io.netty.util.internal.PlatformDependent;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class EpollDatagramSegmentationTest extends AbstractDatagramTest {
+
+    @Override
+    protected List<TestsuitePermutation.BootstrapComboFactory<Bootstrap, Bootstrap>> newFactories() {
+        return EpollSocketTestPermutation.INSTANCE.epollOnlyDatagram(internetProtocolFamily());
+    }
+
+    @Test
+    public void testSegmentedWrite() throws Throwable {
+        run();
+    }
+
+    public void testSegmentedWrite(Bootstrap sb, Bootstrap cb) throws Throwable {
+        testSegmentation(sb, cb, false);
+    }
+
+    @Test
+    public void testSegmentedWriteGroRead() throws Throwable {
+        run();
+    }
+
+    public void testSegmentedWriteGroRead(Bootstrap sb, Bootstrap cb) throws Throwable {
+        testSegmentation(sb, cb, true);
+    }
+
+    private void testSegmentation(Bootstrap sb, Bootstrap cb, boolean gro) throws Throwable {
+        assumeTrue(SegmentedDatagramPacket.isSupported());
+
+        final int segmentSize = 512;
+        final int numSegments = 4;
+
+        sb.option(ChannelOption.RCVBUF_ALLOCATOR, new FixedRecvByteBufAllocator(64 * 1024));
+        sb.option(EpollChannelOption.UDP_GRO, gro);
+
+        Channel sc = null;
+        Channel cc = null;
+        try {
+            cb.handler(new SimpleChannelInboundHandler<Object>() {
+                @Override
+                public void channelRead0(ChannelHandlerContext ctx, Object msgs) {
+                    // Nothing will be sent.
+                }
+            });
+            cc = cb.bind(newSocketAddress()).sync().channel();
+
+            final byte[] bytes = new byte[segmentSize * numSegments];
+            PlatformDependent.threadLocalRandom().nextBytes(bytes);
+
+            final AtomicReference<Throwable> errorRef = new AtomicReference<Throwable>();
+            final CountDownLatch latch = new CountDownLatch(numSegments);
+            sb.handler(new SimpleChannelInboundHandler<DatagramPacket>() {
+                private int offset;
+
+                @Override
+                protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket msg) {
+                    ByteBuf content = msg.content();
+                    if (msg instanceof SegmentedDatagramPacket) {
+                        assertEquals(segmentSize, ((SegmentedDatagramPacket) msg).segmentSize());
+                    }
+                    // Split the content like a handler behind the channel would do.
+                    while (content.isReadable()) {
+                        ByteBuf segment = content.readRetainedSlice(Math.min(segmentSize, content.readableBytes()));
+                        try {
+                            assertEquals(segmentSize, segment.readableBytes());
+                            byte[] received = new byte[segmentSize];
+                            segment.readBytes(received);
+                            byte[] expected = new byte[segmentSize];
+                            System.arraycopy(bytes, offset, expected, 0, segmentSize);
+                            assertArrayEquals(expected, received);
+                            offset += segmentSize;
+                        } finally {
+                            segment.release();
+                        }
+                        latch.countDown();
+                    }
+                }
+
+                @Override
+                public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+                    errorRef.compareAndSet(null, cause);
+                }
+            });
+            sc = sb.bind(newSocketAddress()).sync().channel();
+            assertEquals(gro, sc.config().getOption(EpollChannelOption.UDP_GRO));
+
+            InetSocketAddress addr = (InetSocketAddress) sc.localAddress();
+            cc.writeAndFlush(new SegmentedDatagramPacket(
+                    cc.alloc().directBuffer().writeBytes(bytes), segmentSize, addr)).sync();
+
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                Throwable error = errorRef.get();
+                if (error != null) {
+                    throw error;
+                }
+                fail("Timeout while waiting for packets");
+            }
+            assertTrue(errorRef.get() == null);
+        } finally {
+            if (cc != null) {
+                cc.close().syncUninterruptibly();
+            }
+            if (sc != null) {
+                sc.close().syncUninterruptibly();
+            }
+        }
+    }
+
+    @Test
+    public void testUdpSegmentOption() throws Exception {
+        assumeTrue(SegmentedDatagramPacket.isSupported());
+        EpollDatagramChannel channel = new EpollDatagramChannel();
+        try {
+            assertEquals(0, (int) channel.config().getOption(EpollChannelOption.UDP_SEGMENT));
+            assertTrue(channel.config().setOption(EpollChannelOption.UDP_SEGMENT, 1200));
+            assertEquals(1200, channel.config().getUdpSegmentSize());
+        } finally {
+            channel.unsafe().closeForcibly();
+        }
+    }
+}
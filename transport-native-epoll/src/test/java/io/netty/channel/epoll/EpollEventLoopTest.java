@@ -15,12 +15,19 @@
  */
 package io.netty.channel.epoll;
 
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.DefaultSelectStrategyFactory;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.unix.FileDescriptor;
 import io.netty.testsuite.transport.AbstractSingleThreadEventLoopTest;
+import io.netty.util.NetUtil;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.RejectedExecutionHandlers;
@@ -28,6 +35,8 @@ import io.netty.util.concurrent.ThreadPerTaskExecutor;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -129,4 +138,52 @@ public class EpollEventLoopTest extends AbstractSingleThreadEventLoopTest {
             timerFd.close();
         }
     }
+
+    @Test(timeout = 10000)
+    public void testFlushDeferredToEndOfIteration() throws Exception {
+        testDeferredFlush(10, TimeUnit.SECONDS, false);
+    }
+
+    @Test(timeout = 10000)
+    public void testDeferredFlushLatencyCap() throws Exception {
+        testDeferredFlush(1, TimeUnit.NANOSECONDS, true);
+    }
+
+    private static void testDeferredFlush(long maxDelay, TimeUnit unit, boolean writtenInTask) throws Exception {
+        EpollEventLoopGroup group = new EpollEventLoopGroup(1);
+        group.setMaxFlushDelay(maxDelay, unit);
+        Channel server = null;
+        Channel client = null;
+        try {
+            server = new ServerBootstrap().group(group).channel(EpollServerSocketChannel.class)
+                    .childHandler(new ChannelInboundHandlerAdapter())
+                    .bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+            client = new Bootstrap().group(group).channel(EpollSocketChannel.class)
+                    .handler(new ChannelInboundHandlerAdapter())
+                    .connect(server.localAddress()).sync().channel();
+
+            final Channel ch = client;
+            final ChannelFuture[] futures = new ChannelFuture[2];
+            boolean firstDone = ch.eventLoop().submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    futures[0] = ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[] { 1 }));
+                    futures[1] = ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[] { 2 }));
+                    return futures[0].isDone();
+                }
+            }).sync().getNow();
+
+            assertEquals(writtenInTask, firstDone);
+            futures[0].sync();
+            futures[1].sync();
+        } finally {
+            if (client != null) {
+                client.close().sync();
+            }
+            if (server != null) {
+                server.close().sync();
+            }
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
 }
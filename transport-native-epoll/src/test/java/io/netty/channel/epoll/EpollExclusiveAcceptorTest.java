@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.util.NetUtil;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class EpollExclusiveAcceptorTest {
+
+    @Test(timeout = 10000)
+    public void testAcceptorsShareListeningSocket() throws Exception {
+        final int loops = 2;
+        final int connections = 16;
+        EpollEventLoopGroup group = new EpollEventLoopGroup(loops);
+        EpollExclusiveAcceptorFactory factory = new EpollExclusiveAcceptorFactory();
+        final CountDownLatch latch = new CountDownLatch(connections);
+        final AtomicInteger handedOver = new AtomicInteger();
+        Channel sch = null;
+        try {
+            ServerBootstrap sb = new ServerBootstrap()
+                    .group(group)
+                    .channelFactory(factory)
+                    .sharded(true)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            if (ch.eventLoop() != ch.parent().eventLoop()) {
+                                handedOver.incrementAndGet();
+                            }
+                            latch.countDown();
+                        }
+                    });
+            sch = sb.bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+            assertEquals(loops, factory.acceptors().size());
+            for (EpollServerSocketChannel acceptor : factory.acceptors()) {
+                assertEquals(sch.localAddress(), acceptor.localAddress());
+            }
+
+            InetSocketAddress address = (InetSocketAddress) sch.localAddress();
+            for (int i = 0; i < connections; i++) {
+                new Socket(address.getAddress(), address.getPort()).close();
+            }
+            latch.await();
+            assertEquals(0, handedOver.get());
+
+            long accepted = 0;
+            for (long count : factory.acceptCounts()) {
+                accepted += count;
+            }
+            assertEquals(connections, accepted);
+        } finally {
+            if (sch != null) {
+                sch.close().syncUninterruptibly();
+            }
+            group.shutdownGracefully();
+        }
+        for (EpollServerSocketChannel acceptor : factory.acceptors()) {
+            acceptor.closeFuture().syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testAcceptIsSuspendedWithoutAutoRead() throws Exception {
+        EpollEventLoopGroup group = new EpollEventLoopGroup(2);
+        EpollExclusiveAcceptorFactory factory = new EpollExclusiveAcceptorFactory();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Channel sch = null;
+        try {
+            ServerBootstrap sb = new ServerBootstrap()
+                    .group(group)
+                    .channelFactory(factory)
+                    .sharded(true)
+                    .option(ChannelOption.AUTO_READ, false)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            latch.countDown();
+                        }
+                    });
+            sch = sb.bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+
+            InetSocketAddress address = (InetSocketAddress) sch.localAddress();
+            Socket socket = new Socket(address.getAddress(), address.getPort());
+            try {
+                // Give the loops the chance to see the connection.
+                Thread.sleep(200);
+                assertEquals(1, latch.getCount());
+                assertEquals(0, factory.acceptCounts()[0] + factory.acceptCounts()[1]);
+
+                for (EpollServerSocketChannel acceptor : factory.acceptors()) {
+                    acceptor.read();
+                }
+                latch.await();
+            } finally {
+                socket.close();
+            }
+        } finally {
+            if (sch != null) {
+                sch.close().syncUninterruptibly();
+            }
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testLevelTriggeredIsRejectedWithoutAutoRead() throws Exception {
+        EpollEventLoopGroup group = new EpollEventLoopGroup(2);
+        EpollExclusiveAcceptorFactory factory = new EpollExclusiveAcceptorFactory();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Channel sch = null;
+        try {
+            ServerBootstrap sb = new ServerBootstrap()
+                    .group(group)
+                    .channelFactory(factory)
+                    .sharded(true)
+                    .option(ChannelOption.AUTO_READ, false)
+                    .option(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            latch.countDown();
+                        }
+                    });
+            sch = sb.bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+            for (EpollServerSocketChannel acceptor : factory.acceptors()) {
+                // A level-triggered registration would spin while the connection below is not accepted.
+                assertEquals(EpollMode.EDGE_TRIGGERED, acceptor.config().getEpollMode());
+                try {
+                    acceptor.config().setEpollMode(EpollMode.LEVEL_TRIGGERED);
+                    fail();
+                } catch (IllegalArgumentException expected) {
+                    // expected
+                }
+            }
+
+            InetSocketAddress address = (InetSocketAddress) sch.localAddress();
+            Socket socket = new Socket(address.getAddress(), address.getPort());
+            try {
+                Thread.sleep(200);
+                assertEquals(1, latch.getCount());
+                for (EpollServerSocketChannel acceptor : factory.acceptors()) {
+                    acceptor.read();
+                }
+                latch.await();
+            } finally {
+                socket.close();
+            }
+        } finally {
+            if (sch != null) {
+                sch.close().syncUninterruptibly();
+            }
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseClosesAllAcceptors() throws Exception {
+        EpollEventLoopGroup group = new EpollEventLoopGroup(3);
+        EpollExclusiveAcceptorFactory factory = new EpollExclusiveAcceptorFactory();
+        try {
+            ServerBootstrap sb = new ServerBootstrap()
+                    .group(group)
+                    .channelFactory(factory)
+                    .sharded(true)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            // NOOP
+                        }
+                    });
+            Channel sch = sb.bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+            factory.acceptors().get(2).close().syncUninterruptibly();
+            for (EpollServerSocketChannel acceptor : factory.acceptors()) {
+                acceptor.closeFuture().syncUninterruptibly();
+            }
+            assertFalse(sch.isOpen());
+
+            // A new bind starts over with a new listening socket.
+            sb.bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel().close().syncUninterruptibly();
+            assertEquals(3, factory.acceptors().size());
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.util.NetUtil;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EpollNotSentLowAtWritabilityTest {
+
+    @Test
+    public void testIndexOption() {
+        EpollSocketChannel channel = new EpollSocketChannel();
+        try {
+            assertEquals(0, (int) channel.config().getOption(EpollChannelOption.TCP_NOTSENT_LOWAT_WRITABILITY_INDEX));
+            channel.config().setOption(EpollChannelOption.TCP_NOTSENT_LOWAT_WRITABILITY_INDEX, 3);
+            assertEquals(3, channel.config().getTcpNotSentLowAtWritabilityIndex());
+        } finally {
+            channel.unsafe().closeForcibly();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidIndex() {
+        EpollSocketChannel channel = new EpollSocketChannel();
+        try {
+            channel.config().setTcpNotSentLowAtWritabilityIndex(32);
+        } finally {
+            channel.unsafe().closeForcibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testWritabilityFollowsUnsentBytes() throws Exception {
+        final int index = 1;
+        EpollEventLoopGroup group = new EpollEventLoopGroup(2);
+        final AtomicReference<Channel> accepted = new AtomicReference<Channel>();
+        final CountDownLatch acceptedLatch = new CountDownLatch(1);
+        final CountDownLatch writableAgain = new CountDownLatch(1);
+        Channel sc = null;
+        Channel cc = null;
+        try {
+            ServerBootstrap sb = new ServerBootstrap()
+                    .group(group)
+                    .channel(EpollServerSocketChannel.class)
+                    .childOption(ChannelOption.AUTO_READ, false)
+                    .childHandler(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelActive(ChannelHandlerContext ctx) {
+                            accepted.set(ctx.channel());
+                            acceptedLatch.countDown();
+                        }
+
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            ((ByteBuf) msg).release();
+                        }
+                    });
+            sc = sb.bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+
+            Bootstrap cb = new Bootstrap()
+                    .group(group)
+                    .channel(EpollSocketChannel.class)
+                    // Make sure only the kernel can make the channel unwritable.
+                    .option(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                            new WriteBufferWaterMark(Integer.MAX_VALUE - 1, Integer.MAX_VALUE))
+                    .option(EpollChannelOption.TCP_NOTSENT_LOWAT, 16384L)
+                    .option(EpollChannelOption.TCP_NOTSENT_LOWAT_WRITABILITY_INDEX, index)
+                    .handler(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+                            if (ctx.channel().isWritable()) {
+                                writableAgain.countDown();
+                            }
+                        }
+                    });
+            final Channel client = cc = cb.connect(sc.localAddress()).sync().channel();
+            acceptedLatch.await();
+
+            final ByteBuf chunk = Unpooled.directBuffer(8192).writeZero(8192);
+            try {
+                // The peer does not read, so the unsent bytes pile up in the kernel of the client.
+                long written = client.eventLoop().submit(new Callable<Long>() {
+                    @Override
+                    public Long call() {
+                        long written = 0;
+                        while (client.isWritable()) {
+                            client.writeAndFlush(chunk.retainedDuplicate());
+                            written += chunk.readableBytes();
+                        }
+                        return written;
+                    }
+                }).sync().getNow();
+                assertTrue(written > 0);
+            } finally {
+                chunk.release();
+            }
+
+            ChannelOutboundBuffer in = client.unsafe().outboundBuffer();
+            assertFalse(client.isWritable());
+            assertFalse(in.getUserDefinedWritability(index));
+
+            // Once the peer reads the kernel sends the data and reports EPOLLOUT.
+            accepted.get().config().setAutoRead(true);
+            writableAgain.await();
+            assertTrue(in.getUserDefinedWritability(index));
+        } finally {
+            if (cc != null) {
+                cc.close().syncUninterruptibly();
+            }
+            if (sc != null) {
+                sc.close().syncUninterruptibly();
+            }
+            group.shutdownGracefully();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.util.NetUtil;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class EpollShardedServerTest {
+
+    @Test(timeout = 10000)
+    public void testConnectionsAreServedByAcceptingLoop() throws Exception {
+        final int shards = 2;
+        final int connections = 16;
+        EpollEventLoopGroup group = new EpollEventLoopGroup(shards);
+        final CountDownLatch latch = new CountDownLatch(connections);
+        final AtomicInteger handedOver = new AtomicInteger();
+        Channel sch = null;
+        try {
+            ServerBootstrap sb = new ServerBootstrap()
+                    .group(group)
+                    .channel(EpollServerSocketChannel.class)
+                    .sharded(true)
+                    .option(EpollChannelOption.SO_REUSEPORT, true)
+                    .option(EpollChannelOption.SO_REUSEPORT_CPU_STEERING, shards)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            if (ch.eventLoop() != ch.parent().eventLoop()) {
+                                handedOver.incrementAndGet();
+                            }
+                            latch.countDown();
+                        }
+                    });
+            sch = sb.bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+            assertEquals(shards, ((EpollServerSocketChannel) sch).config().getReusePortCpuSteering());
+
+            InetSocketAddress address = (InetSocketAddress) sch.localAddress();
+            for (int i = 0; i < connections; i++) {
+                new Socket(address.getAddress(), address.getPort()).close();
+            }
+            latch.await();
+            assertEquals(0, handedOver.get());
+        } finally {
+            if (sch != null) {
+                sch.close().syncUninterruptibly();
+            }
+            group.shutdownGracefully();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EpollThreadAffinityTest {
+
+    @Test
+    public void testCpusRoundRobin() {
+        EpollThreadAffinity affinity = EpollThreadAffinity.cpus(3, 1);
+        assertEquals(3, affinity.nextCpu());
+        assertEquals(1, affinity.nextCpu());
+        assertEquals(3, affinity.nextCpu());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCpu() {
+        EpollThreadAffinity.cpus(0, -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoCpus() {
+        EpollThreadAffinity.cpus();
+    }
+
+    @Test
+    public void testSpreadBindsLoops() throws Exception {
+        int[] allowed = Native.currentThreadAffinity();
+        assertTrue(allowed.length > 0);
+
+        EpollEventLoopGroup group = new EpollEventLoopGroup(
+                allowed.length + 1, new DefaultThreadFactory(getClass()), EpollThreadAffinity.spread());
+        try {
+            int[] expected = new int[group.executorCount()];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = allowed[i % allowed.length];
+                // Make sure every loop was started.
+                group.next().submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        // NOOP
+                    }
+                }).sync();
+            }
+            assertArrayEquals(Arrays.toString(group.boundCpus()), expected, group.boundCpus());
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.util.NetUtil;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EpollZeroCopyTest {
+
+    @Test
+    public void testThresholdOption() throws Exception {
+        EpollSocketChannel channel = new EpollSocketChannel();
+        try {
+            assertEquals(0, (int) channel.config().getOption(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD));
+            channel.config().setOption(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD, 16384);
+            assertEquals(16384, channel.config().getMsgZeroCopyThreshold());
+        } finally {
+            channel.unsafe().closeForcibly();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeThreshold() {
+        EpollSocketChannel channel = new EpollSocketChannel();
+        try {
+            channel.config().setMsgZeroCopyThreshold(-1);
+        } finally {
+            channel.unsafe().closeForcibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testLargeWritesAreReleasedAfterCompletion() throws Exception {
+        final int size = 1024 * 1024;
+        final int writes = 8;
+        EpollEventLoopGroup group = new EpollEventLoopGroup(2);
+        final CountDownLatch received = new CountDownLatch(1);
+        final ByteBuf expected = Unpooled.directBuffer(size);
+        for (int i = 0; i < size; i++) {
+            expected.writeByte(i * 31);
+        }
+        final int total = (size + 1) * writes;
+        final ByteBuf actual = Unpooled.buffer(total, total);
+        Channel sc = null;
+        Channel cc = null;
+        try {
+            ServerBootstrap sb = new ServerBootstrap()
+                    .group(group)
+                    .channel(EpollServerSocketChannel.class)
+                    .childHandler(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            ByteBuf buf = (ByteBuf) msg;
+                            actual.writeBytes(buf);
+                            buf.release();
+                            if (!actual.isWritable()) {
+                                received.countDown();
+                            }
+                        }
+                    });
+            sc = sb.bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+
+            Bootstrap cb = new Bootstrap()
+                    .group(group)
+                    .channel(EpollSocketChannel.class)
+                    .option(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD, 64 * 1024)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            // NOOP
+                        }
+                    });
+            cc = cb.connect(sc.localAddress()).sync().channel();
+
+            for (int i = 0; i < writes; i++) {
+                // A small buffer in front of each large one uses the copy path.
+                cc.write(Unpooled.directBuffer(1).writeByte(0));
+                cc.write(expected.retainedDuplicate());
+            }
+            cc.writeAndFlush(Unpooled.EMPTY_BUFFER).sync();
+            received.await();
+
+            for (int i = 0; i < writes; i++) {
+                assertEquals(0, actual.readByte());
+                assertEquals(expected, actual.readSlice(size));
+            }
+            // Only the reference of the test is left once all sends completed.
+            while (expected.refCnt() != 1) {
+                Thread.sleep(10);
+            }
+        } finally {
+            if (cc != null) {
+                cc.close().syncUninterruptibly();
+            }
+            if (sc != null) {
+                sc.close().syncUninterruptibly();
+            }
+            group.shutdownGracefully();
+            expected.release();
+            actual.release();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseWithSendsInFlight() throws Exception {
+        final int size = 1024 * 1024;
+        EpollEventLoopGroup group = new EpollEventLoopGroup(2);
+        final CountDownLatch accepted = new CountDownLatch(1);
+        final CountDownLatch received = new CountDownLatch(1);
+        final AtomicReference<Channel> accepting = new AtomicReference<Channel>();
+        final ByteBuf expected = Unpooled.directBuffer(size);
+        for (int i = 0; i < size; i++) {
+            expected.writeByte(i * 31);
+        }
+        final ByteBuf actual = Unpooled.buffer(size, size);
+        Channel sc = null;
+        Channel cc = null;
+        try {
+            ServerBootstrap sb = new ServerBootstrap()
+                    .group(group)
+                    .channel(EpollServerSocketChannel.class)
+                    // A small window keeps most of the data in the send queue of the client.
+                    .option(ChannelOption.SO_RCVBUF, 4096)
+                    .childOption(ChannelOption.AUTO_READ, false)
+                    .childHandler(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelActive(ChannelHandlerContext ctx) {
+                            accepting.set(ctx.channel());
+                            accepted.countDown();
+                        }
+
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            ByteBuf buf = (ByteBuf) msg;
+                            actual.writeBytes(buf);
+                            buf.release();
+                        }
+
+                        @Override
+                        public void channelInactive(ChannelHandlerContext ctx) {
+                            received.countDown();
+                        }
+                    });
+            sc = sb.bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+
+            Bootstrap cb = new Bootstrap()
+                    .group(group)
+                    .channel(EpollSocketChannel.class)
+                    .option(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD, 64 * 1024)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            // NOOP
+                        }
+                    });
+            cc = cb.connect(sc.localAddress()).sync().channel();
+            accepted.await();
+
+            cc.writeAndFlush(expected.retainedDuplicate());
+            cc.close().sync();
+            // The kernel may still send from the memory of the buffer, so it must not be released yet.
+            assertEquals(2, expected.refCnt());
+
+            accepting.get().config().setAutoRead(true);
+            received.await();
+            assertTrue(actual.isReadable());
+            assertEquals(expected.slice(0, actual.readableBytes()), actual);
+            while (expected.refCnt() != 1) {
+                Thread.sleep(10);
+            }
+        } finally {
+            if (cc != null) {
+                cc.close().syncUninterruptibly();
+            }
+            if (sc != null) {
+                sc.close().syncUninterruptibly();
+            }
+            group.shutdownGracefully();
+            expected.release();
+            actual.release();
+        }
+    }
+}
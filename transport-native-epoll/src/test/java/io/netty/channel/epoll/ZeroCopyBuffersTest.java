@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ZeroCopyBuffersTest {
+
+    private static ByteBuf[] addBuffers(ZeroCopyBuffers zeroCopyBuffers, int count) {
+        ByteBuf[] bufs = new ByteBuf[count];
+        for (int i = 0; i < count; i++) {
+            bufs[i] = Unpooled.buffer(1);
+            zeroCopyBuffers.add(bufs[i]);
+        }
+        return bufs;
+    }
+
+    @Test
+    public void testCompleteInOrder() {
+        ZeroCopyBuffers zeroCopyBuffers = new ZeroCopyBuffers();
+        ByteBuf[] bufs = addBuffers(zeroCopyBuffers, 40);
+        zeroCopyBuffers.complete(0, 9);
+        for (int i = 0; i < bufs.length; i++) {
+            assertEquals(i < 10 ? 0 : 1, bufs[i].refCnt());
+        }
+        zeroCopyBuffers.complete(10, 39);
+        assertTrue(zeroCopyBuffers.isEmpty());
+        for (ByteBuf buf : bufs) {
+            assertEquals(0, buf.refCnt());
+        }
+    }
+
+    @Test
+    public void testCompleteOutOfOrder() {
+        ZeroCopyBuffers zeroCopyBuffers = new ZeroCopyBuffers();
+        ByteBuf[] bufs = addBuffers(zeroCopyBuffers, 4);
+        zeroCopyBuffers.complete(2, 3);
+        assertEquals(1, bufs[0].refCnt());
+        assertEquals(1, bufs[1].refCnt());
+        assertEquals(0, bufs[2].refCnt());
+        assertEquals(0, bufs[3].refCnt());
+        assertFalse(zeroCopyBuffers.isEmpty());
+
+        zeroCopyBuffers.complete(0, 1);
+        assertTrue(zeroCopyBuffers.isEmpty());
+
+        // The ids continue after the completed ones.
+        ByteBuf next = addBuffers(zeroCopyBuffers, 1)[0];
+        zeroCopyBuffers.complete(4, 4);
+        assertEquals(0, next.refCnt());
+        assertTrue(zeroCopyBuffers.isEmpty());
+    }
+
+    @Test
+    public void testCompleteIgnoresUnknownIds() {
+        ZeroCopyBuffers zeroCopyBuffers = new ZeroCopyBuffers();
+        ByteBuf[] bufs = addBuffers(zeroCopyBuffers, 2);
+        zeroCopyBuffers.complete(5, 8);
+        assertEquals(1, bufs[0].refCnt());
+        assertEquals(1, bufs[1].refCnt());
+        zeroCopyBuffers.complete(0, 8);
+        assertTrue(zeroCopyBuffers.isEmpty());
+    }
+}
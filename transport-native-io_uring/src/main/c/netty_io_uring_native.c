@@ -0,0 +1,603 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+#define _GNU_SOURCE
+#include <jni.h>
+#include <stdint.h>
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <errno.h>
+#include <poll.h>
+#include <sys/eventfd.h>
+#include <sys/mman.h>
+#include <sys/sendfile.h>
+#include <sys/socket.h>
+#include <sys/syscall.h>
+#include <sys/types.h>
+#include <unistd.h>
+#include <dlfcn.h>
+#include <linux/io_uring.h>
+
+#include "netty_unix_buffer.h"
+#include "netty_unix_errors.h"
+#include "netty_unix_filedescriptor.h"
+#include "netty_unix_jni.h"
+#include "netty_unix_limits.h"
+#include "netty_unix_socket.h"
+#include "netty_unix_util.h"
+
+// io_uring_setup, io_uring_enter and io_uring_register are defined in linux 5.1. We define this here so older kernels
+// can compile. The numbers are the same on all architectures that use the generic syscall table.
+#ifndef __NR_io_uring_setup
+#define __NR_io_uring_setup 425
+#endif
+#ifndef __NR_io_uring_enter
+#define __NR_io_uring_enter 426
+#endif
+#ifndef __NR_io_uring_register
+#define __NR_io_uring_register 427
+#endif
+
+// Indexes into the array filled by ioUringSetup(...), see RingBuffer.
+#define RING_SQ_RING_ADDRESS 0
+#define RING_SQ_RING_SIZE 1
+#define RING_CQ_RING_ADDRESS 2
+#define RING_CQ_RING_SIZE 3
+#define RING_SQES_ADDRESS 4
+#define RING_SQES_SIZE 5
+#define RING_SQ_HEAD 6
+#define RING_SQ_TAIL 7
+#define RING_SQ_MASK 8
+#define RING_SQ_ENTRIES 9
+#define RING_SQ_ARRAY 10
+#define RING_CQ_HEAD 11
+#define RING_CQ_TAIL 12
+#define RING_CQ_MASK 13
+#define RING_CQ_ENTRIES 14
+#define RING_CQES 15
+#define RING_FEATURES 16
+#define RING_INFO_LENGTH 17
+
+// Those are initialized in the init(...) method and cached for performance reasons
+static jfieldID fileChannelFieldId = NULL;
+static jfieldID transferredFieldId = NULL;
+static jfieldID fdFieldId = NULL;
+static jfieldID fileDescriptorFieldId = NULL;
+
+static int sys_io_uring_setup(unsigned int entries, struct io_uring_params* p) {
+    return (int) syscall(__NR_io_uring_setup, entries, p);
+}
+
+static int sys_io_uring_enter(int fd, unsigned int toSubmit, unsigned int minComplete, unsigned int flags) {
+    return (int) syscall(__NR_io_uring_enter, fd, toSubmit, minComplete, flags, NULL, 0);
+}
+
+static int sys_io_uring_register(int fd, unsigned int opcode, void* arg, unsigned int nrArgs) {
+    return (int) syscall(__NR_io_uring_register, fd, opcode, arg, nrArgs);
+}
+
+// JNI Registered Methods Begin
+static jint netty_io_uring_native_ioUringSetup(JNIEnv* env, jclass clazz, jint entries, jlongArray info) {
+    struct io_uring_params p;
+    memset(&p, 0, sizeof(p));
+
+    int ringFd = sys_io_uring_setup((unsigned int) entries, &p);
+    if (ringFd < 0) {
+        return -errno;
+    }
+
+    size_t sqRingSize = p.sq_off.array + p.sq_entries * sizeof(unsigned int);
+    size_t cqRingSize = p.cq_off.cqes + p.cq_entries * sizeof(struct io_uring_cqe);
+    size_t sqesSize = p.sq_entries * sizeof(struct io_uring_sqe);
+    int singleMmap = (p.features & IORING_FEAT_SINGLE_MMAP) != 0;
+    if (singleMmap) {
+        // Both rings share the same mapping, so it needs to be large enough for both.
+        if (cqRingSize > sqRingSize) {
+            sqRingSize = cqRingSize;
+        }
+        cqRingSize = sqRingSize;
+    }
+
+    int err;
+    void* sqRing = mmap(NULL, sqRingSize, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, ringFd, IORING_OFF_SQ_RING);
+    if (sqRing == MAP_FAILED) {
+        err = errno;
+        close(ringFd);
+        return -err;
+    }
+    void* cqRing = sqRing;
+    if (!singleMmap) {
+        cqRing = mmap(NULL, cqRingSize, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, ringFd, IORING_OFF_CQ_RING);
+        if (cqRing == MAP_FAILED) {
+            err = errno;
+            munmap(sqRing, sqRingSize);
+            close(ringFd);
+            return -err;
+        }
+    }
+    void* sqes = mmap(NULL, sqesSize, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, ringFd, IORING_OFF_SQES);
+    if (sqes == MAP_FAILED) {
+        err = errno;
+        if (!singleMmap) {
+            munmap(cqRing, cqRingSize);
+        }
+        munmap(sqRing, sqRingSize);
+        close(ringFd);
+        return -err;
+    }
+
+    jlong values[RING_INFO_LENGTH];
+    values[RING_SQ_RING_ADDRESS] = (jlong) sqRing;
+    values[RING_SQ_RING_SIZE] = (jlong) sqRingSize;
+    // Signal via a size of 0 that the completion ring must not be unmapped separately.
+    values[RING_CQ_RING_ADDRESS] = (jlong) cqRing;
+    values[RING_CQ_RING_SIZE] = singleMmap ? 0 : (jlong) cqRingSize;
+    values[RING_SQES_ADDRESS] = (jlong) sqes;
+    values[RING_SQES_SIZE] = (jlong) sqesSize;
+    values[RING_SQ_HEAD] = (jlong) sqRing + p.sq_off.head;
+    values[RING_SQ_TAIL] = (jlong) sqRing + p.sq_off.tail;
+    values[RING_SQ_MASK] = *((unsigned int*) ((char*) sqRing + p.sq_off.ring_mask));
+    values[RING_SQ_ENTRIES] = *((unsigned int*) ((char*) sqRing + p.sq_off.ring_entries));
+    values[RING_SQ_ARRAY] = (jlong) sqRing + p.sq_off.array;
+    values[RING_CQ_HEAD] = (jlong) cqRing + p.cq_off.head;
+    values[RING_CQ_TAIL] = (jlong) cqRing + p.cq_off.tail;
+    values[RING_CQ_MASK] = *((unsigned int*) ((char*) cqRing + p.cq_off.ring_mask));
+    values[RING_CQ_ENTRIES] = *((unsigned int*) ((char*) cqRing + p.cq_off.ring_entries));
+    values[RING_CQES] = (jlong) cqRing + p.cq_off.cqes;
+    values[RING_FEATURES] = p.features;
+    (*env)->SetLongArrayRegion(env, info, 0, RING_INFO_LENGTH, values);
+    return ringFd;
+}
+
+static void netty_io_uring_native_ioUringExit(JNIEnv* env, jclass clazz, jint ringFd, jlong sqRing, jint sqRingSize,
+        jlong cqRing, jint cqRingSize, jlong sqes, jint sqesSize) {
+    munmap((void*) sqes, (size_t) sqesSize);
+    if (cqRingSize > 0) {
+        munmap((void*) cqRing, (size_t) cqRingSize);
+    }
+    munmap((void*) sqRing, (size_t) sqRingSize);
+    close(ringFd);
+}
+
+static jint netty_io_uring_native_ioUringEnter(JNIEnv* env, jclass clazz, jint ringFd, jint toSubmit, jint minComplete, jint flags) {
+    int res;
+    int err;
+    do {
+        res = sys_io_uring_enter(ringFd, (unsigned int) toSubmit, (unsigned int) minComplete, (unsigned int) flags);
+        if (res >= 0) {
+            return res;
+        }
+    } while ((err = errno) == EINTR);
+    return -err;
+}
+
+static jboolean netty_io_uring_native_ioUringProbe(JNIEnv* env, jclass clazz, jint ringFd, jintArray ops) {
+    // The probe has room for every opcode that fits into the u8 opcode field.
+    size_t probeSize = sizeof(struct io_uring_probe) + 256 * sizeof(struct io_uring_probe_op);
+    struct io_uring_probe* probe = calloc(1, probeSize);
+    if (probe == NULL) {
+        netty_unix_errors_throwOutOfMemoryError(env);
+        return JNI_FALSE;
+    }
+    // IORING_REGISTER_PROBE is only supported since linux 5.6, which is also the first version that supports all the
+    // operations we need.
+    if (sys_io_uring_register(ringFd, IORING_REGISTER_PROBE, probe, 256) < 0) {
+        free(probe);
+        return JNI_FALSE;
+    }
+    jint len = (*env)->GetArrayLength(env, ops);
+    jint* elements = (*env)->GetIntArrayElements(env, ops, NULL);
+    jboolean supported = JNI_TRUE;
+    jint i;
+    for (i = 0; i < len; ++i) {
+        jint op = elements[i];
+        if (op > probe->last_op || (probe->ops[op].flags & IO_URING_OP_SUPPORTED) == 0) {
+            supported = JNI_FALSE;
+            break;
+        }
+    }
+    (*env)->ReleaseIntArrayElements(env, ops, elements, JNI_ABORT);
+    free(probe);
+    return supported;
+}
+
+static jint netty_io_uring_native_eventFd(JNIEnv* env, jclass clazz) {
+    jint eventFD = eventfd(0, EFD_CLOEXEC | EFD_NONBLOCK);
+
+    if (eventFD < 0) {
+        netty_unix_errors_throwChannelExceptionErrorNo(env, "eventfd() failed: ", errno);
+    }
+    return eventFD;
+}
+
+static void netty_io_uring_native_eventFdWrite(JNIEnv* env, jclass clazz, jint fd, jlong value) {
+    uint64_t val;
+
+    for (;;) {
+        jint ret = eventfd_write(fd, (eventfd_t) value);
+
+        if (ret < 0) {
+            // We need to read before we can write again, let's try to read and then write again and if this
+            // fails we will bail out.
+            //
+            // See http://man7.org/linux/man-pages/man2/eventfd.2.html.
+            if (errno == EAGAIN) {
+                if (eventfd_read(fd, &val) == 0 || errno == EAGAIN) {
+                    // Try again
+                    continue;
+                }
+                netty_unix_errors_throwChannelExceptionErrorNo(env, "eventfd_read(...) failed: ", errno);
+            } else {
+                netty_unix_errors_throwChannelExceptionErrorNo(env, "eventfd_write(...) failed: ", errno);
+            }
+        }
+        break;
+    }
+}
+
+static jlong netty_io_uring_native_sendFile(JNIEnv* env, jclass clazz, jint fd, jobject fileRegion, jlong base_off, jlong off, jlong len) {
+    jobject fileChannel = (*env)->GetObjectField(env, fileRegion, fileChannelFieldId);
+    if (fileChannel == NULL) {
+        netty_unix_errors_throwRuntimeException(env, "failed to get DefaultFileRegion.file");
+        return -1;
+    }
+    jobject fileDescriptor = (*env)->GetObjectField(env, fileChannel, fileDescriptorFieldId);
+    if (fileDescriptor == NULL) {
+        netty_unix_errors_throwRuntimeException(env, "failed to get FileChannelImpl.fd");
+        return -1;
+    }
+    jint srcFd = (*env)->GetIntField(env, fileDescriptor, fdFieldId);
+    if (srcFd == -1) {
+        netty_unix_errors_throwRuntimeException(env, "failed to get FileDescriptor.fd");
+        return -1;
+    }
+    ssize_t res;
+    off_t offset = base_off + off;
+    int err;
+    do {
+      res = sendfile(fd, srcFd, &offset, (size_t) len);
+    } while (res == -1 && ((err = errno) == EINTR));
+    if (res < 0) {
+        return -err;
+    }
+    if (res > 0) {
+        // update the transferred field in DefaultFileRegion
+        (*env)->SetLongField(env, fileRegion, transferredFieldId, off + res);
+    }
+
+    return res;
+}
+
+static jint netty_io_uring_native_ioringOpWritev(JNIEnv* env, jclass clazz) {
+    return IORING_OP_WRITEV;
+}
+
+static jint netty_io_uring_native_ioringOpPollAdd(JNIEnv* env, jclass clazz) {
+    return IORING_OP_POLL_ADD;
+}
+
+static jint netty_io_uring_native_ioringOpTimeout(JNIEnv* env, jclass clazz) {
+    return IORING_OP_TIMEOUT;
+}
+
+static jint netty_io_uring_native_ioringOpTimeoutRemove(JNIEnv* env, jclass clazz) {
+    return IORING_OP_TIMEOUT_REMOVE;
+}
+
+static jint netty_io_uring_native_ioringOpAccept(JNIEnv* env, jclass clazz) {
+    return IORING_OP_ACCEPT;
+}
+
+static jint netty_io_uring_native_ioringOpAsyncCancel(JNIEnv* env, jclass clazz) {
+    return IORING_OP_ASYNC_CANCEL;
+}
+
+static jint netty_io_uring_native_ioringOpRead(JNIEnv* env, jclass clazz) {
+    return IORING_OP_READ;
+}
+
+static jint netty_io_uring_native_ioringOpRecv(JNIEnv* env, jclass clazz) {
+    return IORING_OP_RECV;
+}
+
+static jint netty_io_uring_native_ioringEnterGetevents(JNIEnv* env, jclass clazz) {
+    return IORING_ENTER_GETEVENTS;
+}
+
+static jint netty_io_uring_native_sizeofIoUringSqe(JNIEnv* env, jclass clazz) {
+    return sizeof(struct io_uring_sqe);
+}
+
+static jint netty_io_uring_native_sizeofIoUringCqe(JNIEnv* env, jclass clazz) {
+    return sizeof(struct io_uring_cqe);
+}
+
+static jint netty_io_uring_native_pollout(JNIEnv* env, jclass clazz) {
+    return POLLOUT;
+}
+
+static jint netty_io_uring_native_sockNonblock(JNIEnv* env, jclass clazz) {
+    return SOCK_NONBLOCK;
+}
+
+static jint netty_io_uring_native_sockCloexec(JNIEnv* env, jclass clazz) {
+    return SOCK_CLOEXEC;
+}
+
+static jint netty_io_uring_native_errnoECANCELED(JNIEnv* env, jclass clazz) {
+    return ECANCELED;
+}
+
+static jint netty_io_uring_native_errnoETIME(JNIEnv* env, jclass clazz) {
+    return ETIME;
+}
+// JNI Registered Methods End
+
+// JNI Method Registration Table Begin
+static const JNINativeMethod statically_referenced_fixed_method_table[] = {
+  { "ioringOpWritev", "()I", (void *) netty_io_uring_native_ioringOpWritev },
+  { "ioringOpPollAdd", "()I", (void *) netty_io_uring_native_ioringOpPollAdd },
+  { "ioringOpTimeout", "()I", (void *) netty_io_uring_native_ioringOpTimeout },
+  { "ioringOpTimeoutRemove", "()I", (void *) netty_io_uring_native_ioringOpTimeoutRemove },
+  { "ioringOpAccept", "()I", (void *) netty_io_uring_native_ioringOpAccept },
+  { "ioringOpAsyncCancel", "()I", (void *) netty_io_uring_native_ioringOpAsyncCancel },
+  { "ioringOpRead", "()I", (void *) netty_io_uring_native_ioringOpRead },
+  { "ioringOpRecv", "()I", (void *) netty_io_uring_native_ioringOpRecv },
+  { "ioringEnterGetevents", "()I", (void *) netty_io_uring_native_ioringEnterGetevents },
+  { "sizeofIoUringSqe", "()I", (void *) netty_io_uring_native_sizeofIoUringSqe },
+  { "sizeofIoUringCqe", "()I", (void *) netty_io_uring_native_sizeofIoUringCqe },
+  { "pollout", "()I", (void *) netty_io_uring_native_pollout },
+  { "sockNonblock", "()I", (void *) netty_io_uring_native_sockNonblock },
+  { "sockCloexec", "()I", (void *) netty_io_uring_native_sockCloexec },
+  { "errnoECANCELED", "()I", (void *) netty_io_uring_native_errnoECANCELED },
+  { "errnoETIME", "()I", (void *) netty_io_uring_native_errnoETIME }
+};
+static const jint statically_referenced_fixed_method_table_size = sizeof(statically_referenced_fixed_method_table) / sizeof(statically_referenced_fixed_method_table[0]);
+static const JNINativeMethod fixed_method_table[] = {
+  { "ioUringSetup", "(I[J)I", (void *) netty_io_uring_native_ioUringSetup },
+  { "ioUringExit", "(IJIJIJI)V", (void *) netty_io_uring_native_ioUringExit },
+  { "ioUringEnter0", "(IIII)I", (void *) netty_io_uring_native_ioUringEnter },
+  { "ioUringProbe", "(I[I)Z", (void *) netty_io_uring_native_ioUringProbe },
+  { "eventFd", "()I", (void *) netty_io_uring_native_eventFd },
+  { "eventFdWrite", "(IJ)V", (void *) netty_io_uring_native_eventFdWrite }
+  // "sendFile0" has a dynamic signature
+};
+static const jint fixed_method_table_size = sizeof(fixed_method_table) / sizeof(fixed_method_table[0]);
+
+static jint dynamicMethodsTableSize() {
+    return fixed_method_table_size + 1; // 1 is for the dynamic method signatures.
+}
+
+static JNINativeMethod* createDynamicMethodsTable(const char* packagePrefix) {
+    JNINativeMethod* dynamicMethods = malloc(sizeof(JNINativeMethod) * dynamicMethodsTableSize());
+    memcpy(dynamicMethods, fixed_method_table, sizeof(fixed_method_table));
+
+    char* dynamicTypeName = netty_unix_util_prepend(packagePrefix, "io/netty/channel/DefaultFileRegion;JJJ)J");
+    JNINativeMethod* dynamicMethod = &dynamicMethods[fixed_method_table_size];
+    dynamicMethod->name = "sendFile0";
+    dynamicMethod->signature = netty_unix_util_prepend("(IL", dynamicTypeName);
+    dynamicMethod->fnPtr = (void *) netty_io_uring_native_sendFile;
+    free(dynamicTypeName);
+    return dynamicMethods;
+}
+
+static void freeDynamicMethodsTable(JNINativeMethod* dynamicMethods) {
+    jint fullMethodTableSize = dynamicMethodsTableSize();
+    jint i = fixed_method_table_size;
+    for (; i < fullMethodTableSize; ++i) {
+        free(dynamicMethods[i].signature);
+    }
+    free(dynamicMethods);
+}
+// JNI Method Registration Table End
+
+static jint netty_io_uring_native_JNI_OnLoad(JNIEnv* env, const char* packagePrefix) {
+    int limitsOnLoadCalled = 0;
+    int errorsOnLoadCalled = 0;
+    int filedescriptorOnLoadCalled = 0;
+    int socketOnLoadCalled = 0;
+    int bufferOnLoadCalled = 0;
+
+    // We must register the statically referenced methods first!
+    if (netty_unix_util_register_natives(env,
+            packagePrefix,
+            "io/netty/channel/uring/NativeStaticallyReferencedJniMethods",
+            statically_referenced_fixed_method_table,
+            statically_referenced_fixed_method_table_size) != 0) {
+        goto error;
+    }
+    // Register the methods which are not referenced by static member variables
+    JNINativeMethod* dynamicMethods = createDynamicMethodsTable(packagePrefix);
+    if (netty_unix_util_register_natives(env,
+            packagePrefix,
+            "io/netty/channel/uring/Native",
+            dynamicMethods,
+            dynamicMethodsTableSize()) != 0) {
+        freeDynamicMethodsTable(dynamicMethods);
+        goto error;
+    }
+    freeDynamicMethodsTable(dynamicMethods);
+    dynamicMethods = NULL;
+    // Load all c modules that we depend upon
+    if (netty_unix_limits_JNI_OnLoad(env, packagePrefix) == JNI_ERR) {
+        goto error;
+    }
+    limitsOnLoadCalled = 1;
+
+    if (netty_unix_errors_JNI_OnLoad(env, packagePrefix) == JNI_ERR) {
+        goto error;
+    }
+    errorsOnLoadCalled = 1;
+
+    if (netty_unix_filedescriptor_JNI_OnLoad(env, packagePrefix) == JNI_ERR) {
+        goto error;
+    }
+    filedescriptorOnLoadCalled = 1;
+
+    if (netty_unix_socket_JNI_OnLoad(env, packagePrefix) == JNI_ERR) {
+        goto error;
+    }
+    socketOnLoadCalled = 1;
+
+    if (netty_unix_buffer_JNI_OnLoad(env, packagePrefix) == JNI_ERR) {
+        goto error;
+    }
+    bufferOnLoadCalled = 1;
+
+    // Initialize this module
+    char* nettyClassName = netty_unix_util_prepend(packagePrefix, "io/netty/channel/DefaultFileRegion");
+    jclass fileRegionCls = (*env)->FindClass(env, nettyClassName);
+    free(nettyClassName);
+    nettyClassName = NULL;
+    if (fileRegionCls == NULL) {
+        // pending exception...
+        goto error;
+    }
+    fileChannelFieldId = (*env)->GetFieldID(env, fileRegionCls, "file", "Ljava/nio/channels/FileChannel;");
+    if (fileChannelFieldId == NULL) {
+        netty_unix_errors_throwRuntimeException(env, "failed to get field ID: DefaultFileRegion.file");
+        goto error;
+    }
+    transferredFieldId = (*env)->GetFieldID(env, fileRegionCls, "transferred", "J");
+    if (transferredFieldId == NULL) {
+        netty_unix_errors_throwRuntimeException(env, "failed to get field ID: DefaultFileRegion.transferred");
+        goto error;
+    }
+
+    jclass fileChannelCls = (*env)->FindClass(env, "sun/nio/ch/FileChannelImpl");
+    if (fileChannelCls == NULL) {
+        // pending exception...
+        goto error;
+    }
+    fileDescriptorFieldId = (*env)->GetFieldID(env, fileChannelCls, "fd", "Ljava/io/FileDescriptor;");
+    if (fileDescriptorFieldId == NULL) {
+        netty_unix_errors_throwRuntimeException(env, "failed to get field ID: FileChannelImpl.fd");
+        goto error;
+    }
+
+    jclass fileDescriptorCls = (*env)->FindClass(env, "java/io/FileDescriptor");
+    if (fileDescriptorCls == NULL) {
+        // pending exception...
+        goto error;
+    }
+    fdFieldId = (*env)->GetFieldID(env, fileDescriptorCls, "fd", "I");
+    if (fdFieldId == NULL) {
+        netty_unix_errors_throwRuntimeException(env, "failed to get field ID: FileDescriptor.fd");
+        goto error;
+    }
+
+    return NETTY_JNI_VERSION;
+
+error:
+   if (limitsOnLoadCalled == 1) {
+       netty_unix_limits_JNI_OnUnLoad(env);
+   }
+   if (errorsOnLoadCalled == 1) {
+       netty_unix_errors_JNI_OnUnLoad(env);
+   }
+   if (filedescriptorOnLoadCalled == 1) {
+       netty_unix_filedescriptor_JNI_OnUnLoad(env);
+   }
+   if (socketOnLoadCalled == 1) {
+       netty_unix_socket_JNI_OnUnLoad(env);
+   }
+   if (bufferOnLoadCalled == 1) {
+       netty_unix_buffer_JNI_OnUnLoad(env);
+   }
+   fileChannelFieldId = NULL;
+   transferredFieldId = NULL;
+   fileDescriptorFieldId = NULL;
+   fdFieldId = NULL;
+
+   return JNI_ERR;
+}
+
+static void netty_io_uring_native_JNI_OnUnLoad(JNIEnv* env) {
+    netty_unix_limits_JNI_OnUnLoad(env);
+    netty_unix_errors_JNI_OnUnLoad(env);
+    netty_unix_filedescriptor_JNI_OnUnLoad(env);
+    netty_unix_socket_JNI_OnUnLoad(env);
+    netty_unix_buffer_JNI_OnUnLoad(env);
+
+    fileChannelFieldId = NULL;
+    transferredFieldId = NULL;
+    fileDescriptorFieldId = NULL;
+    fdFieldId = NULL;
+}
+
+// Invoked by the JVM when statically linked
+static jint JNI_OnLoad_netty_transport_native_io_uring0(JavaVM* vm, void* reserved) {
+    JNIEnv* env;
+    if ((*vm)->GetEnv(vm, (void**) &env, NETTY_JNI_VERSION) != JNI_OK) {
+        return JNI_ERR;
+    }
+    char* packagePrefix = NULL;
+#ifndef NETTY_BUILD_STATIC
+    Dl_info dlinfo;
+    jint status = 0;
+    // We need to use an address of a function that is uniquely part of this library, so choose a static
+    // function. See https://github.com/netty/netty/issues/4840.
+    if (!dladdr((void*) netty_io_uring_native_JNI_OnUnLoad, &dlinfo)) {
+        fprintf(stderr, "FATAL: transport-native-io_uring JNI call to dladdr failed!\n");
+        return JNI_ERR;
+    }
+    packagePrefix = netty_unix_util_parse_package_prefix(dlinfo.dli_fname, "netty_transport_native_io_uring", &status);
+    if (status == JNI_ERR) {
+        fprintf(stderr, "FATAL: transport-native-io_uring JNI encountered unexpected dlinfo.dli_fname: %s\n", dlinfo.dli_fname);
+        return JNI_ERR;
+    }
+#endif /* NETTY_BUILD_STATIC */
+    jint ret = netty_io_uring_native_JNI_OnLoad(env, packagePrefix);
+
+    if (packagePrefix != NULL) {
+      free(packagePrefix);
+      packagePrefix = NULL;
+    }
+
+    return ret;
+}
+
+static void JNI_OnUnload_netty_transport_native_io_uring0(JavaVM* vm, void* reserved) {
+    JNIEnv* env;
+    if ((*vm)->GetEnv(vm, (void**) &env, NETTY_JNI_VERSION) != JNI_OK) {
+        // Something is wrong but nothing we can do about this :(
+        return;
+    }
+    netty_io_uring_native_JNI_OnUnLoad(env);
+}
+
+// We build with -fvisibility=hidden so ensure we mark everything that needs to be visible with JNIEXPORT
+// http://mail.openjdk.java.net/pipermail/core-libs-dev/2013-February/014549.html
+
+// Invoked by the JVM when statically linked
+JNIEXPORT jint JNI_OnLoad_netty_transport_native_io_uring(JavaVM* vm, void* reserved) {
+    return JNI_OnLoad_netty_transport_native_io_uring0(vm, reserved);
+}
+
+// Invoked by the JVM when statically linked
+JNIEXPORT void JNI_OnUnload_netty_transport_native_io_uring(JavaVM* vm, void* reserved) {
+    JNI_OnUnload_netty_transport_native_io_uring0(vm, reserved);
+}
+
+#ifndef NETTY_BUILD_STATIC
+JNIEXPORT jint JNI_OnLoad(JavaVM* vm, void* reserved) {
+    return JNI_OnLoad_netty_transport_native_io_uring0(vm, reserved);
+}
+
+JNIEXPORT void JNI_OnUnload(JavaVM* vm, void* reserved) {
+    JNI_OnUnload_netty_transport_native_io_uring0(vm, reserved);
+}
+#endif /* NETTY_BUILD_STATIC */
@@ -0,0 +1,714 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelMetadata;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelOutboundBuffer.MessageProcessor;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.EventLoop;
+import io.netty.channel.FileRegion;
+import io.netty.channel.unix.Buffer;
+import io.netty.channel.unix.Errors;
+import io.netty.channel.unix.FileDescriptor;
+import io.netty.channel.unix.IovArray;
+import io.netty.channel.unix.Socket;
+import io.netty.channel.unix.SocketWritableByteChannel;
+import io.netty.channel.unix.UnixChannel;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.internal.StringUtil;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.AlreadyConnectedException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ConnectionPendingException;
+import java.nio.channels.UnresolvedAddressException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.channel.unix.UnixChannelUtil.computeRemoteAddr;
+import static io.netty.channel.unix.UnixChannelUtil.isBufferCopyNeededForWrite;
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+
+/**
+ * Base class of the io_uring channels. Instead of waiting for readiness each operation is submitted to the
+ * {@link IOUringEventLoop} and its result is handled once it completed.
+ * <p>
+ * At most one operation of each kind is in flight per channel. The memory an operation references must stay valid
+ * until it completed, which is why a channel is only forgotten by its loop once all its operations completed or were
+ * cancelled.
+ */
+abstract class AbstractIOUringChannel extends AbstractChannel implements UnixChannel {
+    private static final ChannelMetadata METADATA = new ChannelMetadata(false);
+    private static final String EXPECTED_TYPES =
+            " (expected: " + StringUtil.simpleClassName(ByteBuf.class) + ", " +
+                    StringUtil.simpleClassName(DefaultFileRegion.class) + ", " +
+                    StringUtil.simpleClassName(FileRegion.class) + ')';
+
+    final Socket socket;
+
+    // Assigned by the IOUringEventLoop, used to route completions to this channel.
+    int id;
+    // Set by the IOUringEventLoop if the channel was removed while operations were still in flight.
+    boolean removalPending;
+
+    // A bit per operation that was submitted but did not complete yet.
+    private int pendingOps;
+    private int pendingCancels;
+
+    private IovArray iovArray;
+    // The buffers of the write in flight. They are retained until it completed, as the ChannelOutboundBuffer releases
+    // them if the channel is closed in the meantime while the kernel may still read them.
+    private final List<ByteBuf> writeBuffers = new ArrayList<ByteBuf>();
+    private final WriteProcessor writeProcessor = new WriteProcessor();
+    private WritableByteChannel byteChannel;
+    private IOException writeError;
+
+    /**
+     * The future of the current connection attempt.  If not null, subsequent
+     * connection attempts will fail.
+     */
+    private ChannelPromise connectPromise;
+    private ScheduledFuture<?> connectTimeoutFuture;
+    private SocketAddress requestedRemoteAddress;
+
+    private volatile SocketAddress local;
+    private volatile SocketAddress remote;
+
+    protected volatile boolean active;
+
+    AbstractIOUringChannel(Channel parent, Socket fd, boolean active) {
+        super(parent);
+        socket = checkNotNull(fd, "fd");
+        this.active = active;
+        if (active) {
+            // Directly cache the remote and local addresses
+            // See https://github.com/netty/netty/issues/2359
+            local = fd.localAddress();
+            remote = fd.remoteAddress();
+        }
+    }
+
+    @Override
+    public final FileDescriptor fd() {
+        return socket;
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return socket.isOpen();
+    }
+
+    @Override
+    public ChannelMetadata metadata() {
+        return METADATA;
+    }
+
+    @Override
+    protected boolean isCompatible(EventLoop loop) {
+        return loop instanceof IOUringEventLoop;
+    }
+
+    final boolean isPending(int op) {
+        return (pendingOps & 1 << op) != 0;
+    }
+
+    final boolean hasPendingOperations() {
+        return pendingOps != 0 || pendingCancels != 0;
+    }
+
+    /**
+     * Submit an operation on the socket of this channel.
+     */
+    final void submit(int op, int rwFlags, long address, int length) throws IOException {
+        assert !isPending(op);
+        ((IOUringEventLoop) eventLoop()).submit(this, op, rwFlags, socket.intValue(), address, length, 0);
+        pendingOps |= 1 << op;
+    }
+
+    /**
+     * Cancel all operations which are still in flight. They complete with {@code -ECANCELED} afterwards, unless they
+     * completed before the cancellation was processed.
+     */
+    final void cancelPendingOperations() throws IOException {
+        if (pendingOps == 0) {
+            return;
+        }
+        IOUringEventLoop loop = (IOUringEventLoop) eventLoop();
+        for (int op = 0; op < Integer.SIZE; op++) {
+            if (isPending(op)) {
+                loop.cancel(this, op);
+                pendingCancels++;
+            }
+        }
+        loop.submitNow();
+    }
+
+    /**
+     * Release the native memory of this channel. Called once no operation references it anymore.
+     */
+    final void releaseResources() {
+        if (iovArray != null) {
+            iovArray.release();
+            iovArray = null;
+        }
+    }
+
+    @Override
+    protected void doRegister() throws Exception {
+        ((IOUringEventLoop) eventLoop()).add(this);
+    }
+
+    @Override
+    protected void doDeregister() throws Exception {
+        ((IOUringEventLoop) eventLoop()).remove(this);
+    }
+
+    @Override
+    protected final void doBeginRead() throws Exception {
+        // Channel.read() or ChannelHandlerContext.read() was called
+        if (active) {
+            ((AbstractUringUnsafe) unsafe()).scheduleRead();
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        active = false;
+        try {
+            ChannelPromise promise = connectPromise;
+            if (promise != null) {
+                // Use tryFailure() instead of setFailure() to avoid the race against cancel().
+                promise.tryFailure(new ClosedChannelException());
+                connectPromise = null;
+            }
+
+            ScheduledFuture<?> future = connectTimeoutFuture;
+            if (future != null) {
+                future.cancel(false);
+                connectTimeoutFuture = null;
+            }
+
+            if (isRegistered()) {
+                // The ring still holds a reference to the socket, so closing it only fails the operations which are
+                // in flight once they were cancelled.
+                doDeregister();
+            }
+        } finally {
+            socket.close();
+            if (!hasPendingOperations()) {
+                releaseResources();
+            }
+        }
+    }
+
+    @Override
+    protected void doDisconnect() throws Exception {
+        doClose();
+    }
+
+    @Override
+    protected void doWrite(ChannelOutboundBuffer in) throws Exception {
+        IOException error = writeError;
+        if (error != null) {
+            // Let AbstractUnsafe.flush0() handle the failure of the last write.
+            writeError = null;
+            throw error;
+        }
+        if (isPending(Native.IORING_OP_WRITEV) || isPending(Native.IORING_OP_POLL_ADD)) {
+            // The completion flushes again.
+            return;
+        }
+        for (;;) {
+            Object msg = in.current();
+            if (msg == null) {
+                return;
+            }
+            if (msg instanceof DefaultFileRegion) {
+                if (!writeDefaultFileRegion(in, (DefaultFileRegion) msg)) {
+                    return;
+                }
+                continue;
+            }
+            if (msg instanceof FileRegion) {
+                if (!writeFileRegion(in, (FileRegion) msg)) {
+                    return;
+                }
+                continue;
+            }
+
+            IovArray array = iovArray;
+            if (array == null) {
+                iovArray = array = new IovArray();
+            } else {
+                array.clear();
+            }
+            in.forEachFlushedMessage(writeProcessor);
+            if (array.count() == 0) {
+                // Only empty buffers.
+                in.removeBytes(0);
+                continue;
+            }
+            try {
+                submit(Native.IORING_OP_WRITEV, 0, array.memoryAddress(0), array.count());
+            } catch (IOException e) {
+                releaseWriteBuffers();
+                throw e;
+            }
+            return;
+        }
+    }
+
+    private void releaseWriteBuffers() {
+        for (int i = 0; i < writeBuffers.size(); i++) {
+            writeBuffers.get(i).release();
+        }
+        writeBuffers.clear();
+    }
+
+    private boolean writeDefaultFileRegion(ChannelOutboundBuffer in, DefaultFileRegion region) throws Exception {
+        final long offset = region.transferred();
+        final long regionCount = region.count();
+        if (offset >= regionCount) {
+            in.remove();
+            return true;
+        }
+
+        // There is no operation which transfers from a file to a socket, so sendfile(...) is called directly and
+        // the channel waits until the socket is writable if the socket buffer is full.
+        final long flushedAmount = Native.sendFile(socket.intValue(), region, region.position(), offset,
+                regionCount - offset);
+        if (flushedAmount > 0) {
+            in.progress(flushedAmount);
+            if (region.transferred() >= regionCount) {
+                in.remove();
+            }
+            return true;
+        }
+        validateFileRegion(region, offset);
+        submit(Native.IORING_OP_POLL_ADD, Native.POLLOUT, 0, 0);
+        return false;
+    }
+
+    private boolean writeFileRegion(ChannelOutboundBuffer in, FileRegion region) throws Exception {
+        if (region.transferred() >= region.count()) {
+            in.remove();
+            return true;
+        }
+
+        if (byteChannel == null) {
+            byteChannel = new IOUringSocketWritableByteChannel();
+        }
+        final long flushedAmount = region.transferTo(byteChannel, region.transferred());
+        if (flushedAmount > 0) {
+            in.progress(flushedAmount);
+            if (region.transferred() >= region.count()) {
+                in.remove();
+            }
+            return true;
+        }
+        submit(Native.IORING_OP_POLL_ADD, Native.POLLOUT, 0, 0);
+        return false;
+    }
+
+    @Override
+    protected Object filterOutboundMessage(Object msg) {
+        if (msg instanceof ByteBuf) {
+            ByteBuf buf = (ByteBuf) msg;
+            // The kernel reads the buffers after write(...) returned, so they must be direct.
+            return isBufferCopyNeededForWrite(buf) ? newDirectBuffer(buf) : buf;
+        }
+        if (msg instanceof FileRegion) {
+            return msg;
+        }
+        throw new UnsupportedOperationException(
+                "unsupported message type: " + StringUtil.simpleClassName(msg) + EXPECTED_TYPES);
+    }
+
+    /**
+     * Returns an off-heap copy of the specified {@link ByteBuf}, and releases the original one.
+     */
+    protected final ByteBuf newDirectBuffer(ByteBuf buf) {
+        final int readableBytes = buf.readableBytes();
+        if (readableBytes == 0) {
+            ReferenceCountUtil.release(buf);
+            return Unpooled.EMPTY_BUFFER;
+        }
+
+        final ByteBufAllocator alloc = alloc();
+        if (alloc.isDirectBufferPooled()) {
+            return newDirectBuffer0(buf, alloc, readableBytes);
+        }
+
+        final ByteBuf directBuf = ByteBufUtil.threadLocalDirectBuffer();
+        if (directBuf == null) {
+            return newDirectBuffer0(buf, alloc, readableBytes);
+        }
+
+        directBuf.writeBytes(buf, buf.readerIndex(), readableBytes);
+        ReferenceCountUtil.safeRelease(buf);
+        return directBuf;
+    }
+
+    private static ByteBuf newDirectBuffer0(ByteBuf buf, ByteBufAllocator alloc, int capacity) {
+        final ByteBuf directBuf = alloc.directBuffer(capacity);
+        directBuf.writeBytes(buf, buf.readerIndex(), capacity);
+        ReferenceCountUtil.safeRelease(buf);
+        return directBuf;
+    }
+
+    /**
+     * Returns the address of the first byte of the given direct {@link ByteBuf}.
+     */
+    static long memoryAddress(ByteBuf buf) {
+        return buf.hasMemoryAddress() ? buf.memoryAddress() :
+                Buffer.memoryAddress(buf.internalNioBuffer(0, buf.capacity()));
+    }
+
+    protected static void checkResolvable(InetSocketAddress addr) {
+        if (addr.isUnresolved()) {
+            throw new UnresolvedAddressException();
+        }
+    }
+
+    @Override
+    protected abstract AbstractUringUnsafe newUnsafe();
+
+    /**
+     * Adds the flushed {@link ByteBuf}s to the {@link IovArray} and retains the ones that are part of the write.
+     */
+    private final class WriteProcessor implements MessageProcessor {
+        @Override
+        public boolean processMessage(Object msg) throws Exception {
+            IovArray array = iovArray;
+            int count = array.count();
+            boolean added = array.processMessage(msg);
+            if (array.count() != count) {
+                writeBuffers.add(((ByteBuf) msg).retain());
+            }
+            return added;
+        }
+    }
+
+    private final class IOUringSocketWritableByteChannel extends SocketWritableByteChannel {
+        IOUringSocketWritableByteChannel() {
+            super(socket);
+        }
+
+        @Override
+        protected ByteBufAllocator alloc() {
+            return AbstractIOUringChannel.this.alloc();
+        }
+    }
+
+    abstract class AbstractUringUnsafe extends AbstractUnsafe {
+
+        /**
+         * Submit a read operation if none is in flight.
+         */
+        abstract void scheduleRead() throws IOException;
+
+        /**
+         * Called once the read operation completed with the given result.
+         */
+        abstract void readCompleted(int res);
+
+        /**
+         * Called by the {@link IOUringEventLoop} once an operation of this channel completed.
+         */
+        final void completed(int op, int res) {
+            if (op == Native.IORING_OP_ASYNC_CANCEL) {
+                pendingCancels--;
+            } else {
+                pendingOps &= ~(1 << op);
+                if (op == Native.IORING_OP_WRITEV) {
+                    writeCompleted(res);
+                } else if (op == Native.IORING_OP_POLL_ADD) {
+                    pollOutCompleted(res);
+                } else {
+                    readCompleted(res);
+                }
+            }
+            if (!isOpen() && !hasPendingOperations()) {
+                releaseResources();
+            }
+        }
+
+        private void writeCompleted(int res) {
+            // The kernel does not read the buffers anymore, whatever the result was.
+            releaseWriteBuffers();
+            if (res == Native.ERRNO_ECANCELED_NEGATIVE || !isOpen()) {
+                // Closed while the write was in flight, the ChannelOutboundBuffer was failed already.
+                return;
+            }
+            if (res >= 0) {
+                outboundBuffer().removeBytes(res);
+            } else if (res == Errors.ERRNO_EPIPE_NEGATIVE || res == Errors.ERRNO_ECONNRESET_NEGATIVE) {
+                writeError = Errors.newConnectionResetException("writev", res);
+            } else {
+                writeError = Errors.newIOException("writev", res);
+            }
+            flush0();
+        }
+
+        private void pollOutCompleted(int res) {
+            if (res == Native.ERRNO_ECANCELED_NEGATIVE || !isOpen()) {
+                return;
+            }
+            if (connectPromise != null) {
+                // pending connect which is now complete so handle it.
+                finishConnect();
+            } else if (!socket.isOutputShutdown()) {
+                flush0();
+            }
+        }
+
+        /**
+         * Returns the {@link ByteBuf} the next read is done into. The memory of it must be accessible by the kernel.
+         */
+        final ByteBuf allocateReadBuffer(ByteBufAllocator alloc) {
+            ByteBuf buf = recvBufAllocHandle().allocate(alloc);
+            if (buf.hasMemoryAddress() || buf.isDirect() && buf.nioBufferCount() == 1) {
+                return buf;
+            }
+            int capacity = buf.capacity();
+            buf.release();
+            return alloc.directBuffer(capacity);
+        }
+
+        @Override
+        public void connect(
+                final SocketAddress remoteAddress, final SocketAddress localAddress, final ChannelPromise promise) {
+            if (!promise.setUncancellable() || !ensureOpen(promise)) {
+                return;
+            }
+
+            try {
+                if (connectPromise != null) {
+                    throw new ConnectionPendingException();
+                }
+
+                boolean wasActive = isActive();
+                if (doConnect(remoteAddress, localAddress)) {
+                    fulfillConnectPromise(promise, wasActive);
+                } else {
+                    connectPromise = promise;
+                    requestedRemoteAddress = remoteAddress;
+
+                    // Schedule connect timeout.
+                    int connectTimeoutMillis = config().getConnectTimeoutMillis();
+                    if (connectTimeoutMillis > 0) {
+                        connectTimeoutFuture = eventLoop().schedule(new Runnable() {
+                            @Override
+                            public void run() {
+                                ChannelPromise connectPromise = AbstractIOUringChannel.this.connectPromise;
+                                ConnectTimeoutException cause =
+                                        new ConnectTimeoutException("connection timed out: " + remoteAddress);
+                                if (connectPromise != null && connectPromise.tryFailure(cause)) {
+                                    close(voidPromise());
+                                }
+                            }
+                        }, connectTimeoutMillis, TimeUnit.MILLISECONDS);
+                    }
+
+                    promise.addListener(new ChannelFutureListener() {
+                        @Override
+                        public void operationComplete(ChannelFuture future) throws Exception {
+                            if (future.isCancelled()) {
+                                if (connectTimeoutFuture != null) {
+                                    connectTimeoutFuture.cancel(false);
+                                }
+                                connectPromise = null;
+                                close(voidPromise());
+                            }
+                        }
+                    });
+                }
+            } catch (Throwable t) {
+                closeIfClosed();
+                promise.tryFailure(annotateConnectException(t, remoteAddress));
+            }
+        }
+
+        private void fulfillConnectPromise(ChannelPromise promise, boolean wasActive) {
+            if (promise == null) {
+                // Closed via cancellation and the promise has been notified already.
+                return;
+            }
+            active = true;
+
+            // Get the state as trySuccess() may trigger an ChannelFutureListener that will close the Channel.
+            // We still need to ensure we call fireChannelActive() in this case.
+            boolean active = isActive();
+
+            // trySuccess() will return false if a user cancelled the connection attempt.
+            boolean promiseSet = promise.trySuccess();
+
+            // Regardless if the connection attempt was cancelled, channelActive() event should be triggered,
+            // because what happened is what happened.
+            if (!wasActive && active) {
+                pipeline().fireChannelActive();
+            }
+
+            // If a user cancelled the connection attempt, close the channel, which is followed by channelInactive().
+            if (!promiseSet) {
+                close(voidPromise());
+            }
+        }
+
+        private void fulfillConnectPromise(ChannelPromise promise, Throwable cause) {
+            if (promise == null) {
+                // Closed via cancellation and the promise has been notified already.
+                return;
+            }
+
+            // Use tryFailure() instead of setFailure() to avoid the race against cancel().
+            promise.tryFailure(cause);
+            closeIfClosed();
+        }
+
+        private void finishConnect() {
+            // Note this method is invoked by the event loop only if the connection attempt was
+            // neither cancelled nor timed out.
+
+            assert eventLoop().inEventLoop();
+
+            boolean connectStillInProgress = false;
+            try {
+                boolean wasActive = isActive();
+                if (!doFinishConnect()) {
+                    connectStillInProgress = true;
+                    return;
+                }
+                fulfillConnectPromise(connectPromise, wasActive);
+            } catch (Throwable t) {
+                fulfillConnectPromise(connectPromise, annotateConnectException(t, requestedRemoteAddress));
+            } finally {
+                if (!connectStillInProgress) {
+                    // Check for null as the connectTimeoutFuture is only created if a connectTimeoutMillis > 0 is used
+                    // See https://github.com/netty/netty/issues/1770
+                    if (connectTimeoutFuture != null) {
+                        connectTimeoutFuture.cancel(false);
+                    }
+                    connectPromise = null;
+                }
+            }
+        }
+
+        /**
+         * Finish the connect
+         */
+        private boolean doFinishConnect() throws Exception {
+            if (socket.finishConnect()) {
+                if (requestedRemoteAddress instanceof InetSocketAddress) {
+                    remote = computeRemoteAddr((InetSocketAddress) requestedRemoteAddress, socket.remoteAddress());
+                }
+                requestedRemoteAddress = null;
+
+                return true;
+            }
+            submit(Native.IORING_OP_POLL_ADD, Native.POLLOUT, 0, 0);
+            return false;
+        }
+    }
+
+    @Override
+    protected void doBind(SocketAddress local) throws Exception {
+        if (local instanceof InetSocketAddress) {
+            checkResolvable((InetSocketAddress) local);
+        }
+        socket.bind(local);
+        this.local = socket.localAddress();
+    }
+
+    /**
+     * Connect to the remote peer
+     */
+    protected boolean doConnect(SocketAddress remoteAddress, SocketAddress localAddress) throws Exception {
+        if (localAddress instanceof InetSocketAddress) {
+            checkResolvable((InetSocketAddress) localAddress);
+        }
+
+        InetSocketAddress remoteSocketAddr = remoteAddress instanceof InetSocketAddress
+                ? (InetSocketAddress) remoteAddress : null;
+        if (remoteSocketAddr != null) {
+            checkResolvable(remoteSocketAddr);
+        }
+
+        if (remote != null) {
+            // Check if already connected before trying to connect. This is needed as connect(...) will not return -1
+            // and set errno to EISCONN if a previous connect(...) attempt was setting errno to EINPROGRESS and finished
+            // later.
+            throw new AlreadyConnectedException();
+        }
+
+        if (localAddress != null) {
+            socket.bind(localAddress);
+        }
+
+        boolean success = false;
+        try {
+            boolean connected = socket.connect(remoteAddress);
+            if (connected) {
+                remote = remoteSocketAddr == null ?
+                        remoteAddress : computeRemoteAddr(remoteSocketAddr, socket.remoteAddress());
+            } else {
+                // Wait until the socket is writable, which is the case once the connection attempt finished.
+                submit(Native.IORING_OP_POLL_ADD, Native.POLLOUT, 0, 0);
+            }
+            // We always need to set the localAddress even if not connected yet as the bind already took place.
+            //
+            // See https://github.com/netty/netty/issues/3463
+            local = socket.localAddress();
+            success = true;
+            return connected;
+        } finally {
+            if (!success) {
+                doClose();
+            }
+        }
+    }
+
+    @Override
+    protected SocketAddress localAddress0() {
+        return local;
+    }
+
+    @Override
+    protected SocketAddress remoteAddress0() {
+        return remote;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * The completion queue of a {@link RingBuffer}.
+ */
+final class IOUringCompletionQueue {
+    // Offsets of the fields of struct io_uring_cqe, which are part of the kernel ABI.
+    private static final int CQE_USER_DATA_FIELD = 0;
+    private static final int CQE_RES_FIELD = 8;
+    private static final int CQE_FLAGS_FIELD = 12;
+
+    /**
+     * Handles the completion of a submitted operation.
+     */
+    interface CompletionCallback {
+        void handle(int res, int flags, long userData);
+    }
+
+    private final long kHeadAddress;
+    private final long kTailAddress;
+    private final int ringMask;
+    private final long cqeArrayAddress;
+
+    private int head;
+
+    IOUringCompletionQueue(long kHeadAddress, long kTailAddress, int ringMask, long cqeArrayAddress) {
+        this.kHeadAddress = kHeadAddress;
+        this.kTailAddress = kTailAddress;
+        this.ringMask = ringMask;
+        this.cqeArrayAddress = cqeArrayAddress;
+        head = PlatformDependent.getIntVolatile(kHeadAddress);
+    }
+
+    /**
+     * Returns {@code true} if there are completions that were not processed yet.
+     */
+    boolean hasCompletions() {
+        return head != PlatformDependent.getIntVolatile(kTailAddress);
+    }
+
+    /**
+     * Passes all available completions to the given callback and returns how many were processed. The slots are
+     * handed back to the kernel in batches, so completions that arrive while processing are picked up as well.
+     */
+    int process(CompletionCallback callback) {
+        int processed = 0;
+        int tail = PlatformDependent.getIntVolatile(kTailAddress);
+        while (head != tail) {
+            do {
+                long cqe = cqeArrayAddress + (long) (head & ringMask) * Native.SIZEOF_IO_URING_CQE;
+                long userData = PlatformDependent.getLong(cqe + CQE_USER_DATA_FIELD);
+                int res = PlatformDependent.getInt(cqe + CQE_RES_FIELD);
+                int flags = PlatformDependent.getInt(cqe + CQE_FLAGS_FIELD);
+                head++;
+                processed++;
+                callback.handle(res, flags, userData);
+            } while (head != tail);
+            // Release the slots so the kernel can reuse them, and check if more completions arrived meanwhile.
+            PlatformDependent.putIntOrdered(kHeadAddress, head);
+            tail = PlatformDependent.getIntVolatile(kTailAddress);
+        }
+        return processed;
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.EventLoopTaskQueueFactory;
+import io.netty.channel.SingleThreadEventLoop;
+import io.netty.channel.unix.Buffer;
+import io.netty.channel.unix.FileDescriptor;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+import io.netty.util.concurrent.RejectedExecutionHandler;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import static java.lang.Math.max;
+
+/**
+ * {@link EventLoop} which uses io_uring under the covers. Only works on Linux!
+ * <p>
+ * All operations of the registered {@link AbstractIOUringChannel}s are written to a single submission queue and are
+ * submitted together once per loop iteration, which is also when the loop waits for completions. A pending read of
+ * an eventfd is used to wake the loop up and an {@code IORING_OP_TIMEOUT} to run scheduled tasks in time.
+ */
+final class IOUringEventLoop extends SingleThreadEventLoop implements IOUringCompletionQueue.CompletionCallback {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(IOUringEventLoop.class);
+    private static final AtomicIntegerFieldUpdater<IOUringEventLoop> WAKEN_UP_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(IOUringEventLoop.class, "wakenUp");
+
+    static {
+        // Ensure JNI is initialized by the time this class is loaded by this time!
+        // We use unix-common methods in this class which are backed by JNI methods.
+        IOUring.ensureAvailability();
+    }
+
+    // The id that is used for the operations the loop submits for itself. Channels use ids > 0.
+    private static final int LOOP_ID = 0;
+    private static final long EVENTFD_READ_USER_DATA = userData(LOOP_ID, Native.IORING_OP_READ);
+    private static final long TIMEOUT_USER_DATA = userData(LOOP_ID, Native.IORING_OP_TIMEOUT);
+
+    private final RingBuffer ringBuffer;
+    private final IOUringSubmissionQueue submissionQueue;
+    private final IOUringCompletionQueue completionQueue;
+    private final FileDescriptor eventFd;
+    private final IntObjectMap<AbstractIOUringChannel> channels = new IntObjectHashMap<AbstractIOUringChannel>(4096);
+    private int lastId = LOOP_ID;
+
+    // Holds the value read from the eventfd (8 bytes) followed by the struct timespec of the timeout (16 bytes).
+    private final ByteBuffer loopMemory;
+    private final long eventFdReadAddress;
+    private final long timespecAddress;
+
+    // The number of submitted operations which did not complete yet.
+    private int inFlight;
+    private boolean eventFdReadPending;
+    private boolean timeoutPending;
+    private long timeoutDeadlineNanos;
+
+    @SuppressWarnings("unused") // AtomicIntegerFieldUpdater
+    private volatile int wakenUp;
+    private volatile int ioRatio = 50;
+
+    IOUringEventLoop(EventLoopGroup parent, Executor executor, int ringSize,
+                     RejectedExecutionHandler rejectedExecutionHandler, EventLoopTaskQueueFactory queueFactory) {
+        super(parent, executor, false, newTaskQueue(queueFactory), newTaskQueue(queueFactory),
+                rejectedExecutionHandler);
+        boolean success = false;
+        RingBuffer ringBuffer = null;
+        FileDescriptor eventFd = null;
+        try {
+            this.ringBuffer = ringBuffer = Native.createRingBuffer(ringSize);
+            this.eventFd = eventFd = Native.newEventFd();
+            success = true;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to create the io_uring instance", e);
+        } finally {
+            if (!success) {
+                if (ringBuffer != null) {
+                    ringBuffer.close();
+                }
+                if (eventFd != null) {
+                    try {
+                        eventFd.close();
+                    } catch (Exception e) {
+                        // ignore
+                    }
+                }
+            }
+        }
+        submissionQueue = ringBuffer.submissionQueue();
+        completionQueue = ringBuffer.completionQueue();
+        loopMemory = Buffer.allocateDirectWithNativeOrder(24);
+        eventFdReadAddress = Buffer.memoryAddress(loopMemory);
+        timespecAddress = eventFdReadAddress + 8;
+    }
+
+    private static Queue<Runnable> newTaskQueue(
+            EventLoopTaskQueueFactory queueFactory) {
+        if (queueFactory == null) {
+            return newTaskQueue0(DEFAULT_MAX_PENDING_TASKS);
+        }
+        return queueFactory.newTaskQueue(DEFAULT_MAX_PENDING_TASKS);
+    }
+
+    @Override
+    protected Queue<Runnable> newTaskQueue(int maxPendingTasks) {
+        return newTaskQueue0(maxPendingTasks);
+    }
+
+    private static Queue<Runnable> newTaskQueue0(int maxPendingTasks) {
+        // This event loop never calls takeTask()
+        return maxPendingTasks == Integer.MAX_VALUE ? PlatformDependent.<Runnable>newMpscQueue()
+                : PlatformDependent.<Runnable>newMpscQueue(maxPendingTasks);
+    }
+
+    static long userData(int id, int op) {
+        return (long) id << 32 | op;
+    }
+
+    @Override
+    protected void wakeup(boolean inEventLoop) {
+        if (!inEventLoop && WAKEN_UP_UPDATER.getAndSet(this, 1) == 0) {
+            // write to the eventfd which will then complete the pending read and so wake-up io_uring_enter(...)
+            Native.eventFdWrite(eventFd.intValue(), 1L);
+            recordWakeup();
+        }
+    }
+
+    /**
+     * Register the given channel with this {@link EventLoop} and assign the id its operations are tagged with.
+     */
+    void add(AbstractIOUringChannel ch) {
+        assert inEventLoop();
+        int id = lastId;
+        do {
+            // Skip ids which are still used by channels that wait for their cancelled operations.
+            id = id == Integer.MAX_VALUE ? LOOP_ID + 1 : id + 1;
+        } while (channels.containsKey(id));
+        lastId = id;
+        ch.id = id;
+        channels.put(id, ch);
+    }
+
+    /**
+     * Deregister the given channel from this {@link EventLoop}. Its pending operations are cancelled and the channel
+     * is only forgotten once all of them completed, as the kernel may still write into its buffers until then.
+     */
+    void remove(AbstractIOUringChannel ch) throws IOException {
+        assert inEventLoop();
+        ch.cancelPendingOperations();
+        if (ch.hasPendingOperations()) {
+            ch.removalPending = true;
+        } else {
+            channels.remove(ch.id);
+        }
+    }
+
+    /**
+     * Enqueue an operation for the given channel. It is submitted with the next iteration of the loop.
+     */
+    void submit(AbstractIOUringChannel ch, int op, int rwFlags, int fd, long address, int length, long offset)
+            throws IOException {
+        assert inEventLoop();
+        submissionQueue.enqueueSqe(op, rwFlags, fd, address, length, offset, userData(ch.id, op));
+        inFlight++;
+    }
+
+    /**
+     * Enqueue the cancellation of the given operation of the given channel and submit it right away, so the kernel
+     * does not touch the memory of the operation anymore once the cancellation completed.
+     */
+    void cancel(AbstractIOUringChannel ch, int op) throws IOException {
+        assert inEventLoop();
+        submissionQueue.enqueueSqe(Native.IORING_OP_ASYNC_CANCEL, 0, -1, userData(ch.id, op), 0, 0,
+                userData(ch.id, Native.IORING_OP_ASYNC_CANCEL));
+        inFlight++;
+    }
+
+    /**
+     * Submit all enqueued operations now instead of with the next iteration of the loop.
+     */
+    void submitNow() throws IOException {
+        assert inEventLoop();
+        submissionQueue.submit();
+    }
+
+    /**
+     * Returns the percentage of the desired amount of time spent for I/O in the event loop.
+     */
+    public int getIoRatio() {
+        return ioRatio;
+    }
+
+    /**
+     * Sets the percentage of the desired amount of time spent for I/O in the event loop.  The default value is
+     * {@code 50}, which means the event loop will try to spend the same amount of time for I/O as for non-I/O tasks.
+     */
+    public void setIoRatio(int ioRatio) {
+        if (ioRatio <= 0 || ioRatio > 100) {
+            throw new IllegalArgumentException("ioRatio: " + ioRatio + " (expected: 0 < ioRatio <= 100)");
+        }
+        this.ioRatio = ioRatio;
+    }
+
+    @Override
+    public int registeredChannels() {
+        return channels.size();
+    }
+
+    private void submitEventFdRead() throws IOException {
+        submissionQueue.enqueueSqe(Native.IORING_OP_READ, 0, eventFd.intValue(), eventFdReadAddress, 8, 0,
+                EVENTFD_READ_USER_DATA);
+        inFlight++;
+        eventFdReadPending = true;
+    }
+
+    private void armTimeout() throws IOException {
+        long deadlineNanos = nextScheduledTaskDeadlineNanos();
+        if (deadlineNanos == -1) {
+            // Nothing scheduled, so there is no need to wake up before a completion or a wakeup arrives.
+            return;
+        }
+        if (timeoutPending && deadlineNanos >= timeoutDeadlineNanos) {
+            // The loop wakes up early enough already, if this was too early the timeout is armed again afterwards.
+            return;
+        }
+        if (timeoutPending) {
+            // Only keep one timeout around, the removal completes the old one with -ECANCELED.
+            submissionQueue.enqueueSqe(Native.IORING_OP_TIMEOUT_REMOVE, 0, -1, TIMEOUT_USER_DATA, 0, 0,
+                    userData(LOOP_ID, Native.IORING_OP_TIMEOUT_REMOVE));
+            inFlight++;
+        }
+        long delayNanos = max(0, deadlineNanos - nanoTime());
+        PlatformDependent.putLong(timespecAddress, delayNanos / 1000000000L);
+        PlatformDependent.putLong(timespecAddress + 8, delayNanos % 1000000000L);
+        // The kernel copies the timespec when the operation is submitted, so the memory can be reused afterwards.
+        submissionQueue.enqueueSqe(Native.IORING_OP_TIMEOUT, 0, -1, timespecAddress, 1, 0, TIMEOUT_USER_DATA);
+        inFlight++;
+        timeoutPending = true;
+        timeoutDeadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    protected void run() {
+        for (;;) {
+            try {
+                if (!eventFdReadPending) {
+                    submitEventFdRead();
+                }
+                if (wakenUp == 1) {
+                    wakenUp = 0;
+                }
+                // The state is checked after wakenUp was reset, so a wakeup(...) that happens afterwards is never lost.
+                if (!hasTasks() && !completionQueue.hasCompletions() && !isShuttingDown()) {
+                    armTimeout();
+                    markLoopIdle();
+                    if (metric() != null) {
+                        final long waitStartTime = System.nanoTime();
+                        submissionQueue.submitAndWait();
+                        recordIoWaitTime(System.nanoTime() - waitStartTime);
+                    } else {
+                        submissionQueue.submitAndWait();
+                    }
+                } else {
+                    submissionQueue.submit();
+                }
+
+                markLoopIterationStart();
+                final int ioRatio = this.ioRatio;
+                if (ioRatio == 100) {
+                    final long ioStartTime = metric() != null ? System.nanoTime() : 0;
+                    try {
+                        completionQueue.process(this);
+                    } finally {
+                        if (ioStartTime != 0) {
+                            recordIoProcessingTime(System.nanoTime() - ioStartTime);
+                        }
+                        // Ensure we always run tasks.
+                        runAllTasks();
+                    }
+                } else {
+                    final long ioStartTime = System.nanoTime();
+
+                    try {
+                        completionQueue.process(this);
+                    } finally {
+                        // Ensure we always run tasks.
+                        final long ioTime = System.nanoTime() - ioStartTime;
+                        recordIoProcessingTime(ioTime);
+                        runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
+                    }
+                }
+            } catch (Throwable t) {
+                handleLoopException(t);
+            }
+            // Always handle shutdown even if the loop processing threw an exception.
+            try {
+                if (isShuttingDown()) {
+                    closeAll();
+                    if (confirmShutdown()) {
+                        break;
+                    }
+                }
+            } catch (Throwable t) {
+                handleLoopException(t);
+            }
+        }
+    }
+
+    @Override
+    public void handle(int res, int flags, long userData) {
+        inFlight--;
+        final int id = (int) (userData >>> 32);
+        final int op = (int) userData;
+        if (id == LOOP_ID) {
+            if (op == Native.IORING_OP_READ) {
+                // The eventfd was written to wake us up, the read is submitted again with the next iteration.
+                eventFdReadPending = false;
+            } else if (op == Native.IORING_OP_TIMEOUT && res == Native.ERRNO_ETIME_NEGATIVE) {
+                // Expired, the scheduled tasks are run in this iteration. A timeout that was replaced completes with
+                // -ECANCELED, which must not touch the state of the current one.
+                timeoutPending = false;
+            }
+            return;
+        }
+        AbstractIOUringChannel ch = channels.get(id);
+        if (ch == null) {
+            // The channel was forgotten already, which can only happen if the operation was not tracked.
+            return;
+        }
+        try {
+            ((AbstractIOUringChannel.AbstractUringUnsafe) ch.unsafe()).completed(op, res);
+        } finally {
+            if (ch.removalPending && !ch.hasPendingOperations()) {
+                ch.removalPending = false;
+                channels.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Visible only for testing!
+     */
+    void handleLoopException(Throwable t) {
+        logger.warn("Unexpected exception in the io_uring loop.", t);
+
+        // Prevent possible consecutive immediate failures that lead to
+        // excessive CPU consumption.
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            // Ignore.
+        }
+    }
+
+    private void closeAll() {
+        // Using the intermediate collection to prevent ConcurrentModificationException.
+        // In the `close()` method, the channel is deleted from `channels` map.
+        AbstractIOUringChannel[] localChannels = channels.values().toArray(new AbstractIOUringChannel[0]);
+
+        for (AbstractIOUringChannel ch: localChannels) {
+            ch.unsafe().close(ch.unsafe().voidPromise());
+        }
+    }
+
+    @Override
+    protected void cleanup() {
+        try {
+            // Cancel what the loop itself submitted and wait for all operations to complete, as the kernel may still
+            // access the memory they reference until then.
+            if (eventFdReadPending) {
+                submissionQueue.enqueueSqe(Native.IORING_OP_ASYNC_CANCEL, 0, -1, EVENTFD_READ_USER_DATA, 0, 0,
+                        userData(LOOP_ID, Native.IORING_OP_ASYNC_CANCEL));
+                inFlight++;
+            }
+            if (timeoutPending) {
+                submissionQueue.enqueueSqe(Native.IORING_OP_TIMEOUT_REMOVE, 0, -1, TIMEOUT_USER_DATA, 0, 0,
+                        userData(LOOP_ID, Native.IORING_OP_TIMEOUT_REMOVE));
+                inFlight++;
+            }
+            while (inFlight > 0) {
+                submissionQueue.submitAndWait();
+                completionQueue.process(this);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to wait for the pending io_uring operations.", e);
+        } finally {
+            ringBuffer.close();
+            try {
+                eventFd.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close the event fd.", e);
+            }
+            Buffer.free(loopMemory);
+        }
+    }
+}
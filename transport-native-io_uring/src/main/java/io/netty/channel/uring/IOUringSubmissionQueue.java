@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.util.internal.PlatformDependent;
+
+import java.io.IOException;
+
+/**
+ * The submission queue of a {@link RingBuffer}. Entries are only made visible to the kernel by {@link #submit()} or
+ * {@link #submitAndWait()}, so all operations that are enqueued during one event loop iteration are submitted with a
+ * single system call.
+ */
+final class IOUringSubmissionQueue {
+    // Offsets of the fields of struct io_uring_sqe, which are part of the kernel ABI.
+    private static final int SQE_OP_CODE_FIELD = 0;
+    private static final int SQE_FLAGS_FIELD = 1;
+    private static final int SQE_IOPRIO_FIELD = 2;
+    private static final int SQE_FD_FIELD = 4;
+    private static final int SQE_OFFSET_FIELD = 8;
+    private static final int SQE_ADDRESS_FIELD = 16;
+    private static final int SQE_LEN_FIELD = 24;
+    private static final int SQE_RW_FLAGS_FIELD = 28;
+    private static final int SQE_USER_DATA_FIELD = 32;
+    private static final int SQE_PAD_FIELD = 40;
+
+    private final int ringFd;
+    private final long kHeadAddress;
+    private final long kTailAddress;
+    private final int ringMask;
+    private final int ringEntries;
+    private final long sqeArrayAddress;
+
+    private int head;
+    private int tail;
+
+    IOUringSubmissionQueue(int ringFd, long kHeadAddress, long kTailAddress, int ringMask, int ringEntries,
+                           long arrayAddress, long sqeArrayAddress) {
+        this.ringFd = ringFd;
+        this.kHeadAddress = kHeadAddress;
+        this.kTailAddress = kTailAddress;
+        this.ringMask = ringMask;
+        this.ringEntries = ringEntries;
+        this.sqeArrayAddress = sqeArrayAddress;
+        head = PlatformDependent.getIntVolatile(kHeadAddress);
+        tail = PlatformDependent.getIntVolatile(kTailAddress);
+
+        // The index array maps the ring slots to sqes. We always use the sqe with the same index as the slot, so the
+        // array never changes afterwards.
+        for (int i = 0; i < ringEntries; i++) {
+            PlatformDependent.putInt(arrayAddress + i * 4L, i);
+        }
+    }
+
+    /**
+     * Adds a new entry to the queue. If the queue is full all pending entries are submitted first.
+     */
+    void enqueueSqe(int op, int rwFlags, int fd, long address, int length, long offset, long userData)
+            throws IOException {
+        if (tail - head == ringEntries) {
+            submit();
+            if (tail - head == ringEntries) {
+                throw new IOException("io_uring submission queue is full");
+            }
+        }
+        long sqe = sqeArrayAddress + (long) (tail & ringMask) * Native.SIZEOF_IO_URING_SQE;
+        PlatformDependent.putByte(sqe + SQE_OP_CODE_FIELD, (byte) op);
+        PlatformDependent.putByte(sqe + SQE_FLAGS_FIELD, (byte) 0);
+        PlatformDependent.putShort(sqe + SQE_IOPRIO_FIELD, (short) 0);
+        PlatformDependent.putInt(sqe + SQE_FD_FIELD, fd);
+        PlatformDependent.putLong(sqe + SQE_OFFSET_FIELD, offset);
+        PlatformDependent.putLong(sqe + SQE_ADDRESS_FIELD, address);
+        PlatformDependent.putInt(sqe + SQE_LEN_FIELD, length);
+        PlatformDependent.putInt(sqe + SQE_RW_FLAGS_FIELD, rwFlags);
+        PlatformDependent.putLong(sqe + SQE_USER_DATA_FIELD, userData);
+        // buf_index, personality, splice_fd_in and the remaining padding are not used.
+        PlatformDependent.putLong(sqe + SQE_PAD_FIELD, 0);
+        PlatformDependent.putLong(sqe + SQE_PAD_FIELD + 8, 0);
+        PlatformDependent.putLong(sqe + SQE_PAD_FIELD + 16, 0);
+        tail++;
+    }
+
+    /**
+     * Returns the number of entries which were not submitted yet.
+     */
+    int pending() {
+        return tail - head;
+    }
+
+    /**
+     * Submits all pending entries without waiting for completions.
+     */
+    int submit() throws IOException {
+        return submit(0, 0);
+    }
+
+    /**
+     * Submits all pending entries and waits until at least one completion is available.
+     */
+    int submitAndWait() throws IOException {
+        return submit(1, Native.IORING_ENTER_GETEVENTS);
+    }
+
+    private int submit(int minComplete, int flags) throws IOException {
+        int toSubmit = tail - head;
+        if (toSubmit == 0 && minComplete == 0) {
+            return 0;
+        }
+        PlatformDependent.putIntOrdered(kTailAddress, tail);
+        try {
+            return Native.ioUringEnter(ringFd, toSubmit, minComplete, flags);
+        } finally {
+            head = PlatformDependent.getIntVolatile(kHeadAddress);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.unix.FileDescriptor;
+import io.netty.channel.unix.Socket;
+import io.netty.util.internal.NativeLibraryLoader;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.ThrowableUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.errnoECANCELED;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.errnoETIME;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.ioringEnterGetevents;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.ioringOpAccept;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.ioringOpAsyncCancel;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.ioringOpPollAdd;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.ioringOpRead;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.ioringOpRecv;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.ioringOpTimeout;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.ioringOpTimeoutRemove;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.ioringOpWritev;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.pollout;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sizeofIoUringCqe;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sizeofIoUringSqe;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sockCloexec;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sockNonblock;
+import static io.netty.channel.unix.Errors.ioResult;
+import static io.netty.channel.unix.Errors.newIOException;
+
+/**
+ * Native helper methods
+ * <p><strong>Internal usage only!</strong>
+ * <p>Static members which call JNI methods must be defined in {@link NativeStaticallyReferencedJniMethods}.
+ */
+final class Native {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(Native.class);
+
+    static {
+        try {
+            // First, try calling a side-effect free JNI method to see if the library was already
+            // loaded by the application.
+            sizeofIoUringSqe();
+        } catch (UnsatisfiedLinkError ignore) {
+            // The library was not previously loaded, load it now.
+            loadNativeLibrary();
+        }
+        Socket.initialize();
+    }
+
+    static final int IORING_OP_WRITEV = ioringOpWritev();
+    static final int IORING_OP_POLL_ADD = ioringOpPollAdd();
+    static final int IORING_OP_TIMEOUT = ioringOpTimeout();
+    static final int IORING_OP_TIMEOUT_REMOVE = ioringOpTimeoutRemove();
+    static final int IORING_OP_ACCEPT = ioringOpAccept();
+    static final int IORING_OP_ASYNC_CANCEL = ioringOpAsyncCancel();
+    static final int IORING_OP_READ = ioringOpRead();
+    static final int IORING_OP_RECV = ioringOpRecv();
+    static final int IORING_ENTER_GETEVENTS = ioringEnterGetevents();
+    static final int SIZEOF_IO_URING_SQE = sizeofIoUringSqe();
+    static final int SIZEOF_IO_URING_CQE = sizeofIoUringCqe();
+    static final int POLLOUT = pollout();
+    static final int SOCK_NONBLOCK = sockNonblock();
+    static final int SOCK_CLOEXEC = sockCloexec();
+    static final int ERRNO_ECANCELED_NEGATIVE = -errnoECANCELED();
+    static final int ERRNO_ETIME_NEGATIVE = -errnoETIME();
+
+    /**
+     * The operations the transport submits, which must all be supported by the kernel.
+     */
+    private static final int[] REQUIRED_OPS = {
+            IORING_OP_WRITEV, IORING_OP_POLL_ADD, IORING_OP_TIMEOUT, IORING_OP_TIMEOUT_REMOVE, IORING_OP_ACCEPT,
+            IORING_OP_ASYNC_CANCEL, IORING_OP_READ, IORING_OP_RECV
+    };
+
+    /**
+     * Creates a new io_uring instance with (at least) the given number of submission queue entries.
+     */
+    static RingBuffer createRingBuffer(int entries) throws IOException {
+        long[] info = new long[RingBuffer.INFO_LENGTH];
+        int ringFd = ioUringSetup(entries, info);
+        if (ringFd < 0) {
+            throw newIOException("io_uring_setup", ringFd);
+        }
+        return new RingBuffer(ringFd, info);
+    }
+
+    /**
+     * Returns {@code true} if the given io_uring instance supports all operations used by this transport.
+     */
+    static boolean isSupportingRequiredOps(int ringFd) {
+        return ioUringProbe(ringFd, REQUIRED_OPS);
+    }
+
+    static int ioUringEnter(int ringFd, int toSubmit, int minComplete, int flags) throws IOException {
+        int res = ioUringEnter0(ringFd, toSubmit, minComplete, flags);
+        if (res >= 0) {
+            return res;
+        }
+        return ioResult("io_uring_enter", res);
+    }
+
+    static void ioUringExit(RingBuffer ringBuffer) {
+        ioUringExit(ringBuffer.fd(), ringBuffer.sqRingAddress(), ringBuffer.sqRingSize(),
+                ringBuffer.cqRingAddress(), ringBuffer.cqRingSize(), ringBuffer.sqesAddress(), ringBuffer.sqesSize());
+    }
+
+    static FileDescriptor newEventFd() {
+        return new FileDescriptor(eventFd());
+    }
+
+    static long sendFile(int fd, DefaultFileRegion src, long baseOffset, long offset, long length)
+            throws IOException {
+        // Open the file-region as it may be created via the lazy constructor. This is needed as we directly access
+        // the FileChannel field via JNI.
+        src.open();
+
+        long res = sendFile0(fd, src, baseOffset, offset, length);
+        if (res >= 0) {
+            return res;
+        }
+        return ioResult("sendfile", (int) res);
+    }
+
+    private static native int ioUringSetup(int entries, long[] info);
+    private static native void ioUringExit(int ringFd, long sqRingAddress, int sqRingSize, long cqRingAddress,
+                                           int cqRingSize, long sqesAddress, int sqesSize);
+    private static native int ioUringEnter0(int ringFd, int toSubmit, int minComplete, int flags);
+    private static native boolean ioUringProbe(int ringFd, int[] ops);
+    private static native int eventFd();
+    static native void eventFdWrite(int fd, long value);
+    private static native long sendFile0(int fd, DefaultFileRegion src, long baseOffset, long offset, long length)
+            throws IOException;
+
+    private static void loadNativeLibrary() {
+        String name = SystemPropertyUtil.get("os.name").toLowerCase(Locale.UK).trim();
+        if (!name.startsWith("linux")) {
+            throw new IllegalStateException("Only supported on Linux");
+        }
+        String staticLibName = "netty_transport_native_io_uring";
+        String sharedLibName = staticLibName + '_' + PlatformDependent.normalizedArch();
+        ClassLoader cl = PlatformDependent.getClassLoader(Native.class);
+        try {
+            NativeLibraryLoader.load(sharedLibName, cl);
+        } catch (UnsatisfiedLinkError e1) {
+            try {
+                NativeLibraryLoader.load(staticLibName, cl);
+                logger.debug("Failed to load {}", sharedLibName, e1);
+            } catch (UnsatisfiedLinkError e2) {
+                ThrowableUtil.addSuppressed(e1, e2);
+                throw e1;
+            }
+        }
+    }
+
+    private Native() {
+        // utility
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import static io.netty.channel.uring.Native.ioUringExit;
+
+/**
+ * An io_uring instance with its mapped submission and completion queues.
+ */
+final class RingBuffer {
+    // Indexes into the array that is filled by Native.ioUringSetup(...), see netty_io_uring_native.c.
+    static final int SQ_RING_ADDRESS = 0;
+    static final int SQ_RING_SIZE = 1;
+    static final int CQ_RING_ADDRESS = 2;
+    static final int CQ_RING_SIZE = 3;
+    static final int SQES_ADDRESS = 4;
+    static final int SQES_SIZE = 5;
+    static final int SQ_HEAD = 6;
+    static final int SQ_TAIL = 7;
+    static final int SQ_MASK = 8;
+    static final int SQ_ENTRIES = 9;
+    static final int SQ_ARRAY = 10;
+    static final int CQ_HEAD = 11;
+    static final int CQ_TAIL = 12;
+    static final int CQ_MASK = 13;
+    static final int CQ_ENTRIES = 14;
+    static final int CQES = 15;
+    static final int FEATURES = 16;
+    static final int INFO_LENGTH = 17;
+
+    private final int fd;
+    private final long[] info;
+    private final IOUringSubmissionQueue submissionQueue;
+    private final IOUringCompletionQueue completionQueue;
+    private boolean closed;
+
+    RingBuffer(int fd, long[] info) {
+        this.fd = fd;
+        this.info = info;
+        submissionQueue = new IOUringSubmissionQueue(fd, info[SQ_HEAD], info[SQ_TAIL], (int) info[SQ_MASK],
+                (int) info[SQ_ENTRIES], info[SQ_ARRAY], info[SQES_ADDRESS]);
+        completionQueue = new IOUringCompletionQueue(info[CQ_HEAD], info[CQ_TAIL], (int) info[CQ_MASK],
+                info[CQES]);
+    }
+
+    int fd() {
+        return fd;
+    }
+
+    IOUringSubmissionQueue submissionQueue() {
+        return submissionQueue;
+    }
+
+    IOUringCompletionQueue completionQueue() {
+        return completionQueue;
+    }
+
+    long sqRingAddress() {
+        return info[SQ_RING_ADDRESS];
+    }
+
+    int sqRingSize() {
+        return (int) info[SQ_RING_SIZE];
+    }
+
+    long cqRingAddress() {
+        return info[CQ_RING_ADDRESS];
+    }
+
+    int cqRingSize() {
+        return (int) info[CQ_RING_SIZE];
+    }
+
+    long sqesAddress() {
+        return info[SQES_ADDRESS];
+    }
+
+    int sqesSize() {
+        return (int) info[SQES_SIZE];
+    }
+
+    /**
+     * Unmaps the queues and closes the io_uring instance. Operations that are still in flight are cancelled by the
+     * kernel.
+     */
+    void close() {
+        if (!closed) {
+            closed = true;
+            ioUringExit(this);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.Future;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IOUringEventLoopTest {
+
+    @Test(timeout = 5000)
+    public void testScheduledTaskWakesUpLoop() throws Exception {
+        EventLoopGroup group = new IOUringEventLoopGroup(1);
+        try {
+            final EventLoop loop = group.next();
+            // Schedule from within the loop, so the task is not added via execute(...) which wakes up the loop.
+            Future<Future<Long>> scheduled = loop.submit(new Callable<Future<Long>>() {
+                @Override
+                public Future<Long> call() {
+                    final long start = System.nanoTime();
+                    return loop.schedule(new Callable<Long>() {
+                        @Override
+                        public Long call() {
+                            return System.nanoTime() - start;
+                        }
+                    }, 100, TimeUnit.MILLISECONDS);
+                }
+            });
+            long elapsed = scheduled.sync().getNow().sync().getNow();
+            assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(100));
+        } finally {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testEarlierScheduledTaskReplacesTimeout() throws Exception {
+        EventLoopGroup group = new IOUringEventLoopGroup(1);
+        try {
+            final EventLoop loop = group.next();
+            // The loop waits for the first task before the second one is scheduled.
+            loop.submit(new Runnable() {
+                @Override
+                public void run() {
+                    loop.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            // NOOP
+                        }
+                    }, 1, TimeUnit.HOURS);
+                }
+            }).sync();
+            Future<Future<Integer>> scheduled = loop.submit(new Callable<Future<Integer>>() {
+                @Override
+                public Future<Integer> call() {
+                    return loop.schedule(new Callable<Integer>() {
+                        @Override
+                        public Integer call() {
+                            return 1;
+                        }
+                    }, 10, TimeUnit.MILLISECONDS);
+                }
+            });
+            assertEquals(1, (int) scheduled.sync().getNow().sync().getNow());
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS).syncUninterruptibly();
+        }
+    }
+}
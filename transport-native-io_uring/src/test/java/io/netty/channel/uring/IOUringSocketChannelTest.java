@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.NetUtil;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class IOUringSocketChannelTest {
+
+    @Test(timeout = 10000)
+    public void testCloseWithWriteInFlight() throws Exception {
+        final int size = 4 * 1024 * 1024;
+        EventLoopGroup group = new IOUringEventLoopGroup(2);
+        final ByteBuf buf = Unpooled.directBuffer(size).writeZero(size);
+        final AtomicInteger refCntOnClose = new AtomicInteger();
+        Channel sc = null;
+        Channel cc = null;
+        try {
+            // The server does not read and the socket buffers are small, so the write can not complete.
+            ServerBootstrap sb = new ServerBootstrap()
+                    .group(group)
+                    .channel(IOUringServerSocketChannel.class)
+                    .option(ChannelOption.SO_RCVBUF, 4096)
+                    .childOption(ChannelOption.AUTO_READ, false)
+                    .childHandler(new ChannelInboundHandlerAdapter());
+            sc = sb.bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+
+            Bootstrap cb = new Bootstrap()
+                    .group(group)
+                    .channel(IOUringSocketChannel.class)
+                    .option(ChannelOption.SO_SNDBUF, 4096)
+                    .handler(new ChannelInboundHandlerAdapter());
+            cc = cb.connect(sc.localAddress()).sync().channel();
+
+            cc.writeAndFlush(buf.retainedDuplicate());
+            // Give the write the chance to be submitted.
+            Thread.sleep(100);
+            final Channel channel = cc;
+            cc.eventLoop().submit(new Runnable() {
+                @Override
+                public void run() {
+                    // Closing on the loop fails the ChannelOutboundBuffer right away, while the completion of the
+                    // cancelled write is only handled by a later iteration of the loop.
+                    channel.close();
+                    refCntOnClose.set(buf.refCnt());
+                }
+            }).sync();
+            assertEquals(2, refCntOnClose.get());
+            // Released once the cancelled write completed.
+            while (buf.refCnt() != 1) {
+                Thread.sleep(10);
+            }
+        } finally {
+            if (cc != null) {
+                cc.close().syncUninterruptibly();
+            }
+            if (sc != null) {
+                sc.close().syncUninterruptibly();
+            }
+            group.shutdownGracefully();
+            buf.release();
+        }
+    }
+}
@@ -146,6 +146,7 @@ final class KQueueEventLoop extends SingleThreadEventLoop {
     protected void wakeup(boolean inEventLoop) {
         if (!inEventLoop && WAKEN_UP_UPDATER.compareAndSet(this, 0, 1)) {
             wakeup();
+            recordWakeup();
         }
     }
 
@@ -235,7 +236,14 @@ final class KQueueEventLoop extends SingleThreadEventLoop {
                         // fall-through to SELECT since the busy-wait is not supported with kqueue
 
                     case SelectStrategy.SELECT:
-                        strategy = kqueueWait(WAKEN_UP_UPDATER.getAndSet(this, 0) == 1);
+                        markLoopIdle();
+                        if (metric() != null) {
+                            final long waitStartTime = System.nanoTime();
+                            strategy = kqueueWait(WAKEN_UP_UPDATER.getAndSet(this, 0) == 1);
+                            recordIoWaitTime(System.nanoTime() - waitStartTime);
+                        } else {
+                            strategy = kqueueWait(WAKEN_UP_UPDATER.getAndSet(this, 0) == 1);
+                        }
 
                         // 'wakenUp.compareAndSet(false, true)' is always evaluated
                         // before calling 'selector.wakeup()' to reduce the wake-up
@@ -272,13 +280,18 @@ final class KQueueEventLoop extends SingleThreadEventLoop {
                     default:
                 }
 
+                markLoopIterationStart();
                 final int ioRatio = this.ioRatio;
                 if (ioRatio == 100) {
+                    final long ioStartTime = metric() != null ? System.nanoTime() : 0;
                     try {
                         if (strategy > 0) {
                             processReady(strategy);
                         }
                     } finally {
+                        if (ioStartTime != 0) {
+                            recordIoProcessingTime(System.nanoTime() - ioStartTime);
+                        }
                         runAllTasks();
                     }
                 } else {
@@ -290,6 +303,7 @@ final class KQueueEventLoop extends SingleThreadEventLoop {
                         }
                     } finally {
                         final long ioTime = System.nanoTime() - ioStartTime;
+                        recordIoProcessingTime(ioTime);
                         runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
                     }
                 }
@@ -20,6 +20,7 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelConfig;
 import io.netty.channel.RecvByteBufAllocator.DelegatingHandle;
 import io.netty.channel.RecvByteBufAllocator.ExtendedHandle;
+import io.netty.channel.unix.AvailableBytesRecvByteBufAllocator.AvailableBytesHandle;
 import io.netty.channel.unix.PreferredDirectByteBufAllocator;
 import io.netty.util.UncheckedBooleanSupplier;
 
@@ -90,6 +91,11 @@ final class KQueueRecvByteAllocatorHandle extends DelegatingHandle implements Ex
 
     void numberBytesPending(long numberBytesPending) {
         this.numberBytesPending = numberBytesPending;
+        ExtendedHandle delegate = (ExtendedHandle) delegate();
+        if (delegate instanceof AvailableBytesHandle) {
+            // The read event already carries the number of readable bytes, so there is no need for an extra syscall.
+            ((AvailableBytesHandle) delegate).availableBytes((int) min(numberBytesPending, Integer.MAX_VALUE));
+        }
     }
 
     boolean maybeMoreDataToRead() {
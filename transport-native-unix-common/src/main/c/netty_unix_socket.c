@@ -19,6 +19,7 @@
 #include <stdint.h>
 #include <stdlib.h>
 #include <string.h>
+#include <sys/ioctl.h>
 #include <sys/un.h>
 #include <sys/socket.h>
 #include <arpa/inet.h>
@@ -929,6 +930,15 @@ static jint netty_unix_socket_getSoError(JNIEnv* env, jclass clazz, jint fd) {
     return optval;
 }
 
+static jint netty_unix_socket_getAvailableBytes(JNIEnv* env, jclass clazz, jint fd) {
+    int available;
+    if (ioctl(fd, FIONREAD, &available) == -1) {
+        netty_unix_errors_throwIOExceptionErrorNo(env, "ioctl() failed: ", errno);
+        return -1;
+    }
+    return available;
+}
+
 static jint netty_unix_socket_isReuseAddress(JNIEnv* env, jclass clazz, jint fd) {
     int optval;
     if (netty_unix_socket_getOption(env, fd, SOL_SOCKET, SO_REUSEADDR, &optval, sizeof(optval)) == -1) {
@@ -998,6 +1008,7 @@ static const JNINativeMethod fixed_method_table[] = {
   { "getSoLinger", "(I)I", (void *) netty_unix_socket_getSoLinger },
   { "getTrafficClass", "(IZ)I", (void *) netty_unix_socket_getTrafficClass },
   { "getSoError", "(I)I", (void *) netty_unix_socket_getSoError },
+  { "getAvailableBytes", "(I)I", (void *) netty_unix_socket_getAvailableBytes },
   { "initialize", "(Z)V", (void *) netty_unix_socket_initialize },
   { "isIPv6Preferred", "()Z", (void *) netty_unix_socket_isIPv6Preferred },
   { "isIPv6", "(I)Z", (void *) netty_unix_socket_isIPv6 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.unix;
+
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
+import io.netty.channel.DefaultMaxMessagesRecvByteBufAllocator;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.util.internal.UnstableApi;
+
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * The {@link RecvByteBufAllocator} that sizes the buffers by the number of bytes that are ready to be read from the
+ * socket, as reported by the native transports ({@code FIONREAD} for epoll, the data of the read event for kqueue).
+ * <p>
+ * Unlike {@link AdaptiveRecvByteBufAllocator}, which needs several reads to ramp up and then keeps a large buffer
+ * even for small messages, a buffer is allocated for exactly what is available, bounded by the minimum and maximum.
+ * When the transport cannot tell how many bytes are available the initial size is used.
+ * <p>
+ * Optionally an exponentially weighted moving average of the bytes returned per read is kept for each channel. It
+ * is used instead of the initial size, and as a lower bound for the available bytes, which lets a single read also
+ * pick up data that arrives while the buffer is allocated on connections that constantly receive.
+ */
+@UnstableApi
+public class AvailableBytesRecvByteBufAllocator extends DefaultMaxMessagesRecvByteBufAllocator {
+
+    static final int DEFAULT_MINIMUM = 64;
+    static final int DEFAULT_INITIAL = 1024;
+    static final int DEFAULT_MAXIMUM = 65536;
+
+    // Weight of a new sample is 1 / (1 << AVERAGE_SHIFT).
+    private static final int AVERAGE_SHIFT = 3;
+
+    /**
+     * The {@link RecvByteBufAllocator.Handle} of {@link AvailableBytesRecvByteBufAllocator}. The transport reports
+     * the number of readable bytes via {@link #availableBytes(int)} when it starts to read.
+     */
+    public final class AvailableBytesHandle extends MaxMessageHandle {
+        private int available = -1;
+        private int average = initial;
+
+        AvailableBytesHandle() { }
+
+        /**
+         * Sets the number of bytes that are ready to be read or {@code -1} if it is unknown. The following reads
+         * decrement it by the number of bytes they returned.
+         */
+        public void availableBytes(int bytes) {
+            available = bytes;
+        }
+
+        @Override
+        public int guess() {
+            final int guess;
+            if (available > 0) {
+                guess = averaging ? max(available, average) : available;
+            } else if (available == 0) {
+                // All reported bytes were read, this read is most likely only going to see EAGAIN or EOF.
+                guess = averaging ? average : minimum;
+            } else {
+                guess = averaging ? average : initial;
+            }
+            return min(max(guess, minimum), maximum);
+        }
+
+        @Override
+        public void lastBytesRead(int bytes) {
+            super.lastBytesRead(bytes);
+            if (bytes > 0) {
+                if (available > 0) {
+                    available = max(0, available - bytes);
+                }
+                if (averaging) {
+                    average += (bytes - average) >> AVERAGE_SHIFT;
+                }
+            }
+        }
+    }
+
+    private final int minimum;
+    private final int initial;
+    private final int maximum;
+    private final boolean averaging;
+
+    /**
+     * Creates a new instance with the default parameters. With the default parameters a buffer is never smaller
+     * than {@code 64} bytes, never larger than {@code 65536} bytes and {@code 1024} bytes if the number of available
+     * bytes is unknown.
+     */
+    public AvailableBytesRecvByteBufAllocator() {
+        this(DEFAULT_MINIMUM, DEFAULT_INITIAL, DEFAULT_MAXIMUM, false);
+    }
+
+    /**
+     * Creates a new instance with the specified parameters.
+     *
+     * @param minimum   the inclusive lower bound of the buffer size
+     * @param initial   the buffer size when the number of available bytes is unknown
+     * @param maximum   the inclusive upper bound of the buffer size
+     * @param averaging {@code true} if the buffer size should also take the moving average of the previous reads
+     *                  into account
+     */
+    public AvailableBytesRecvByteBufAllocator(int minimum, int initial, int maximum, boolean averaging) {
+        checkPositive(minimum, "minimum");
+        if (initial < minimum) {
+            throw new IllegalArgumentException("initial: " + initial);
+        }
+        if (maximum < initial) {
+            throw new IllegalArgumentException("maximum: " + maximum);
+        }
+        this.minimum = minimum;
+        this.initial = initial;
+        this.maximum = maximum;
+        this.averaging = averaging;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public Handle newHandle() {
+        return new AvailableBytesHandle();
+    }
+
+    @Override
+    public AvailableBytesRecvByteBufAllocator respectMaybeMoreData(boolean respectMaybeMoreData) {
+        super.respectMaybeMoreData(respectMaybeMoreData);
+        return this;
+    }
+}
@@ -340,6 +340,14 @@ public class Socket extends FileDescriptor {
         return getSoError(fd);
     }
 
+    /**
+     * Returns the number of bytes that can be read without blocking. For datagram sockets this is the size of the
+     * next datagram.
+     */
+    public final int getAvailableBytes() throws IOException {
+        return getAvailableBytes(fd);
+    }
+
     public final int getTrafficClass() throws IOException {
         return getTrafficClass(fd, ipv6);
     }
@@ -483,6 +491,7 @@ public class Socket extends FileDescriptor {
     private static native int isBroadcast(int fd) throws IOException;
     private static native int getSoLinger(int fd) throws IOException;
     private static native int getSoError(int fd) throws IOException;
+    private static native int getAvailableBytes(int fd) throws IOException;
     private static native int getTrafficClass(int fd, boolean ipv6) throws IOException;
 
     private static native void setReuseAddress(int fd, int reuseAddress) throws IOException;
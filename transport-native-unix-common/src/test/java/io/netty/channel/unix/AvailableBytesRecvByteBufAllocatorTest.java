@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.unix;
+
+import io.netty.channel.unix.AvailableBytesRecvByteBufAllocator.AvailableBytesHandle;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AvailableBytesRecvByteBufAllocatorTest {
+
+    @Test
+    public void testGuessFollowsAvailableBytes() {
+        AvailableBytesHandle handle = newHandle(new AvailableBytesRecvByteBufAllocator(64, 1024, 8192, false));
+        assertEquals(1024, handle.guess());
+
+        handle.availableBytes(3000);
+        assertEquals(3000, handle.guess());
+        handle.lastBytesRead(1000);
+        assertEquals(2000, handle.guess());
+        handle.lastBytesRead(2000);
+        assertEquals(64, handle.guess());
+
+        handle.availableBytes(10);
+        assertEquals(64, handle.guess());
+        handle.availableBytes(100000);
+        assertEquals(8192, handle.guess());
+        handle.availableBytes(-1);
+        assertEquals(1024, handle.guess());
+    }
+
+    @Test
+    public void testGuessBlendsAverage() {
+        AvailableBytesHandle handle = newHandle(new AvailableBytesRecvByteBufAllocator(64, 1024, 8192, true));
+        assertEquals(1024, handle.guess());
+
+        handle.availableBytes(100);
+        assertEquals(1024, handle.guess());
+        for (int i = 0; i < 64; i++) {
+            handle.availableBytes(100);
+            handle.lastBytesRead(100);
+        }
+        // The average converged to the size of the reads.
+        handle.availableBytes(-1);
+        assertEquals(100, handle.guess(), 8);
+        handle.availableBytes(4000);
+        assertEquals(4000, handle.guess());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitialSmallerThanMinimum() {
+        new AvailableBytesRecvByteBufAllocator(128, 64, 1024, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaximumSmallerThanInitial() {
+        new AvailableBytesRecvByteBufAllocator(64, 1024, 512, false);
+    }
+
+    private static AvailableBytesHandle newHandle(AvailableBytesRecvByteBufAllocator allocator) {
+        return (AvailableBytesHandle) allocator.newHandle();
+    }
+}
@@ -25,16 +25,26 @@ import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultChannelPromise;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
 import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.GlobalEventExecutor;
 import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -51,6 +61,7 @@ public class ServerBootstrap extends AbstractBootstrap<ServerBootstrap, ServerCh
     private final ServerBootstrapConfig config = new ServerBootstrapConfig(this);
     private volatile EventLoopGroup childGroup;  // 请求的核心处理流程
     private volatile ChannelHandler childHandler;
+    private volatile boolean sharded;
 
     // 无参构造，使用默认值
     public ServerBootstrap() { }
@@ -60,6 +71,7 @@ public class ServerBootstrap extends AbstractBootstrap<ServerBootstrap, ServerCh
 
         childGroup = bootstrap.childGroup;
         childHandler = bootstrap.childHandler;
+        sharded = bootstrap.sharded;
         childOptions.putAll(bootstrap.childOptions);
         childAttrs.putAll(bootstrap.childAttrs);
     }
@@ -130,6 +142,39 @@ public class ServerBootstrap extends AbstractBootstrap<ServerBootstrap, ServerCh
         return this;
     }
 
+    /**
+     * If {@code true} {@link #bind()} creates one {@link ServerChannel} per {@link EventLoop} of the child
+     * {@link EventLoopGroup} instead of a single one. Each of them is registered to its {@link EventLoop}, which
+     * accepts the connections and serves them itself, so a connection is never handed over to another thread.
+     * <p>
+     * All {@link ServerChannel}s are bound to the same address, which requires a transport that supports
+     * {@code SO_REUSEPORT}, for example epoll with {@code EpollChannelOption.SO_REUSEPORT} set via
+     * {@link #option(ChannelOption, Object)}. The {@link ServerChannel}s are bound one after another in the order
+     * of the {@link EventLoop}s, so the kernel can steer connections to them by CPU via
+     * {@code EpollChannelOption.SO_REUSEPORT_CPU_STEERING}. A {@link ServerChannel} that is already active once it
+     * is registered, because it shares the socket of a previous one, is not bound again.
+     * <p>
+     * The {@link ChannelFuture} returned by {@link #bind()} is completed once all {@link ServerChannel}s are
+     * bound and references the first of them. Closing any of the {@link ServerChannel}s closes all of them.
+     */
+    @UnstableApi
+    public ServerBootstrap sharded(boolean sharded) {
+        this.sharded = sharded;
+        return this;
+    }
+
+    @Override
+    ChannelFuture doBind(SocketAddress localAddress) {
+        if (!sharded) {
+            return super.doBind(localAddress);
+        }
+        List<EventLoop> loops = new ArrayList<EventLoop>();
+        for (EventExecutor executor : childGroup) {
+            loops.add((EventLoop) executor);
+        }
+        return new ShardedBind(localAddress, loops).bind();
+    }
+
     @Override
     void init(Channel channel) {
         setChannelOptions(channel, options0().entrySet().toArray(newOptionArray(0)), logger);
@@ -138,6 +183,7 @@ public class ServerBootstrap extends AbstractBootstrap<ServerBootstrap, ServerCh
         ChannelPipeline p = channel.pipeline();
 
         final EventLoopGroup currentChildGroup = childGroup;
+        final boolean currentSharded = sharded;
         final ChannelHandler currentChildHandler = childHandler;
         final Entry<ChannelOption<?>, Object>[] currentChildOptions =
                 childOptions.entrySet().toArray(newOptionArray(0));
@@ -155,8 +201,10 @@ public class ServerBootstrap extends AbstractBootstrap<ServerBootstrap, ServerCh
                 ch.eventLoop().execute(new Runnable() {
                     @Override
                     public void run() {
+                        // A shard registers the accepted channels to its own EventLoop.
+                        EventLoopGroup group = currentSharded ? ch.eventLoop() : currentChildGroup;
                         pipeline.addLast(new ServerBootstrapAcceptor(
-                                ch, currentChildGroup, currentChildHandler, currentChildOptions, currentChildAttrs));
+                                ch, group, currentChildHandler, currentChildOptions, currentChildAttrs));
                     }
                 });
             }
@@ -249,6 +297,112 @@ public class ServerBootstrap extends AbstractBootstrap<ServerBootstrap, ServerCh
         }
     }
 
+    /**
+     * Creates, registers and binds the {@link ServerChannel}s of the shards one after another.
+     */
+    private final class ShardedBind implements ChannelFutureListener {
+        private final List<EventLoop> loops;
+        private final List<Channel> channels = new CopyOnWriteArrayList<Channel>();
+        private volatile SocketAddress localAddress;
+        private volatile ChannelPromise promise;
+
+        private final ChannelFutureListener registerListener = new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                if (future.isSuccess()) {
+                    Channel channel = future.channel();
+                    if (channel.isActive()) {
+                        // The channel shares the socket of a shard that was bound before.
+                        ShardedBind.this.operationComplete(future);
+                    } else {
+                        channel.bind(localAddress).addListener(ShardedBind.this);
+                    }
+                } else {
+                    fail(future.cause());
+                }
+            }
+        };
+
+        private final ChannelFutureListener closeListener = new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                // The shards are only useful together.
+                closeAll();
+            }
+        };
+
+        ShardedBind(SocketAddress localAddress, List<EventLoop> loops) {
+            this.localAddress = localAddress;
+            this.loops = loops;
+        }
+
+        ChannelFuture bind() {
+            ChannelFuture future = registerNext();
+            ChannelPromise promise = this.promise;
+            // If the first shard could not be created there is no promise yet.
+            return promise != null ? promise : future;
+        }
+
+        @Override
+        public void operationComplete(ChannelFuture future) {
+            if (!future.isSuccess()) {
+                fail(future.cause());
+                return;
+            }
+            if (channels.size() == 1) {
+                // Bind the other shards to the address of the first one, which may have been an ephemeral port.
+                localAddress = future.channel().localAddress();
+            }
+            if (channels.size() == loops.size()) {
+                promise.trySuccess();
+            } else {
+                registerNext();
+            }
+        }
+
+        private ChannelFuture registerNext() {
+            EventLoop loop = loops.get(channels.size());
+            Channel channel = null;
+            try {
+                channel = channelFactory().newChannel();
+                init(channel);
+            } catch (Throwable t) {
+                if (channel != null) {
+                    channel.unsafe().closeForcibly();
+                } else {
+                    channel = new FailedChannel();
+                }
+                fail(t);
+                // as the Channel is not registered yet we need to force the usage of the GlobalEventExecutor
+                return new DefaultChannelPromise(channel, GlobalEventExecutor.INSTANCE).setFailure(t);
+            }
+            if (promise == null) {
+                promise = new DefaultChannelPromise(channel, loop);
+            }
+            channels.add(channel);
+            channel.closeFuture().addListener(closeListener);
+            return loop.register(channel).addListener(registerListener);
+        }
+
+        private void fail(Throwable cause) {
+            ChannelPromise promise = this.promise;
+            if (promise != null) {
+                promise.tryFailure(cause);
+            }
+            closeAll();
+        }
+
+        private void closeAll() {
+            for (Channel channel : channels) {
+                if (channel.isRegistered()) {
+                    channel.close();
+                } else {
+                    channel.unsafe().closeForcibly();
+                }
+            }
+        }
+    }
+
     @Override
     @SuppressWarnings("CloneDoesntCallSuperClone")
     public ServerBootstrap clone() {
@@ -270,6 +424,10 @@ public class ServerBootstrap extends AbstractBootstrap<ServerBootstrap, ServerCh
         return childHandler;
     }
 
+    final boolean isSharded() {
+        return sharded;
+    }
+
     final Map<ChannelOption<?>, Object> childOptions() {
         return copiedMap(childOptions);
     }
@@ -64,6 +64,13 @@ public final class ServerBootstrapConfig extends AbstractBootstrapConfig<ServerB
         return bootstrap.childAttrs();
     }
 
+    /**
+     * Returns {@code true} if one {@link ServerChannel} is bound per child {@link io.netty.channel.EventLoop}.
+     */
+    public boolean isSharded() {
+        return bootstrap.isSharded();
+    }
+
     @Override
     public String toString() {
         StringBuilder buf = new StringBuilder(super.toString());
@@ -93,6 +100,9 @@ public final class ServerBootstrapConfig extends AbstractBootstrapConfig<ServerB
             buf.append(childHandler);
             buf.append(", ");
         }
+        if (isSharded()) {
+            buf.append("sharded, ");
+        }
         if (buf.charAt(buf.length() - 1) == '(') {
             buf.append(')');
         } else {
@@ -297,6 +297,16 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         return pipeline.writeAndFlush(msg);
     }
 
+    @Override
+    public void writeVoid(Object msg) {
+        pipeline.writeVoid(msg);
+    }
+
+    @Override
+    public void writeAndFlushVoid(Object msg) {
+        pipeline.writeAndFlushVoid(msg);
+    }
+
     @Override
     public ChannelFuture writeAndFlush(Object msg, ChannelPromise promise) {
         return pipeline.writeAndFlush(msg, promise);
@@ -424,6 +434,8 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         private boolean inFlush0;
         /** true if the channel has never been registered, false otherwise */
         private boolean neverRegistered = true;
+        /** true if the channel waits for a deferred flush of its {@link SingleThreadEventLoop} */
+        boolean flushDeferred;
 
         private void assertEventLoop() {
             assert !registered || eventLoop.inEventLoop();
@@ -896,9 +908,27 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
             }
 
             outboundBuffer.addFlush();
+            EventLoop loop = eventLoop;
+            if (loop instanceof SingleThreadEventLoop && ((SingleThreadEventLoop) loop).deferFlush(this)) {
+                // The write is done at the end of the current event loop iteration.
+                return;
+            }
             flush0();
         }
 
+        /**
+         * Called by the {@link SingleThreadEventLoop} that deferred a {@link #flush()} of this channel.
+         */
+        final void flushDeferred(EventLoop loop) {
+            flushDeferred = false;
+            if (eventLoop == loop) {
+                flush0();
+            } else if (registered) {
+                // Was moved to another EventLoop in the meantime, let it do the write.
+                AbstractChannel.this.flush();
+            }
+        }
+
         @SuppressWarnings("deprecation")
         protected void flush0() {
             if (inFlush0) {
@@ -96,6 +96,15 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
 
     private volatile int handlerState = INIT;
 
+    // The contexts that handle the most frequent events next, so firing these does not need to walk the linked list
+    // and check the executionMask of every context in between. These are updated by DefaultChannelPipeline whenever
+    // the pipeline is modified. The less frequent events still use findContextInbound / findContextOutbound.
+    private volatile AbstractChannelHandlerContext nextChannelRead;
+    private volatile AbstractChannelHandlerContext nextChannelReadComplete;
+    private volatile AbstractChannelHandlerContext nextWrite;
+    private volatile AbstractChannelHandlerContext nextWriteAndFlush;
+    private volatile AbstractChannelHandlerContext nextFlush;
+
     AbstractChannelHandlerContext(DefaultChannelPipeline pipeline, EventExecutor executor,
                                   String name, Class<? extends ChannelHandler> handlerClass) {
         this.name = ObjectUtil.checkNotNull(name, "name");
@@ -349,7 +358,8 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
 
     @Override
     public ChannelHandlerContext fireChannelRead(final Object msg) {
-        invokeChannelRead(findContextInbound(MASK_CHANNEL_READ), msg);
+        AbstractChannelHandlerContext next = nextChannelRead;
+        invokeChannelRead(next != null ? next : findContextInbound(MASK_CHANNEL_READ), msg);
         return this;
     }
 
@@ -382,7 +392,8 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
 
     @Override
     public ChannelHandlerContext fireChannelReadComplete() {
-        invokeChannelReadComplete(findContextInbound(MASK_CHANNEL_READ_COMPLETE));
+        AbstractChannelHandlerContext next = nextChannelReadComplete;
+        invokeChannelReadComplete(next != null ? next : findContextInbound(MASK_CHANNEL_READ_COMPLETE));
         return this;
     }
 
@@ -721,7 +732,10 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
 
     @Override
     public ChannelHandlerContext flush() {
-        final AbstractChannelHandlerContext next = findContextOutbound(MASK_FLUSH);
+        AbstractChannelHandlerContext next = nextFlush;
+        if (next == null) {
+            next = findContextOutbound(MASK_FLUSH);
+        }
         EventExecutor executor = next.executor();
         if (executor.inEventLoop()) {
             next.invokeFlush();
@@ -780,8 +794,10 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             throw e;
         }
 
-        final AbstractChannelHandlerContext next = findContextOutbound(flush ?
-                (MASK_WRITE | MASK_FLUSH) : MASK_WRITE);
+        AbstractChannelHandlerContext next = flush ? nextWriteAndFlush : nextWrite;
+        if (next == null) {
+            next = findContextOutbound(flush ? (MASK_WRITE | MASK_FLUSH) : MASK_WRITE);
+        }
         final Object m = pipeline.touch(msg, next);
         EventExecutor executor = next.executor();
         if (executor.inEventLoop()) {
@@ -812,6 +828,16 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         return writeAndFlush(msg, newPromise());
     }
 
+    @Override
+    public void writeVoid(Object msg) {
+        write(msg, voidPromise());
+    }
+
+    @Override
+    public void writeAndFlushVoid(Object msg) {
+        writeAndFlush(msg, voidPromise());
+    }
+
     private static void notifyOutboundHandlerException(Throwable cause, ChannelPromise promise) {
         // Only log if the given promise is not of type VoidChannelPromise as tryFailure(...) is expected to return
         // false.
@@ -928,6 +954,57 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         return ctx;
     }
 
+    /**
+     * Updates the precomputed event targets of all contexts between {@code head} and {@code tail}.
+     */
+    static void updateHandlerChains(AbstractChannelHandlerContext head, AbstractChannelHandlerContext tail) {
+        // Inbound events travel towards the tail, so walk backwards. This also makes sure the targets of a context are
+        // updated before the contexts in front of it start to point to it.
+        AbstractChannelHandlerContext read = null;
+        AbstractChannelHandlerContext readComplete = null;
+        for (AbstractChannelHandlerContext ctx = tail; ctx != null; ctx = ctx.prev) {
+            ctx.nextChannelRead = read;
+            ctx.nextChannelReadComplete = readComplete;
+            if ((ctx.executionMask & MASK_CHANNEL_READ) != 0) {
+                read = ctx;
+            }
+            if ((ctx.executionMask & MASK_CHANNEL_READ_COMPLETE) != 0) {
+                readComplete = ctx;
+            }
+        }
+
+        // Outbound events travel towards the head.
+        AbstractChannelHandlerContext write = null;
+        AbstractChannelHandlerContext writeAndFlush = null;
+        AbstractChannelHandlerContext flush = null;
+        for (AbstractChannelHandlerContext ctx = head; ctx != null; ctx = ctx.next) {
+            ctx.nextWrite = write;
+            ctx.nextWriteAndFlush = writeAndFlush;
+            ctx.nextFlush = flush;
+            if ((ctx.executionMask & MASK_WRITE) != 0) {
+                write = ctx;
+            }
+            if ((ctx.executionMask & (MASK_WRITE | MASK_FLUSH)) != 0) {
+                writeAndFlush = ctx;
+            }
+            if ((ctx.executionMask & MASK_FLUSH) != 0) {
+                flush = ctx;
+            }
+        }
+    }
+
+    /**
+     * Lets the events fired by this context, which was replaced by {@code newCtx}, start at {@code newCtx}.
+     */
+    void forwardHandlerChainsTo(AbstractChannelHandlerContext newCtx) {
+        final int mask = newCtx.executionMask;
+        nextChannelRead = (mask & MASK_CHANNEL_READ) != 0 ? newCtx : newCtx.nextChannelRead;
+        nextChannelReadComplete = (mask & MASK_CHANNEL_READ_COMPLETE) != 0 ? newCtx : newCtx.nextChannelReadComplete;
+        nextWrite = (mask & MASK_WRITE) != 0 ? newCtx : newCtx.nextWrite;
+        nextWriteAndFlush = (mask & (MASK_WRITE | MASK_FLUSH)) != 0 ? newCtx : newCtx.nextWriteAndFlush;
+        nextFlush = (mask & MASK_FLUSH) != 0 ? newCtx : newCtx.nextFlush;
+    }
+
     @Override
     public ChannelPromise voidPromise() {
         return channel().voidPromise();
@@ -19,8 +19,6 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufHolder;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.util.Recycler;
-import io.netty.util.Recycler.Handle;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.FastThreadLocal;
 import io.netty.util.internal.InternalThreadLocalMap;
@@ -62,6 +60,13 @@ public final class ChannelOutboundBuffer {
 
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(ChannelOutboundBuffer.class);
 
+    private static final int INITIAL_CAPACITY = 4;
+
+    // The ring is shrunk back to INITIAL_CAPACITY once it was drained and grew beyond this number of slots, so a
+    // single burst of writes does not pin the Entry instances for the rest of the lifetime of the Channel.
+    private static final int MAX_RETAINED_CAPACITY = Math.max(INITIAL_CAPACITY,
+            SystemPropertyUtil.getInt("io.netty.transport.outboundBufferMaxRetainedEntries", 64));
+
     private static final FastThreadLocal<ByteBuffer[]> NIO_BUFFERS = new FastThreadLocal<ByteBuffer[]>() {
         @Override
         protected ByteBuffer[] initialValue() throws Exception {
@@ -71,14 +76,18 @@ public final class ChannelOutboundBuffer {
 
     private final Channel channel;
 
-    // Entry(flushedEntry) --> ... Entry(unflushedEntry) --> ... Entry(tailEntry)
+    // Ring of slots whose capacity is always a power of two:
+    //
+    // entries[head] --> ... entries[head + flushed] --> ... entries[head + count - 1]
+    //    (flushed)             (first unflushed)                  (tail)
     //
-    // The Entry that is the first in the linked-list structure that was flushed
-    private Entry flushedEntry;
-    // The Entry which is the first unflushed in the linked-list structure
-    private Entry unflushedEntry;
-    // The Entry which represents the tail of the buffer
-    private Entry tailEntry;
+    // An Entry stays in its slot once it was created and is reused by the messages that are added later on, so
+    // adding and removing a message is an index update instead of a linked-list and Recycler operation.
+    private Entry[] entries = new Entry[INITIAL_CAPACITY];
+    // The slot of the oldest message
+    private int head;
+    // The number of messages in the buffer, flushed and unflushed
+    private int count;
     // The number of flushed entries that are not written yet
     private int flushed;
 
@@ -110,17 +119,17 @@ public final class ChannelOutboundBuffer {
      * the message was written.
      */
     public void addMessage(Object msg, int size, ChannelPromise promise) {
-        Entry entry = Entry.newInstance(msg, size, total(msg), promise);
-        if (tailEntry == null) {
-            flushedEntry = null;
-        } else {
-            Entry tail = tailEntry;
-            tail.next = entry;
+        Entry[] entries = this.entries;
+        if (count == entries.length) {
+            entries = grow(entries);
         }
-        tailEntry = entry;
-        if (unflushedEntry == null) {
-            unflushedEntry = entry;
+        int index = (head + count) & (entries.length - 1);
+        Entry entry = entries[index];
+        if (entry == null) {
+            entries[index] = entry = new Entry();
         }
+        entry.init(msg, size, total(msg), promise);
+        count ++;
 
         // increment pending bytes after adding message to the unflushed arrays.
         // See https://github.com/netty/netty/issues/1619
@@ -136,25 +145,39 @@ public final class ChannelOutboundBuffer {
         // where added in the meantime.
         //
         // See https://github.com/netty/netty/issues/2577
-        Entry entry = unflushedEntry;
-        if (entry != null) {
-            if (flushedEntry == null) {
-                // there is no flushedEntry yet, so start with the entry
-                flushedEntry = entry;
+        //
+        // The count is re-read on every iteration as cancelling an entry may trigger a writability change that adds
+        // more messages, which are flushed as well.
+        while (flushed != count) {
+            Entry entry = entry(flushed);
+            flushed ++;
+            if (!entry.promise.setUncancellable()) {
+                // Was cancelled so make sure we free up memory and notify about the freed bytes
+                int pending = entry.cancel();
+                decrementPendingOutboundBytes(pending, false, true);
             }
-            do {
-                flushed ++;
-                if (!entry.promise.setUncancellable()) {
-                    // Was cancelled so make sure we free up memory and notify about the freed bytes
-                    int pending = entry.cancel();
-                    decrementPendingOutboundBytes(pending, false, true);
-                }
-                entry = entry.next;
-            } while (entry != null);
+        }
+    }
 
-            // All flushed so reset unflushedEntry
-            unflushedEntry = null;
+    private Entry entry(int offset) {
+        Entry[] entries = this.entries;
+        return entries[(head + offset) & (entries.length - 1)];
+    }
+
+    private Entry[] grow(Entry[] oldEntries) {
+        int oldCapacity = oldEntries.length;
+        int newCapacity = oldCapacity << 1;
+        if (newCapacity < 0) {
+            throw new IllegalStateException();
         }
+        Entry[] newEntries = new Entry[newCapacity];
+        // The ring is full, so unroll it to let the oldest message end up in the first slot.
+        int firstPart = oldCapacity - head;
+        System.arraycopy(oldEntries, head, newEntries, 0, firstPart);
+        System.arraycopy(oldEntries, 0, newEntries, firstPart, head);
+        head = 0;
+        entries = newEntries;
+        return newEntries;
     }
 
     /**
@@ -212,12 +235,11 @@ public final class ChannelOutboundBuffer {
      * Return the current message to write or {@code null} if nothing was flushed before and so is ready to be written.
      */
     public Object current() {
-        Entry entry = flushedEntry;
-        if (entry == null) {
+        if (flushed == 0) {
             return null;
         }
 
-        return entry.msg;
+        return entries[head].msg;
     }
 
     /**
@@ -225,19 +247,18 @@ public final class ChannelOutboundBuffer {
      * @return {@code 0} if nothing was flushed before for the current message or there is no current message
      */
     public long currentProgress() {
-        Entry entry = flushedEntry;
-        if (entry == null) {
+        if (flushed == 0) {
             return 0;
         }
-        return entry.progress;
+        return entries[head].progress;
     }
 
     /**
      * Notify the {@link ChannelPromise} of the current message about writing progress.
      */
     public void progress(long amount) {
-        Entry e = flushedEntry;
-        assert e != null;
+        assert flushed != 0;
+        Entry e = entries[head];
         ChannelPromise p = e.promise;
         long progress = e.progress + amount;
         e.progress = progress;
@@ -252,28 +273,27 @@ public final class ChannelOutboundBuffer {
      * messages are ready to be handled.
      */
     public boolean remove() {
-        Entry e = flushedEntry;
-        if (e == null) {
+        if (flushed == 0) {
             clearNioBuffers();
             return false;
         }
+        Entry e = entries[head];
         Object msg = e.msg;
 
         ChannelPromise promise = e.promise;
         int size = e.pendingSize;
+        boolean cancelled = e.cancelled;
 
+        // The slot is released before notifying the promise as a listener may add new messages which reuse it.
         removeEntry(e);
 
-        if (!e.cancelled) {
+        if (!cancelled) {
             // only release message, notify and decrement if it was not canceled before.
             ReferenceCountUtil.safeRelease(msg);
             safeSuccess(promise);
             decrementPendingOutboundBytes(size, false, true);
         }
 
-        // recycle the entry
-        e.recycle();
-
         return true;
     }
 
@@ -287,19 +307,20 @@ public final class ChannelOutboundBuffer {
     }
 
     private boolean remove0(Throwable cause, boolean notifyWritability) {
-        Entry e = flushedEntry;
-        if (e == null) {
+        if (flushed == 0) {
             clearNioBuffers();
             return false;
         }
+        Entry e = entries[head];
         Object msg = e.msg;
 
         ChannelPromise promise = e.promise;
         int size = e.pendingSize;
+        boolean cancelled = e.cancelled;
 
         removeEntry(e);
 
-        if (!e.cancelled) {
+        if (!cancelled) {
             // only release message, fail and decrement if it was not canceled before.
             ReferenceCountUtil.safeRelease(msg);
 
@@ -307,22 +328,24 @@ public final class ChannelOutboundBuffer {
             decrementPendingOutboundBytes(size, false, notifyWritability);
         }
 
-        // recycle the entry
-        e.recycle();
-
         return true;
     }
 
     private void removeEntry(Entry e) {
-        if (-- flushed == 0) {
+        e.clear();
+        flushed --;
+        removeHead();
+    }
+
+    private void removeHead() {
+        if (-- count == 0) {
             // processed everything
-            flushedEntry = null;
-            if (e == tailEntry) {
-                tailEntry = null;
-                unflushedEntry = null;
+            head = 0;
+            if (entries.length > MAX_RETAINED_CAPACITY) {
+                entries = new Entry[INITIAL_CAPACITY];
             }
         } else {
-            flushedEntry = e.next;
+            head = (head + 1) & (entries.length - 1);
         }
     }
 
@@ -331,10 +354,11 @@ public final class ChannelOutboundBuffer {
      * This operation assumes all messages in this buffer is {@link ByteBuf}.
      */
     public void removeBytes(long writtenBytes) {
-        for (;;) {
-            Object msg = current();
+        while (flushed != 0) {
+            // Every fully written message only moves the head of the ring, the cached ByteBuffer views of the
+            // remaining entries stay valid for the next nioBuffers(...) call.
+            Object msg = entries[head].msg;
             if (!(msg instanceof ByteBuf)) {
-                assert writtenBytes == 0;
                 break;
             }
 
@@ -352,10 +376,12 @@ public final class ChannelOutboundBuffer {
                 if (writtenBytes != 0) {
                     buf.readerIndex(readerIndex + (int) writtenBytes);
                     progress(writtenBytes);
+                    writtenBytes = 0;
                 }
                 break;
             }
         }
+        assert writtenBytes == 0;
         clearNioBuffers();
     }
 
@@ -404,8 +430,14 @@ public final class ChannelOutboundBuffer {
         int nioBufferCount = 0;
         final InternalThreadLocalMap threadLocalMap = InternalThreadLocalMap.get();
         ByteBuffer[] nioBuffers = NIO_BUFFERS.get(threadLocalMap);
-        Entry entry = flushedEntry;
-        while (isFlushedEntry(entry) && entry.msg instanceof ByteBuf) {
+        final Entry[] entries = this.entries;
+        final int mask = entries.length - 1;
+        final int flushed = this.flushed;
+        for (int i = 0; i < flushed; i ++) {
+            final Entry entry = entries[(head + i) & mask];
+            if (!(entry.msg instanceof ByteBuf)) {
+                break;
+            }
             if (!entry.cancelled) {
                 ByteBuf buf = (ByteBuf) entry.msg;
                 final int readerIndex = buf.readerIndex();
@@ -455,7 +487,6 @@ public final class ChannelOutboundBuffer {
                     }
                 }
             }
-            entry = entry.next;
         }
         this.nioBufferCount = nioBufferCount;
         this.nioBufferSize = nioBufferSize;
@@ -687,17 +718,23 @@ public final class ChannelOutboundBuffer {
 
         // Release all unflushed messages.
         try {
-            Entry e = unflushedEntry;
-            while (e != null) {
+            while (count != 0) {
+                Entry e = entries[head];
+                Object msg = e.msg;
+                ChannelPromise promise = e.promise;
+                boolean cancelled = e.cancelled;
+
                 // Just decrease; do not trigger any events via decrementPendingOutboundBytes()
                 int size = e.pendingSize;
                 TOTAL_PENDING_SIZE_UPDATER.addAndGet(this, -size);
 
-                if (!e.cancelled) {
-                    ReferenceCountUtil.safeRelease(e.msg);
-                    safeFail(e.promise, cause);
+                e.clear();
+                removeHead();
+
+                if (!cancelled) {
+                    ReferenceCountUtil.safeRelease(msg);
+                    safeFail(promise, cause);
                 }
-                e = e.recycleAndGetNext();
             }
         } finally {
             inFail = false;
@@ -770,23 +807,14 @@ public final class ChannelOutboundBuffer {
             throw new NullPointerException("processor");
         }
 
-        Entry entry = flushedEntry;
-        if (entry == null) {
-            return;
-        }
-
-        do {
+        for (int i = 0; i < flushed; i ++) {
+            Entry entry = entry(i);
             if (!entry.cancelled) {
                 if (!processor.processMessage(entry.msg)) {
                     return;
                 }
             }
-            entry = entry.next;
-        } while (isFlushedEntry(entry));
-    }
-
-    private boolean isFlushedEntry(Entry e) {
-        return e != null && e != unflushedEntry;
+        }
     }
 
     public interface MessageProcessor {
@@ -798,15 +826,6 @@ public final class ChannelOutboundBuffer {
     }
 
     static final class Entry {
-        private static final Recycler<Entry> RECYCLER = new Recycler<Entry>() {
-            @Override
-            protected Entry newObject(Handle<Entry> handle) {
-                return new Entry(handle);
-            }
-        };
-
-        private final Handle<Entry> handle;
-        Entry next;
         Object msg;
         ByteBuffer[] bufs;
         ByteBuffer buf;
@@ -817,17 +836,11 @@ public final class ChannelOutboundBuffer {
         int count = -1;
         boolean cancelled;
 
-        private Entry(Handle<Entry> handle) {
-            this.handle = handle;
-        }
-
-        static Entry newInstance(Object msg, int size, long total, ChannelPromise promise) {
-            Entry entry = RECYCLER.get();
-            entry.msg = msg;
-            entry.pendingSize = size + CHANNEL_OUTBOUND_BUFFER_ENTRY_OVERHEAD;
-            entry.total = total;
-            entry.promise = promise;
-            return entry;
+        void init(Object msg, int size, long total, ChannelPromise promise) {
+            this.msg = msg;
+            this.pendingSize = size + CHANNEL_OUTBOUND_BUFFER_ENTRY_OVERHEAD;
+            this.total = total;
+            this.promise = promise;
         }
 
         int cancel() {
@@ -849,8 +862,7 @@ public final class ChannelOutboundBuffer {
             return 0;
         }
 
-        void recycle() {
-            next = null;
+        void clear() {
             bufs = null;
             buf = null;
             msg = null;
@@ -860,13 +872,6 @@ public final class ChannelOutboundBuffer {
             pendingSize = 0;
             count = -1;
             cancelled = false;
-            handle.recycle(this);
-        }
-
-        Entry recycleAndGetNext() {
-            Entry next = this.next;
-            recycle();
-            return next;
         }
     }
 }
@@ -17,6 +17,7 @@ package io.netty.channel;
 
 import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.FutureListener;
+import io.netty.util.internal.UnstableApi;
 
 import java.net.ConnectException;
 import java.net.SocketAddress;
@@ -229,6 +230,22 @@ public interface ChannelOutboundInvoker {
      */
     ChannelFuture writeAndFlush(Object msg);
 
+    /**
+     * Shortcut for call {@link #write(Object, ChannelPromise)} with the {@link #voidPromise()}, so no
+     * {@link ChannelPromise} is created for the write. A failed write is reported via
+     * {@link ChannelPipeline#fireExceptionCaught(Throwable)}.
+     */
+    @UnstableApi
+    void writeVoid(Object msg);
+
+    /**
+     * Shortcut for call {@link #writeAndFlush(Object, ChannelPromise)} with the {@link #voidPromise()}, so no
+     * {@link ChannelPromise} is created for the write. A failed write is reported via
+     * {@link ChannelPipeline#fireExceptionCaught(Throwable)}.
+     */
+    @UnstableApi
+    void writeAndFlushVoid(Object msg);
+
     /**
      * Return a new {@link ChannelPromise}.
      */
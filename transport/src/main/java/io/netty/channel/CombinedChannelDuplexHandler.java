@@ -544,6 +544,16 @@ public class CombinedChannelDuplexHandler<I extends ChannelInboundHandler, O ext
             return ctx.writeAndFlush(msg);
         }
 
+        @Override
+        public void writeVoid(Object msg) {
+            ctx.writeVoid(msg);
+        }
+
+        @Override
+        public void writeAndFlushVoid(Object msg) {
+            ctx.writeAndFlushVoid(msg);
+        }
+
         @Override
         public ChannelPipeline pipeline() {
             return ctx.pipeline();
@@ -99,6 +99,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
 
         head.next = tail;
         tail.prev = head;
+        updateHandlerChains();
     }
 
     final MessageSizeEstimator.Handle estimatorHandle() {
@@ -162,6 +163,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
             newCtx = newContext(group, name, handler);
 
             addFirst0(newCtx);
+            updateHandlerChains();
 
             // If the registered is false it means that the channel was not registered on an eventLoop yet.
             // In this case we add the context to the pipeline and add a task that will call
@@ -204,6 +206,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
             newCtx = newContext(group, filterName(name, handler), handler);
 
             addLast0(newCtx);
+            updateHandlerChains();
 
             // If the registered is false it means that the channel was not registered on an eventLoop yet.
             // In this case we add the context to the pipeline and add a task that will call
@@ -250,6 +253,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
             newCtx = newContext(group, name, handler);
 
             addBefore0(ctx, newCtx);
+            updateHandlerChains();
 
             // If the registered is false it means that the channel was not registered on an eventLoop yet.
             // In this case we add the context to the pipeline and add a task that will call
@@ -304,6 +308,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
             newCtx = newContext(group, name, handler);
 
             addAfter0(ctx, newCtx);
+            updateHandlerChains();
 
             // If the registered is false it means that the channel was not registered on an eventLoop yet.
             // In this case we remove the context from the pipeline and add a task that will call
@@ -490,6 +495,15 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         AbstractChannelHandlerContext next = ctx.next;
         prev.next = next;
         next.prev = prev;
+        updateHandlerChains();
+    }
+
+    /**
+     * Recomputes the precomputed event targets of all contexts. Must be called while holding the lock of the pipeline
+     * once the linked list was changed.
+     */
+    private void updateHandlerChains() {
+        AbstractChannelHandlerContext.updateHandlerChains(head, tail);
     }
 
     @Override
@@ -545,6 +559,10 @@ public class DefaultChannelPipeline implements ChannelPipeline {
             newCtx = newContext(ctx.executor, newName, newHandler);
 
             replace0(ctx, newCtx);
+            updateHandlerChains();
+            // Let the events that are forwarded by the replaced handler reach the new one, like replace0 does for
+            // the linked list.
+            ctx.forwardHandlerChainsTo(newCtx);
 
             // If the registered is false it means that the channel was not registered on an eventloop yet.
             // In this case we replace the context in the pipeline
@@ -1037,6 +1055,16 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         return tail.writeAndFlush(msg);
     }
 
+    @Override
+    public final void writeVoid(Object msg) {
+        tail.writeVoid(msg);
+    }
+
+    @Override
+    public final void writeAndFlushVoid(Object msg) {
+        tail.writeAndFlushVoid(msg);
+    }
+
     @Override
     public final ChannelPromise newPromise() {
         return new DefaultChannelPromise(channel);
@@ -21,10 +21,15 @@ import io.netty.util.concurrent.SingleThreadEventExecutor;
 import io.netty.util.internal.ObjectUtil;
 import io.netty.util.internal.SystemPropertyUtil;
 import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Abstract base class for {@link EventLoop}s that execute all its submitted tasks in a single thread.
@@ -35,8 +40,17 @@ public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor im
     protected static final int DEFAULT_MAX_PENDING_TASKS = Math.max(16,
             SystemPropertyUtil.getInt("io.netty.eventLoop.maxPendingTasks", Integer.MAX_VALUE));
 
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(SingleThreadEventLoop.class);
+
     private final Queue<Runnable> tailTasks;
 
+    // Channels whose flush was deferred to the end of the current iteration. Only accessed by the event loop thread.
+    private final List<AbstractChannel.AbstractUnsafe> deferredFlushes =
+            new ArrayList<AbstractChannel.AbstractUnsafe>();
+    private long firstDeferredFlushTime;
+    private boolean inFlushDeferred;
+    private volatile long maxFlushDelayNanos;
+
     protected SingleThreadEventLoop(EventLoopGroup parent, ThreadFactory threadFactory, boolean addTaskWakesUp) {
         this(parent, threadFactory, addTaskWakesUp, DEFAULT_MAX_PENDING_TASKS, RejectedExecutionHandlers.reject());
     }
@@ -138,6 +152,81 @@ public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor im
     @Override
     protected void afterRunningAllTasks() {
         runAllTasksFrom(tailTasks);
+        if (!deferredFlushes.isEmpty()) {
+            flushDeferred();
+        }
+    }
+
+    /**
+     * Sets the maximum amount of time a flush may be deferred. If greater than {@code 0} a flush of a
+     * {@link Channel} that is registered to this event loop only marks the channel and the actual write is done once
+     * per channel at the end of the current event loop iteration, so several flushes issued while handling the same
+     * batch of events (for example pipelined requests) result in one write. A flush is done right away once the
+     * oldest deferred flush waited longer than the given time. {@code 0} disables this, which is the default.
+     * <p>
+     * Sub-classes must only expose this if they call {@link #runAllTasks()} or {@link #runAllTasks(long)} on every
+     * iteration, as the deferred flushes are done from {@link #afterRunningAllTasks()}.
+     */
+    @UnstableApi
+    protected void setMaxFlushDelay(long maxDelay, TimeUnit unit) {
+        ObjectUtil.checkPositiveOrZero(maxDelay, "maxDelay");
+        maxFlushDelayNanos = ObjectUtil.checkNotNull(unit, "unit").toNanos(maxDelay);
+    }
+
+    /**
+     * Returns the maximum amount of time in nanoseconds a flush may be deferred or {@code 0} if flushes are done
+     * right away.
+     *
+     * @see #setMaxFlushDelay(long, TimeUnit)
+     */
+    @UnstableApi
+    public long maxFlushDelayNanos() {
+        return maxFlushDelayNanos;
+    }
+
+    /**
+     * Called by {@link AbstractChannel.AbstractUnsafe#flush()} once the messages were marked as flushed. Returns
+     * {@code true} if the write was deferred and so must not be done by the caller.
+     */
+    final boolean deferFlush(AbstractChannel.AbstractUnsafe unsafe) {
+        final long maxDelay = maxFlushDelayNanos;
+        if (maxDelay == 0 || !inEventLoop()) {
+            return false;
+        }
+        if (!unsafe.flushDeferred) {
+            unsafe.flushDeferred = true;
+            if (deferredFlushes.isEmpty()) {
+                firstDeferredFlushTime = nanoTime();
+                deferredFlushes.add(unsafe);
+                return true;
+            }
+            deferredFlushes.add(unsafe);
+        }
+        if (!inFlushDeferred && nanoTime() - firstDeferredFlushTime >= maxDelay) {
+            // Took too long to reach the end of the iteration, so do not hold back the writes any longer.
+            flushDeferred();
+        }
+        return true;
+    }
+
+    private void flushDeferred() {
+        final List<AbstractChannel.AbstractUnsafe> deferred = deferredFlushes;
+        inFlushDeferred = true;
+        try {
+            // Listeners that are notified during a write may flush other channels, which are appended to the list
+            // and so written as part of this loop.
+            for (int i = 0; i < deferred.size(); i++) {
+                AbstractChannel.AbstractUnsafe unsafe = deferred.get(i);
+                try {
+                    unsafe.flushDeferred(this);
+                } catch (Throwable t) {
+                    logger.warn("An exception was thrown by a deferred flush.", t);
+                }
+            }
+        } finally {
+            deferred.clear();
+            inFlushDeferred = false;
+        }
     }
 
     @Override
@@ -24,6 +24,7 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.DefaultChannelConfig;
 import io.netty.channel.EventLoop;
+import io.netty.channel.MaxMessagesRecvByteBufAllocator;
 import io.netty.channel.PreferHeapByteBufAllocator;
 import io.netty.channel.RecvByteBufAllocator;
 import io.netty.channel.SingleThreadEventLoop;
@@ -42,6 +43,7 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ConnectionPendingException;
 import java.nio.channels.NotYetConnectedException;
 import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
@@ -52,14 +54,17 @@ public class LocalChannel extends AbstractChannel {
     @SuppressWarnings({ "rawtypes" })
     private static final AtomicReferenceFieldUpdater<LocalChannel, Future> FINISH_READ_FUTURE_UPDATER =
             AtomicReferenceFieldUpdater.newUpdater(LocalChannel.class, Future.class, "finishReadFuture");
-    private static final ChannelMetadata METADATA = new ChannelMetadata(false);
+    private static final AtomicIntegerFieldUpdater<LocalChannel> PEER_READ_SCHEDULED_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(LocalChannel.class, "peerReadScheduled");
+    private static final ChannelMetadata METADATA = new ChannelMetadata(false, 16);
     private static final int MAX_READER_STACK_DEPTH = 8;
+    private static final int INBOUND_BUFFER_CHUNK_SIZE = 64;
 
     private enum State { OPEN, BOUND, CONNECTED, CLOSED }
 
     private final ChannelConfig config = new DefaultChannelConfig(this);
-    // To further optimize this we could write our own SPSC queue.
-    final Queue<Object> inboundBuffer = PlatformDependent.newSpscQueue();
+    // Messages are stored in chunks so a write does not allocate a queue node per message.
+    final Queue<Object> inboundBuffer = PlatformDependent.newSpscQueue(INBOUND_BUFFER_CHUNK_SIZE);
     private final Runnable readTask = new Runnable() {
         @Override
         public void run() {
@@ -85,6 +90,9 @@ public class LocalChannel extends AbstractChannel {
     private volatile boolean readInProgress;
     private volatile boolean writeInProgress;
     private volatile Future<?> finishReadFuture;
+    // Set while a FinishPeerReadTask of this channel is pending on the EventLoop of the peer.
+    private volatile int peerReadScheduled;
+    private FinishPeerReadTask finishPeerReadTask;
 
     public LocalChannel() {
         super(null);
@@ -291,17 +299,29 @@ public class LocalChannel extends AbstractChannel {
         RecvByteBufAllocator.Handle handle = unsafe().recvBufAllocHandle();
         handle.reset(config());
         ChannelPipeline pipeline = pipeline();
+        // Handle.continueReading() stops once no bytes were read, which is always the case for local messages. So
+        // only the number of messages is taken into account, everything that is queued is delivered in batches of
+        // maxMessagesPerRead with a single channelReadComplete() each.
+        final int maxMessagesPerRead = maxMessagesPerRead();
+        int messages = 0;
         do {
             Object received = inboundBuffer.poll();
             if (received == null) {
                 break;
             }
+            handle.incMessagesRead(1);
             pipeline.fireChannelRead(received);
-        } while (handle.continueReading());
+        } while (++messages < maxMessagesPerRead && config.isAutoRead());
 
         pipeline.fireChannelReadComplete();
     }
 
+    private int maxMessagesPerRead() {
+        RecvByteBufAllocator allocator = config.getRecvByteBufAllocator();
+        return allocator instanceof MaxMessagesRecvByteBufAllocator ?
+                ((MaxMessagesRecvByteBufAllocator) allocator).maxMessagesPerRead() : 1;
+    }
+
     @Override
     protected void doBeginRead() throws Exception {
         if (readInProgress) {
@@ -395,19 +415,30 @@ public class LocalChannel extends AbstractChannel {
     }
 
     private void runFinishPeerReadTask(final LocalChannel peer) {
-        // If the peer is writing, we must wait until after reads are completed for that peer before we can read. So
-        // we keep track of the task, and coordinate later that our read can't happen until the peer is done.
-        final Runnable finishPeerReadTask = new Runnable() {
-            @Override
-            public void run() {
-                finishPeerRead0(peer);
-            }
-        };
         try {
             if (peer.writeInProgress) {
-                peer.finishReadFuture = peer.eventLoop().submit(finishPeerReadTask);
-            } else {
-                peer.eventLoop().execute(finishPeerReadTask);
+                // If the peer is writing, we must wait until after reads are completed for that peer before we can
+                // read. So we keep track of the task, and coordinate later that our read can't happen until the peer
+                // is done.
+                peer.finishReadFuture = peer.eventLoop().submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        finishPeerRead0(peer);
+                    }
+                });
+            } else if (PEER_READ_SCHEDULED_UPDATER.compareAndSet(this, 0, 1)) {
+                // Only one task is pending at a time, it reads everything that was written until it runs. This way
+                // the peer reads in batches instead of being woken up for every flush.
+                FinishPeerReadTask task = finishPeerReadTask;
+                if (task == null || task.peer != peer) {
+                    finishPeerReadTask = task = new FinishPeerReadTask(peer);
+                }
+                try {
+                    peer.eventLoop().execute(task);
+                } catch (Throwable cause) {
+                    peerReadScheduled = 0;
+                    throw cause;
+                }
             }
         } catch (Throwable cause) {
             logger.warn("Closing Local channels {}-{} because exception occurred!", this, peer, cause);
@@ -446,6 +477,21 @@ public class LocalChannel extends AbstractChannel {
         }
     }
 
+    private final class FinishPeerReadTask implements Runnable {
+        final LocalChannel peer;
+
+        FinishPeerReadTask(LocalChannel peer) {
+            this.peer = peer;
+        }
+
+        @Override
+        public void run() {
+            // Reset before reading so everything written from now on either is read below or schedules a new task.
+            peerReadScheduled = 0;
+            finishPeerRead0(peer);
+        }
+    }
+
     private class LocalUnsafe extends AbstractUnsafe {
 
         @Override
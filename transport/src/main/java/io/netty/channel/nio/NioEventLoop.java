@@ -27,6 +27,7 @@ import io.netty.util.concurrent.RejectedExecutionHandler;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.ReflectionUtil;
 import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.UnstableApi;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
@@ -357,6 +358,18 @@ public final class NioEventLoop extends SingleThreadEventLoop {
         this.ioRatio = ioRatio;
     }
 
+    /**
+     * Sets the maximum amount of time a flush may be deferred. If greater than {@code 0} a flush only marks the
+     * {@link Channel} and the write is done once per channel at the end of the current event loop iteration, so the
+     * responses to pipelined requests that are handled in the same iteration are written together. {@code 0}
+     * disables this, which is the default.
+     */
+    @UnstableApi
+    @Override
+    public void setMaxFlushDelay(long maxDelay, TimeUnit unit) {
+        super.setMaxFlushDelay(maxDelay, unit);
+    }
+
     /**
      * Replaces the current {@link Selector} of this event loop with newly created {@link Selector}s to work
      * around the infamous epoll 100% CPU bug.
@@ -454,7 +467,14 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                         // fall-through to SELECT since the busy-wait is not supported with NIO
 
                     case SelectStrategy.SELECT:
-                        select(wakenUp.getAndSet(false));
+                        markLoopIdle();
+                        if (metric() != null) {
+                            final long selectStartTime = System.nanoTime();
+                            select(wakenUp.getAndSet(false));
+                            recordIoWaitTime(System.nanoTime() - selectStartTime);
+                        } else {
+                            select(wakenUp.getAndSet(false));
+                        }
 
                         // 'wakenUp.compareAndSet(false, true)' is always evaluated
                         // before calling 'selector.wakeup()' to reduce the wake-up
@@ -498,13 +518,18 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                     continue;
                 }
 
+                markLoopIterationStart();
                 cancelledKeys = 0;
                 needsToSelectAgain = false;
                 final int ioRatio = this.ioRatio;
                 if (ioRatio == 100) {
+                    final long ioStartTime = metric() != null ? System.nanoTime() : 0;
                     try {
                         processSelectedKeys();
                     } finally {
+                        if (ioStartTime != 0) {
+                            recordIoProcessingTime(System.nanoTime() - ioStartTime);
+                        }
                         // Ensure we always run tasks.
                         runAllTasks();
                     }
@@ -515,6 +540,7 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                     } finally {
                         // Ensure we always run tasks.
                         final long ioTime = System.nanoTime() - ioStartTime;
+                        recordIoProcessingTime(ioTime);
                         runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
                     }
                 }
@@ -761,6 +787,7 @@ public final class NioEventLoop extends SingleThreadEventLoop {
     protected void wakeup(boolean inEventLoop) {
         if (!inEventLoop && wakenUp.compareAndSet(false, true)) {
             selector.wakeup();
+            recordWakeup();
         }
     }
 
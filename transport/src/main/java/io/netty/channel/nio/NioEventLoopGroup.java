@@ -25,11 +25,13 @@ import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.EventExecutorChooserFactory;
 import io.netty.util.concurrent.RejectedExecutionHandler;
 import io.netty.util.concurrent.RejectedExecutionHandlers;
+import io.netty.util.internal.UnstableApi;
 
 import java.nio.channels.Selector;
 import java.nio.channels.spi.SelectorProvider;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * {@link MultithreadEventLoopGroup} implementations which is used for NIO {@link Selector} based {@link Channel}s.
@@ -124,6 +126,18 @@ public class NioEventLoopGroup extends MultithreadEventLoopGroup {
         }
     }
 
+    /**
+     * Sets the maximum amount of time a flush may be deferred in the child event loops.
+     *
+     * @see NioEventLoop#setMaxFlushDelay(long, TimeUnit)
+     */
+    @UnstableApi
+    public void setMaxFlushDelay(long maxDelay, TimeUnit unit) {
+        for (EventExecutor e: this) {
+            ((NioEventLoop) e).setMaxFlushDelay(maxDelay, unit);
+        }
+    }
+
     /**
      * Replaces the current {@link Selector}s of the child event loops with newly created {@link Selector}s to work
      * around the  infamous epoll 100% CPU bug.
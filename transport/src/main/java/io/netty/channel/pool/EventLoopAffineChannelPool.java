@@ -0,0 +1,242 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.pool;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.internal.ThreadExecutorMap;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+
+/**
+ * {@link ChannelPool} implementation which keeps a {@link SimpleChannelPool} per {@link EventLoop} of the
+ * {@link EventLoopGroup} of the {@link Bootstrap}. This avoids the thread hops of a single shared pool when the
+ * {@link Channel}s are acquired by handlers that run on the same {@link EventLoopGroup}, like in a proxy.
+ * <p>
+ * A {@link Channel} is acquired from the pool of the {@link EventLoop} the caller runs on, and new {@link Channel}s
+ * are connected on that {@link EventLoop}. Callers that do not run on one of the {@link EventLoop}s of the group
+ * are spread over the pools via {@link EventLoopGroup#next()}. If stealing is enabled and the pool of the caller has
+ * no idle {@link Channel}, an idle {@link Channel} of another {@link EventLoop} is used before a new one is
+ * connected. Released {@link Channel}s always go back to the pool of the {@link EventLoop} they are registered to.
+ * <p>
+ * As it implements {@link ChannelPool} it can be used as the pool of an {@link AbstractChannelPoolMap}.
+ */
+@UnstableApi
+public class EventLoopAffineChannelPool implements ChannelPool {
+    private static final AttributeKey<Shard> SHARD_KEY =
+            AttributeKey.valueOf(EventLoopAffineChannelPool.class, "shard");
+
+    private final EventLoopGroup group;
+    private final Shard[] shards;
+    // Only read after the constructor, so no synchronization is needed.
+    private final Map<EventExecutor, Shard> shardsByLoop = new IdentityHashMap<EventExecutor, Shard>();
+    private final boolean stealing;
+
+    /**
+     * Creates a new instance using the {@link ChannelHealthChecker#ACTIVE} which steals idle {@link Channel}s from
+     * other {@link EventLoop}s.
+     *
+     * @param bootstrap         the {@link Bootstrap} that is used for connections
+     * @param handler           the {@link ChannelPoolHandler} that will be notified for the different pool actions
+     */
+    public EventLoopAffineChannelPool(Bootstrap bootstrap, ChannelPoolHandler handler) {
+        this(bootstrap, handler, ChannelHealthChecker.ACTIVE, true, true);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param bootstrap          the {@link Bootstrap} that is used for connections
+     * @param handler            the {@link ChannelPoolHandler} that will be notified for the different pool actions
+     * @param healthCheck        the {@link ChannelHealthChecker} that will be used to check if a {@link Channel} is
+     *                           still healthy when obtain from the {@link ChannelPool}
+     * @param releaseHealthCheck will check channel health before offering back if this parameter set to {@code true};
+     *                           otherwise, channel health is only checked at acquisition time
+     * @param stealing           {@code true} if idle {@link Channel}s of other {@link EventLoop}s should be used
+     *                           before a new {@link Channel} is connected
+     */
+    public EventLoopAffineChannelPool(Bootstrap bootstrap, ChannelPoolHandler handler,
+                                      ChannelHealthChecker healthCheck, boolean releaseHealthCheck,
+                                      boolean stealing) {
+        checkNotNull(bootstrap, "bootstrap");
+        checkNotNull(handler, "handler");
+        checkNotNull(healthCheck, "healthCheck");
+        group = checkNotNull(bootstrap.config().group(), "bootstrap.config().group()");
+        this.stealing = stealing;
+
+        List<Shard> shards = new ArrayList<Shard>();
+        for (EventExecutor executor : group) {
+            EventLoop loop = (EventLoop) executor;
+            Shard shard = new Shard(shards.size(), loop, bootstrap.clone(loop), new ShardHandler(handler),
+                    healthCheck, releaseHealthCheck);
+            shards.add(shard);
+            shardsByLoop.put(loop, shard);
+        }
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("bootstrap.config().group() has no EventLoops");
+        }
+        this.shards = shards.toArray(new Shard[0]);
+    }
+
+    @Override
+    public final Future<Channel> acquire() {
+        Shard shard = currentShard();
+        return shard.acquire(shard.loop.<Channel>newPromise());
+    }
+
+    @Override
+    public Future<Channel> acquire(Promise<Channel> promise) {
+        checkNotNull(promise, "promise");
+        return currentShard().acquire(promise);
+    }
+
+    @Override
+    public final Future<Void> release(Channel channel) {
+        return release(channel, channel.eventLoop().<Void>newPromise());
+    }
+
+    @Override
+    public Future<Void> release(Channel channel, Promise<Void> promise) {
+        checkNotNull(channel, "channel");
+        checkNotNull(promise, "promise");
+        Shard shard = channel.attr(SHARD_KEY).get();
+        if (shard == null || shard.pool() != this) {
+            channel.close();
+            promise.tryFailure(new IllegalArgumentException(
+                    "Channel " + channel + " was not acquired from this ChannelPool"));
+            return promise;
+        }
+        // The shard that acquired the Channel has to release it, offerChannel(...) hands it to the shard of its
+        // EventLoop.
+        return shard.release(channel, promise);
+    }
+
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.close();
+        }
+    }
+
+    private Shard currentShard() {
+        EventExecutor current = ThreadExecutorMap.currentExecutor();
+        if (current != null) {
+            Shard shard = shardsByLoop.get(current);
+            if (shard != null) {
+                return shard;
+            }
+        }
+        return shardsByLoop.get(group.next());
+    }
+
+    private Shard shardOf(Channel channel) {
+        return shardsByLoop.get(channel.eventLoop());
+    }
+
+    private final class Shard extends SimpleChannelPool {
+        final int index;
+        final EventLoop loop;
+
+        Shard(int index, EventLoop loop, Bootstrap bootstrap, ShardHandler handler,
+              ChannelHealthChecker healthCheck, boolean releaseHealthCheck) {
+            super(bootstrap, handler, healthCheck, releaseHealthCheck, true);
+            this.index = index;
+            this.loop = loop;
+            handler.shard = this;
+        }
+
+        @Override
+        public Future<Void> release(Channel channel, Promise<Void> promise) {
+            // Also called by SimpleChannelPool itself if an acquire was cancelled.
+            channel.attr(SHARD_KEY).compareAndSet(this, null);
+            return super.release(channel, promise);
+        }
+
+        @Override
+        protected Channel pollChannel() {
+            Channel ch = poll0();
+            if (ch == null && stealing) {
+                for (int i = 1; i < shards.length; i++) {
+                    ch = shards[(index + i) % shards.length].poll0();
+                    if (ch != null) {
+                        break;
+                    }
+                }
+            }
+            return ch;
+        }
+
+        @Override
+        protected boolean offerChannel(Channel channel) {
+            Shard owner = shardOf(channel);
+            return owner == null ? offer0(channel) : owner.offer0(channel);
+        }
+
+        EventLoopAffineChannelPool pool() {
+            return EventLoopAffineChannelPool.this;
+        }
+
+        Channel poll0() {
+            return super.pollChannel();
+        }
+
+        boolean offer0(Channel channel) {
+            return super.offerChannel(channel);
+        }
+    }
+
+    /**
+     * Remembers which {@link Shard} acquired a {@link Channel}, as a stolen {@link Channel} is registered to the
+     * {@link EventLoop} of another {@link Shard}.
+     */
+    private final class ShardHandler implements ChannelPoolHandler {
+        private final ChannelPoolHandler handler;
+        Shard shard;
+
+        ShardHandler(ChannelPoolHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void channelReleased(Channel ch) throws Exception {
+            handler.channelReleased(ch);
+        }
+
+        @Override
+        public void channelAcquired(Channel ch) throws Exception {
+            // Called before the acquire promise is notified, so the Channel can be released right away.
+            ch.attr(SHARD_KEY).set(shard);
+            handler.channelAcquired(ch);
+        }
+
+        @Override
+        public void channelCreated(Channel ch) throws Exception {
+            handler.channelCreated(ch);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package io.netty.bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
@@ -33,7 +34,9 @@ import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class ServerBootstrapTest {
@@ -137,4 +140,67 @@ public class ServerBootstrapTest {
             group.shutdownGracefully();
         }
     }
+
+    @Test(timeout = 5000)
+    public void testShardedBindServesOnAcceptingLoop() throws Exception {
+        EventLoopGroup group = new DefaultEventLoopGroup(1);
+        LocalAddress addr = new LocalAddress(UUID.randomUUID().toString());
+        final AtomicReference<Channel> child = new AtomicReference<Channel>();
+        final CountDownLatch childLatch = new CountDownLatch(1);
+        Channel sch = null;
+        Channel cch = null;
+        try {
+            ServerBootstrap sb = new ServerBootstrap();
+            sb.channel(LocalServerChannel.class)
+                    .group(group)
+                    .sharded(true)
+                    .childHandler(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void handlerAdded(ChannelHandlerContext ctx) {
+                            child.set(ctx.channel());
+                            childLatch.countDown();
+                        }
+                    });
+            assertTrue(sb.config().isSharded());
+
+            Bootstrap cb = new Bootstrap();
+            cb.group(group)
+                    .channel(LocalChannel.class)
+                    .handler(new ChannelInboundHandlerAdapter());
+
+            sch = sb.bind(addr).syncUninterruptibly().channel();
+            cch = cb.connect(addr).syncUninterruptibly().channel();
+
+            childLatch.await();
+            assertSame(sch.eventLoop(), child.get().eventLoop());
+        } finally {
+            if (sch != null) {
+                sch.close().syncUninterruptibly();
+            }
+            if (cch != null) {
+                cch.close().syncUninterruptibly();
+            }
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testShardedBindClosesAllShardsOnFailure() throws Exception {
+        EventLoopGroup group = new DefaultEventLoopGroup(2);
+        LocalAddress addr = new LocalAddress(UUID.randomUUID().toString());
+        try {
+            ServerBootstrap sb = new ServerBootstrap();
+            sb.channel(LocalServerChannel.class)
+                    .group(group)
+                    .sharded(true)
+                    .childHandler(new ChannelInboundHandlerAdapter());
+
+            // The local transport can not bind two channels to the same address.
+            ChannelFuture future = sb.bind(addr).awaitUninterruptibly();
+            assertFalse(future.isSuccess());
+            future.channel().closeFuture().syncUninterruptibly();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
 }
@@ -20,6 +20,7 @@ import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.util.CharsetUtil;
 import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.ImmediateEventExecutor;
 import io.netty.util.concurrent.RejectedExecutionHandlers;
 import io.netty.util.concurrent.SingleThreadEventExecutor;
 import org.junit.Test;
@@ -124,6 +125,51 @@ public class ChannelOutboundBufferTest {
         buf.release();
     }
 
+    @Test
+    public void testRemoveBytesWrapsAndGrows() {
+        TestChannel channel = new TestChannel();
+        ChannelOutboundBuffer buffer = new ChannelOutboundBuffer(channel);
+
+        // Move the head of the ring away from the first slot.
+        ChannelPromise[] promises = new ChannelPromise[3];
+        for (int i = 0; i < promises.length; i++) {
+            promises[i] = new DefaultChannelPromise(channel, ImmediateEventExecutor.INSTANCE);
+            buffer.addMessage(directBuffer().writeBytes(new byte[4]), 4, promises[i]);
+        }
+        buffer.addFlush();
+        buffer.removeBytes(6);
+        assertTrue(promises[0].isSuccess());
+        assertFalse(promises[1].isDone());
+        assertEquals(2, buffer.size());
+        assertEquals(2, ((ByteBuf) buffer.current()).readableBytes());
+
+        // Wrap around and grow the ring while flushed and unflushed messages are mixed.
+        ByteBuf unflushed = directBuffer().writeBytes(new byte[4]);
+        for (int i = 0; i < 16; i++) {
+            buffer.addMessage(directBuffer().writeBytes(new byte[4]), 4, channel.voidPromise());
+        }
+        buffer.addFlush();
+        buffer.addMessage(unflushed, 4, channel.voidPromise());
+        assertEquals(18, buffer.size());
+
+        buffer.nioBuffers();
+        assertEquals(18, buffer.nioBufferCount());
+        assertEquals(2 + 17 * 4, buffer.nioBufferSize());
+
+        buffer.removeBytes(2 + 17 * 4);
+        assertTrue(promises[1].isSuccess());
+        assertTrue(promises[2].isSuccess());
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.current());
+
+        // The unflushed message is still pending.
+        assertEquals(1, unflushed.refCnt());
+        buffer.addFlush();
+        assertSame(unflushed, buffer.current());
+        release(buffer);
+        assertEquals(0, unflushed.refCnt());
+    }
+
     private static void release(ChannelOutboundBuffer buffer) {
         for (;;) {
             if (!buffer.remove()) {
@@ -49,6 +49,7 @@ import org.junit.Test;
 import java.net.SocketAddress;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -1761,6 +1762,72 @@ public class DefaultChannelPipelineTest {
         doneLatch.await();
     }
 
+    @Test
+    public void testEventsFollowPipelineModifications() {
+        List<String> events = new ArrayList<String>();
+        EmbeddedChannel channel = new EmbeddedChannel();
+        ChannelPipeline pipeline = channel.pipeline();
+        pipeline.addLast("in1", new RecordingInboundHandler("in1", events));
+        pipeline.addLast("out1", new RecordingOutboundHandler("out1", events));
+        pipeline.addLast("in2", new RecordingInboundHandler("in2", events));
+
+        assertEvents(channel, events, "in1", "in2", "out1");
+
+        pipeline.addAfter("in1", "out2", new RecordingOutboundHandler("out2", events));
+        pipeline.addFirst("in0", new RecordingInboundHandler("in0", events));
+        assertEvents(channel, events, "in0", "in1", "in2", "out1", "out2");
+
+        pipeline.remove("in1");
+        pipeline.replace("out1", "out3", new RecordingOutboundHandler("out3", events));
+        assertEvents(channel, events, "in0", "in2", "out3", "out2");
+
+        pipeline.remove("out2");
+        pipeline.remove("out3");
+        assertEvents(channel, events, "in0", "in2");
+        assertFalse(channel.finish());
+    }
+
+    private static void assertEvents(EmbeddedChannel channel, List<String> events, String... expected) {
+        events.clear();
+        assertTrue(channel.writeInbound("msg"));
+        assertEquals("msg", channel.readInbound());
+        assertTrue(channel.writeOutbound("msg"));
+        assertEquals("msg", channel.readOutbound());
+        assertEquals(Arrays.asList(expected), events);
+    }
+
+    private static final class RecordingInboundHandler extends ChannelInboundHandlerAdapter {
+        private final String name;
+        private final List<String> events;
+
+        RecordingInboundHandler(String name, List<String> events) {
+            this.name = name;
+            this.events = events;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            events.add(name);
+            ctx.fireChannelRead(msg);
+        }
+    }
+
+    private static final class RecordingOutboundHandler extends ChannelOutboundHandlerAdapter {
+        private final String name;
+        private final List<String> events;
+
+        RecordingOutboundHandler(String name, List<String> events) {
+            this.name = name;
+            this.events = events;
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            events.add(name);
+            ctx.write(msg, promise);
+        }
+    }
+
     private static final class TestTask implements Runnable {
 
         private final ChannelPipeline pipeline;
@@ -281,6 +281,46 @@ public class EmbeddedChannelTest {
         assertNull(handler.pollEvent());
     }
 
+    @Test
+    public void testWriteVoid() {
+        final AtomicInteger voidPromises = new AtomicInteger();
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                if (promise.isVoid()) {
+                    voidPromises.incrementAndGet();
+                }
+                ctx.write(msg, promise);
+            }
+        });
+        channel.writeVoid(1);
+        assertNull(channel.readOutbound());
+        channel.writeAndFlushVoid(2);
+        assertEquals(1, channel.<Integer>readOutbound().intValue());
+        assertEquals(2, channel.<Integer>readOutbound().intValue());
+        assertEquals(2, voidPromises.get());
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testWriteVoidFailureIsFiredAsException() {
+        final IllegalStateException cause = new IllegalStateException();
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                promise.setFailure(cause);
+            }
+        });
+        channel.writeAndFlushVoid(1);
+        try {
+            channel.checkException();
+            fail();
+        } catch (IllegalStateException e) {
+            assertSame(cause, e);
+        }
+        assertFalse(channel.finish());
+    }
+
     @Test
     public void testHasNoDisconnect() {
         EventOutboundHandler handler = new EventOutboundHandler();
@@ -1023,6 +1023,82 @@ public class LocalChannelTest {
         }
     }
 
+    @Test(timeout = 5000)
+    public void testFlushesFromOtherLoopScheduleSingleRead() throws Exception {
+        final int messages = 100;
+        final CountDownLatch received = new CountDownLatch(messages);
+        final AtomicReference<Channel> accepted = new AtomicReference<Channel>();
+        final CountDownLatch acceptedLatch = new CountDownLatch(1);
+        // Use dedicated groups so no task of another test is pending on the loops.
+        EventLoopGroup clientGroup = new DefaultEventLoopGroup(1);
+        EventLoopGroup serverGroup = new DefaultEventLoopGroup(1);
+        Bootstrap cb = new Bootstrap();
+        ServerBootstrap sb = new ServerBootstrap();
+
+        cb.group(clientGroup)
+                .channel(LocalChannel.class)
+                .handler(new TestHandler());
+        sb.group(serverGroup)
+                .channel(LocalServerChannel.class)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    private int expected;
+
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) {
+                        accepted.set(ctx.channel());
+                        acceptedLatch.countDown();
+                    }
+
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        assertEquals(expected++, msg);
+                        received.countDown();
+                    }
+                });
+
+        Channel sc = null;
+        Channel cc = null;
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch unblock = new CountDownLatch(1);
+        try {
+            sc = sb.bind(TEST_ADDRESS).sync().channel();
+            cc = cb.connect(sc.localAddress()).sync().channel();
+            acceptedLatch.await();
+
+            SingleThreadEventLoop serverLoop = (SingleThreadEventLoop) accepted.get().eventLoop();
+            assertFalse(serverLoop == cc.eventLoop());
+            // Keep the loop of the peer busy while the flushes happen.
+            serverLoop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    blocked.countDown();
+                    try {
+                        unblock.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            blocked.await();
+            ChannelFuture future = null;
+            for (int i = 0; i < messages; i++) {
+                future = cc.writeAndFlush(i);
+            }
+            future.sync();
+
+            // All flushes share one pending read of the peer.
+            assertEquals(1, serverLoop.pendingTasks());
+            unblock.countDown();
+            received.await();
+        } finally {
+            unblock.countDown();
+            closeChannel(cc);
+            closeChannel(sc);
+            clientGroup.shutdownGracefully(0, 0, SECONDS).await();
+            serverGroup.shutdownGracefully(0, 0, SECONDS).await();
+        }
+    }
+
     @Test(timeout = 5000)
     public void testMaxMessagesPerReadRespectedWithAutoReadSharedGroup() throws Exception {
         testMaxMessagesPerReadRespected(sharedGroup, sharedGroup, true);
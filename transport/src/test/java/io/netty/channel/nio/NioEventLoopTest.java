@@ -15,8 +15,13 @@
  */
 package io.netty.channel.nio;
 
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.AbstractEventLoopTest;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.DefaultSelectStrategyFactory;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
@@ -25,7 +30,9 @@ import io.netty.channel.SelectStrategy;
 import io.netty.channel.SelectStrategyFactory;
 import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.IntSupplier;
+import io.netty.util.NetUtil;
 import io.netty.util.concurrent.DefaultEventExecutorChooserFactory;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.concurrent.Future;
@@ -42,6 +49,7 @@ import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.nio.channels.spi.SelectorProvider;
 import java.util.Queue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
@@ -320,4 +328,51 @@ public class NioEventLoopTest extends AbstractEventLoopTest {
         }
     }
 
+    @Test(timeout = 10000)
+    public void testFlushDeferredToEndOfIteration() throws Exception {
+        testDeferredFlush(10, TimeUnit.SECONDS, false);
+    }
+
+    @Test(timeout = 10000)
+    public void testDeferredFlushLatencyCap() throws Exception {
+        testDeferredFlush(1, TimeUnit.NANOSECONDS, true);
+    }
+
+    private static void testDeferredFlush(long maxDelay, TimeUnit unit, boolean writtenInTask) throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        group.setMaxFlushDelay(maxDelay, unit);
+        Channel server = null;
+        Channel client = null;
+        try {
+            server = new ServerBootstrap().group(group).channel(NioServerSocketChannel.class)
+                    .childHandler(new ChannelInboundHandlerAdapter())
+                    .bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+            client = new Bootstrap().group(group).channel(NioSocketChannel.class)
+                    .handler(new ChannelInboundHandlerAdapter())
+                    .connect(server.localAddress()).sync().channel();
+
+            final Channel ch = client;
+            final ChannelFuture[] futures = new ChannelFuture[2];
+            boolean firstDone = ch.eventLoop().submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    futures[0] = ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[] { 1 }));
+                    futures[1] = ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[] { 2 }));
+                    return futures[0].isDone();
+                }
+            }).sync().getNow();
+
+            assertEquals(writtenInTask, firstDone);
+            futures[0].sync();
+            futures[1].sync();
+        } finally {
+            if (client != null) {
+                client.close().sync();
+            }
+            if (server != null) {
+                server.close().sync();
+            }
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
 }
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.pool;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class EventLoopAffineChannelPoolTest {
+    private static final LocalAddress ADDR = new LocalAddress("EventLoopAffineChannelPoolTest");
+
+    private EventLoopGroup serverGroup;
+    private EventLoopGroup group;
+    private EventLoop loop1;
+    private EventLoop loop2;
+    private Channel serverChannel;
+    private Bootstrap bootstrap;
+
+    @Before
+    public void setUp() throws Exception {
+        serverGroup = new DefaultEventLoopGroup(1);
+        group = new DefaultEventLoopGroup(2);
+        Iterator<?> loops = group.iterator();
+        loop1 = (EventLoop) loops.next();
+        loop2 = (EventLoop) loops.next();
+        serverChannel = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(LocalServerChannel.class)
+                .childHandler(new ChannelInitializer<LocalChannel>() {
+                    @Override
+                    public void initChannel(LocalChannel ch) {
+                        ch.pipeline().addLast(new ChannelInboundHandlerAdapter());
+                    }
+                })
+                .bind(ADDR).sync().channel();
+        bootstrap = new Bootstrap()
+                .group(group)
+                .channel(LocalChannel.class)
+                .remoteAddress(ADDR);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        serverChannel.close().sync();
+        group.shutdownGracefully();
+        serverGroup.shutdownGracefully();
+    }
+
+    @Test
+    public void testAcquireOnCallerEventLoop() throws Exception {
+        CountingChannelPoolHandler handler = new CountingChannelPoolHandler();
+        EventLoopAffineChannelPool pool = new EventLoopAffineChannelPool(bootstrap, handler);
+        try {
+            Channel channel1 = acquire(pool, loop1);
+            Channel channel2 = acquire(pool, loop2);
+            assertSame(loop1, channel1.eventLoop());
+            assertSame(loop2, channel2.eventLoop());
+
+            pool.release(channel1).sync();
+            pool.release(channel2).sync();
+            assertSame(channel1, acquire(pool, loop1));
+            assertSame(channel2, acquire(pool, loop2));
+
+            assertEquals(2, handler.channelCount());
+            assertEquals(4, handler.acquiredCount());
+            assertEquals(2, handler.releasedCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testStealIdleChannel() throws Exception {
+        CountingChannelPoolHandler handler = new CountingChannelPoolHandler();
+        EventLoopAffineChannelPool pool = new EventLoopAffineChannelPool(bootstrap, handler);
+        try {
+            Channel channel = acquire(pool, loop1);
+            pool.release(channel).sync();
+
+            // Nothing is idle on loop2, so the channel of loop1 is used instead of connecting a new one.
+            assertSame(channel, acquire(pool, loop2));
+            assertSame(loop1, channel.eventLoop());
+            pool.release(channel).sync();
+
+            // Released channels go back to the pool of their own EventLoop.
+            assertSame(channel, acquire(pool, loop1));
+            assertEquals(1, handler.channelCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testNoStealing() throws Exception {
+        CountingChannelPoolHandler handler = new CountingChannelPoolHandler();
+        EventLoopAffineChannelPool pool = new EventLoopAffineChannelPool(
+                bootstrap, handler, ChannelHealthChecker.ACTIVE, true, false);
+        try {
+            Channel channel1 = acquire(pool, loop1);
+            pool.release(channel1).sync();
+
+            Channel channel2 = acquire(pool, loop2);
+            assertNotSame(channel1, channel2);
+            assertSame(loop2, channel2.eventLoop());
+            assertEquals(2, handler.channelCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testReleaseTwice() throws Exception {
+        EventLoopAffineChannelPool pool = new EventLoopAffineChannelPool(
+                bootstrap, new CountingChannelPoolHandler());
+        try {
+            Channel channel = acquire(pool, loop1);
+            pool.release(channel).sync();
+            try {
+                pool.release(channel).syncUninterruptibly();
+                fail();
+            } catch (IllegalArgumentException e) {
+                // expected, the channel is closed as well.
+                channel.closeFuture().syncUninterruptibly();
+            }
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testReleaseToOtherPool() throws Exception {
+        EventLoopAffineChannelPool pool1 = new EventLoopAffineChannelPool(
+                bootstrap, new CountingChannelPoolHandler());
+        EventLoopAffineChannelPool pool2 = new EventLoopAffineChannelPool(
+                bootstrap, new CountingChannelPoolHandler());
+        try {
+            Channel channel = acquire(pool1, loop1);
+            try {
+                pool2.release(channel).syncUninterruptibly();
+                fail();
+            } catch (IllegalArgumentException e) {
+                // expected, the channel is closed as well.
+                channel.closeFuture().syncUninterruptibly();
+            }
+        } finally {
+            pool1.close();
+            pool2.close();
+        }
+    }
+
+    @Test
+    public void testChannelPoolMap() throws Exception {
+        final CountingChannelPoolHandler handler = new CountingChannelPoolHandler();
+        AbstractChannelPoolMap<LocalAddress, EventLoopAffineChannelPool> poolMap =
+                new AbstractChannelPoolMap<LocalAddress, EventLoopAffineChannelPool>() {
+            @Override
+            protected EventLoopAffineChannelPool newPool(LocalAddress key) {
+                return new EventLoopAffineChannelPool(bootstrap.clone().remoteAddress(key), handler);
+            }
+        };
+        try {
+            Channel channel = acquire(poolMap.get(ADDR), loop2);
+            assertSame(loop2, channel.eventLoop());
+            poolMap.get(ADDR).release(channel).sync();
+            assertSame(channel, acquire(poolMap.get(ADDR), loop2));
+            assertEquals(1, handler.channelCount());
+        } finally {
+            poolMap.close();
+        }
+    }
+
+    private static Channel acquire(final ChannelPool pool, EventLoop loop) throws Exception {
+        return loop.submit(new Callable<Future<Channel>>() {
+            @Override
+            public Future<Channel> call() {
+                return pool.acquire();
+            }
+        }).sync().getNow().sync().getNow();
+    }
+}